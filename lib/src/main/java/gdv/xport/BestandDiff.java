@@ -0,0 +1,410 @@
+/*
+ * Copyright (c) 2024 by Oli B.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express orimplied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * (c)reated 19.10.2024 by oboehm
+ */
+package gdv.xport;
+
+import gdv.xport.feld.Bezeichner;
+import gdv.xport.feld.Feld;
+import gdv.xport.feld.Version;
+import gdv.xport.io.DatensatzSorter;
+import gdv.xport.io.ImportException;
+import gdv.xport.io.PushbackLineNumberReader;
+import gdv.xport.io.RecordReader;
+import gdv.xport.io.VertragBlock;
+import gdv.xport.io.VertragBlockReader;
+import gdv.xport.satz.Satz;
+import gdv.xport.satz.Teildatensatz;
+import gdv.xport.satz.Vorsatz;
+import gdv.xport.util.SatzTyp;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Die BestandDiff-Klasse vergleicht zwei aufeinanderfolgende
+ * Bestandslieferungen und ermittelt die hinzugekommenen, entfernten und
+ * geaenderten Vertraege.
+ * <p>
+ * Beide Dateien werden dabei parallel nach Versicherungsschein-Nummer
+ * durchlaufen, ohne sie komplett in den Speicher zu laden. Pro Vertrag wird
+ * zunaechst nur der Fingerprint der Records verglichen. Erst wenn sich die
+ * Fingerprints unterscheiden, werden die Saetze beider Seiten angelegt und
+ * Feld fuer Feld verglichen. Ist eine Datei nicht nach
+ * Versicherungsschein-Nummer sortiert, wird sie vorher mit dem
+ * {@link DatensatzSorter} in eine temporaere Datei sortiert.
+ * </p>
+ * <p>
+ * Jede Datei darf nur ein Datenpaket enthalten, da der DatensatzSorter nur
+ * innerhalb eines Datenpakets sortiert und die Satzart-Versionen vom
+ * jeweiligen Vorsatz abhaengen. Beginnt in einer der Dateien ein weiteres
+ * Datenpaket, bricht der Vergleich mit einer {@link ImportException} ab.
+ * Die bis dahin gefundenen Aenderungen wurden dann bereits an den Consumer
+ * uebergeben.
+ * </p>
+ *
+ * @author oboehm
+ * @since 7.2 (19.10.2024)
+ */
+public class BestandDiff {
+
+    private static final Logger LOG = LogManager.getLogger(BestandDiff.class);
+
+    private final DatensatzSorter sorter;
+
+    /**
+     * Legt eine BestandDiff an, die beim Sortieren unsortierter Dateien
+     * hoechstens {@link DatensatzSorter#DEFAULT_MAX_RECORDS} Records im
+     * Speicher haelt.
+     */
+    public BestandDiff() {
+        this(DatensatzSorter.DEFAULT_MAX_RECORDS);
+    }
+
+    /**
+     * Legt eine BestandDiff an, die beim Sortieren unsortierter Dateien
+     * hoechstens die angegebene Anzahl von Records im Speicher haelt.
+     *
+     * @param maxRecords max. Anzahl Records pro Sortier-Lauf
+     */
+    public BestandDiff(int maxRecords) {
+        this.sorter = new DatensatzSorter(maxRecords, DatensatzSorter.Key.VERSICHERUNGSSCHEIN_NUMMER);
+    }
+
+    /**
+     * Vergleicht die beiden Dateien und liefert alle Aenderungen als Liste.
+     * Bei sehr vielen Aenderungen sollte besser
+     * {@link #diff(Path, Path, Consumer)} verwendet werden.
+     *
+     * @param alt alte Bestandsdatei
+     * @param neu neue Bestandsdatei
+     * @return Aenderungen in der Reihenfolge der Versicherungsschein-Nummer
+     * @throws ImportException falls eine Datei mehr als ein Datenpaket enthaelt
+     * @throws IOException bei Lesefehlern
+     */
+    public List<Change> diff(Path alt, Path neu) throws IOException {
+        List<Change> changes = new ArrayList<>();
+        diff(alt, neu, changes::add);
+        return changes;
+    }
+
+    /**
+     * Vergleicht die beiden Dateien und uebergibt jede Aenderung an den
+     * Consumer, sobald sie gefunden wurde.
+     *
+     * @param alt alte Bestandsdatei
+     * @param neu neue Bestandsdatei
+     * @param consumer Empfaenger der Aenderungen
+     * @throws ImportException falls eine Datei mehr als ein Datenpaket enthaelt
+     * @throws IOException bei Lesefehlern
+     */
+    public void diff(Path alt, Path neu, Consumer<Change> consumer) throws IOException {
+        List<Path> tmpFiles = new ArrayList<>();
+        try (Side left = new Side(sorted(alt, tmpFiles)); Side right = new Side(sorted(neu, tmpFiles))) {
+            diff(left, right, consumer);
+        } finally {
+            for (Path tmp : tmpFiles) {
+                Files.deleteIfExists(tmp);
+            }
+        }
+    }
+
+    private Path sorted(Path file, List<Path> tmpFiles) throws IOException {
+        if (sorter.isSorted(file)) {
+            return file;
+        }
+        Path tmp = Files.createTempFile("gdv", ".sorted");
+        tmpFiles.add(tmp);
+        LOG.info("{} ist nicht nach Versicherungsschein-Nummer sortiert und wird nach {} sortiert.", file, tmp);
+        sorter.sort(file, tmp);
+        return tmp;
+    }
+
+    private static void diff(Side left, Side right, Consumer<Change> consumer) throws IOException {
+        VertragBlock a = left.next();
+        VertragBlock b = right.next();
+        while ((a != null) || (b != null)) {
+            int cmp = (a == null) ? 1 : (b == null) ? -1 : a.getKey().compareTo(b.getKey());
+            if (cmp < 0) {
+                consumer.accept(new Change(Change.Type.REMOVED, a, null, Collections.emptyList()));
+                a = left.next();
+            } else if (cmp > 0) {
+                consumer.accept(new Change(Change.Type.ADDED, null, b, Collections.emptyList()));
+                b = right.next();
+            } else {
+                if (!a.getFingerprint().equals(b.getFingerprint())) {
+                    List<FeldDelta> deltas = compare(left.getSaetze(a), right.getSaetze(b));
+                    consumer.accept(new Change(Change.Type.CHANGED, a, b, deltas));
+                }
+                a = left.next();
+                b = right.next();
+            }
+        }
+    }
+
+    private static List<FeldDelta> compare(List<Satz> alt, List<Satz> neu) {
+        Map<String, Satz> neuSaetze = toMap(neu);
+        List<FeldDelta> deltas = new ArrayList<>();
+        for (Map.Entry<String, Satz> entry : toMap(alt).entrySet()) {
+            compare(entry.getValue(), neuSaetze.remove(entry.getKey()), deltas);
+        }
+        for (Satz satz : neuSaetze.values()) {
+            compare(null, satz, deltas);
+        }
+        return deltas;
+    }
+
+    private static Map<String, Satz> toMap(List<Satz> saetze) {
+        Map<String, Satz> map = new LinkedHashMap<>();
+        Map<SatzTyp, Integer> counter = new HashMap<>();
+        for (Satz satz : saetze) {
+            int n = counter.merge(satz.getSatzTyp(), 1, Integer::sum);
+            map.put(satz.getSatzTyp() + "#" + n, satz);
+        }
+        return map;
+    }
+
+    private static void compare(Satz alt, Satz neu, List<FeldDelta> deltas) {
+        SatzTyp satzTyp = (alt == null) ? neu.getSatzTyp() : alt.getSatzTyp();
+        int n = Math.max(getTeildatensaetze(alt).size(), getTeildatensaetze(neu).size());
+        for (int i = 0; i < n; i++) {
+            Map<Integer, Feld> neuFelder = getFelder(getTeildatensaetze(neu), i);
+            for (Feld feld : getFelder(getTeildatensaetze(alt), i).values()) {
+                Feld other = neuFelder.remove(feld.getByteAdresse());
+                String inhalt = (other == null) ? null : other.getInhalt();
+                if (!feld.getInhalt().equals(inhalt)) {
+                    deltas.add(new FeldDelta(satzTyp, i + 1, feld.getBezeichner(), feld.getInhalt(), inhalt));
+                }
+            }
+            for (Feld feld : neuFelder.values()) {
+                deltas.add(new FeldDelta(satzTyp, i + 1, feld.getBezeichner(), null, feld.getInhalt()));
+            }
+        }
+    }
+
+    private static List<Teildatensatz> getTeildatensaetze(Satz satz) {
+        return (satz == null) ? Collections.emptyList() : satz.getTeildatensaetze();
+    }
+
+    private static Map<Integer, Feld> getFelder(List<Teildatensatz> teildatensaetze, int i) {
+        Map<Integer, Feld> felder = new LinkedHashMap<>();
+        if (i < teildatensaetze.size()) {
+            for (Feld feld : teildatensaetze.get(i).getFelder()) {
+                felder.put(feld.getByteAdresse(), feld);
+            }
+        }
+        return felder;
+    }
+
+    /**
+     * Eine Seite des Vergleichs. Die Satzart-Versionen werden aus dem
+     * jeweils aktuellen Vorsatz ermittelt und nur bei einem neuen Vorsatz
+     * neu bestimmt.
+     */
+    private static final class Side implements AutoCloseable {
+
+        private final Path file;
+        private final VertragBlockReader reader;
+        private String lastKey;
+        private List<String> datenpaket;
+        private List<String> vorsatz;
+        private Map<SatzTyp, Version> satzartVersionen;
+
+        private Side(Path file) throws IOException {
+            this.file = file;
+            this.reader = VertragBlockReader.of(file);
+        }
+
+        private VertragBlock next() throws IOException {
+            VertragBlock block = reader.next();
+            if (block != null) {
+                if (datenpaket == null) {
+                    datenpaket = reader.getVorsatz();
+                } else if (reader.getVorsatz() != datenpaket) {
+                    throw new ImportException(file + " enthaelt mehr als ein Datenpaket (vor " + block + ")");
+                }
+                if ((lastKey != null) && (lastKey.compareTo(block.getKey()) > 0)) {
+                    throw new IllegalStateException(file + " is not sorted by VSNR: " + block);
+                }
+                lastKey = block.getKey();
+            }
+            return block;
+        }
+
+        private List<Satz> getSaetze(VertragBlock block) throws IOException {
+            PushbackLineNumberReader lnr = new PushbackLineNumberReader(
+                    new RecordReader(new StringReader(String.join("\n", block.getRecords()))), 256);
+            List<Satz> saetze = new ArrayList<>();
+            Map<SatzTyp, Version> versionen = getSatzartVersionen();
+            for (int c = lnr.read(); c >= 0; c = lnr.read()) {
+                if (!Character.isWhitespace(c)) {
+                    lnr.unread(c);
+                    saetze.add(Datenpaket.importSatz(lnr, versionen));
+                }
+            }
+            return saetze;
+        }
+
+        private Map<SatzTyp, Version> getSatzartVersionen() throws IOException {
+            if (reader.getVorsatz() != vorsatz) {
+                vorsatz = reader.getVorsatz();
+                Vorsatz satz = new Vorsatz();
+                if (!vorsatz.isEmpty()) {
+                    satz.importFrom(String.join("\n", vorsatz));
+                }
+                satzartVersionen = satz.getSatzartVersionen();
+            }
+            return satzartVersionen;
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+
+    }
+
+    /**
+     * Eine Aenderung beschreibt einen hinzugekommenen, entfernten oder
+     * geaenderten Vertrag.
+     */
+    public static final class Change {
+
+        /** Art der Aenderung. */
+        public enum Type {
+            /** Vertrag ist nur in der neuen Datei vorhanden. */
+            ADDED,
+            /** Vertrag ist nur in der alten Datei vorhanden. */
+            REMOVED,
+            /** Vertrag ist in beiden Dateien, aber mit anderem Inhalt. */
+            CHANGED
+        }
+
+        private final Type type;
+        private final VertragBlock alt;
+        private final VertragBlock neu;
+        private final List<FeldDelta> deltas;
+
+        private Change(Type type, VertragBlock alt, VertragBlock neu, List<FeldDelta> deltas) {
+            this.type = type;
+            this.alt = alt;
+            this.neu = neu;
+            this.deltas = Collections.unmodifiableList(deltas);
+        }
+
+        public Type getType() {
+            return type;
+        }
+
+        public String getVersicherungsscheinNummer() {
+            return (alt == null) ? neu.getVersicherungsscheinNummer() : alt.getVersicherungsscheinNummer();
+        }
+
+        /**
+         * Liefert den Vertrag aus der alten Datei.
+         *
+         * @return Vertrag oder null bei {@link Type#ADDED}
+         */
+        public VertragBlock getAlt() {
+            return alt;
+        }
+
+        /**
+         * Liefert den Vertrag aus der neuen Datei.
+         *
+         * @return Vertrag oder null bei {@link Type#REMOVED}
+         */
+        public VertragBlock getNeu() {
+            return neu;
+        }
+
+        /**
+         * Liefert die geaenderten Felder. Nur bei {@link Type#CHANGED} ist
+         * diese Liste gefuellt.
+         *
+         * @return unveraenderliche Liste der Feld-Aenderungen
+         */
+        public List<FeldDelta> getFeldDeltas() {
+            return deltas;
+        }
+
+        @Override
+        public String toString() {
+            return type + " " + getVersicherungsscheinNummer() + " " + deltas;
+        }
+
+    }
+
+    /**
+     * Ein FeldDelta beschreibt ein geaendertes Feld innerhalb eines
+     * Vertrags. Ist ein Satz oder Teildatensatz nur auf einer Seite
+     * vorhanden, ist der Inhalt der anderen Seite null.
+     */
+    public static final class FeldDelta {
+
+        private final SatzTyp satzTyp;
+        private final int teildatensatz;
+        private final Bezeichner bezeichner;
+        private final String alt;
+        private final String neu;
+
+        private FeldDelta(SatzTyp satzTyp, int teildatensatz, Bezeichner bezeichner, String alt, String neu) {
+            this.satzTyp = satzTyp;
+            this.teildatensatz = teildatensatz;
+            this.bezeichner = bezeichner;
+            this.alt = alt;
+            this.neu = neu;
+        }
+
+        public SatzTyp getSatzTyp() {
+            return satzTyp;
+        }
+
+        public int getTeildatensatz() {
+            return teildatensatz;
+        }
+
+        public Bezeichner getBezeichner() {
+            return bezeichner;
+        }
+
+        public String getAlt() {
+            return alt;
+        }
+
+        public String getNeu() {
+            return neu;
+        }
+
+        @Override
+        public String toString() {
+            return satzTyp + "/" + teildatensatz + " " + bezeichner + ": \"" + alt + "\" -> \"" + neu + '"';
+        }
+
+    }
+
+}
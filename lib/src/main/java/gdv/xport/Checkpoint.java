@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2024 by Oli B.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express orimplied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * (c)reated 19.10.2024 by oboehm
+ */
+package gdv.xport;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Ein Checkpoint haelt den Stand eines {@link DatenpaketStreamer}s fest,
+ * damit ein abgebrochener Import spaeter an dieser Stelle wieder aufgenommen
+ * werden kann (siehe {@link DatenpaketStreamer#resume(Checkpoint)}). Dazu
+ * gehoeren die Position des naechsten Records, die Anzahl der bisher
+ * gelesenen Saetze, der Vorsatz (und damit die Satzart-Versionen) des
+ * aktuellen Datenpakets und der Zustand der registrierten Listener.
+ *
+ * @author oboehm
+ * @since 7.2 (19.10.2024)
+ */
+public final class Checkpoint implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long offset;
+    private final long recordNumber;
+    private final String vorsatz;
+    private final ArrayList<Serializable> states;
+
+    Checkpoint(long offset, long recordNumber, String vorsatz, List<Serializable> states) {
+        this.offset = offset;
+        this.recordNumber = recordNumber;
+        this.vorsatz = vorsatz;
+        this.states = new ArrayList<>(states);
+    }
+
+    /**
+     * Liefert die Position des naechsten (noch nicht gelesenen) Records.
+     *
+     * @return Byte-Offset
+     */
+    public long getOffset() {
+        return offset;
+    }
+
+    /**
+     * Liefert die Anzahl der Saetze, die bis zu diesem Checkpoint an die
+     * Listener weitergegeben wurden.
+     *
+     * @return Anzahl der Saetze (inkl. Vor- und Nachsatz)
+     */
+    public long getRecordNumber() {
+        return recordNumber;
+    }
+
+    /**
+     * Liefert den Inhalt des Vorsatzes, falls der Checkpoint innerhalb eines
+     * Datenpakets liegt.
+     *
+     * @return Vorsatz oder null (zwischen zwei Datenpaketen)
+     */
+    public String getVorsatz() {
+        return vorsatz;
+    }
+
+    /**
+     * Liefert true, wenn der Checkpoint innerhalb eines Datenpakets liegt.
+     *
+     * @return true oder false
+     */
+    public boolean isInDatenpaket() {
+        return vorsatz != null;
+    }
+
+    /**
+     * Liefert den Zustand der Listener in der Reihenfolge ihrer Registrierung
+     * (siehe {@link gdv.xport.event.ImportListener#getCheckpointState()}).
+     *
+     * @return Liste mit Zustaenden (mit null fuer Listener ohne Zustand)
+     */
+    public List<Serializable> getStates() {
+        return Collections.unmodifiableList(states);
+    }
+
+    /**
+     * Speichert den Checkpoint in der angegebenen Datei. Dazu wird er erst
+     * in eine temporaere Datei geschrieben, die dann umbenannt wird. Damit
+     * bleibt bei einem Absturz waehrend des Speicherns der alte Checkpoint
+     * erhalten.
+     *
+     * @param file Datei
+     * @throws IOException bei Schreibfehlern
+     */
+    public void save(Path file) throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (OutputStream ostream = Files.newOutputStream(tmp);
+             ObjectOutputStream out = new ObjectOutputStream(ostream)) {
+            out.writeObject(this);
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Laedt einen (mit {@link #save(Path)} gespeicherten) Checkpoint.
+     *
+     * @param file Datei
+     * @return Checkpoint
+     * @throws IOException bei Lesefehlern
+     */
+    public static Checkpoint load(Path file) throws IOException {
+        try (InputStream istream = Files.newInputStream(file);
+             ObjectInputStream in = new ObjectInputStream(istream)) {
+            return (Checkpoint) in.readObject();
+        } catch (ClassNotFoundException | ClassCastException ex) {
+            InvalidObjectException ioe = new InvalidObjectException("no Checkpoint in " + file);
+            ioe.initCause(ex);
+            throw ioe;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "Checkpoint at " + offset + " after " + recordNumber + " Saetze";
+    }
+
+}
@@ -14,13 +14,16 @@ package gdv.xport;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import gdv.xport.config.Config;
+import gdv.xport.event.FolgenummerValidator;
 import gdv.xport.event.ImportListener;
 import gdv.xport.event.SatzValidator;
 import gdv.xport.feld.*;
 import gdv.xport.io.*;
 import gdv.xport.satz.Datensatz;
 import gdv.xport.satz.Nachsatz;
+import gdv.xport.satz.Projection;
 import gdv.xport.satz.Satz;
+import gdv.xport.satz.SatzPacker;
 import gdv.xport.satz.Vorsatz;
 import gdv.xport.util.*;
 import net.sf.oval.ConstraintViolation;
@@ -31,8 +34,16 @@ import org.apache.logging.log4j.Logger;
 import java.io.*;
 import java.net.URI;
 import java.net.URL;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Function;
+import java.util.function.Predicate;
 
 /**
  * Ein Datenpaket besteht aus {@link Vorsatz}, mehrere {@link Datensatz}-Elementen
@@ -48,6 +59,8 @@ public class Datenpaket implements ImportListener {
     private final List<Datensatz> datensaetze = new ArrayList<>();
     private final Config config;
     private Nachsatz nachsatz;
+    private DatenpaketIndex index;
+    private Projection projection;
 
     /**
      * Wenn man den Default-Konstruktor verwendet, sollte man vorher die
@@ -118,6 +131,74 @@ public class Datenpaket implements ImportListener {
         return datenpaket;
     }
 
+    /**
+     * Verarbeitet alle Datenpakete der angegebenen Datei parallel (siehe
+     * {@link #processAll(Path, Charset, Function, ForkJoinPool)}).
+     *
+     * @param file GDV-Datei mit einem oder mehreren Datenpaketen
+     * @param task Verarbeitung eines Datenpakets (z.B. Validierung)
+     * @param pool Pool fuer die Verarbeitung, z.B. {@link ForkJoinPool#commonPool()}
+     * @param <T>  Typ des Ergebnisses
+     * @return die Ergebnisse in der Reihenfolge der Datenpakete
+     * @throws IOException bei Lesefehlern
+     * @since 7.2
+     */
+    public static <T> List<T> processAll(Path file, Function<Datenpaket, T> task, ForkJoinPool pool)
+            throws IOException {
+        return processAll(file, Config.DEFAULT_ENCODING, task, pool);
+    }
+
+    /**
+     * Verarbeitet alle Datenpakete der angegebenen Datei parallel. Dazu
+     * werden zuerst ueber den {@link DatenpaketScanner} die Grenzen der
+     * einzelnen Datenpakete bestimmt. Danach wird jedes Datenpaket im
+     * angegebenen Pool unabhaengig von den anderen importiert und verarbeitet.
+     * Die Ergebnisse kommen dabei in der Reihenfolge der Datei zurueck.
+     *
+     * @param file     GDV-Datei mit einem oder mehreren Datenpaketen
+     * @param encoding Encoding der Datei (ein Byte pro Zeichen, z.B. ISO-8859-1)
+     * @param task     Verarbeitung eines Datenpakets (z.B. Validierung)
+     * @param pool     Pool fuer die Verarbeitung, z.B. {@link ForkJoinPool#commonPool()}
+     * @param <T>      Typ des Ergebnisses
+     * @return die Ergebnisse in der Reihenfolge der Datenpakete
+     * @throws IOException bei Lesefehlern
+     * @since 7.2
+     */
+    public static <T> List<T> processAll(Path file, Charset encoding, Function<Datenpaket, T> task,
+                                         ForkJoinPool pool) throws IOException {
+        List<DatenpaketScanner.Segment> segments = DatenpaketScanner.scan(file);
+        List<T> results = new ArrayList<>(segments.size());
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            List<ForkJoinTask<T>> tasks = new ArrayList<>(segments.size());
+            for (DatenpaketScanner.Segment segment : segments) {
+                tasks.add(pool.submit(() -> {
+                    byte[] bytes = segment.read(channel);
+                    Datenpaket datenpaket = new Datenpaket();
+                    datenpaket.importFrom(new InputStreamReader(new ByteArrayInputStream(bytes), encoding));
+                    return task.apply(datenpaket);
+                }));
+            }
+            try {
+                for (ForkJoinTask<T> t : tasks) {
+                    results.add(t.get());
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("processing of " + file + " was interrupted");
+            } catch (ExecutionException ex) {
+                tasks.forEach(t -> t.cancel(false));
+                Throwable cause = ex.getCause();
+                if (cause instanceof IOException) {
+                    throw (IOException) cause;
+                } else if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                throw new IllegalStateException("processing of " + file + " failed", cause);
+            }
+        }
+        return results;
+    }
+
     /**
      * Legt ein Datenpaket mit den angegebenen Datensaetze an.
      *
@@ -197,6 +278,9 @@ public class Datenpaket implements ImportListener {
      * @since 5.2
      */
     public List<Datensatz> getDatensaetze(SatzTyp typ) {
+        if (index != null) {
+            return DatenpaketIndex.select(datensaetze, index.getPositions(typ));
+        }
         List<Datensatz> saetze = new ArrayList<>();
         for (Datensatz ds : datensaetze) {
             if (typ.equals(ds.getSatzTyp())) {
@@ -206,6 +290,112 @@ public class Datenpaket implements ImportListener {
         return saetze;
     }
 
+    /**
+     * Liefert die Liste der Datensaetze zurueck, die zur uebergebenen
+     * Versicherungsscheinnummer gehoeren. Mit {@link #withIndex()} erfolgt
+     * der Zugriff ueber den Index, ansonsten werden alle Datensaetze
+     * durchsucht.
+     *
+     * @param vsnr Versicherungsscheinnummer
+     * @return Liste von Datensaetzen
+     * @since 7.2
+     */
+    public List<Datensatz> getDatensaetzeByVersicherungsscheinNummer(String vsnr) {
+        if (index != null) {
+            return DatenpaketIndex.select(datensaetze, index.getPositions(vsnr));
+        }
+        String nr = vsnr.trim();
+        List<Datensatz> saetze = new ArrayList<>();
+        for (Datensatz ds : datensaetze) {
+            if (nr.equals(ds.getVersicherungsscheinNummer())) {
+                saetze.add(ds);
+            }
+        }
+        return saetze;
+    }
+
+    /**
+     * Liefert die Liste der Datensaetze zurueck, die zur uebergebenen
+     * Sparte gehoeren. Datensaetze ohne Sparte (z.B. Satzart 0100) oder mit
+     * leerer bzw. ungueltiger Sparte werden dabei nicht beruecksichtigt.
+     *
+     * @param sparte Sparte (z.B. 30 fuer Unfall)
+     * @return Liste von Datensaetzen
+     * @since 7.2
+     */
+    public List<Datensatz> getDatensaetzeBySparte(int sparte) {
+        if (index != null) {
+            return DatenpaketIndex.select(datensaetze, index.getPositions(sparte));
+        }
+        List<Datensatz> saetze = new ArrayList<>();
+        for (Datensatz ds : datensaetze) {
+            if ((sparte != DatenpaketIndex.NO_SPARTE) && (DatenpaketIndex.getSparte(ds) == sparte)) {
+                saetze.add(ds);
+            }
+        }
+        return saetze;
+    }
+
+    /**
+     * Schaltet den Index nach SatzTyp, Versicherungsscheinnummer und Sparte
+     * ein. Er wird danach beim Hinzufuegen und Importieren von Datensaetzen
+     * mitgefuehrt, sodass {@link #getDatensaetze(SatzTyp)},
+     * {@link #getDatensaetzeByVersicherungsscheinNummer(String)} und
+     * {@link #getDatensaetzeBySparte(int)} nicht mehr alle Datensaetze
+     * durchsuchen muessen. Wer die Versicherungsscheinnummer oder Sparte
+     * eines Datensatzes nachtraeglich aendert, muss diese Methode erneut
+     * aufrufen, damit der Index neu aufgebaut wird.
+     *
+     * @return das Datenpaket selbst zur Weiterverarbeitung
+     * @since 7.2
+     */
+    public Datenpaket withIndex() {
+        if (index == null) {
+            index = new DatenpaketIndex();
+        }
+        index.rebuild(datensaetze);
+        return this;
+    }
+
+    /**
+     * Mit einer {@link Projection} werden beim Import nur die gewuenschten
+     * Felder der einzelnen SatzTypen angelegt und befuellt. Die anderen
+     * Felder stehen in den importierten Datensaetzen nicht zur Verfuegung.
+     *
+     * @param projection die gewuenschten Felder pro SatzTyp
+     * @return das Datenpaket selbst zur Weiterverarbeitung
+     * @since 7.2
+     */
+    public Datenpaket withProjection(Projection projection) {
+        this.projection = projection;
+        return this;
+    }
+
+    /**
+     * Liefert true, wenn der Index (siehe {@link #withIndex()}) eingeschaltet
+     * ist.
+     *
+     * @return true, wenn mit Index
+     * @since 7.2
+     */
+    public boolean isIndexed() {
+        return index != null;
+    }
+
+    private void addDatensatz(Datensatz datensatz) {
+        datensaetze.add(datensatz);
+        if (index != null) {
+            index.add(datensatz, datensaetze.size() - 1);
+        }
+    }
+
+    private void clearDatensaetze() {
+        datensaetze.clear();
+        if (index != null) {
+            index.clear();
+        }
+    }
+
     /**
      * Gets the saetze.
      *
@@ -227,6 +417,9 @@ public class Datenpaket implements ImportListener {
     public void setDatensaetze(final List<Datensatz> datensaetze) {
         this.datensaetze.clear();
         this.datensaetze.addAll(datensaetze);
+        if (index != null) {
+            index.rebuild(this.datensaetze);
+        }
     }
 
     /**
@@ -273,7 +466,7 @@ public class Datenpaket implements ImportListener {
                     .getGdvSatzartName()) ? "Einen Vorsatz gibt es bereits!"
                     : "Einen Nachsatz gibt es bereits!");
         preset(datensatz);
-        datensaetze.add(datensatz);
+        addDatensatz(datensatz);
         vorsatz.setVersion(datensatz);
         if (datensatz.getSatzTyp().equals(SatzTyp.of(200))) {
             setNachsatzSummenAus0200(datensatz);
@@ -425,9 +618,45 @@ public class Datenpaket implements ImportListener {
      * @throws IOException falls was schiefgelaufen ist
      */
     public Datenpaket importFrom(final Reader reader) throws IOException {
+        return importFrom(reader, null);
+    }
+
+    /**
+     * Importiert von einem {@link InputStream}, wobei nur die Datensaetze
+     * uebernommen werden, deren Kopf-Felder (Satzart, VU-Nummer, Sparte,
+     * Versicherungsscheinnummer, Vermittler) zum uebergebenen Filter passen.
+     * Die anderen Datensaetze werden bereits beim Lesen uebersprungen, ohne
+     * dass dafuer ein Satz angelegt wird.
+     * <p>
+     * Beispiel: {@code importFrom(istream, h -> h.getSparte() == 30)}
+     * </p>
+     *
+     * @param istream z.B. Sytem.in
+     * @param filter  Filter fuer die Kopf-Felder
+     * @return das Datenpaket zur Weiterverabeitung
+     * @throws IOException falls es Fehler beim Lesen gibt
+     * @since 7.2
+     */
+    public Datenpaket importFrom(final InputStream istream, final Predicate<RecordHeader> filter) throws IOException {
+        Reader reader = new RecyclingInputStreamReader(istream, Config.DEFAULT_ENCODING);
+        return importFrom(reader, filter);
+    }
+
+    /**
+     * Import von einem {@link Reader}, wobei nur die Datensaetze uebernommen
+     * werden, deren Kopf-Felder zum uebergebenen Filter passen (siehe
+     * {@link #importFrom(InputStream, Predicate)}).
+     *
+     * @param reader hiervon wird importiert
+     * @param filter Filter fuer die Kopf-Felder (oder null fuer alle Saetze)
+     * @return das Datenpaket zur Weiterverabeitung
+     * @throws IOException falls was schiefgelaufen ist
+     * @since 7.2
+     */
+    public Datenpaket importFrom(final Reader reader, final Predicate<RecordHeader> filter) throws IOException {
         PushbackLineNumberReader lnr = new PushbackLineNumberReader(new RecordReader(reader), 256);
         try {
-            return importFrom(lnr);
+            return importFrom(lnr, filter);
         } catch (EOFException eofe) {
             throw new ExtendedEOFException("line " + lnr.getLineNumber() + ": " + eofe.getMessage(), eofe);
         } catch (IOException ioe) {
@@ -450,15 +679,23 @@ public class Datenpaket implements ImportListener {
      * @throws IOException falls was schief gelaufen ist
      */
     public Datenpaket importFrom(final PushbackLineNumberReader reader) throws IOException {
+        return importFrom(reader, null);
+    }
+
+    private Datenpaket importFrom(final PushbackLineNumberReader reader, final Predicate<RecordHeader> filter)
+            throws IOException {
         this.vorsatz.importFrom(reader);
         Map<SatzTyp, Version> satzartVersionen = this.vorsatz.getSatzartVersionen();
         while (true) {
-            Satz satz = importSatz(reader, satzartVersionen);
+            if (filter != null) {
+                Importer.of(reader).skipRecords(filter);
+            }
+            Satz satz = importSatz(reader, satzartVersionen, projection);
             if (satz.getSatzart() == 9999) {
                 this.nachsatz = (Nachsatz) satz;
                 break;
             }
-            datensaetze.add((Datensatz) satz);
+            addDatensatz((Datensatz) satz);
         }
         return this;
     }
@@ -473,20 +710,42 @@ public class Datenpaket implements ImportListener {
      * @throws IOException falls was schief gelaufen ist
      */
     protected static Satz importSatz(PushbackLineNumberReader reader, Map<SatzTyp, Version> satzartVersionen) throws IOException {
+        return importSatz(reader, satzartVersionen, null);
+    }
+
+    /**
+     * Wie {@link #importSatz(PushbackLineNumberReader, Map)}, nur dass bei
+     * einer uebergebenen {@link Projection} nur die gewuenschten Felder
+     * angelegt und befuellt werden.
+     *
+     * @param reader PushbackReader mit einem Puffer von mind. 14 Zeichen
+     * @param satzartVersionen Satz-Versionen aus dem Vorsatz
+     * @param projection gewuenschte Felder (oder null fuer alle Felder)
+     * @return der importierte Satz
+     * @throws IOException falls was schief gelaufen ist
+     * @since 7.2
+     */
+    protected static Satz importSatz(PushbackLineNumberReader reader, Map<SatzTyp, Version> satzartVersionen,
+                                     Projection projection) throws IOException {
         int satzart = Importer.of(reader).readSatzart();
         LOG.debug("Satzart {} wird importiert...", satzart);
         if (satzart == 9999) {
             return importNachsatzFrom(reader);
         } else {
-            return importSatzFrom(reader, satzart, satzartVersionen);
+            return importSatzFrom(reader, satzart, satzartVersionen, projection);
         }
     }
 
     private static Satz importSatzFrom(PushbackLineNumberReader reader, int satzart,
-                                       Map<SatzTyp, Version> satzartVersionen) throws IOException {
+                                       Map<SatzTyp, Version> satzartVersionen, Projection projection)
+            throws IOException {
         SatzTyp satzTyp = Importer.of(reader).readSatzTyp(satzart);
         Version wanted = satzartVersionen.get(satzTyp);
-        if (wanted == null) {
+        if ((projection != null) && projection.isProjected(satzTyp)) {
+            Satz satz = projection.getSatz(satzTyp, (wanted == null) ? null : wanted.getInhalt());
+            satz.importFrom(reader);
+            return satz;
+        } else if (wanted == null) {
             return importDatensatz(reader, satzart);
         } else {
             Satz satz = SatzRegistry.getSatz(satzTyp, satzartVersionen.get(satzTyp).getInhalt());
@@ -593,58 +852,23 @@ public class Datenpaket implements ImportListener {
      * Diese Version wurde mit Issue #62 eingefuehrt. Naehere Infos siehe
      * https://github.com/oboehm/gdv.xport/issues/62.
      * </p>
+     * <p>
+     * Seit 7.2 werden die Datensaetze dabei nur noch einmal durchlaufen
+     * (siehe {@link SatzPacker}).
+     * </p>
      *
      * @return das Datenpaket selbst zur Weiterverarbeitung
      * @since 5.2
      */
     public Datenpaket pack() {
-        for (int i = 0; i < datensaetze.size(); i++) {
-            Datensatz ds = datensaetze.get(i);
-            if (ds.getTeildatensaetze().size() == 0) {
-                // keine Teildatensaetze, evtl. bereits gemergt, uebergehe den Datensatz
-                continue;
-            }
-            boolean nextVsnrReached = false;
-            for (int j = i+1; j < datensaetze.size() && !ds.isComplete() && !nextVsnrReached; j++) {
-                Optional<Datensatz> next = findNextDatensatzWithinVsnr(ds.getVersicherungsscheinNummer(), ds.getSatzTyp(), j);
-                next.ifPresent(ds::mergeWith);
-                if (!next.isPresent()) {
-                    nextVsnrReached = true;
-                }
-            }
-        }
-        removeEmptyDatensaetze();
-        return this;
-    }
-
-    private void removeEmptyDatensaetze() {
-        List<Datensatz> cleaned = new ArrayList<>();
+        SatzPacker packer = new SatzPacker();
         for (Datensatz ds : datensaetze) {
-            if (ds.getNumberOfTeildatensaetze() > 0) {
-                cleaned.add(ds);
-            }
+            packer.add(ds);
         }
-        datensaetze.clear();
-        datensaetze.addAll(cleaned);
-    }
-
-    private Optional<Datensatz> findNextDatensatzWithinVsnr(String vsNr, SatzTyp satzTyp, int position) {
-        for (int i = position; i < datensaetze.size(); i++) {
-            Datensatz ds = datensaetze.get(i);
-            if (ds.getTeildatensaetze().size() == 0) {
-                // keine Teildatensätze, evtl. bereits gemergt, übergehe den Datensatz
-                continue;
-            }
-            if (!ds.getVersicherungsscheinNummer().equals(vsNr)) {
-                // Versicherungsscheinnummer hat geändert, fertig
-                break;
-            }
-            if (satzTyp.equals(ds.getSatzTyp())) {
-                // Potentieller Datensatz gefunden, fertig
-                return Optional.of(ds);
-            }
+        if (datensaetze.removeIf(ds -> ds.getNumberOfTeildatensaetze() == 0) && (index != null)) {
+            index.rebuild(datensaetze);
         }
-        return Optional.empty();
+        return this;
     }
 
     /**
@@ -792,8 +1016,33 @@ public class Datenpaket implements ImportListener {
             satzValidator.notice(datensatz);
         }
         satzValidator.notice(this.nachsatz);
+        return validate(satzValidator, validationConfig);
+    }
+
+    /**
+     * Validiert die einzelnen Datensaetze parallel ueber den angegebenen
+     * {@link ForkJoinPool}. Das Ergebnis ist das gleiche wie bei
+     * {@link #validate(Config)}, d.h. die Verletzungen kommen in der
+     * gleichen Reihenfolge wie die Datensaetze.
+     *
+     * @param validationConfig z.B. {@link Config#STRICT}
+     * @param pool             Pool fuer die Validierung, z.B.
+     *                         {@link ForkJoinPool#commonPool()}
+     * @return Liste der ConstraintViolations
+     * @since 7.2
+     */
+    public List<ConstraintViolation> validate(Config validationConfig, ForkJoinPool pool) {
+        SatzValidator satzValidator = new SatzValidator(validationConfig);
+        satzValidator.notice(this.vorsatz);
+        satzValidator.noticeAll(this.datensaetze, pool);
+        satzValidator.notice(this.nachsatz);
+        return validate(satzValidator, validationConfig);
+    }
+
+    private List<ConstraintViolation> validate(SatzValidator satzValidator, Config validationConfig) {
         List<ConstraintViolation> violations = satzValidator.getViolations();
         violations.addAll(validateVUNummer());
+        violations.addAll(validateFolgenummern());
         violations.addAll(this.nachsatz.validate(validationConfig));
         return violations;
     }
@@ -819,26 +1068,7 @@ public class Datenpaket implements ImportListener {
      * @since 0.3
      */
     private List<ConstraintViolation> validateFolgenummern() {
-        List<ConstraintViolation> violations = new ArrayList<>();
-        Map<String, Integer> folgenummern = new HashMap<>();
-        for (Datensatz datensatz : this.datensaetze) {
-            String nr = datensatz.getVersicherungsscheinNummer().trim();
-            String key = nr + datensatz.getSatzartFeld().getInhalt() + datensatz.getSparteFeld().getInhalt();
-            Integer expected = folgenummern.computeIfAbsent(key, k -> 1);
-            int folgenr = datensatz.getFolgenummer();
-            if (folgenr == expected) {
-                continue;
-            }
-            expected++;
-            folgenummern.put(key, expected);
-            if (folgenr != expected) {
-                ConstraintViolation cv =
-                        new SimpleConstraintViolation("falsche Folgenummer (erwartet: " + expected + ")", datensatz,
-                                folgenr);
-                violations.add(cv);
-            }
-        }
-        return violations;
+        return new FolgenummerValidator().validate(this.datensaetze);
     }
 
     /*
@@ -910,7 +1140,7 @@ public class Datenpaket implements ImportListener {
         try {
             if (satz.getSatzart() == 1) {
                 LOG.info("Vorsatz {} wurde erkannt - {} wird zurueckgesetzt.", satz,this);
-                this.datensaetze.clear();
+                clearDatensaetze();
                 this.vorsatz.importFrom(satz.toLongString());
             } else if (satz.getSatzart() == 9999) {
                 this.nachsatz.importFrom(satz.toLongString());
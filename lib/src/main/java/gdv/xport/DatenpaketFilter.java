@@ -0,0 +1,340 @@
+/*
+ * Copyright (c) 2024 by Oli B.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express orimplied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * (c)reated 19.10.2024 by oboehm
+ */
+package gdv.xport;
+
+import gdv.xport.config.Config;
+import gdv.xport.feld.Version;
+import gdv.xport.io.Importer;
+import gdv.xport.io.PushbackLineNumberReader;
+import gdv.xport.io.RecordHeader;
+import gdv.xport.io.RecordReader;
+import gdv.xport.satz.Nachsatz;
+import gdv.xport.satz.NachsatzSummen;
+import gdv.xport.satz.Vorsatz;
+import gdv.xport.util.SatzTyp;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Der DatenpaketFilter kopiert die Datensaetze einer GDV-Datei, die dem
+ * uebergebenen Filter entsprechen, unveraendert in eine neue Datei. Fuer
+ * die Entscheidung wird nur der Kopf (Satzart, VU-Nummer, Sparte, VSNR,
+ * Vermittler) des ersten Teildatensatzes ueber einen {@link RecordHeader}
+ * betrachtet; die weiteren Teildatensaetze eines Datensatzes werden immer
+ * mit uebernommen oder verworfen.
+ * <p>
+ * Die Records werden dabei weder dekodiert noch als Satz angelegt. Stattdessen
+ * werden zusammenhaengende Bereiche ueber
+ * {@link FileChannel#transferTo(long, long, java.nio.channels.WritableByteChannel)}
+ * direkt in die Ausgabe uebertragen. Der Vorsatz wird ebenfalls kopiert,
+ * nur der Nachsatz wird neu berechnet. Fuer dessen Summen wird bei den
+ * Satzarten 0200, 0400 und 0500 der Satz doch angelegt; wird das ueber
+ * {@link #withSummen(boolean)} abgeschaltet, wird nur die Anzahl der Saetze
+ * gezaehlt.
+ * </p>
+ * <p>
+ * Wie beim {@link gdv.xport.io.DatenpaketScanner} wird mit Byte-Offsets
+ * gearbeitet. Daher funktioniert der Filter nur mit Encodings, bei denen
+ * ein Zeichen einem Byte entspricht (wie ISO-8859-1 oder IBM850).
+ * </p>
+ *
+ * @author oboehm
+ * @since 7.2 (19.10.2024)
+ */
+public class DatenpaketFilter {
+
+    private static final Logger LOG = LogManager.getLogger(DatenpaketFilter.class);
+    private static final int BUFFER_SIZE = 0x100000;
+
+    private final Predicate<RecordHeader> filter;
+    private final String eod = Config.getInstance().getProperty("gdv.eod", System.lineSeparator());
+    private boolean summen = true;
+
+    /**
+     * Legt einen DatenpaketFilter an.
+     *
+     * @param filter entscheidet anhand des Kopfs, ob ein Datensatz kopiert wird
+     */
+    public DatenpaketFilter(Predicate<RecordHeader> filter) {
+        this.filter = filter;
+    }
+
+    /**
+     * Legt fest, ob im Nachsatz auch die Summen (Beitraege, Leistungen, ...)
+     * neu berechnet werden. Ohne Summen wird nur die Anzahl der Saetze
+     * gesetzt, dafuer wird aber auch kein einziger Satz angelegt.
+     *
+     * @param flag false, falls nur die Anzahl gezaehlt werden soll
+     * @return sich selbst (fuer die Verkettung)
+     */
+    public DatenpaketFilter withSummen(boolean flag) {
+        this.summen = flag;
+        return this;
+    }
+
+    /**
+     * Kopiert die passenden Datensaetze aus der Eingabe in die Ausgabe. Enthaelt
+     * die Eingabe mehrere Datenpakete, bekommt jedes Datenpaket seinen
+     * eigenen (neu berechneten) Nachsatz.
+     *
+     * @param input GDV-Datei
+     * @param output Ausgabe-Datei (wird ggf. ueberschrieben)
+     * @return Anzahl der kopierten Saetze (Teildatensaetze) ohne Vor- und Nachsatz
+     * @throws IOException bei Lese- oder Schreibfehlern
+     */
+    public long filter(Path input, Path output) throws IOException {
+        try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                     StandardOpenOption.TRUNCATE_EXISTING)) {
+            long n = new Run(in, out).filter();
+            LOG.debug("{} Saetze aus {} nach {} kopiert.", n, input, output);
+            return n;
+        }
+    }
+
+    /**
+     * Ein Durchlauf durch die Eingabe. Kopiert wird immer ab dem Beginn
+     * eines ausgewaehlten Records bis zum Beginn des naechsten nicht
+     * ausgewaehlten Records, sodass die Zeilenenden mit uebertragen werden.
+     */
+    private final class Run {
+
+        private final FileChannel in;
+        private final FileChannel out;
+        private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        private final char[] record = new char[256];
+        private final char[] previous = new char[256];
+        private int previousSatzart = -1;
+        private long position;
+        private boolean newline;
+        private boolean pendingNewline;
+        private boolean outputNewline = true;
+        private long copyStart = -1;
+        private boolean selected;
+        private boolean inDatenpaket;
+        private final List<String> vorsatz = new ArrayList<>();
+        private Map<SatzTyp, Version> satzartVersionen = Collections.emptyMap();
+        private final List<String> datensatz = new ArrayList<>();
+        private final NachsatzSummen nachsatzSummen = new NachsatzSummen();
+        private long copied;
+
+        private Run(FileChannel in, FileChannel out) {
+            this.in = in;
+            this.out = out;
+            buffer.flip();
+        }
+
+        private long filter() throws IOException {
+            while (true) {
+                int c = skipNewlines();
+                if (c < 0) {
+                    break;
+                }
+                long recordStart = position - 1;
+                readRecord(c);
+                handleRecord(recordStart);
+            }
+            stopCopy(position);
+            if (inDatenpaket) {
+                writeNachsatz();
+            }
+            return copied;
+        }
+
+        private void handleRecord(long recordStart) throws IOException {
+            RecordHeader header = new RecordHeader(record);
+            int satzart = header.getSatzart();
+            if (satzart == 1) {
+                if (previousSatzart != 1) {
+                    startDatenpaket(recordStart);
+                }
+                vorsatz.add(new String(record));
+                startCopy(recordStart);
+            } else if (satzart == 9999) {
+                stopCopy(recordStart);
+                if (inDatenpaket) {
+                    writeNachsatz();
+                }
+                inDatenpaket = false;
+            } else {
+                if (previousSatzart == 1) {
+                    satzartVersionen = parseVorsatz();
+                }
+                inDatenpaket = true;
+                if (!Importer.isTeildatensatzOf(previous, record)) {
+                    completeDatensatz();
+                    selected = filter.test(header);
+                }
+                if (selected) {
+                    startCopy(recordStart);
+                    addRecord(satzart);
+                } else {
+                    stopCopy(recordStart);
+                }
+            }
+            System.arraycopy(record, 0, previous, 0, record.length);
+            previousSatzart = satzart;
+        }
+
+        private void startDatenpaket(long recordStart) throws IOException {
+            if (inDatenpaket) {
+                stopCopy(recordStart);
+                writeNachsatz();
+            }
+            vorsatz.clear();
+            satzartVersionen = Collections.emptyMap();
+            nachsatzSummen.reset();
+            inDatenpaket = true;
+        }
+
+        private void addRecord(int satzart) {
+            copied++;
+            if (summen && ((satzart == 200) || (satzart == 400) || (satzart == 500))) {
+                datensatz.add(new String(record));
+            } else {
+                nachsatzSummen.addAnzahlSaetze(1);
+            }
+        }
+
+        private void completeDatensatz() throws IOException {
+            if (datensatz.isEmpty()) {
+                return;
+            }
+            PushbackLineNumberReader reader = new PushbackLineNumberReader(
+                    new RecordReader(new StringReader(String.join("\n", datensatz))), 256);
+            nachsatzSummen.add(Datenpaket.importSatz(reader, satzartVersionen));
+            datensatz.clear();
+        }
+
+        private Map<SatzTyp, Version> parseVorsatz() throws IOException {
+            Vorsatz v = new Vorsatz();
+            v.importFrom(String.join("", vorsatz));
+            return v.getSatzartVersionen();
+        }
+
+        private void writeNachsatz() throws IOException {
+            completeDatensatz();
+            Nachsatz nachsatz = new Nachsatz();
+            nachsatzSummen.setTo(nachsatz);
+            if (!vorsatz.isEmpty()) {
+                String vermittler = vorsatz.get(0).substring(32, 42).trim();
+                if (!vermittler.isEmpty()) {
+                    nachsatz.setVermittler(vermittler);
+                }
+            }
+            StringWriter writer = new StringWriter();
+            if (!outputNewline) {
+                writer.write(eod);
+            }
+            nachsatz.export(writer, eod);
+            ByteBuffer bytes = ByteBuffer.wrap(writer.toString().getBytes(Config.DEFAULT_ENCODING));
+            while (bytes.hasRemaining()) {
+                out.write(bytes);
+            }
+            outputNewline = true;
+            nachsatzSummen.reset();
+            selected = false;
+        }
+
+        private void startCopy(long recordStart) {
+            if (copyStart < 0) {
+                copyStart = recordStart;
+            }
+        }
+
+        private void stopCopy(long end) throws IOException {
+            if (copyStart < 0) {
+                return;
+            }
+            long pos = copyStart;
+            while (pos < end) {
+                long n = in.transferTo(pos, end - pos, out);
+                if (n <= 0) {
+                    throw new EOFException("cannot transfer bytes " + pos + ".." + end);
+                }
+                pos += n;
+            }
+            copyStart = -1;
+            outputNewline = newline;
+        }
+
+        private int read() throws IOException {
+            while (!buffer.hasRemaining()) {
+                buffer.clear();
+                int n = in.read(buffer);
+                buffer.flip();
+                if (n < 0) {
+                    return -1;
+                }
+            }
+            position++;
+            return buffer.get() & 0xFF;
+        }
+
+        private int skipNewlines() throws IOException {
+            int c = read();
+            newline = pendingNewline;
+            pendingNewline = false;
+            while ((c == '\n') || (c == '\r')) {
+                newline = true;
+                c = read();
+            }
+            return c;
+        }
+
+        /**
+         * Liest einen Record (bis Byte 256 oder bis zum Zeilenende, falls der
+         * Record gekuerzt wurde). Fehlende Zeichen werden mit Leerzeichen
+         * aufgefuellt.
+         */
+        private void readRecord(int first) throws IOException {
+            record[0] = (char) first;
+            int n = 1;
+            for (; n < 256; n++) {
+                int c = read();
+                if ((c < 0) || (c == '\n') || (c == '\r')) {
+                    if (n < 4) {
+                        throw new EOFException("incomplete record at position " + position);
+                    }
+                    pendingNewline = c >= 0;
+                    break;
+                }
+                record[n] = (char) c;
+            }
+            for (; n < 256; n++) {
+                record[n] = ' ';
+            }
+        }
+
+    }
+
+}
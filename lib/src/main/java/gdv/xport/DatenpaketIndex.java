@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 2024 by Oli B.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express orimplied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * (c)reated 19.10.2024 by oboehm
+ */
+package gdv.xport;
+
+import gdv.xport.feld.ByteAdresse;
+import gdv.xport.satz.Datensatz;
+import gdv.xport.util.SatzTyp;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Der DatenpaketIndex ist ein (optionaler) Sekundaer-Index fuer die
+ * Datensaetze eines {@link Datenpaket}s nach SatzTyp,
+ * Versicherungsscheinnummer und Sparte. Pro Schluessel werden nur die
+ * Positionen der Datensaetze in einem wachsenden int-Array abgelegt, nicht
+ * die Datensaetze selbst.
+ * <p>
+ * Der Index wird vom Datenpaket beim Hinzufuegen der Datensaetze
+ * mitgefuehrt. Werden Versicherungsscheinnummer oder Sparte eines
+ * Datensatzes nachtraeglich geaendert, muss er neu aufgebaut werden
+ * ({@link #rebuild(List)}).
+ * </p>
+ * <p>
+ * Die Sparte wird direkt aus dem Inhalt des Sparten-Felds (Byte 11 - 13)
+ * gelesen. Ist sie leer oder nicht numerisch, wird der Datensatz ohne
+ * Sparte indiziert, statt den Aufbau des Index abzubrechen.
+ * </p>
+ *
+ * @author oboehm
+ * @since 7.2 (19.10.2024)
+ */
+final class DatenpaketIndex {
+
+    private static final int[] EMPTY = new int[0];
+    /** Fuer Datensaetze ohne (gueltige) Sparte. */
+    static final int NO_SPARTE = -1;
+    private final Map<SatzTyp, Postings> bySatzTyp = new HashMap<>();
+    private final Map<String, Postings> byVsnr = new HashMap<>();
+    private final Map<Integer, Postings> bySparte = new HashMap<>();
+
+    /**
+     * Nimmt den Datensatz mit der angegebenen Position in den Index auf.
+     *
+     * @param datensatz Datensatz
+     * @param position  Position im Datenpaket
+     */
+    void add(Datensatz datensatz, int position) {
+        bySatzTyp.computeIfAbsent(datensatz.getSatzTyp(), k -> new Postings()).add(position);
+        byVsnr.computeIfAbsent(datensatz.getVersicherungsscheinNummer(), k -> new Postings()).add(position);
+        int sparte = getSparte(datensatz);
+        if (sparte != NO_SPARTE) {
+            bySparte.computeIfAbsent(sparte, k -> new Postings()).add(position);
+        }
+    }
+
+    /**
+     * Liest die Sparte aus dem Sparten-Feld des Datensatzes. Im Gegensatz
+     * zu {@link Datensatz#getSparte()} wird dabei keine Exception geworfen,
+     * wenn die Sparte leer oder nicht numerisch ist.
+     *
+     * @param datensatz Datensatz
+     * @return Sparte oder {@link #NO_SPARTE}
+     */
+    static int getSparte(Datensatz datensatz) {
+        if (!datensatz.hasSparte()) {
+            return NO_SPARTE;
+        }
+        String inhalt = datensatz.getFeld(ByteAdresse.of(11)).getInhalt();
+        int sparte = 0;
+        for (int i = 0; i < inhalt.length(); i++) {
+            char c = inhalt.charAt(i);
+            if ((c < '0') || (c > '9')) {
+                return NO_SPARTE;
+            }
+            sparte = sparte * 10 + (c - '0');
+        }
+        return inhalt.isEmpty() ? NO_SPARTE : sparte;
+    }
+
+    void clear() {
+        bySatzTyp.clear();
+        byVsnr.clear();
+        bySparte.clear();
+    }
+
+    /**
+     * Baut den Index fuer die uebergebenen Datensaetze neu auf.
+     *
+     * @param datensaetze Datensaetze des Datenpakets
+     */
+    void rebuild(List<Datensatz> datensaetze) {
+        clear();
+        for (int i = 0; i < datensaetze.size(); i++) {
+            add(datensaetze.get(i), i);
+        }
+    }
+
+    int[] getPositions(SatzTyp typ) {
+        return toArray(bySatzTyp.get(typ));
+    }
+
+    int[] getPositions(String vsnr) {
+        return toArray(byVsnr.get(vsnr.trim()));
+    }
+
+    int[] getPositions(int sparte) {
+        return toArray(bySparte.get(sparte));
+    }
+
+    private static int[] toArray(Postings postings) {
+        return (postings == null) ? EMPTY : Arrays.copyOf(postings.positions, postings.size);
+    }
+
+    /**
+     * Liefert die Datensaetze an den angegebenen Positionen. Die Liste wird
+     * dabei direkt in der richtigen Groesse angelegt.
+     *
+     * @param datensaetze alle Datensaetze
+     * @param positions   Positionen aus dem Index
+     * @return Liste der Datensaetze an den Positionen
+     */
+    static List<Datensatz> select(List<Datensatz> datensaetze, int[] positions) {
+        List<Datensatz> selected = new ArrayList<>(positions.length);
+        for (int position : positions) {
+            selected.add(datensaetze.get(position));
+        }
+        return selected;
+    }
+
+    /**
+     * Aufsteigende Positionen zu einem Schluessel.
+     */
+    private static final class Postings {
+
+        private int[] positions = new int[4];
+        private int size;
+
+        void add(int position) {
+            if (size == positions.length) {
+                positions = Arrays.copyOf(positions, size * 2);
+            }
+            positions[size] = position;
+            size++;
+        }
+
+    }
+
+}
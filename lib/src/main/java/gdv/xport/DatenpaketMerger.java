@@ -0,0 +1,269 @@
+/*
+ * Copyright (c) 2024 by Oli B.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express orimplied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * (c)reated 19.10.2024 by oboehm
+ */
+package gdv.xport;
+
+import gdv.xport.config.Config;
+import gdv.xport.feld.Feld;
+import gdv.xport.feld.Version;
+import gdv.xport.io.DatensatzReader;
+import gdv.xport.io.DatensatzSorter;
+import gdv.xport.io.ImportException;
+import gdv.xport.satz.Vorsatz;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Der DatenpaketMerger fuehrt mehrere GDV-Dateien (z.B. die Lieferungen
+ * verschiedener Versicherer) zu einem Datenpaket zusammen. Die Datensaetze
+ * werden dabei roh ueber einen {@link DatenpaketWriter} weitergereicht, sodass
+ * der Speicherverbrauch unabhaengig von der Groesse der Dateien ist.
+ * <p>
+ * Als Vorsatz wird der Vorsatz der ersten Datei (oder der ueber
+ * {@link #withVorsatz(Vorsatz)} gesetzte Vorsatz) genommen und um die
+ * Satzart-Versionen der anderen Dateien ergaenzt. Verwenden die Dateien
+ * fuer eine Satzart unterschiedliche Versionen, bricht das Zusammenfuehren
+ * mit einer {@link ImportException} ab, sofern dies nicht ueber
+ * {@link #ignoreVersionConflicts(boolean)} erlaubt wurde. Der Nachsatz wird
+ * fortlaufend berechnet. Werden Schluessel (z.B.
+ * {@link DatensatzSorter.Key#VERSICHERUNGSSCHEIN_NUMMER}) angegeben, werden die
+ * Datensaetze danach gemischt, ansonsten werden die Dateien nacheinander
+ * uebernommen.
+ * </p>
+ *
+ * @author oboehm
+ * @since 7.2 (19.10.2024)
+ */
+public class DatenpaketMerger {
+
+    private static final Logger LOG = LogManager.getLogger(DatenpaketMerger.class);
+
+    private final List<Path> inputs = new ArrayList<>();
+    private final DatensatzSorter sorter;
+    private final boolean ordered;
+    private Vorsatz vorsatz;
+    private boolean ignoreVersionConflicts;
+
+    /**
+     * Legt einen Merger an. Ohne Schluessel werden die Dateien nacheinander
+     * uebernommen, ansonsten werden die Datensaetze nach den angegebenen
+     * Kopf-Feldern gemischt. Unsortierte Dateien werden dazu vorher mit dem
+     * {@link DatensatzSorter} in eine temporaere Datei sortiert.
+     *
+     * @param keys Kopf-Felder fuer die Reihenfolge (optional)
+     */
+    public DatenpaketMerger(DatensatzSorter.Key... keys) {
+        this.sorter = new DatensatzSorter(keys);
+        this.ordered = keys.length > 0;
+    }
+
+    /**
+     * Fuegt eine weitere Datei hinzu.
+     *
+     * @param input GDV-Datei
+     * @return der Merger selbst
+     */
+    public DatenpaketMerger add(Path input) {
+        inputs.add(input);
+        return this;
+    }
+
+    /**
+     * Setzt den Vorsatz, der als Grundlage fuer das Ergebnis dient (z.B. mit
+     * dem Vermittler als Adressat). Die Satzart-Versionen der Dateien werden
+     * darin ergaenzt.
+     *
+     * @param vorsatz Vorlage fuer den Vorsatz
+     * @return der Merger selbst
+     */
+    public DatenpaketMerger withVorsatz(Vorsatz vorsatz) {
+        this.vorsatz = new Vorsatz(vorsatz);
+        return this;
+    }
+
+    /**
+     * Verwenden die Dateien fuer eine Satzart unterschiedliche Versionen,
+     * passt das Ergebnis nicht mehr zu einem einzigen Vorsatz. Standardmaessig
+     * wird das Zusammenfuehren deshalb abgebrochen. Mit 'true' wird
+     * stattdessen die Version der ersten Datei beibehalten (und eine Warnung
+     * ausgegeben).
+     *
+     * @param ignore true, wenn unterschiedliche Versionen erlaubt sind
+     * @return der Merger selbst
+     */
+    public DatenpaketMerger ignoreVersionConflicts(boolean ignore) {
+        this.ignoreVersionConflicts = ignore;
+        return this;
+    }
+
+    /**
+     * Fuehrt die Dateien zusammen und schreibt das Ergebnis in die angegebene
+     * Datei.
+     *
+     * @param output Ausgabe-Datei
+     * @throws IOException bei Lese- oder Schreibfehlern
+     */
+    public void mergeTo(Path output) throws IOException {
+        mergeTo(Files.newBufferedWriter(output, Config.DEFAULT_ENCODING));
+    }
+
+    /**
+     * Fuehrt die Dateien zusammen und schreibt das Ergebnis in den Writer.
+     * Der Writer wird am Ende geschlossen - auch im Fehlerfall.
+     *
+     * @param writer Ziel
+     * @throws IOException bei Lese- oder Schreibfehlern
+     */
+    public void mergeTo(Writer writer) throws IOException {
+        List<Path> tmpFiles = new ArrayList<>();
+        List<Source> sources = new ArrayList<>();
+        try (Writer target = writer) {
+            for (Path input : inputs) {
+                sources.add(new Source(DatensatzReader.of(sorted(input, tmpFiles)), sources.size()));
+            }
+            try (DatenpaketWriter out = new DatenpaketWriter(target, combineVorsatz(sources))) {
+                if (ordered) {
+                    mergeOrdered(sources, out);
+                } else {
+                    for (Source source : sources) {
+                        for (; source.current != null; source.advance()) {
+                            out.write(source.current);
+                        }
+                    }
+                }
+                LOG.info("{} Dateien mit {} Saetzen zusammengefuehrt.", inputs.size(),
+                        out.getSummen().getAnzahlSaetze());
+            }
+        } finally {
+            for (Source source : sources) {
+                source.reader.close();
+            }
+            for (Path tmp : tmpFiles) {
+                Files.deleteIfExists(tmp);
+            }
+        }
+    }
+
+    private Path sorted(Path input, List<Path> tmpFiles) throws IOException {
+        if (!ordered || sorter.isSorted(input)) {
+            return input;
+        }
+        Path tmp = Files.createTempFile("gdv", ".sorted");
+        tmpFiles.add(tmp);
+        sorter.sort(input, tmp);
+        return tmp;
+    }
+
+    private Vorsatz combineVorsatz(List<Source> sources) throws ImportException {
+        Vorsatz combined = vorsatz;
+        for (Source source : sources) {
+            if (source.vorsatz == null) {
+                continue;
+            }
+            if (combined == null) {
+                combined = new Vorsatz(source.vorsatz);
+                continue;
+            }
+            for (Feld feld : source.vorsatz.getFelder()) {
+                if (feld.isEmpty() || !Version.isVersionBezeichner(feld.getBezeichner())
+                        || !combined.hasFeld(feld.getBezeichner())) {
+                    continue;
+                }
+                String version = combined.getVersion(feld.getBezeichner());
+                if (version.trim().isEmpty()) {
+                    combined.setVersion(feld.getBezeichner(), feld.getInhalt());
+                } else if (!version.equals(feld.getInhalt())) {
+                    if (!ignoreVersionConflicts) {
+                        throw new ImportException(String.format("%s: Version %s aus Datei %s passt nicht zu %s",
+                                feld.getBezeichner(), feld.getInhalt(), inputs.get(source.number), version));
+                    }
+                    LOG.warn("{}: Version {} wird beibehalten, {} aus Datei {} wird ignoriert.",
+                            feld.getBezeichner(), version, feld.getInhalt(), inputs.get(source.number));
+                }
+            }
+        }
+        return (combined == null) ? new Vorsatz() : combined;
+    }
+
+    private void mergeOrdered(List<Source> sources, DatenpaketWriter out) throws IOException {
+        PriorityQueue<Source> queue = new PriorityQueue<>();
+        for (Source source : sources) {
+            if (source.current != null) {
+                queue.add(source);
+            }
+        }
+        while (!queue.isEmpty()) {
+            Source source = queue.poll();
+            out.write(source.current);
+            if (source.advance()) {
+                queue.add(source);
+            }
+        }
+    }
+
+    /**
+     * Eine Eingabe-Datei mit dem aktuellen Datensatz. Vorsatz und Nachsatz
+     * werden beim Weiterschalten uebersprungen. Bei gleichem Schluessel kommt
+     * die fruehere Datei zuerst.
+     */
+    private final class Source implements Comparable<Source> {
+
+        private final DatensatzReader reader;
+        private final int number;
+        private Vorsatz vorsatz;
+        private List<String> current;
+        private String key;
+
+        private Source(DatensatzReader reader, int number) throws IOException {
+            this.reader = reader;
+            this.number = number;
+            advance();
+        }
+
+        private boolean advance() throws IOException {
+            for (current = reader.next(); current != null; current = reader.next()) {
+                String first = current.get(0);
+                if (DatensatzReader.isVorsatz(first)) {
+                    if (vorsatz == null) {
+                        vorsatz = new Vorsatz();
+                        vorsatz.importFrom(String.join("\n", current));
+                    }
+                } else if (!DatensatzReader.isNachsatz(first)) {
+                    key = sorter.getKey(first);
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public int compareTo(Source other) {
+            int cmp = key.compareTo(other.key);
+            return (cmp == 0) ? Integer.compare(number, other.number) : cmp;
+        }
+
+    }
+
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright (c) 2024 by Oli B.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express orimplied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * (c)reated 19.10.2024 by oboehm
+ */
+package gdv.xport;
+
+import gdv.xport.io.DatensatzReader;
+import gdv.xport.io.DatensatzSorter;
+import gdv.xport.satz.Vorsatz;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Der DatenpaketSplitter ist das Gegenstueck zum {@link DatenpaketMerger}:
+ * er verteilt die Datensaetze einer GDV-Datei in einem Durchlauf nach einem
+ * Kopf-Feld (z.B. Vermittler, VU-Nummer oder Sparte) auf mehrere
+ * Datenpakete. Jedes Datenpaket bekommt dabei seinen eigenen Vorsatz und einen
+ * fortlaufend berechneten Nachsatz (siehe {@link DatenpaketWriter}). Die
+ * Datensaetze selbst werden roh kopiert.
+ * <p>
+ * Damit bei tausenden Zielen nicht die Datei-Handles ausgehen, sind
+ * hoechstens {@link #getMaxOpenFiles()} Dateien gleichzeitig geoeffnet. Die am
+ * laengsten nicht benutzte Datei wird bei Bedarf geschlossen und spaeter zum
+ * Anhaengen wieder geoeffnet.
+ * </p>
+ *
+ * @author oboehm
+ * @since 7.2 (19.10.2024)
+ */
+public class DatenpaketSplitter {
+
+    private static final Logger LOG = LogManager.getLogger(DatenpaketSplitter.class);
+
+    /** So viele Dateien sind standardmaessig gleichzeitig geoeffnet. */
+    public static final int DEFAULT_MAX_OPEN_FILES = 64;
+
+    private final Path outputDir;
+    private final DatensatzSorter.Key key;
+    private int maxOpenFiles = DEFAULT_MAX_OPEN_FILES;
+
+    /**
+     * Legt einen Splitter an, der die Datenpakete im angegebenen Verzeichnis
+     * ablegt.
+     *
+     * @param outputDir Ausgabe-Verzeichnis
+     * @param key Kopf-Feld, nach dem aufgeteilt wird
+     */
+    public DatenpaketSplitter(Path outputDir, DatensatzSorter.Key key) {
+        this.outputDir = outputDir;
+        this.key = key;
+    }
+
+    /**
+     * Setzt die max. Anzahl gleichzeitig geoeffneter Dateien.
+     *
+     * @param n max. Anzahl offener Dateien (mind. 1)
+     * @return der Splitter selbst
+     */
+    public DatenpaketSplitter withMaxOpenFiles(int n) {
+        if (n < 1) {
+            throw new IllegalArgumentException("maxOpenFiles=" + n + " must be positive");
+        }
+        this.maxOpenFiles = n;
+        return this;
+    }
+
+    public int getMaxOpenFiles() {
+        return maxOpenFiles;
+    }
+
+    /**
+     * Teilt die uebergebene Datei auf.
+     *
+     * @param input GDV-Datei
+     * @return die geschriebenen Dateien, sortiert nach Schluessel
+     * @throws IOException bei Lese- oder Schreibfehlern
+     */
+    public Map<String, Path> split(Path input) throws IOException {
+        Split split = new Split();
+        try (DatensatzReader reader = DatensatzReader.of(input)) {
+            for (List<String> records = reader.next(); records != null; records = reader.next()) {
+                String first = records.get(0);
+                if (DatensatzReader.isVorsatz(first)) {
+                    if (split.vorsatz == null) {
+                        split.vorsatz = new Vorsatz();
+                        split.vorsatz.importFrom(String.join("\n", records));
+                    }
+                } else if (!DatensatzReader.isNachsatz(first)) {
+                    split.getWriter(key.of(first).trim()).write(records);
+                }
+            }
+        } finally {
+            split.close();
+        }
+        LOG.info("{} wurde in {} Datenpakete aufgeteilt.", input, split.files.size());
+        return split.files;
+    }
+
+    private Vorsatz createVorsatz(Vorsatz vorlage, String value) {
+        Vorsatz vorsatz = (vorlage == null) ? new Vorsatz() : new Vorsatz(vorlage);
+        if (!value.isEmpty()) {
+            switch (key) {
+                case VU_NUMMER:
+                    vorsatz.setVuNummer(value);
+                    break;
+                case VERMITTLER:
+                    vorsatz.setVermittler(value);
+                    break;
+                default:
+                    break;
+            }
+        }
+        return vorsatz;
+    }
+
+    private Path createPath(String value, Set<Path> used) {
+        String name = key.name().toLowerCase() + '_' + (value.isEmpty() ? "ohne" : value.replaceAll("[^\\w.-]", "_"));
+        Path file = outputDir.resolve(name + ".txt");
+        for (int n = 2; used.contains(file); n++) {
+            file = outputDir.resolve(name + '_' + n + ".txt");
+        }
+        used.add(file);
+        return file;
+    }
+
+    /**
+     * Der Zustand eines Aufteilungs-Laufs. Die offenen Writer werden in
+     * Zugriffs-Reihenfolge gehalten, sodass der erste Eintrag der am
+     * laengsten nicht benutzte ist.
+     */
+    private final class Split {
+
+        private final Map<String, Path> files = new TreeMap<>();
+        private final Set<Path> used = new HashSet<>();
+        private final Map<String, DatenpaketWriter> writers = new HashMap<>();
+        private final LinkedHashMap<String, DatenpaketWriter> open = new LinkedHashMap<>(16, 0.75f, true);
+        private Vorsatz vorsatz;
+
+        private DatenpaketWriter getWriter(String value) throws IOException {
+            DatenpaketWriter writer = writers.get(value);
+            if (writer == null) {
+                Path file = createPath(value, used);
+                writer = new DatenpaketWriter(file, createVorsatz(vorsatz, value));
+                writers.put(value, writer);
+                files.put(value, file);
+            }
+            open.put(value, writer);
+            if (open.size() > maxOpenFiles) {
+                Iterator<DatenpaketWriter> eldest = open.values().iterator();
+                eldest.next().release();
+                eldest.remove();
+            }
+            return writer;
+        }
+
+        private void close() throws IOException {
+            IOException ex = null;
+            for (DatenpaketWriter writer : writers.values()) {
+                try {
+                    writer.close();
+                } catch (IOException ioe) {
+                    ex = ioe;
+                }
+            }
+            if (ex != null) {
+                throw ex;
+            }
+        }
+
+    }
+
+}
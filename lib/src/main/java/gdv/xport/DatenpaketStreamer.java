@@ -16,32 +16,73 @@ import gdv.xport.event.ImportListener;
 import gdv.xport.feld.Version;
 import gdv.xport.io.Importer;
 import gdv.xport.io.PushbackLineNumberReader;
+import gdv.xport.io.RecordHeader;
 import gdv.xport.io.RecordReader;
 import gdv.xport.io.RecyclingInputStreamReader;
+import gdv.xport.satz.Projection;
 import gdv.xport.satz.Satz;
 import gdv.xport.satz.Vorsatz;
 import gdv.xport.util.SatzTyp;
 
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
+import java.io.Serializable;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 /**
  * Im Gegensatz zur {@link Datenpaket}-Klasse wird hier ein Datenpaket nicht komplett in den Speicher geladen, sondern satzweise gelesen und anschliessend
  * verworfen. Vorher werden noch die angemeldeten Listener informiert, damit diese die Daten verarbeiten (z.B. exportieren) koennen.
+ * <p>
+ * Ueber {@link #setCheckpointHandler(int, Consumer)} werden regelmaessig
+ * {@link Checkpoint}s erzeugt. Ein Checkpoint enthaelt immer die Position
+ * nach dem letzten Satz, der an alle Listener ausgeliefert wurde. Wird der
+ * Import abgebrochen (siehe {@link #isAborted()}) oder bricht er mit einer
+ * Exception ab, bekommt der Handler zum Schluss noch einen Checkpoint fuer
+ * den zuletzt ausgelieferten Satz. Wurde der Streamer mit einer Datei
+ * angelegt, kann der Import ueber {@link #resume(Checkpoint)} ab dort
+ * fortgesetzt werden, ohne dass die Listener bereits ausgelieferte Saetze
+ * ein zweites Mal sehen. Ihren Zustand sichern sie dabei ueber
+ * {@link ImportListener#getCheckpointState()}.
+ * </p>
+ * <p>
+ * Soll eine Datei schon verarbeitet werden, waehrend sie noch geschrieben
+ * wird, kann der Streamer mit einem {@link gdv.xport.io.FollowingReader}
+ * angelegt werden.
+ * </p>
  *
  * @author oliver
  * @since 1.0
  */
-public class DatenpaketStreamer {
+public class DatenpaketStreamer implements Closeable {
 
-    private final PushbackLineNumberReader reader;
+    private final Path file;
+    private PushbackLineNumberReader reader;
+    private RecordReader recordReader;
+    private long baseOffset;
+    private long recordNumber;
+    private long deliveredOffset;
+    private String vorsatzContent;
+    private String deliveredVorsatz;
+    private boolean resumed;
+    private int checkpointInterval;
+    private int sinceCheckpoint;
+    private boolean uncheckpointed;
+    private Consumer<Checkpoint> checkpointHandler;
     private final List<ImportListener> importListener = new ArrayList<>();
     private Map<SatzTyp, Version> satzartVersionen = new HashMap<>();
+    private Predicate<RecordHeader> filter;
+    private Projection projection;
 
     /**
      * Legt einen neuen {@link DatenpaketStreamer} an.
@@ -58,7 +99,30 @@ public class DatenpaketStreamer {
      * @param reader der Reader
      */
     public DatenpaketStreamer(final Reader reader) {
-        this.reader = new PushbackLineNumberReader(new RecordReader(reader), 256);
+        this(null, reader);
+    }
+
+    /**
+     * Legt einen neuen {@link DatenpaketStreamer} fuer die angegebene Datei
+     * an. Nur damit kann ein Import ueber {@link #resume(Checkpoint)}
+     * fortgesetzt werden.
+     *
+     * @param file GDV-Datei
+     * @throws IOException falls die Datei nicht geoeffnet werden kann
+     * @since 7.2
+     */
+    public DatenpaketStreamer(final Path file) throws IOException {
+        this(file, Files.newBufferedReader(file, Config.DEFAULT_ENCODING));
+    }
+
+    private DatenpaketStreamer(final Path file, final Reader reader) {
+        this.file = file;
+        setReader(reader);
+    }
+
+    private void setReader(final Reader in) {
+        this.recordReader = new RecordReader(in);
+        this.reader = new PushbackLineNumberReader(recordReader, 256);
     }
 
     /**
@@ -70,6 +134,115 @@ public class DatenpaketStreamer {
         this.importListener.add(listener);
     }
 
+    /**
+     * Mit einem Filter werden nur die Datensaetze gelesen und an die Listener
+     * weitergegeben, deren Kopf-Felder (Satzart, VU-Nummer, Sparte,
+     * Versicherungsscheinnummer, Vermittler) zum Filter passen. Die anderen
+     * Datensaetze werden uebersprungen, ohne dass dafuer ein Satz angelegt
+     * wird. Vorsatz und Nachsatz werden immer gelesen.
+     *
+     * @param filter Filter fuer die Kopf-Felder (oder null fuer alle Saetze)
+     * @since 7.2
+     */
+    public void setFilter(final Predicate<RecordHeader> filter) {
+        this.filter = filter;
+    }
+
+    /**
+     * Mit einer {@link Projection} werden nur die gewuenschten Felder der
+     * einzelnen SatzTypen angelegt und befuellt, bevor die Saetze an die
+     * Listener weitergegeben werden.
+     *
+     * @param projection gewuenschte Felder (oder null fuer alle Felder)
+     * @since 7.2
+     */
+    public void setProjection(final Projection projection) {
+        this.projection = projection;
+    }
+
+    /**
+     * Nach jeweils 'interval' Saetzen (und nach jedem Nachsatz) wird ein
+     * {@link Checkpoint} erzeugt und an den uebergebenen Handler
+     * weitergegeben. Dieser kann ihn dann z.B. ueber
+     * {@link Checkpoint#save(Path)} speichern.
+     *
+     * @param interval Anzahl der Saetze zwischen zwei Checkpoints
+     * @param handler Handler fuer die Checkpoints (oder null zum Abschalten)
+     * @since 7.2
+     */
+    public void setCheckpointHandler(final int interval, final Consumer<Checkpoint> handler) {
+        if (interval < 1) {
+            throw new IllegalArgumentException("interval must be positive: " + interval);
+        }
+        this.checkpointInterval = interval;
+        this.checkpointHandler = handler;
+        this.sinceCheckpoint = 0;
+    }
+
+    /**
+     * Liefert den aktuellen Stand als {@link Checkpoint}. Die Position ist
+     * dabei ein Byte-Offset hinter dem letzten Satz, der an alle Listener
+     * ausgeliefert wurde. Er wird ueber die Records ermittelt, daher
+     * funktioniert dies nur mit Encodings, bei denen ein Zeichen einem Byte
+     * entspricht (wie ISO-8859-1 oder IBM850).
+     *
+     * @return aktueller Checkpoint
+     * @since 7.2
+     */
+    public Checkpoint getCheckpoint() {
+        List<Serializable> states = new ArrayList<>();
+        for (ImportListener listener : this.importListener) {
+            states.add(listener.getCheckpointState());
+        }
+        return new Checkpoint(deliveredOffset, recordNumber, deliveredVorsatz, states);
+    }
+
+    /**
+     * Setzt den Import ab dem uebergebenen Checkpoint fort. Die Listener
+     * muessen vorher (in der gleichen Reihenfolge wie beim Checkpoint)
+     * registriert sein; sie bekommen ihren Zustand ueber
+     * {@link ImportListener#restoreCheckpointState(Serializable)} zurueck.
+     * Lag der Checkpoint innerhalb eines Datenpakets, wird beim naechsten
+     * {@link #readDatenpaket()} mit dem Satz nach dem Checkpoint begonnen.
+     *
+     * @param checkpoint Checkpoint, ab dem fortgesetzt wird
+     * @throws IOException falls die Datei nicht neu positioniert werden kann
+     * @since 7.2
+     */
+    public void resume(final Checkpoint checkpoint) throws IOException {
+        if (file == null) {
+            throw new IllegalStateException("resume is only supported for files");
+        }
+        List<Serializable> states = checkpoint.getStates();
+        if (states.size() != importListener.size()) {
+            throw new IllegalArgumentException(checkpoint + " has " + states.size() + " listener states, but "
+                    + importListener.size() + " listeners are registered");
+        }
+        reader.close();
+        FileChannel channel = FileChannel.open(file);
+        try {
+            channel.position(checkpoint.getOffset());
+            setReader(Channels.newReader(channel, Config.DEFAULT_ENCODING));
+        } catch (IOException | RuntimeException ex) {
+            channel.close();
+            throw ex;
+        }
+        baseOffset = checkpoint.getOffset();
+        recordNumber = checkpoint.getRecordNumber();
+        deliveredOffset = checkpoint.getOffset();
+        vorsatzContent = checkpoint.getVorsatz();
+        deliveredVorsatz = vorsatzContent;
+        resumed = checkpoint.isInDatenpaket();
+        if (resumed) {
+            satzartVersionen = new Vorsatz(vorsatzContent).getSatzartVersionen();
+        }
+        for (int i = 0; i < states.size(); i++) {
+            importListener.get(i).restoreCheckpointState(states.get(i));
+        }
+        sinceCheckpoint = 0;
+        uncheckpointed = false;
+    }
+
     /**
      * Hiermit wird ein einzelnes Datenpaket gelesen und die verschiedenen Listener ueber den jeweils importierten Satz informiert. Damit koennen die Listener
      * eine weitere Verarbeitung (wie z.B. Export) anstossen.
@@ -77,13 +250,58 @@ public class DatenpaketStreamer {
      * @throws IOException Signals that an I/O exception has occurred.
      */
     public void readDatenpaket() throws IOException {
-        readVorsatz();
-        while (true) {
-            Satz satz = Datenpaket.importSatz(reader, satzartVersionen);
-            notice(satz);
-            if (satz.getSatzart() == 9999) {
-                break;
+        try {
+            if (resumed) {
+                resumed = false;
+            } else {
+                readVorsatz();
+            }
+            while (!isAborted()) {
+                if (filter != null) {
+                    Importer.of(reader).skipRecords(filter);
+                }
+                Satz satz = Datenpaket.importSatz(reader, satzartVersionen, projection);
+                notice(satz);
+                if (satz.getSatzart() == 9999) {
+                    vorsatzContent = null;
+                    checkpoint(true);
+                    break;
+                }
+                checkpoint(false);
             }
+        } catch (IOException | RuntimeException ex) {
+            try {
+                lastCheckpoint();
+            } catch (RuntimeException cex) {
+                ex.addSuppressed(cex);
+            }
+            throw ex;
+        }
+        lastCheckpoint();
+    }
+
+    private void checkpoint(final boolean force) {
+        if (checkpointHandler == null) {
+            return;
+        }
+        sinceCheckpoint++;
+        if (force || (sinceCheckpoint >= checkpointInterval)) {
+            checkpointHandler.accept(getCheckpoint());
+            sinceCheckpoint = 0;
+            uncheckpointed = false;
+        }
+    }
+
+    /**
+     * Nach einem Abbruch bekommt der Handler noch den Checkpoint fuer den
+     * zuletzt ausgelieferten Satz, damit beim Fortsetzen kein Satz doppelt
+     * ausgeliefert wird.
+     */
+    private void lastCheckpoint() {
+        if ((checkpointHandler != null) && uncheckpointed) {
+            checkpointHandler.accept(getCheckpoint());
+            sinceCheckpoint = 0;
+            uncheckpointed = false;
         }
     }
 
@@ -108,6 +326,12 @@ public class DatenpaketStreamer {
      * @return true, wenn aktuelle Zeile Satzart 0001 (Vorsatz) hat
      */
     public boolean canReadDatenpaket() {
+        if (isAborted()) {
+            return false;
+        }
+        if (resumed) {
+            return true;
+        }
         try {
             return Importer.of(reader).readSatzart() == 1;
         } catch (IOException | NumberFormatException ex) {
@@ -115,10 +339,28 @@ public class DatenpaketStreamer {
         }
     }
 
+    /**
+     * Liefert true, wenn einer der registrierten Listener den Import
+     * abbrechen moechte. In diesem Fall wird der Rest des Datenpakets
+     * nicht mehr gelesen.
+     *
+     * @return true, wenn der Import abgebrochen wurde
+     * @since 7.2
+     */
+    public boolean isAborted() {
+        for (ImportListener listener : this.importListener) {
+            if (listener.isAborted()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     private void readVorsatz() throws IOException {
         Vorsatz vorsatz = new Vorsatz();
         vorsatz.importFrom(reader);
         satzartVersionen = vorsatz.getSatzartVersionen();
+        this.vorsatzContent = vorsatz.toLongString();
         notice(vorsatz);
     }
 
@@ -126,6 +368,21 @@ public class DatenpaketStreamer {
         for (ImportListener listener : this.importListener) {
             listener.notice(satz);
         }
+        recordNumber++;
+        deliveredOffset = baseOffset + recordReader.getPosition(reader.getPosition());
+        deliveredVorsatz = (satz.getSatzart() == 9999) ? null : vorsatzContent;
+        uncheckpointed = true;
+    }
+
+    /**
+     * Schliesst den darunterliegenden Reader.
+     *
+     * @throws IOException bei Fehlern
+     * @since 7.2
+     */
+    @Override
+    public void close() throws IOException {
+        reader.close();
     }
 
 }
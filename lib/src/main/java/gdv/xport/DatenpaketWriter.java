@@ -0,0 +1,283 @@
+/*
+ * Copyright (c) 2024 by Oli B.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express orimplied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * (c)reated 19.10.2024 by oboehm
+ */
+package gdv.xport;
+
+import gdv.xport.config.Config;
+import gdv.xport.feld.Version;
+import gdv.xport.io.PushbackLineNumberReader;
+import gdv.xport.io.RecordReader;
+import gdv.xport.satz.Nachsatz;
+import gdv.xport.satz.NachsatzSummen;
+import gdv.xport.satz.Datensatz;
+import gdv.xport.satz.Satz;
+import gdv.xport.satz.Vorsatz;
+import gdv.xport.util.SatzTyp;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Der DatenpaketWriter schreibt ein Datenpaket, ohne es im Speicher
+ * aufzubauen. Der Vorsatz wird sofort geschrieben, jeder Datensatz direkt
+ * beim Hinzufuegen ({@link #add(Datensatz)}). Fuer den Nachsatz werden nur
+ * die Summen ueber {@link NachsatzSummen} mitgefuehrt; er wird beim
+ * {@link #close()} geschrieben.
+ * <p>
+ * Wie bei {@link Datenpaket#add(Datensatz)} werden dabei auch die Versionen
+ * im Vorsatz nachgezogen. Da der Vorsatz zu diesem Zeitpunkt schon
+ * geschrieben ist, wird er beim {@link #close()} neu geschrieben, falls sich
+ * dabei etwas geaendert hat. Das geht aber nur, wenn in eine Datei geschrieben
+ * wird; bei einem Writer sollte der Vorsatz schon vorher die richtigen
+ * Versionen enthalten.
+ * </p>
+ * <p>
+ * Datensaetze koennen auch roh (als Records mit je 256 Zeichen) ueber
+ * {@link #write(List)} weitergereicht werden. Nur bei Satzarten, die eine
+ * Summe im Nachsatz beeinflussen (0200, 0400 und 0500), wird dazu ein Satz
+ * angelegt.
+ * </p>
+ * <p>
+ * Wird in eine Datei geschrieben, kann die Datei zwischendurch ueber
+ * {@link #release()} geschlossen werden, ohne dass das Datenpaket beendet
+ * wird. Beim naechsten Schreiben wird sie dann wieder (zum Anhaengen)
+ * geoeffnet. Damit koennen sehr viele Datenpakete gleichzeitig geschrieben
+ * werden, ohne dass die Datei-Handles ausgehen.
+ * </p>
+ *
+ * @author oboehm
+ * @since 7.2 (19.10.2024)
+ */
+public class DatenpaketWriter implements Closeable {
+
+    private static final Logger LOG = LogManager.getLogger(DatenpaketWriter.class);
+
+    private final Path file;
+    private final Charset encoding;
+    private Writer writer;
+    private final Map<SatzTyp, Version> satzartVersionen;
+    private final Vorsatz vorsatz;
+    private final String exportedVorsatz;
+    private final String vermittler;
+    private final NachsatzSummen summen = new NachsatzSummen();
+    private final String eod = Config.getInstance().getProperty("gdv.eod", System.lineSeparator());
+    private boolean closed;
+
+    /**
+     * Legt einen DatenpaketWriter an und schreibt gleich den uebergebenen
+     * Vorsatz.
+     *
+     * @param writer Ziel
+     * @param vorsatz Vorsatz des Datenpakets
+     * @throws IOException falls der Vorsatz nicht geschrieben werden kann
+     */
+    public DatenpaketWriter(Writer writer, Vorsatz vorsatz) throws IOException {
+        this(null, null, writer, vorsatz);
+    }
+
+    /**
+     * Legt einen DatenpaketWriter fuer die angegebene Datei an und schreibt
+     * gleich den uebergebenen Vorsatz. Eine vorhandene Datei wird dabei
+     * ueberschrieben.
+     *
+     * @param file Ausgabe-Datei
+     * @param vorsatz Vorsatz des Datenpakets
+     * @throws IOException falls der Vorsatz nicht geschrieben werden kann
+     */
+    public DatenpaketWriter(Path file, Vorsatz vorsatz) throws IOException {
+        this(file, Config.DEFAULT_ENCODING, Files.newBufferedWriter(file, Config.DEFAULT_ENCODING), vorsatz);
+    }
+
+    private DatenpaketWriter(Path file, Charset encoding, Writer writer, Vorsatz vorsatz) throws IOException {
+        this.file = file;
+        this.encoding = encoding;
+        this.writer = writer;
+        this.satzartVersionen = vorsatz.getSatzartVersionen();
+        this.vermittler = vorsatz.getVermittler();
+        this.vorsatz = new Vorsatz(vorsatz);
+        this.exportedVorsatz = toString(vorsatz);
+        writer.write(exportedVorsatz);
+    }
+
+    /**
+     * Schreibt den uebergebenen Datensatz raus. Wie bei
+     * {@link Datenpaket#add(Datensatz)} werden VU-Nummer und Vermittler aus
+     * dem Vorsatz uebernommen, falls sie im Datensatz noch nicht gesetzt sind.
+     *
+     * @param datensatz Datensatz
+     * @throws IOException bei Schreibfehlern
+     */
+    public void add(Datensatz datensatz) throws IOException {
+        checkOpen();
+        int satzart = datensatz.getSatzart();
+        if ((satzart == 1) || (satzart == 9999)) {
+            throw new IllegalArgumentException(
+                    (satzart == 1) ? "Einen Vorsatz gibt es bereits!" : "Einen Nachsatz gibt es bereits!");
+        }
+        preset(datensatz);
+        vorsatz.setVersion(datensatz);
+        summen.add(datensatz);
+        datensatz.export(getWriter(), eod);
+    }
+
+    private void preset(Datensatz datensatz) {
+        String vuNummer = vorsatz.getVuNummer();
+        if (StringUtils.isNotEmpty(vuNummer) && datensatz.hasVuNummer() && StringUtils.isEmpty(datensatz.getVuNummer())) {
+            datensatz.setVuNummer(vuNummer);
+        }
+        if (StringUtils.isEmpty(datensatz.getVermittler())) {
+            datensatz.setVermittler(vermittler);
+        }
+    }
+
+    /**
+     * Schreibt die Records eines Datensatzes unveraendert raus.
+     *
+     * @param records Records (Teildatensaetze) eines Datensatzes
+     * @throws IOException bei Schreibfehlern
+     */
+    public void write(List<String> records) throws IOException {
+        checkOpen();
+        if (records.isEmpty()) {
+            return;
+        }
+        String first = records.get(0);
+        if (first.startsWith("0200") || first.startsWith("0400") || first.startsWith("0500")) {
+            summen.add(importSatz(records));
+        } else {
+            summen.addAnzahlSaetze(records.size());
+        }
+        Writer out = getWriter();
+        for (String record : records) {
+            out.write(record);
+            out.write(eod);
+        }
+    }
+
+    private Writer getWriter() throws IOException {
+        if (writer == null) {
+            writer = Files.newBufferedWriter(file, encoding, StandardOpenOption.APPEND);
+        }
+        return writer;
+    }
+
+    /**
+     * Gibt das Datei-Handle frei. Beim naechsten Schreiben wird die Datei
+     * wieder geoeffnet. Wurde der DatenpaketWriter mit einem Writer angelegt,
+     * wird nur geflusht.
+     *
+     * @throws IOException bei Schreibfehlern
+     */
+    public void release() throws IOException {
+        if (writer == null) {
+            return;
+        }
+        if (file == null) {
+            writer.flush();
+        } else {
+            writer.close();
+            writer = null;
+        }
+    }
+
+    private Satz importSatz(List<String> records) throws IOException {
+        PushbackLineNumberReader reader = new PushbackLineNumberReader(
+                new RecordReader(new StringReader(String.join("\n", records))), 256);
+        return Datenpaket.importSatz(reader, satzartVersionen);
+    }
+
+    /**
+     * Liefert die bisher gesammelten Summen fuer den Nachsatz.
+     *
+     * @return Summen
+     */
+    public NachsatzSummen getSummen() {
+        return summen;
+    }
+
+    private String toString(Vorsatz v) throws IOException {
+        StringWriter swriter = new StringWriter();
+        v.export(swriter, eod);
+        return swriter.toString();
+    }
+
+    private void rewriteVorsatz() throws IOException {
+        String content = toString(vorsatz);
+        if (content.equals(exportedVorsatz)) {
+            return;
+        }
+        if (content.length() != exportedVorsatz.length()) {
+            throw new IOException("cannot rewrite Vorsatz in " + file + " (length has changed)");
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = encoding.encode(content);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer, buffer.position());
+            }
+        }
+        LOG.debug("Versionen im Vorsatz von {} aktualisiert.", file);
+    }
+
+    private void checkOpen() throws IOException {
+        if (closed) {
+            throw new IOException(this + " is already closed");
+        }
+    }
+
+    /**
+     * Schreibt den Nachsatz und schliesst den darunterliegenden Writer.
+     * Wird in eine Datei geschrieben, wird dabei auch der Vorsatz
+     * aktualisiert, falls sich dort die Versionen geaendert haben.
+     *
+     * @throws IOException bei Schreibfehlern
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        Nachsatz nachsatz = new Nachsatz();
+        summen.setTo(nachsatz);
+        if (!vermittler.isEmpty()) {
+            nachsatz.setVermittler(vermittler);
+        }
+        Writer out = getWriter();
+        nachsatz.export(out, eod);
+        out.close();
+        writer = null;
+        closed = true;
+        if (file != null) {
+            rewriteVorsatz();
+        }
+        LOG.debug("{} Saetze geschrieben.", summen.getAnzahlSaetze());
+    }
+
+}
@@ -0,0 +1,531 @@
+/*
+ * Copyright (c) 2024 by Oli B.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express orimplied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * (c)reated 19.10.2024 by oboehm
+ */
+package gdv.xport;
+
+import gdv.xport.config.Config;
+import gdv.xport.feld.Version;
+import gdv.xport.io.Importer;
+import gdv.xport.io.PushbackLineNumberReader;
+import gdv.xport.io.RecordReader;
+import gdv.xport.satz.Satz;
+import gdv.xport.satz.Vorsatz;
+import gdv.xport.util.SatzTyp;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Der GdvIndex ist ein Index fuer grosse GDV-Dateien, der als Sidecar-Datei
+ * (mit der Endung {@value #SUFFIX}) neben der eigentlichen Datei abgelegt
+ * wird. Er enthaelt fuer jeden Datensatz die Position in der Datei, sortiert
+ * nach Versicherungsscheinnummer, sowie SatzTyp und Nummer des Datenpakets.
+ * <p>
+ * Beim Oeffnen wird die Index-Datei in den Speicher gemappt. Eine Suche
+ * nach einer Versicherungsscheinnummer ist damit eine binaere Suche ueber
+ * den Index; danach werden nur die gefundenen Datensaetze ueber
+ * positionelles Lesen aus der GDV-Datei geholt und ganz normal ueber
+ * {@link Satz#importFrom(PushbackLineNumberReader)} importiert. Die
+ * Satzart-Versionen kommen dabei aus dem Vorsatz des jeweiligen
+ * Datenpakets.
+ * </p>
+ * <p>
+ * Da mit Byte-Positionen gearbeitet wird, muss die GDV-Datei ein Encoding
+ * mit einem Byte pro Zeichen haben (wie ISO-8859-1 oder IBM850).
+ * </p>
+ * <p>
+ * Die Index-Datei wird zuerst als temporaere Datei daneben geschrieben und
+ * erst am Ende umbenannt, sodass nie ein halb geschriebener Index gelesen
+ * wird. Zusaetzlich endet sie mit der Anzahl der Eintraege und einer
+ * Kennung, die beim Oeffnen gegen die Dateigroesse geprueft werden.
+ * </p>
+ *
+ * @author oboehm
+ * @since 7.2 (19.10.2024)
+ */
+public final class GdvIndex implements Closeable {
+
+    /** Endung der Index-Datei. */
+    public static final String SUFFIX = ".gdvidx";
+    private static final Logger LOG = LogManager.getLogger(GdvIndex.class);
+    private static final int MAGIC = 0x47445649;
+    private static final int VERSION = 2;
+    private static final int TRAILER_SIZE = 8;
+    private static final int VSNR_LENGTH = 17;
+    private static final int ENTRY_SIZE = VSNR_LENGTH + 8 + 4 + 4 + 2;
+
+    private final FileChannel channel;
+    private final Charset encoding;
+    private final MappedByteBuffer index;
+    private final String[] satzTypen;
+    private final long[] vorsatzOffsets;
+    private final int[] vorsatzLengths;
+    private final int numberOfEntries;
+    private final int entriesStart;
+    private final Map<Integer, Map<SatzTyp, Version>> satzartVersionen = new HashMap<>();
+
+    private GdvIndex(Path gdvFile, Path indexFile, Charset encoding) throws IOException {
+        this.encoding = encoding;
+        try (FileChannel indexChannel = FileChannel.open(indexFile, StandardOpenOption.READ)) {
+            this.index = indexChannel.map(FileChannel.MapMode.READ_ONLY, 0, indexChannel.size());
+        }
+        if (index.capacity() < 24 + TRAILER_SIZE || index.getInt(0) != MAGIC || index.getInt(4) != VERSION) {
+            throw new IOException(indexFile + " is not a valid index file");
+        }
+        int trailer = index.capacity() - TRAILER_SIZE;
+        if (index.getInt(trailer + 4) != MAGIC) {
+            throw new IOException(indexFile + " is incomplete (trailer is missing)");
+        }
+        ByteBuffer header = index.duplicate();
+        header.position(24);
+        this.satzTypen = new String[header.getInt()];
+        for (int i = 0; i < satzTypen.length; i++) {
+            byte[] name = new byte[header.getShort() & 0xFFFF];
+            header.get(name);
+            satzTypen[i] = new String(name, StandardCharsets.ISO_8859_1);
+        }
+        int n = header.getInt();
+        this.vorsatzOffsets = new long[n];
+        this.vorsatzLengths = new int[n];
+        for (int i = 0; i < n; i++) {
+            vorsatzOffsets[i] = header.getLong();
+            vorsatzLengths[i] = header.getInt();
+        }
+        this.numberOfEntries = header.getInt();
+        this.entriesStart = header.position();
+        if (((long) entriesStart + (long) numberOfEntries * ENTRY_SIZE != trailer)
+                || (index.getInt(trailer) != numberOfEntries)) {
+            throw new IOException(indexFile + " is incomplete (" + numberOfEntries + " entries expected, "
+                    + index.capacity() + " bytes found)");
+        }
+        this.channel = FileChannel.open(gdvFile, StandardOpenOption.READ);
+    }
+
+    /**
+     * Oeffnet den Index fuer die angegebene GDV-Datei. Fehlt die Index-Datei
+     * oder passt sie nicht mehr zur GDV-Datei (Groesse oder Aenderungsdatum),
+     * wird sie vorher (neu) angelegt.
+     *
+     * @param gdvFile GDV-Datei
+     * @return geoeffneter Index
+     * @throws IOException bei Lesefehlern
+     */
+    public static GdvIndex open(Path gdvFile) throws IOException {
+        return open(gdvFile, Config.DEFAULT_ENCODING);
+    }
+
+    /**
+     * Oeffnet den Index fuer die angegebene GDV-Datei (siehe
+     * {@link #open(Path)}).
+     *
+     * @param gdvFile  GDV-Datei
+     * @param encoding Encoding der GDV-Datei (ein Byte pro Zeichen)
+     * @return geoeffneter Index
+     * @throws IOException bei Lesefehlern
+     */
+    public static GdvIndex open(Path gdvFile, Charset encoding) throws IOException {
+        Path indexFile = getIndexFile(gdvFile);
+        if (!isUpToDate(gdvFile, indexFile)) {
+            build(gdvFile, indexFile);
+        }
+        return new GdvIndex(gdvFile, indexFile, encoding);
+    }
+
+    /**
+     * Liefert den Pfad der Index-Datei zur angegebenen GDV-Datei.
+     *
+     * @param gdvFile GDV-Datei
+     * @return Pfad mit der Endung {@value #SUFFIX}
+     */
+    public static Path getIndexFile(Path gdvFile) {
+        return gdvFile.resolveSibling(gdvFile.getFileName() + SUFFIX);
+    }
+
+    private static boolean isUpToDate(Path gdvFile, Path indexFile) throws IOException {
+        if (!Files.exists(indexFile)) {
+            return false;
+        }
+        try (FileChannel indexChannel = FileChannel.open(indexFile, StandardOpenOption.READ)) {
+            // ein unvollstaendig gelesener Header fuehrt nur zum Neuaufbau des Index
+            ByteBuffer header = ByteBuffer.allocate(24);
+            indexChannel.read(header, 0);
+            header.flip();
+            if (!(header.remaining() == 24 && header.getInt() == MAGIC && header.getInt() == VERSION
+                    && header.getLong() == Files.size(gdvFile)
+                    && header.getLong() == Files.getLastModifiedTime(gdvFile).toMillis())) {
+                return false;
+            }
+            ByteBuffer trailer = ByteBuffer.allocate(TRAILER_SIZE);
+            indexChannel.read(trailer, indexChannel.size() - TRAILER_SIZE);
+            trailer.flip();
+            return (trailer.remaining() == TRAILER_SIZE) && (trailer.getInt(4) == MAGIC);
+        }
+    }
+
+    /**
+     * Liest die GDV-Datei einmal komplett durch und legt daneben die
+     * Index-Datei an.
+     *
+     * @param gdvFile GDV-Datei
+     * @return Pfad der angelegten Index-Datei
+     * @throws IOException bei Lese- oder Schreibfehlern
+     */
+    public static Path build(Path gdvFile) throws IOException {
+        Path indexFile = getIndexFile(gdvFile);
+        build(gdvFile, indexFile);
+        return indexFile;
+    }
+
+    private static void build(Path gdvFile, Path indexFile) throws IOException {
+        Builder builder = new Builder();
+        try (InputStream istream = new BufferedInputStream(Files.newInputStream(gdvFile), 0x10000)) {
+            builder.scan(istream);
+        }
+        builder.entries.sort(Comparator.comparing((Entry e) -> e.vsnr, Arrays::compareUnsigned)
+                .thenComparingLong(e -> e.offset));
+        Path tmp = indexFile.resolveSibling(indexFile.getFileName() + ".tmp");
+        try (DataOutputStream ostream = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(tmp), 0x10000))) {
+            ostream.writeInt(MAGIC);
+            ostream.writeInt(VERSION);
+            ostream.writeLong(Files.size(gdvFile));
+            ostream.writeLong(Files.getLastModifiedTime(gdvFile).toMillis());
+            ostream.writeInt(builder.satzTypen.size());
+            for (String name : builder.satzTypen) {
+                byte[] bytes = name.getBytes(StandardCharsets.ISO_8859_1);
+                ostream.writeShort(bytes.length);
+                ostream.write(bytes);
+            }
+            ostream.writeInt(builder.vorsaetze.size());
+            for (long[] vorsatz : builder.vorsaetze) {
+                ostream.writeLong(vorsatz[0]);
+                ostream.writeInt((int) vorsatz[1]);
+            }
+            ostream.writeInt(builder.entries.size());
+            for (Entry e : builder.entries) {
+                ostream.write(e.vsnr);
+                ostream.writeLong(e.offset);
+                ostream.writeInt(e.length);
+                ostream.writeInt(e.datenpaket);
+                ostream.writeShort(e.satzTyp);
+            }
+            ostream.writeInt(builder.entries.size());
+            ostream.writeInt(MAGIC);
+        }
+        Files.move(tmp, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        LOG.info("{} mit {} Datensaetzen in {} Datenpaket(en) angelegt.", indexFile, builder.entries.size(),
+                builder.vorsaetze.size());
+    }
+
+    /**
+     * Liefert die Anzahl der indizierten Datensaetze.
+     *
+     * @return Anzahl der Datensaetze
+     */
+    public int size() {
+        return numberOfEntries;
+    }
+
+    /**
+     * Liefert alle Datensaetze zur angegebenen Versicherungsscheinnummer in
+     * der Reihenfolge der Datei.
+     *
+     * @param vsnr Versicherungsscheinnummer
+     * @return importierte Datensaetze
+     * @throws IOException bei Lesefehlern
+     */
+    public List<Satz> getSaetze(String vsnr) throws IOException {
+        return getSaetze(vsnr, null, -1);
+    }
+
+    /**
+     * Liefert die Datensaetze mit dem angegebenen SatzTyp zur angegebenen
+     * Versicherungsscheinnummer. Ein SatzTyp ohne Sparte (z.B. "0100") passt
+     * dabei auf alle Sparten.
+     *
+     * @param vsnr Versicherungsscheinnummer
+     * @param typ  gewuenschter SatzTyp
+     * @return importierte Datensaetze
+     * @throws IOException bei Lesefehlern
+     */
+    public List<Satz> getSaetze(String vsnr, SatzTyp typ) throws IOException {
+        return getSaetze(vsnr, typ, -1);
+    }
+
+    /**
+     * Liefert die Datensaetze zur angegebenen Versicherungsscheinnummer aus
+     * dem angegebenen Datenpaket. Datensaetze vor dem ersten Vorsatz gehoeren
+     * zu keinem Datenpaket und werden hierueber nicht gefunden; sie werden
+     * ohne Satzart-Versionen (d.h. mit den Default-Versionen) importiert.
+     *
+     * @param vsnr       Versicherungsscheinnummer
+     * @param datenpaket Nummer des Datenpakets in der Datei (beginnend mit 0)
+     * @return importierte Datensaetze
+     * @throws IOException bei Lesefehlern
+     */
+    public List<Satz> getSaetze(String vsnr, int datenpaket) throws IOException {
+        return getSaetze(vsnr, null, datenpaket);
+    }
+
+    private List<Satz> getSaetze(String vsnr, SatzTyp typ, int datenpaket) throws IOException {
+        byte[] key = toKey(vsnr);
+        List<Satz> saetze = new ArrayList<>();
+        for (int i = lowerBound(key); i < numberOfEntries && compare(i, key) == 0; i++) {
+            int pos = entriesStart + i * ENTRY_SIZE + VSNR_LENGTH;
+            int dp = index.getInt(pos + 12);
+            if ((datenpaket >= 0) && (dp != datenpaket)) {
+                continue;
+            }
+            if ((typ != null) && !matches(satzTypen[index.getShort(pos + 16)], typ)) {
+                continue;
+            }
+            saetze.add(importSatz(index.getLong(pos), index.getInt(pos + 8), dp));
+        }
+        return saetze;
+    }
+
+    private static boolean matches(String name, SatzTyp typ) {
+        String wanted = typ.toString();
+        return name.equals(wanted) || name.startsWith(wanted + ".");
+    }
+
+    private int lowerBound(byte[] key) {
+        int low = 0;
+        int high = numberOfEntries;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compare(mid, key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int compare(int i, byte[] key) {
+        int pos = entriesStart + i * ENTRY_SIZE;
+        for (int j = 0; j < VSNR_LENGTH; j++) {
+            int diff = (index.get(pos + j) & 0xFF) - (key[j] & 0xFF);
+            if (diff != 0) {
+                return diff;
+            }
+        }
+        return 0;
+    }
+
+    private Satz importSatz(long offset, int length, int datenpaket) throws IOException {
+        String content = read(offset, length);
+        PushbackLineNumberReader reader = new PushbackLineNumberReader(new RecordReader(new StringReader(content)), 256);
+        return Datenpaket.importSatz(reader, getSatzartVersionen(datenpaket));
+    }
+
+    private Map<SatzTyp, Version> getSatzartVersionen(int datenpaket) throws IOException {
+        synchronized (satzartVersionen) {
+            Map<SatzTyp, Version> versionen = satzartVersionen.get(datenpaket);
+            if (versionen == null) {
+                versionen = new HashMap<>();
+                if ((datenpaket >= 0) && (datenpaket < vorsatzOffsets.length)) {
+                    Vorsatz vorsatz = new Vorsatz();
+                    vorsatz.importFrom(read(vorsatzOffsets[datenpaket], vorsatzLengths[datenpaket]));
+                    versionen = vorsatz.getSatzartVersionen();
+                }
+                satzartVersionen.put(datenpaket, versionen);
+            }
+            return versionen;
+        }
+    }
+
+    private String read(long offset, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, offset + buffer.position()) < 0) {
+                throw new EOFException("unexpected end of file at position " + (offset + buffer.position()));
+            }
+        }
+        return new String(buffer.array(), encoding);
+    }
+
+    private static byte[] toKey(String vsnr) {
+        byte[] key = new byte[VSNR_LENGTH];
+        Arrays.fill(key, (byte) ' ');
+        byte[] bytes = vsnr.trim().getBytes(StandardCharsets.ISO_8859_1);
+        System.arraycopy(bytes, 0, key, 0, Math.min(bytes.length, VSNR_LENGTH));
+        return key;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    @Override
+    public String toString() {
+        return "GdvIndex with " + numberOfEntries + " entries in " + vorsatzOffsets.length + " Datenpaket(en)";
+    }
+
+    private static final class Entry {
+
+        private final byte[] vsnr;
+        private final long offset;
+        private final int datenpaket;
+        private final short satzTyp;
+        private int length;
+
+        Entry(byte[] vsnr, long offset, int length, int datenpaket, short satzTyp) {
+            this.vsnr = vsnr;
+            this.offset = offset;
+            this.length = length;
+            this.datenpaket = datenpaket;
+            this.satzTyp = satzTyp;
+        }
+
+    }
+
+    /**
+     * Liest die GDV-Datei recordweise (ohne Saetze anzulegen) und merkt sich
+     * die Positionen der Vorsaetze und Datensaetze. Teildatensaetze werden
+     * dabei (wie beim Import) zu einem Datensatz zusammengefasst.
+     */
+    private static final class Builder {
+
+        private final List<Entry> entries = new ArrayList<>();
+        private final List<long[]> vorsaetze = new ArrayList<>();
+        private final List<String> satzTypen = new ArrayList<>();
+        private final Map<String, Short> satzTypIndex = new HashMap<>();
+        private long position;
+
+        void scan(InputStream istream) throws IOException {
+            char[] previous = new char[256];
+            char[] record = new char[256];
+            Entry current = null;
+            long[] vorsatz = null;
+            int lastSatzart = -1;
+            while (true) {
+                long start = skipWhitespace(istream);
+                int n = readRecord(istream, record);
+                if (n <= 0) {
+                    break;
+                }
+                int length = (int) (position - start);
+                int satzart = toSatzart(record);
+                if (satzart == 1) {
+                    if (lastSatzart != 1) {
+                        vorsatz = new long[]{start, 0};
+                        vorsaetze.add(vorsatz);
+                    }
+                    vorsatz[1] = position - vorsatz[0];
+                    current = null;
+                } else if (satzart == 9999) {
+                    current = null;
+                } else if ((current != null) && Importer.isTeildatensatzOf(previous, record)) {
+                    current.length = (int) (position - current.offset);
+                } else {
+                    current = new Entry(toKey(new String(record, 13, VSNR_LENGTH)), start, length,
+                            vorsaetze.size() - 1, getSatzTypIndex(satzart, record));
+                    entries.add(current);
+                }
+                lastSatzart = satzart;
+                char[] tmp = previous;
+                previous = record;
+                record = tmp;
+            }
+        }
+
+        private long skipWhitespace(InputStream istream) throws IOException {
+            while (true) {
+                istream.mark(1);
+                int c = istream.read();
+                if ((c != ' ') && (c != '\n') && (c != '\r') && (c != '\t')) {
+                    istream.reset();
+                    return position;
+                }
+                position++;
+            }
+        }
+
+        private int readRecord(InputStream istream, char[] record) throws IOException {
+            Arrays.fill(record, ' ');
+            int n = 0;
+            while (n < record.length) {
+                int c = istream.read();
+                if (c < 0) {
+                    break;
+                }
+                position++;
+                if (c == '\n') {
+                    break;
+                }
+                record[n] = (char) c;
+                n++;
+            }
+            return n;
+        }
+
+        private static int toSatzart(char[] record) {
+            int satzart = 0;
+            for (int i = 0; i < 4; i++) {
+                if (Character.isDigit(record[i])) {
+                    satzart = satzart * 10 + (record[i] - '0');
+                }
+            }
+            return satzart;
+        }
+
+        private short getSatzTypIndex(int satzart, char[] record) throws IOException {
+            String name;
+            try {
+                name = Importer.of(new StringReader(new String(record))).readSatzTyp(satzart).toString();
+            } catch (IllegalArgumentException ex) {
+                LOG.debug("SatzTyp fuer Satzart {} nicht erkannt:", satzart, ex);
+                name = SatzTyp.of(satzart).toString();
+            }
+            Short i = satzTypIndex.get(name);
+            if (i == null) {
+                i = (short) satzTypen.size();
+                satzTypen.add(name);
+                satzTypIndex.put(name, i);
+            }
+            return i;
+        }
+
+    }
+
+}
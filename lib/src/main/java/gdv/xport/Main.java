@@ -18,7 +18,11 @@
 
 package gdv.xport;
 
+import gdv.xport.config.Config;
+import gdv.xport.event.StreamingValidator;
+import gdv.xport.satz.ValidationCache;
 import gdv.xport.util.AbstractFormatter;
+import gdv.xport.util.AggregatedViolations;
 import gdv.xport.util.HtmlFormatter;
 import gdv.xport.util.NullFormatter;
 import gdv.xport.util.XmlFormatter;
@@ -30,9 +34,12 @@ import org.apache.commons.io.output.NullWriter;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.net.URLConnection;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
 import java.util.logging.Level;
@@ -70,6 +77,12 @@ public final class Main {
                 printHelp(options);
                 System.exit(0);
             }
+            // Option "-validate" ohne Ausgabe wird beim Einlesen validiert
+            if (cmd.hasOption("validate") && !cmd.hasOption("xml") && !cmd.hasOption("html")
+                    && !cmd.hasOption("export")) {
+                validateDatenpakete(cmd);
+                return;
+            }
             Datenpaket datenpaket = importDatenpaket(cmd);
             formatDatenpaket(cmd, datenpaket);
             // Option "-validate"
@@ -104,6 +117,67 @@ public final class Main {
         return datenpaket;
     }
 
+    /**
+     * Hier wird die Option "-validate" abgehandelt, wenn keine Ausgabe
+     * gewuenscht ist. Dann werden die Saetze bereits beim Einlesen validiert,
+     * ohne dass das komplette Datenpaket im Speicher gehalten wird. Bei
+     * grossen Dateien (oder mit der Option "-aggregate") werden die
+     * Verletzungen zusammengefasst ausgegeben.
+     *
+     * @param cmd the cmd
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    private static void validateDatenpakete(final CommandLine cmd) throws IOException {
+        StreamingValidator validator = new StreamingValidator(Config.getInstance());
+        if (cmd.hasOption("maxviolations")) {
+            validator.setMaxViolations(Integer.parseInt(cmd.getOptionValue("maxviolations")));
+        }
+        if (cmd.hasOption("timebudget")) {
+            validator.setTimeBudget(Duration.ofSeconds(Long.parseLong(cmd.getOptionValue("timebudget"))));
+        }
+        if (cmd.hasOption("cache")) {
+            validator.setValidationCache(new ValidationCache());
+        }
+        AggregatedViolations aggregated = null;
+        if (cmd.hasOption("aggregate")) {
+            aggregated = new AggregatedViolations();
+            validator.setAggregatedViolations(aggregated);
+        }
+        List<ConstraintViolation> violations;
+        if (cmd.hasOption("import")) {
+            URLConnection connection = openConnection(cmd.getOptionValue("import"));
+            if ((aggregated == null) && (connection.getContentLengthLong() > AggregatedViolations.LARGE_INPUT)) {
+                aggregated = new AggregatedViolations();
+                validator.setAggregatedViolations(aggregated);
+            }
+            try (InputStream istream = connection.getInputStream()) {
+                violations = validator.validate(istream);
+            }
+        } else {
+            System.out.println("Warte auf Eingabe von STDIN...");
+            violations = validator.validate(System.in);
+        }
+        if (aggregated == null) {
+            printViolations(violations);
+        } else {
+            printViolations(aggregated);
+        }
+    }
+
+    /**
+     * Oeffnet die Verbindung zur angegebenen URL bzw. Datei. Ueber die
+     * Verbindung kann vor dem Lesen die Groesse der Eingabe abgefragt werden
+     * (-1, falls sie nicht bekannt ist).
+     */
+    private static URLConnection openConnection(final String filename) throws IOException {
+        try {
+            return new URL(filename).openConnection();
+        } catch (MalformedURLException e) {
+            LOG.fine("Will use '" + filename + "' as filename:" + e);
+            return new File(filename).toURI().toURL().openConnection();
+        }
+    }
+
     /**
      * Hier werden die Optionen "-xml" und "-html" abgehandelt.
      * Die Option "-java" wird seit 0.9 nicht mehr unterstuetzt.
@@ -165,6 +239,10 @@ public final class Main {
         Options options = new Options();
         options.addOption("import", true, "Import-Datei");
         options.addOption("validate", false, "Validierung der eingelesenen Datensaetze");
+        options.addOption("maxviolations", true, "Abbruch der Validierung nach n Verletzungen");
+        options.addOption("timebudget", true, "Abbruch der Validierung nach n Sekunden");
+        options.addOption("aggregate", false, "Verletzungen zusammengefasst ausgeben");
+        options.addOption("cache", false, "identische Saetze nur einmal validieren");
         options.addOption("xml", false, "Ausgabe als XML");
         options.addOption("html", false, "Ausgabe als HTML");
         options.addOption("export", true,
@@ -200,6 +278,14 @@ public final class Main {
         }
     }
 
+    private static void printViolations(final AggregatedViolations aggregated) {
+        if (aggregated.isEmpty()) {
+            System.out.println("keine Datensatz-Verletzung gefunden");
+        } else {
+            System.err.println(aggregated);
+        }
+    }
+
     /**
      * Damit niemand die Klasse aus Versehen instantiiert, ist der Default-Konstruktor private.
      */
@@ -30,10 +30,13 @@ import java.net.URISyntaxException;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Properties;
+import java.util.Set;
 
 /**
  * Ueber diese Klassen koennen Default-Werte abgefragt und das Verhalten der
@@ -92,6 +95,7 @@ public final class Config implements Serializable {
 
     private final Properties properties;
     private final Map<Class<? extends Feld>, Feld.Validator> defaultValidators = new HashMap<>();
+    private final Set<Bezeichner> fingerprintIgnored;
 
     public static Config getInstance() {
         return instance;
@@ -134,6 +138,17 @@ public final class Config implements Serializable {
         this.defaultValidators.put(VUNummer.class, new VUNummer.Validator(this));
         this.defaultValidators.put(Version.class, new Version.Validator(this));
         init(this.defaultValidators, props);
+        this.fingerprintIgnored = toBezeichnerSet(props.getProperty("gdv.fingerprint.ignore", ""));
+    }
+
+    private static Set<Bezeichner> toBezeichnerSet(String names) {
+        Set<Bezeichner> bezeichner = new HashSet<>();
+        for (String name : StringUtils.split(names, ',')) {
+            if (StringUtils.isNotBlank(name)) {
+                bezeichner.add(Bezeichner.of(name.trim()));
+            }
+        }
+        return Collections.unmodifiableSet(bezeichner);
     }
 
     private void init(Map<Class<? extends Feld>, Feld.Validator> validators, Properties props) {
@@ -278,6 +293,17 @@ public final class Config implements Serializable {
         return Boolean.parseBoolean(getProperty(key, "false"));
     }
 
+    /**
+     * Liefert die Felder, die bei der Berechnung des Fingerprints eines
+     * Teildatensatzes ignoriert werden (Property "gdv.fingerprint.ignore").
+     *
+     * @return Bezeichner der ignorierten Felder (oder leere Menge)
+     * @since 7.2
+     */
+    public Set<Bezeichner> getFingerprintIgnored() {
+        return fingerprintIgnored;
+    }
+
     /**
      * Diese Methode ist ohne Funktion.
      *
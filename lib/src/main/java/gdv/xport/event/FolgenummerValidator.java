@@ -0,0 +1,267 @@
+/*
+ * Copyright (c) 2024 by Oli B.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express orimplied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * (c)reated 19.10.2024 by oboehm
+ */
+package gdv.xport.event;
+
+import gdv.xport.satz.Datensatz;
+import gdv.xport.satz.Fingerprint;
+import gdv.xport.satz.Satz;
+import gdv.xport.satz.feld.common.Kopffelder1bis7;
+import gdv.xport.util.SimpleConstraintViolation;
+import net.sf.oval.ConstraintViolation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Fuer eine Versicherungsscheinnummer muss die Folgenummer immer mit 1
+ * anfangen. Taucht diese Versicherungsscheinnummer fuer den gleichen Satz
+ * (gleiche Satzart und Sparte) ein zweites Mal auf, muss die Folgenummer
+ * entsprechend erhoeht werden. Es sei denn, es handelt sich doch noch um den
+ * gleichen Vertrag. Aber die Nummern duerfen keine Spruenge machen - dies
+ * wird hier kontrolliert.
+ * <p>
+ * Statt eines String-Schluessels pro Vertrag wird ein long-Schluessel aus
+ * dem Hash der Versicherungsscheinnummer und der gepackten Satzart/Sparte
+ * gebildet und zusammen mit der erwarteten Folgenummer in einer primitiven
+ * Hash-Tabelle abgelegt. Im Modus "VSNR-Bloecke" (fuer sortierte Bestaende
+ * beim Streamen) wird die Tabelle geleert, sobald eine neue
+ * Versicherungsscheinnummer kommt. Damit bleibt der Speicherverbrauch
+ * auch bei Millionen von Vertraegen klein.
+ * </p>
+ *
+ * @author oboehm
+ * @since 7.2 (19.10.2024)
+ */
+public class FolgenummerValidator implements ImportListener {
+
+    private static final int NO_SPARTE = 0x3FF;
+    private final boolean vsnrBlocks;
+    private final List<ConstraintViolation> violations = new ArrayList<>();
+    private final LongIntMap folgenummern = new LongIntMap();
+    private long currentVsnr;
+    private boolean started;
+
+    /**
+     * Legt einen FolgenummerValidator an, der sich die Folgenummern aller
+     * Vertraege merkt (fuer unsortierte Datenpakete im Speicher).
+     */
+    public FolgenummerValidator() {
+        this(false);
+    }
+
+    /**
+     * Legt einen FolgenummerValidator an. Mit {@code vsnrBlocks = true} wird
+     * davon ausgegangen, dass die Saetze nach Versicherungsscheinnummer
+     * sortiert sind. Dann werden die gemerkten Folgenummern verworfen, sobald
+     * die Versicherungsscheinnummer wechselt.
+     *
+     * @param vsnrBlocks true, wenn die Saetze nach VSNR sortiert sind
+     */
+    public FolgenummerValidator(boolean vsnrBlocks) {
+        this.vsnrBlocks = vsnrBlocks;
+    }
+
+    /**
+     * Prueft die Folgenummer des uebergebenen Satzes. Beim Vorsatz wird
+     * (fuer das naechste Datenpaket) wieder von vorne angefangen.
+     *
+     * @param satz der importierte Satz
+     */
+    @Override
+    public void notice(Satz satz) {
+        if (satz.getSatzart() == 1) {
+            reset();
+        } else if ((satz instanceof Datensatz) && (satz.getSatzart() != 9999)) {
+            ConstraintViolation cv = validate((Datensatz) satz);
+            if (cv != null) {
+                violations.add(cv);
+            }
+        }
+    }
+
+    /**
+     * Prueft die Folgenummer des uebergebenen Datensatzes.
+     *
+     * @param datensatz Datensatz
+     * @return Verletzung oder null, wenn die Folgenummer passt
+     */
+    public ConstraintViolation validate(Datensatz datensatz) {
+        String inhalt = datensatz.getFeld(Kopffelder1bis7.FOLGENUMMER.getBezeichner()).getInhalt();
+        int folgenr = toFolgenummer(inhalt);
+        if (folgenr < 0) {
+            return SimpleConstraintViolation.withRule("ungueltige Folgenummer",
+                    "ungueltige Folgenummer '" + inhalt + "'", datensatz, inhalt);
+        }
+        long vsnr = Fingerprint.of(datensatz.getVersicherungsscheinNummer()).toLong();
+        int packed = pack(datensatz);
+        long key;
+        if (vsnrBlocks) {
+            if (!started || (vsnr != currentVsnr)) {
+                folgenummern.clear();
+                currentVsnr = vsnr;
+                started = true;
+            }
+            key = packed;
+        } else {
+            key = vsnr * 0x9E3779B97F4A7C15L + packed;
+        }
+        int expected = folgenummern.get(key, 1);
+        if (folgenr == expected) {
+            folgenummern.put(key, expected);
+            return null;
+        }
+        expected++;
+        folgenummern.put(key, expected);
+        if (folgenr != expected) {
+            return SimpleConstraintViolation.withRule("falsche Folgenummer",
+                    "falsche Folgenummer (erwartet: " + expected + ")", datensatz, folgenr);
+        }
+        return null;
+    }
+
+    /**
+     * Prueft die Folgenummern der uebergebenen Datensaetze.
+     *
+     * @param datensaetze Datensaetze
+     * @return eine Liste, die die verletzten Folgenummern enthaelt
+     */
+    public List<ConstraintViolation> validate(List<? extends Datensatz> datensaetze) {
+        for (Datensatz datensatz : datensaetze) {
+            ConstraintViolation cv = validate(datensatz);
+            if (cv != null) {
+                violations.add(cv);
+            }
+        }
+        return violations;
+    }
+
+    /**
+     * Vergisst alle gemerkten Folgenummern.
+     */
+    public void reset() {
+        folgenummern.clear();
+        started = false;
+    }
+
+    public List<ConstraintViolation> getViolations() {
+        return violations;
+    }
+
+    /**
+     * Liest die Folgenummer (Byte 31-32) ohne Umweg ueber BigDecimal. Bei
+     * leerem oder nicht numerischem Inhalt wird -1 geliefert.
+     */
+    private static int toFolgenummer(String inhalt) {
+        String nr = inhalt.trim();
+        if (nr.isEmpty()) {
+            return -1;
+        }
+        int n = 0;
+        for (int i = 0; i < nr.length(); i++) {
+            char c = nr.charAt(i);
+            if ((c < '0') || (c > '9')) {
+                return -1;
+            }
+            n = n * 10 + (c - '0');
+        }
+        return n;
+    }
+
+    private static int pack(Datensatz datensatz) {
+        int sparte = NO_SPARTE;
+        if (datensatz.hasSparte()) {
+            String inhalt = datensatz.getSparteFeld().getInhalt();
+            for (int i = 0; i < inhalt.length(); i++) {
+                char c = inhalt.charAt(i);
+                if ((c >= '0') && (c <= '9')) {
+                    sparte = ((sparte == NO_SPARTE) ? 0 : sparte * 10) + (c - '0');
+                }
+            }
+        }
+        return (datensatz.getSatzart() << 10) | sparte;
+    }
+
+    /**
+     * Einfache Hash-Tabelle mit offener Adressierung fuer long-Schluessel und
+     * int-Werte, damit pro Vertrag keine Objekte angelegt werden muessen.
+     * Die 0 wird als Wert fuer "leer" verwendet, da Folgenummern immer
+     * groesser als 0 sind.
+     */
+    private static final class LongIntMap {
+
+        private long[] keys = new long[16];
+        private int[] values = new int[16];
+        private int size;
+
+        int get(long key, int defaultValue) {
+            int mask = keys.length - 1;
+            for (int i = index(key, mask); values[i] != 0; i = (i + 1) & mask) {
+                if (keys[i] == key) {
+                    return values[i];
+                }
+            }
+            return defaultValue;
+        }
+
+        void put(long key, int value) {
+            int mask = keys.length - 1;
+            int i = index(key, mask);
+            while (values[i] != 0) {
+                if (keys[i] == key) {
+                    values[i] = value;
+                    return;
+                }
+                i = (i + 1) & mask;
+            }
+            keys[i] = key;
+            values[i] = value;
+            size++;
+            if (size * 2 > keys.length) {
+                resize();
+            }
+        }
+
+        void clear() {
+            if (size > 0) {
+                Arrays.fill(values, 0);
+                size = 0;
+            }
+        }
+
+        private void resize() {
+            long[] oldKeys = keys;
+            int[] oldValues = values;
+            keys = new long[oldKeys.length * 2];
+            values = new int[oldValues.length * 2];
+            size = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldValues[i] != 0) {
+                    put(oldKeys[i], oldValues[i]);
+                }
+            }
+        }
+
+        private static int index(long key, int mask) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32)) & mask;
+        }
+
+    }
+
+}
@@ -14,6 +14,7 @@ package gdv.xport.event;
 
 import gdv.xport.satz.Satz;
 
+import java.io.Serializable;
 import java.util.EventListener;
 
 /**
@@ -34,4 +35,40 @@ public interface ImportListener extends EventListener {
      */
     public void notice(Satz satz);
 
+    /**
+     * Ueber diese Methode kann ein Listener dem
+     * {@link gdv.xport.DatenpaketStreamer} signalisieren, dass der Import
+     * vorzeitig beendet werden soll (z.B. weil schon zu viele Fehler
+     * gefunden wurden).
+     *
+     * @return true, wenn der Import abgebrochen werden soll
+     * @since 7.2
+     */
+    default boolean isAborted() {
+        return false;
+    }
+
+    /**
+     * Liefert den aktuellen Zustand des Listeners, der in einem
+     * {@link gdv.xport.Checkpoint} gespeichert wird. Wird der Import spaeter
+     * ab diesem Checkpoint fortgesetzt, bekommt der Listener den Zustand ueber
+     * {@link #restoreCheckpointState(Serializable)} wieder zurueck.
+     *
+     * @return Zustand oder null, falls der Listener keinen Zustand hat
+     * @since 7.2
+     */
+    default Serializable getCheckpointState() {
+        return null;
+    }
+
+    /**
+     * Setzt den Zustand, der beim Checkpoint ueber
+     * {@link #getCheckpointState()} gemerkt wurde.
+     *
+     * @param state Zustand (oder null)
+     * @since 7.2
+     */
+    default void restoreCheckpointState(Serializable state) {
+    }
+
 }
@@ -14,6 +14,8 @@ package gdv.xport.event;
 
 import gdv.xport.satz.Satz;
 
+import java.io.Serializable;
+
 /**
  * Dies ist ein einfaches Beispiel fuer einen {@link ImportListener}, der eine
  * kleine Statistik ueber die importierten Saetze ermittelt.
@@ -91,6 +93,34 @@ public final class ImportStatistic implements ImportListener {
         return importedNachsaetze;
     }
 
+    /**
+     * Liefert die bisherigen Zaehler, damit ein Import ab einem
+     * {@link gdv.xport.Checkpoint} mit der richtigen Statistik fortgesetzt
+     * werden kann.
+     *
+     * @return Zaehler als int-Array
+     * @since 7.2
+     */
+    @Override
+    public Serializable getCheckpointState() {
+        return new int[] { importedVorsaetze, importedSaetze, importedTeildatensaetze, importedNachsaetze };
+    }
+
+    /**
+     * Setzt die Zaehler auf den Stand des Checkpoints zurueck.
+     *
+     * @param state Zaehler aus {@link #getCheckpointState()}
+     * @since 7.2
+     */
+    @Override
+    public void restoreCheckpointState(final Serializable state) {
+        int[] counter = (int[]) state;
+        importedVorsaetze = counter[0];
+        importedSaetze = counter[1];
+        importedTeildatensaetze = counter[2];
+        importedNachsaetze = counter[3];
+    }
+
     /**
      * Gibt die Statistik in Kurzform aus.
      *
@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2024 by Oli B.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express orimplied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * (c)reated 19.10.2024 by oboehm
+ */
+package gdv.xport.event;
+
+import gdv.xport.DatenpaketStreamer;
+import gdv.xport.satz.Nachsatz;
+import gdv.xport.satz.NachsatzSummen;
+import gdv.xport.satz.Satz;
+import net.sf.oval.ConstraintViolation;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Der NachsatzReconciler gleicht waehrend des Imports ueber den
+ * {@link DatenpaketStreamer} die Summen im {@link Nachsatz} (Anzahl Saetze,
+ * Gesamtbeitrag, Provision, Versicherungsleistungen, ...) mit den Saetzen ab,
+ * die vorher vorbeigekommen sind. Dazu werden nur die Summen ueber
+ * {@link NachsatzSummen} mitgefuehrt, die Saetze selbst werden nicht
+ * aufgehoben.
+ * <p>
+ * Bei mehreren Datenpaketen wird mit jedem Vorsatz neu angefangen zu zaehlen.
+ * </p>
+ *
+ * @author oboehm
+ * @since 7.2 (19.10.2024)
+ */
+public class NachsatzReconciler implements ImportListener {
+
+    private static final Logger LOG = LogManager.getLogger(NachsatzReconciler.class);
+    private final NachsatzSummen summen = new NachsatzSummen();
+    private final List<ConstraintViolation> violations = new ArrayList<>();
+
+    @Override
+    public void notice(Satz satz) {
+        switch (satz.getSatzart()) {
+            case 1:
+                summen.reset();
+                break;
+            case 9999:
+                if (satz instanceof Nachsatz) {
+                    reconcile((Nachsatz) satz);
+                }
+                summen.reset();
+                break;
+            default:
+                summen.add(satz);
+                break;
+        }
+    }
+
+    private void reconcile(Nachsatz nachsatz) {
+        List<ConstraintViolation> abweichungen = summen.validate(nachsatz);
+        for (ConstraintViolation cv : abweichungen) {
+            LOG.warn("Nachsatz passt nicht: {}", cv.getMessage());
+        }
+        violations.addAll(abweichungen);
+    }
+
+    /**
+     * Liefert die Abweichungen zwischen den Nachsaetzen und den Saetzen.
+     *
+     * @return gefundene Abweichungen
+     */
+    public List<ConstraintViolation> getViolations() {
+        return violations;
+    }
+
+    /**
+     * Gleicht die Nachsaetze aller Datenpakete ab, die ueber den InputStream
+     * reinkommen.
+     *
+     * @param istream Eingabe im GDV-Format
+     * @return gefundene Abweichungen
+     * @throws IOException bei Lesefehlern
+     */
+    public List<ConstraintViolation> reconcile(InputStream istream) throws IOException {
+        return reconcile(new DatenpaketStreamer(istream));
+    }
+
+    /**
+     * Gleicht die Nachsaetze aller Datenpakete ab, die ueber den Reader
+     * reinkommen.
+     *
+     * @param reader Eingabe im GDV-Format
+     * @return gefundene Abweichungen
+     * @throws IOException bei Lesefehlern
+     */
+    public List<ConstraintViolation> reconcile(Reader reader) throws IOException {
+        return reconcile(new DatenpaketStreamer(reader));
+    }
+
+    private List<ConstraintViolation> reconcile(DatenpaketStreamer streamer) throws IOException {
+        streamer.register(this);
+        streamer.readDatenpaket();
+        while (streamer.canReadDatenpaket()) {
+            streamer.readDatenpaket();
+        }
+        return getViolations();
+    }
+
+}
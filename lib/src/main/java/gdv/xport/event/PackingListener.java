@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2024 by Oli B.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express orimplied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * (c)reated 19.10.2024 by oboehm
+ */
+package gdv.xport.event;
+
+import gdv.xport.satz.Datensatz;
+import gdv.xport.satz.Satz;
+import gdv.xport.satz.SatzPacker;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Der PackingListener ist das Gegenstueck zu
+ * {@link gdv.xport.Datenpaket#pack()} fuer den
+ * {@link gdv.xport.DatenpaketStreamer}. Er wird statt des eigentlichen
+ * {@link ImportListener}s registriert und fasst getrennte Teildatensaetze
+ * zusammen, bevor die Saetze an den eigentlichen Listener weitergereicht
+ * werden.
+ * <p>
+ * Dazu werden die Datensaetze einer Versicherungsscheinnummer
+ * zurueckgehalten, maximal aber die angegebene Anzahl (Look-Ahead). Wird
+ * das Fenster ueberschritten, wird der aelteste Datensatz weitergereicht und
+ * danach nicht mehr mit nachfolgenden Saetzen zusammengefasst. Die
+ * Reihenfolge der Saetze bleibt dabei erhalten.
+ * </p>
+ *
+ * @author oboehm
+ * @since 7.2 (19.10.2024)
+ */
+public class PackingListener implements ImportListener {
+
+    private final ImportListener target;
+    private final int window;
+    private final SatzPacker packer = new SatzPacker();
+    private final Deque<Datensatz> pending = new ArrayDeque<>();
+    private String vsnr;
+
+    public PackingListener(ImportListener target) {
+        this(target, 100);
+    }
+
+    /**
+     * Legt einen neuen PackingListener an.
+     *
+     * @param target Listener, an den die (zusammengefassten) Saetze gehen
+     * @param window max. Anzahl der zurueckgehaltenen Datensaetze
+     */
+    public PackingListener(ImportListener target, int window) {
+        this.target = target;
+        this.window = window;
+    }
+
+    @Override
+    public void notice(Satz satz) {
+        if (satz instanceof Datensatz) {
+            notice((Datensatz) satz);
+        } else {
+            flush();
+            packer.reset();
+            target.notice(satz);
+        }
+    }
+
+    private void notice(Datensatz datensatz) {
+        String nr = datensatz.getVersicherungsscheinNummer();
+        if (!nr.equals(vsnr)) {
+            flush();
+            vsnr = nr;
+        }
+        if (packer.add(datensatz)) {
+            pending.addLast(datensatz);
+            if (pending.size() > window) {
+                Datensatz oldest = pending.removeFirst();
+                packer.close(oldest);
+                target.notice(oldest);
+            }
+        }
+    }
+
+    /**
+     * Reicht alle zurueckgehaltenen Datensaetze weiter. Dies passiert
+     * automatisch beim Wechsel der Versicherungsscheinnummer und beim
+     * Vorsatz bzw. Nachsatz. Endet die Eingabe ohne Nachsatz, sollte man
+     * diese Methode am Ende selbst aufrufen.
+     */
+    public void flush() {
+        while (!pending.isEmpty()) {
+            Datensatz datensatz = pending.removeFirst();
+            packer.close(datensatz);
+            if (datensatz.getNumberOfTeildatensaetze() > 0) {
+                target.notice(datensatz);
+            }
+        }
+    }
+
+    @Override
+    public boolean isAborted() {
+        return target.isAborted();
+    }
+
+}
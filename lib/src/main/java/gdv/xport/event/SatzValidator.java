@@ -19,6 +19,9 @@ package gdv.xport.event;
 
 import gdv.xport.config.Config;
 import gdv.xport.satz.Satz;
+import gdv.xport.satz.ValidationCache;
+import gdv.xport.satz.ValidationPlan;
+import gdv.xport.util.AggregatedViolations;
 import gdv.xport.util.SimpleConstraintViolation;
 import net.sf.oval.ConstraintViolation;
 import org.apache.logging.log4j.LogManager;
@@ -26,6 +29,8 @@ import org.apache.logging.log4j.Logger;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
 
 /**
  * Der Klasse SatzValidator ist als {@link ImportListener} ausgelegt. Damit
@@ -38,10 +43,15 @@ import java.util.List;
 public class SatzValidator implements ImportListener {
 
     private static final Logger LOG = LogManager.getLogger(SatzValidator.class);
+    private static final int CHUNK_SIZE = 10_000;
     private final Config config;
     private final List<ConstraintViolation> violations = new ArrayList<>();
+    private AggregatedViolations aggregatedViolations;
+    private ValidationCache validationCache;
+    private long numberOfViolations;
     private int satzNr = 1;
     private int tdsNr = 1;
+    private int lastTdsNr = 1;
 
     public SatzValidator() {
         this(Config.STRICT);
@@ -51,21 +61,134 @@ public class SatzValidator implements ImportListener {
         this.config = config;
     }
 
+    /**
+     * Werden die Verletzungen zusammengefasst, merkt sich der SatzValidator
+     * keine einzelnen Verletzungen mehr (und damit auch keine Saetze), sondern
+     * zaehlt sie nur noch ueber die uebergebenen {@link AggregatedViolations}.
+     * Die einzelnen Verletzungen werden dann auch nur noch im DEBUG-Level
+     * protokolliert.
+     *
+     * @param aggregated Zusammenfassung der Verletzungen (oder null)
+     * @since 7.2
+     */
+    public void setAggregatedViolations(AggregatedViolations aggregated) {
+        this.aggregatedViolations = aggregated;
+    }
+
+    /**
+     * Liefert die zusammengefassten Verletzungen, falls sie ueber
+     * {@link #setAggregatedViolations(AggregatedViolations)} gesetzt wurden.
+     *
+     * @return Zusammenfassung der Verletzungen oder null
+     * @since 7.2
+     */
+    public AggregatedViolations getAggregatedViolations() {
+        return aggregatedViolations;
+    }
+
+    /**
+     * Mit einem {@link ValidationCache} werden Saetze mit identischem Inhalt
+     * nur einmal validiert. Das lohnt sich vor allem bei Dateien mit vielen
+     * gleichen Saetzen.
+     *
+     * @param cache Cache fuer die Validierung (oder null)
+     * @since 7.2
+     */
+    public void setValidationCache(ValidationCache cache) {
+        this.validationCache = cache;
+    }
+
     @Override
     public void notice(Satz satz) {
-        List<ConstraintViolation> constraintViolations = satz.validate(config);
-        if (!constraintViolations.isEmpty()) {
-            LOG.warn("Record {} Satz {} {}:", tdsNr, satzNr, satz.toShortString());
+        notice(satz, validate(satz));
+    }
+
+    private List<ConstraintViolation> validate(Satz satz) {
+        if (validationCache == null) {
+            return ValidationPlan.of(satz).validate(satz, config);
+        }
+        return validationCache.validate(satz, config);
+    }
+
+    /**
+     * Validiert die uebergebenen Saetze parallel ueber den angegebenen
+     * {@link ForkJoinPool}. Die gefundenen Verletzungen werden anschliessend
+     * in der urspruenglichen Reihenfolge uebernommen, sodass Satz- und
+     * Record-Nummern genauso wie bei der sequentiellen Validierung ueber
+     * {@link #notice(Satz)} gezaehlt werden.
+     * <p>
+     * Damit nicht fuer Millionen von Saetzen die Ergebnisse gleichzeitig im
+     * Speicher gehalten werden, wird die Liste abschnittsweise abgearbeitet.
+     * </p>
+     *
+     * @param saetze Saetze, die validiert werden sollen
+     * @param pool   Pool, auf dem die Validierung laeuft
+     * @since 7.2
+     */
+    public void noticeAll(List<? extends Satz> saetze, ForkJoinPool pool) {
+        for (int start = 0; start < saetze.size(); start += CHUNK_SIZE) {
+            List<? extends Satz> chunk = saetze.subList(start, Math.min(start + CHUNK_SIZE, saetze.size()));
+            List<List<ConstraintViolation>> results = pool.submit(() -> chunk.parallelStream()
+                    .map(this::validate)
+                    .collect(Collectors.toList())).join();
+            for (int i = 0; i < chunk.size(); i++) {
+                notice(chunk.get(i), results.get(i));
+            }
+        }
+    }
+
+    private void notice(Satz satz, List<ConstraintViolation> constraintViolations) {
+        lastTdsNr = tdsNr;
+        for (ConstraintViolation cv : constraintViolations) {
+            numberOfViolations += AggregatedViolations.count(cv);
+        }
+        if (aggregatedViolations != null) {
             for (ConstraintViolation cv : constraintViolations) {
-                LOG.warn("\t* {}", cv);
-                if (cv instanceof SimpleConstraintViolation) {
-                    logViolations((SimpleConstraintViolation) cv);
+                LOG.debug("Record {} Satz {} {}: {}", tdsNr, satzNr, satz.toShortString(), cv);
+                aggregatedViolations.add(cv, tdsNr);
+            }
+        } else {
+            if (!constraintViolations.isEmpty()) {
+                LOG.warn("Record {} Satz {} {}:", tdsNr, satzNr, satz.toShortString());
+                for (ConstraintViolation cv : constraintViolations) {
+                    LOG.warn("\t* {}", cv);
+                    if (cv instanceof SimpleConstraintViolation) {
+                        logViolations((SimpleConstraintViolation) cv);
+                    }
                 }
             }
+            violations.addAll(constraintViolations);
         }
         satzNr++;
         tdsNr += satz.getNumberOfTeildatensaetze();
-        violations.addAll(constraintViolations);
+    }
+
+    /**
+     * Fuegt eine weitere Verletzung zum zuletzt validierten Satz hinzu.
+     *
+     * @param cv zusaetzliche Verletzung (z.B. aus satzuebergreifenden Pruefungen)
+     * @since 7.2
+     */
+    protected void addViolation(ConstraintViolation cv) {
+        numberOfViolations += AggregatedViolations.count(cv);
+        if (aggregatedViolations == null) {
+            violations.add(cv);
+        } else {
+            aggregatedViolations.add(cv, lastTdsNr);
+        }
+    }
+
+    /**
+     * Liefert die Anzahl der bisher gefundenen Verletzungen - auch wenn
+     * sie zusammengefasst werden. Gezaehlt werden dabei immer die einzelnen
+     * Verletzungen (siehe {@link AggregatedViolations#count(ConstraintViolation)}),
+     * d.h. ein Satz mit drei fehlerhaften Feldern zaehlt dreifach.
+     *
+     * @return Anzahl der Verletzungen
+     * @since 7.2
+     */
+    public long getNumberOfViolations() {
+        return numberOfViolations;
     }
 
     private static void logViolations(SimpleConstraintViolation scv) {
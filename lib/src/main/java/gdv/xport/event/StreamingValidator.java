@@ -0,0 +1,192 @@
+/*
+ * Copyright (c) 2024 by Oli B.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express orimplied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * (c)reated 19.10.2024 by oboehm
+ */
+package gdv.xport.event;
+
+import gdv.xport.DatenpaketStreamer;
+import gdv.xport.config.Config;
+import gdv.xport.satz.Datensatz;
+import gdv.xport.satz.Satz;
+import gdv.xport.satz.Vorsatz;
+import gdv.xport.util.SimpleConstraintViolation;
+import net.sf.oval.ConstraintViolation;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Der StreamingValidator validiert die Saetze bereits waehrend des Imports
+ * ueber den {@link DatenpaketStreamer}, ohne dass dazu das komplette
+ * {@link gdv.xport.Datenpaket} im Speicher aufgebaut werden muss. Es werden
+ * nur die Informationen gehalten, die fuer die satzuebergreifenden Pruefungen
+ * benoetigt werden (z.B. die VU-Nummer aus dem Vorsatz).
+ * <p>
+ * Ueber {@link #setMaxViolations(int)} und {@link #setTimeBudget(Duration)}
+ * kann die Validierung vorzeitig abgebrochen werden, wenn zu viele Fehler
+ * gefunden wurden oder die Validierung zu lange dauert. Damit koennen
+ * offensichtlich kaputte Dateien schnell abgelehnt werden.
+ * </p>
+ * <p>
+ * Die Folgenummern werden ueber den {@link FolgenummerValidator} geprueft.
+ * Dabei werden standardmaessig die Folgenummern aller Vertraege gemerkt,
+ * damit auch unsortierte Lieferungen richtig geprueft werden. Sind die
+ * Saetze nach Versicherungsscheinnummer sortiert, kann man ueber
+ * {@link #setSortedByVsnr(boolean)} Speicher sparen.
+ * </p>
+ *
+ * @author oboehm
+ * @since 7.2 (19.10.2024)
+ */
+public class StreamingValidator extends SatzValidator {
+
+    private static final Logger LOG = LogManager.getLogger(StreamingValidator.class);
+    private int maxViolations = Integer.MAX_VALUE;
+    private Duration timeBudget;
+    private long deadline;
+    private boolean started;
+    private boolean aborted;
+    private FolgenummerValidator folgenummerValidator = new FolgenummerValidator(false);
+
+    public StreamingValidator() {
+        this(Config.STRICT);
+    }
+
+    public StreamingValidator(Config config) {
+        super(config);
+    }
+
+    /**
+     * Nach der angegebenen Anzahl von Verletzungen wird die Validierung
+     * abgebrochen. Gezaehlt werden dabei die einzelnen Verletzungen (siehe
+     * {@link #getNumberOfViolations()}) - egal, ob sie zusammengefasst
+     * werden oder nicht.
+     *
+     * @param maxViolations max. Anzahl von Verletzungen
+     */
+    public void setMaxViolations(int maxViolations) {
+        this.maxViolations = maxViolations;
+    }
+
+    /**
+     * Dauert die Validierung laenger als angegeben, wird sie nach dem
+     * aktuellen Satz abgebrochen. Die Zeit beginnt mit dem ersten Satz
+     * zu laufen.
+     *
+     * @param timeBudget max. Dauer der Validierung
+     */
+    public void setTimeBudget(Duration timeBudget) {
+        this.timeBudget = timeBudget;
+    }
+
+    /**
+     * Sind die Saetze nach Versicherungsscheinnummer sortiert, kann man das
+     * hier angeben. Dann werden die gemerkten Folgenummern verworfen, sobald
+     * die Versicherungsscheinnummer wechselt, was Speicher spart. Bei
+     * unsortierten Saetzen fuehrt das aber zu falschen Verletzungen.
+     *
+     * @param sorted true, wenn die Saetze nach VSNR sortiert sind
+     */
+    public void setSortedByVsnr(boolean sorted) {
+        this.folgenummerValidator = new FolgenummerValidator(sorted);
+    }
+
+    @Override
+    public void notice(Satz satz) {
+        if (aborted) {
+            return;
+        }
+        if ((timeBudget != null) && !started) {
+            deadline = System.nanoTime() + timeBudget.toNanos();
+            started = true;
+        }
+        super.notice(satz);
+        if (satz instanceof Vorsatz) {
+            validateVUNummer((Vorsatz) satz);
+            folgenummerValidator.reset();
+        } else if (satz instanceof Datensatz) {
+            ConstraintViolation cv = folgenummerValidator.validate((Datensatz) satz);
+            if (cv != null) {
+                addViolation(cv);
+            }
+        }
+        if (getNumberOfViolations() >= maxViolations) {
+            List<ConstraintViolation> violations = getViolations();
+            if (violations.size() > maxViolations) {
+                violations.subList(maxViolations, violations.size()).clear();
+            }
+            LOG.info("Validierung wird nach {} Verletzungen abgebrochen.", maxViolations);
+            aborted = true;
+        } else if ((timeBudget != null) && (System.nanoTime() - deadline >= 0)) {
+            LOG.info("Validierung wird nach {} abgebrochen.", timeBudget);
+            aborted = true;
+        }
+    }
+
+    private void validateVUNummer(Vorsatz vorsatz) {
+        if (Config.DUMMY_VU_NUMMER.equals(vorsatz.getVuNummer())) {
+            addViolation(new SimpleConstraintViolation("VU-Nummer is not set", vorsatz, Config.DUMMY_VU_NUMMER));
+        }
+    }
+
+    /**
+     * Liefert true, wenn die max. Anzahl an Verletzungen oder die max.
+     * Dauer erreicht wurde.
+     *
+     * @return true, wenn abgebrochen wurde
+     */
+    @Override
+    public boolean isAborted() {
+        return aborted;
+    }
+
+    /**
+     * Validiert alle Datenpakete, die ueber den InputStream reinkommen.
+     *
+     * @param istream Eingabe im GDV-Format
+     * @return gefundene Verletzungen
+     * @throws IOException bei Lesefehlern
+     */
+    public List<ConstraintViolation> validate(InputStream istream) throws IOException {
+        return validate(new DatenpaketStreamer(istream));
+    }
+
+    /**
+     * Validiert alle Datenpakete, die ueber den Reader reinkommen.
+     *
+     * @param reader Eingabe im GDV-Format
+     * @return gefundene Verletzungen
+     * @throws IOException bei Lesefehlern
+     */
+    public List<ConstraintViolation> validate(Reader reader) throws IOException {
+        return validate(new DatenpaketStreamer(reader));
+    }
+
+    private List<ConstraintViolation> validate(DatenpaketStreamer streamer) throws IOException {
+        streamer.register(this);
+        streamer.readDatenpaket();
+        while (streamer.canReadDatenpaket()) {
+            streamer.readDatenpaket();
+        }
+        return getViolations();
+    }
+
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2024 by Oli B.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express orimplied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * (c)reated 19.10.2024 by oboehm
+ */
+package gdv.xport.event;
+
+import gdv.xport.satz.Datensatz;
+import gdv.xport.satz.Satz;
+import gdv.xport.satz.SatzPacker;
+import gdv.xport.satz.Vertrag;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Der VertragGrouper sammelt beim Streamen die aufeinanderfolgenden
+ * Datensaetze mit gleicher VU-Nummer und Versicherungsscheinnummer und
+ * reicht sie als {@link Vertrag} an einen {@link VertragListener} weiter,
+ * sobald der naechste Vertrag (oder der Nachsatz) beginnt. Es wird also
+ * immer nur ein Vertrag im Speicher gehalten.
+ * <p>
+ * Innerhalb eines Vertrags werden getrennte Teildatensaetze wie bei
+ * {@link gdv.xport.Datenpaket#pack()} wieder zusammengefasst.
+ * </p>
+ *
+ * @author oboehm
+ * @since 7.2 (19.10.2024)
+ */
+public class VertragGrouper implements ImportListener {
+
+    private final VertragListener target;
+    private final SatzPacker packer = new SatzPacker();
+    private final List<Datensatz> datensaetze = new ArrayList<>();
+    private String vuNummer = "";
+    private String vsnr = "";
+
+    /**
+     * Legt einen neuen VertragGrouper an.
+     *
+     * @param target Listener, an den die Vertraege gehen
+     */
+    public VertragGrouper(VertragListener target) {
+        this.target = target;
+    }
+
+    @Override
+    public void notice(Satz satz) {
+        if (satz instanceof Datensatz) {
+            notice((Datensatz) satz);
+        } else {
+            flush();
+        }
+    }
+
+    private void notice(Datensatz datensatz) {
+        // nicht jeder Datensatz hat eine VU-Nummer (z.B. 0291.550)
+        String vu = datensatz.hasVuNummer() ? datensatz.getVuNummer() : vuNummer;
+        String nr = datensatz.getVersicherungsscheinNummer();
+        if (!nr.equals(vsnr) || !vu.equals(vuNummer)) {
+            flush();
+            vsnr = nr;
+        }
+        vuNummer = vu;
+        if (packer.add(datensatz)) {
+            datensaetze.add(datensatz);
+        }
+    }
+
+    /**
+     * Reicht den aktuellen Vertrag weiter. Dies passiert automatisch beim
+     * Wechsel des Vertrags und beim Vorsatz bzw. Nachsatz. Endet die Eingabe
+     * ohne Nachsatz, sollte man diese Methode am Ende selbst aufrufen.
+     */
+    public void flush() {
+        packer.reset();
+        if (!datensaetze.isEmpty()) {
+            Vertrag vertrag = new Vertrag(vuNummer, vsnr, datensaetze);
+            datensaetze.clear();
+            target.notice(vertrag);
+        }
+    }
+
+    @Override
+    public boolean isAborted() {
+        return target.isAborted();
+    }
+
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2024 by Oli B.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express orimplied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * (c)reated 19.10.2024 by oboehm
+ */
+package gdv.xport.event;
+
+import gdv.xport.satz.Vertrag;
+
+import java.util.EventListener;
+
+/**
+ * Wer beim Streamen nicht ueber jeden einzelnen Satz, sondern ueber jeden
+ * vollstaendigen {@link Vertrag} informiert werden will, implementiert
+ * dieses Interface und registriert sich ueber einen {@link VertragGrouper}
+ * am {@link gdv.xport.DatenpaketStreamer}.
+ *
+ * @author oboehm
+ * @since 7.2 (19.10.2024)
+ */
+public interface VertragListener extends EventListener {
+
+    /**
+     * Sobald ein Vertrag vollstaendig gelesen wurde, wird der Listener
+     * hierueber informiert.
+     *
+     * @param vertrag der importierte Vertrag
+     */
+    void notice(Vertrag vertrag);
+
+    /**
+     * Analog zu {@link ImportListener#isAborted()} kann hierueber der Import
+     * vorzeitig beendet werden.
+     *
+     * @return true, wenn der Import abgebrochen werden soll
+     */
+    default boolean isAborted() {
+        return false;
+    }
+
+}
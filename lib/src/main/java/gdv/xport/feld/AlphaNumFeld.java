@@ -20,6 +20,7 @@ package gdv.xport.feld;
 import de.jfachwert.FachwertFactory;
 import gdv.xport.config.Config;
 import gdv.xport.util.SimpleConstraintViolation;
+import gdv.xport.util.ViolationSink;
 import net.sf.oval.ConstraintViolation;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -192,6 +193,16 @@ public class AlphaNumFeld extends Feld {
             return trimmed;
         }
 
+        @Override
+        protected boolean checkStrict(String value, ViolationSink sink) {
+            return checkLax(value, sink);
+        }
+
+        @Override
+        protected String normalize(String value, Config validationConfig) {
+            return (validationConfig.getValidateMode() == Config.ValidateMode.STRICT) ? value.trim() : value;
+        }
+
     }
 
 }
@@ -19,11 +19,11 @@
 package gdv.xport.feld;
 
 import gdv.xport.config.Config;
+import gdv.xport.util.ViolationSink;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import javax.validation.ValidationException;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.text.DecimalFormat;
@@ -317,15 +317,39 @@ public final class BetragMitVorzeichen extends Betrag {
 
         @Override
         protected String validateLax(String nummer) {
+            checkLax(nummer, FAIL_FAST);
+            return nummer;
+        }
+
+        @Override
+        protected boolean checkLax(String nummer, ViolationSink sink) {
             LOG.debug("{} wird als Betrag mit Vorzeichen validiert.", nummer);
             if (StringUtils.isNotBlank(nummer)) {
                 char vorzeichen = nummer.charAt(nummer.length() - 1);
                 if ((vorzeichen != '+') && (vorzeichen != '-')) {
-                    throw new ValidationException(String.format("'%s' hat falsches Vorzeichen ('%c')", nummer, vorzeichen));
+                    sink.report("'%s' hat falsches Vorzeichen ('%c')", nummer, vorzeichen);
+                    return false;
                 }
-                super.validateLax(nummer.substring(0, nummer.length()-1));
+                return super.checkLax(nummer.substring(0, nummer.length()-1), sink);
             }
-            return nummer;
+            return true;
+        }
+
+        @Override
+        protected boolean checkStrict(String value, ViolationSink sink) {
+            if (value.startsWith("+")) {
+                return super.checkStrict(value.substring(1), sink);
+            } else {
+                return super.checkStrict(value, sink);
+            }
+        }
+
+        @Override
+        protected String normalize(String value, Config validationConfig) {
+            if ((validationConfig.getValidateMode() == Config.ValidateMode.STRICT) && value.startsWith("+")) {
+                return value.substring(1);
+            }
+            return value;
         }
 
         @Override
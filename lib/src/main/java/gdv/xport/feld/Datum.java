@@ -20,6 +20,7 @@ package gdv.xport.feld;
 
 import gdv.xport.config.Config;
 import gdv.xport.util.SimpleConstraintViolation;
+import gdv.xport.util.ViolationSink;
 import net.sf.oval.ConstraintViolation;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -28,6 +29,7 @@ import javax.validation.ValidationException;
 import java.math.BigDecimal;
 import java.text.DateFormat;
 import java.text.ParseException;
+import java.text.ParsePosition;
 import java.text.SimpleDateFormat;
 import java.time.LocalDate;
 import java.time.ZoneId;
@@ -353,13 +355,11 @@ public final class Datum extends NumFeld {
 
     private boolean hasValidDate() {
         Datum.Validator validator = (Datum.Validator) getValidator();
-        try {
-            validator.validateFormat(dateFormat, this.getInhalt());
-            return true;
-        } catch (ValidationException e) {
-            LOG.info(e + " -> mapped to false");
-            return false;
-        }
+        return validator.checkFormat(dateFormat, this.getInhalt(), (pattern, args) -> {
+            if (LOG.isInfoEnabled()) {
+                LOG.info("{} -> mapped to false", String.format(pattern, args));
+            }
+        });
     }
 
     /* (non-Javadoc)
@@ -369,8 +369,7 @@ public final class Datum extends NumFeld {
     public List<ConstraintViolation> validate() {
         List<ConstraintViolation> violations = super.validate();
         if (!this.isEmpty() && !this.hasValidDate()) {
-            ConstraintViolation cv =
-                    new SimpleConstraintViolation("'" + this.getInhalt() + "' is not a valid date", this);
+            ConstraintViolation cv = SimpleConstraintViolation.of(this, "'%s' is not a valid date", this.getInhalt());
             violations.add(cv);
         }
         return violations;
@@ -436,19 +435,34 @@ public final class Datum extends NumFeld {
         }
 
         protected String validateFormat(DateFormat format, String value) {
-            try {
-                Date date = format.parse(value);
-                String converted = format.format(date);
-                if (!value.equals(converted)) {
-                    throw new ValidationException(String.format(
-                            "'%s' ist kein korrektes Datum - ist vielleicht '%s' gemeint?", value, converted));
-                }
-            } catch (ParseException ex) {
-                throw new ValidationException(String.format("'%s' ist kein Datum", value), ex);
-            }
+            checkFormat(format, value, FAIL_FAST);
             return value;
         }
 
+        /**
+         * Prueft das Datum gegen das angegebene Format, ohne dass dabei
+         * Exceptions geworfen werden.
+         *
+         * @param format Datumsformat
+         * @param value  Wert, der geprueft werden soll
+         * @param sink   hierueber werden Verletzungen gemeldet
+         * @return true, wenn es ein gueltiges Datum ist
+         * @since 7.2
+         */
+        protected boolean checkFormat(DateFormat format, String value, ViolationSink sink) {
+            Date date = format.parse(value, new ParsePosition(0));
+            if (date == null) {
+                sink.report("'%s' ist kein Datum", value);
+                return false;
+            }
+            String converted = format.format(date);
+            if (!value.equals(converted)) {
+                sink.report("'%s' ist kein korrektes Datum - ist vielleicht '%s' gemeint?", value, converted);
+                return false;
+            }
+            return true;
+        }
+
     }
 
 }
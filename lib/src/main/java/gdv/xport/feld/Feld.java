@@ -20,9 +20,11 @@ package gdv.xport.feld;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import de.jfachwert.SimpleValidator;
-import de.jfachwert.Text;
 import gdv.xport.config.Config;
+import gdv.xport.util.ModificationCounter;
+import gdv.xport.util.PrintableChars;
 import gdv.xport.util.SimpleConstraintViolation;
+import gdv.xport.util.ViolationSink;
 import net.sf.oval.ConstraintViolation;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.logging.log4j.LogManager;
@@ -55,6 +57,8 @@ public class Feld implements Comparable<Feld>, Cloneable, Serializable {
     private final byte length;
     private byte ausrichtung;
     protected final Config config;
+    /** Wird bei jeder Aenderung des Inhalts hochgezaehlt (evtl. gemeinsam mit anderen Feldern). */
+    private transient ModificationCounter modCounter = new ModificationCounter();
 
     /**
      * Legt ein neues Feld an. Dieser Default-Konstruktor ist fuer Unterklassen
@@ -366,6 +370,7 @@ public class Feld implements Comparable<Feld>, Cloneable, Serializable {
             this.resetInhalt();
         }
         this.inhalt = pack(s);
+        this.modified();
     }
 
     protected String pack(String s) {
@@ -441,6 +446,7 @@ public class Feld implements Comparable<Feld>, Cloneable, Serializable {
         StringBuilder sb = new StringBuilder(this.getInhalt());
         sb.setCharAt(i, c);
         this.inhalt = sb.toString();
+        this.modified();
     }
 
     /**
@@ -474,6 +480,44 @@ public class Feld implements Comparable<Feld>, Cloneable, Serializable {
      */
     public final void resetInhalt() {
         this.inhalt = "";
+        this.modified();
+    }
+
+    private void modified() {
+        if (modCounter == null) {
+            // nach der Deserialisierung
+            modCounter = new ModificationCounter();
+        }
+        modCounter.increment();
+    }
+
+    /**
+     * Liefert einen Zaehler, der bei jeder Aenderung des Inhalts erhoeht
+     * wird. Damit koennen z.B. Teildatensaetze erkennen, ob ein Feld seit
+     * dem Import geaendert wurde, ohne den Inhalt zu vergleichen. Wird der
+     * Zaehler mit anderen Feldern geteilt (siehe
+     * {@link #setModificationCounter(ModificationCounter)}), zaehlt er auch
+     * deren Aenderungen mit.
+     *
+     * @return Anzahl der bisherigen Aenderungen
+     * @since 7.2
+     */
+    @JsonIgnore
+    public int getModificationCount() {
+        return (modCounter == null) ? 0 : modCounter.get();
+    }
+
+    /**
+     * Setzt den Zaehler fuer Aenderungen am Inhalt. Ein Teildatensatz
+     * verwendet so einen gemeinsamen Zaehler fuer alle seine Felder und
+     * muss fuer die Pruefung auf Aenderungen nur noch einen Wert abfragen.
+     *
+     * @param counter gemeinsamer Zaehler
+     * @since 7.2
+     */
+    @JsonIgnore
+    public void setModificationCounter(ModificationCounter counter) {
+        this.modCounter = counter;
     }
 
     /**
@@ -604,16 +648,12 @@ public class Feld implements Comparable<Feld>, Cloneable, Serializable {
     public List<ConstraintViolation> validate(Config validationConfig) {
         List<ConstraintViolation> violations = validateInvariants();
         if (this.getEndAdresse() > 256) {
-            ConstraintViolation cv = new SimpleConstraintViolation(this + ": Endadresse ueberschritten", this,
-                    this.getEndAdresse());
-            violations.add(cv);
-        }
-        try {
-            this.getValidator().validate(getInhalt(), validationConfig);
-        } catch (RuntimeException ex) {
-            ConstraintViolation cv = new SimpleConstraintViolation(this, ex);
+            ConstraintViolation cv = SimpleConstraintViolation.withRule("Endadresse ueberschritten",
+                    this + ": Endadresse ueberschritten", this, this.getEndAdresse());
             violations.add(cv);
         }
+        this.getValidator().validate(getInhalt(), validationConfig,
+                (pattern, args) -> violations.add(SimpleConstraintViolation.of(this, pattern, args)));
         return violations;
     }
 
@@ -734,6 +774,17 @@ public class Feld implements Comparable<Feld>, Cloneable, Serializable {
      */
     public static class Validator implements SimpleValidator<String> {
 
+        /** Wirft beim ersten Fehler eine {@link ValidationException}. */
+        protected static final ViolationSink FAIL_FAST = (pattern, args) -> {
+            throw new ValidationException(String.format(pattern, args));
+        };
+        private static final ClassValue<Legacy> LEGACY = new ClassValue<Legacy>() {
+            @Override
+            protected Legacy computeValue(Class<?> type) {
+                return new Legacy(type);
+            }
+        };
+        private static final ThreadLocal<Boolean> IN_LEGACY = ThreadLocal.withInitial(() -> Boolean.FALSE);
         private final Config config;
 
         public Validator() {
@@ -758,12 +809,28 @@ public class Feld implements Comparable<Feld>, Cloneable, Serializable {
          * @return der Wert selber zur Weiterverarbeitung
          */
         public String verify(String value, Feld validatedFeld) {
-            try {
-                return validate(value);
-            } catch (RuntimeException ex) {
-                throw new IllegalArgumentException(
-                        String.format("%s: Wert '%s' ist nicht erlaubt (%s)", validatedFeld.toShortString(), value, ex.getMessage()), ex);
+            FirstViolation violation = new FirstViolation();
+            if (!validate(value, config, violation)) {
+                throw new IllegalArgumentException(String.format("%s: Wert '%s' ist nicht erlaubt (%s)",
+                        validatedFeld.toShortString(), value, violation.getMessage()));
             }
+            return normalize(value, config);
+        }
+
+        /**
+         * Liefert den bereits geprueften Wert so zurueck, wie er auch von
+         * {@link #validate(String, Config)} geliefert wird (z.B. ohne
+         * fuehrende oder abschliessende Leerzeichen). Unterklassen, die den
+         * Wert bei der Validierung veraendern, muessen diese Methode
+         * entsprechend ueberschreiben.
+         *
+         * @param value            gueltiger Wert
+         * @param validationConfig Konfiguration (off, lax, strict)
+         * @return Wert zur Weiterverarbeitung
+         * @since 7.2
+         */
+        protected String normalize(String value, Config validationConfig) {
+            return value;
         }
 
         /**
@@ -792,6 +859,44 @@ public class Feld implements Comparable<Feld>, Cloneable, Serializable {
             }
         }
 
+        /**
+         * Im Gegensatz zu {@link #validate(String, Config)} wird hier keine
+         * Exception geworfen, sondern die gefundenen Verletzungen werden an
+         * die uebergebene {@link ViolationSink} gemeldet. Die Meldung selbst
+         * wird erst formattiert, wenn sie gebraucht wird.
+         * <p>
+         * Eigene Validatoren sollten dazu {@link #checkLax(String, ViolationSink)}
+         * bzw. {@link #checkStrict(String, ViolationSink)} ueberschreiben.
+         * Validatoren, die noch (nur) {@link #validate(String, Config)},
+         * {@link #validateLax(String)} oder {@link #validateStrict(String)}
+         * ueberschreiben, werden weiterhin unterstuetzt: deren Exception
+         * wird dann als Verletzung gemeldet.
+         * </p>
+         *
+         * @param value            Wert, der validiert werden soll
+         * @param validationConfig Konfiguration (off, lax, strict)
+         * @param sink             hierueber werden Verletzungen gemeldet
+         * @return true, wenn der Wert gueltig ist
+         * @since 7.2
+         */
+        public boolean validate(String value, Config validationConfig, ViolationSink sink) {
+            if (value == null) {
+                sink.report("null-Werte sind nicht erlaubt");
+                return false;
+            }
+            if (LEGACY.get(getClass()).validate) {
+                return callLegacy(() -> validate(value, validationConfig), sink);
+            }
+            switch (validationConfig.getValidateMode()) {
+                case LAX:
+                    return checkLax(value, sink);
+                case STRICT:
+                    return checkStrict(value, sink);
+                default:
+                    return true;
+            }
+        }
+
         /**
          * Dieser validate-Methode bietet eine Basis-Validierung fuer die
          * Standard-Faelle.
@@ -800,10 +905,7 @@ public class Feld implements Comparable<Feld>, Cloneable, Serializable {
          * @return der Wert selber zur Weiterverarbeitung
          */
         protected String validateLax(String value) {
-            LOG.debug("Inhalt von '{}' wird validiert.", value);
-            if (!Text.isPrintable(value)) {
-                throw new ValidationException(String.format("Text '%s' enthaelt ungueltige Zeichen", value));
-            }
+            withoutLegacy(() -> checkLax(value, FAIL_FAST));
             return value;
         }
 
@@ -815,7 +917,132 @@ public class Feld implements Comparable<Feld>, Cloneable, Serializable {
          * @return der Wert selber zur Weiterverarbeitung
          */
         protected String validateStrict(String value) {
-            return validateLax(value);
+            withoutLegacy(() -> checkStrict(value, FAIL_FAST));
+            return value;
+        }
+
+        /**
+         * Basis-Pruefung fuer die Standard-Faelle, die ohne Exception
+         * auskommt.
+         *
+         * @param value Wert, der geprueft werden soll
+         * @param sink  hierueber werden Verletzungen gemeldet
+         * @return true, wenn der Wert gueltig ist
+         * @since 7.2
+         */
+        protected boolean checkLax(String value, ViolationSink sink) {
+            if (LEGACY.get(getClass()).lax && !IN_LEGACY.get()) {
+                return callLegacy(() -> validateLax(value), sink);
+            }
+            LOG.debug("Inhalt von '{}' wird validiert.", value);
+            if (!PrintableChars.isPrintable(value)) {
+                sink.report("Text '%s' enthaelt ungueltige Zeichen", value);
+                return false;
+            }
+            return true;
+        }
+
+        /**
+         * Strengere Pruefung, die von Unterklassen ueberschrieben werden
+         * kann.
+         *
+         * @param value Wert, der geprueft werden soll
+         * @param sink  hierueber werden Verletzungen gemeldet
+         * @return true, wenn der Wert gueltig ist
+         * @since 7.2
+         */
+        protected boolean checkStrict(String value, ViolationSink sink) {
+            if (LEGACY.get(getClass()).strict && !IN_LEGACY.get()) {
+                return callLegacy(() -> validateStrict(value), sink);
+            }
+            return checkLax(value, sink);
+        }
+
+        /**
+         * Ruft die alte validate-Methode einer Unterklasse auf und meldet
+         * deren Exception als Verletzung. Ruft diese ueber 'super' wieder
+         * die check-Methoden auf, wird dort nicht erneut delegiert.
+         */
+        private static boolean callLegacy(Runnable legacy, ViolationSink sink) {
+            try {
+                withoutLegacy(legacy);
+                return true;
+            } catch (ValidationException | IllegalArgumentException ex) {
+                sink.report("%s", ex.getMessage());
+                return false;
+            }
+        }
+
+        private static void withoutLegacy(Runnable check) {
+            boolean nested = IN_LEGACY.get();
+            IN_LEGACY.set(Boolean.TRUE);
+            try {
+                check.run();
+            } finally {
+                IN_LEGACY.set(nested);
+            }
+        }
+
+        /**
+         * Merkt sich fuer eine Validator-Klasse, ob sie noch die alten
+         * validate-Methoden ueberschreibt, ohne die passende
+         * check-Methode (bzw. die validate-Methode mit
+         * {@link ViolationSink}) ebenfalls anzupassen.
+         */
+        private static final class Legacy {
+
+            private final boolean validate;
+            private final boolean lax;
+            private final boolean strict;
+
+            private Legacy(Class<?> type) {
+                this.validate = isMoreSpecific(declaringClass(type, "validate", String.class, Config.class),
+                        declaringClass(type, "validate", String.class, Config.class, ViolationSink.class));
+                this.lax = isMoreSpecific(declaringClass(type, "validateLax", String.class),
+                        declaringClass(type, "checkLax", String.class, ViolationSink.class));
+                this.strict = isMoreSpecific(declaringClass(type, "validateStrict", String.class),
+                        declaringClass(type, "checkStrict", String.class, ViolationSink.class));
+            }
+
+            private static boolean isMoreSpecific(Class<?> legacy, Class<?> current) {
+                return (legacy != current) && current.isAssignableFrom(legacy);
+            }
+
+            private static Class<?> declaringClass(Class<?> type, String name, Class<?>... parameterTypes) {
+                for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+                    try {
+                        c.getDeclaredMethod(name, parameterTypes);
+                        return c;
+                    } catch (NoSuchMethodException ex) {
+                        LOG.trace("{} is not declared in {}.", name, c, ex);
+                    }
+                }
+                return Validator.class;
+            }
+
+        }
+
+        /**
+         * Merkt sich die erste gemeldete Verletzung, um daraus (nur bei
+         * Bedarf) eine Meldung zu erzeugen.
+         */
+        private static final class FirstViolation implements ViolationSink {
+
+            private String pattern;
+            private Object[] args;
+
+            @Override
+            public void report(String msgPattern, Object... msgArgs) {
+                if (pattern == null) {
+                    this.pattern = msgPattern;
+                    this.args = msgArgs;
+                }
+            }
+
+            String getMessage() {
+                return String.format(pattern, args);
+            }
+
         }
 
     }
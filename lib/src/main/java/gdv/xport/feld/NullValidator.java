@@ -18,6 +18,7 @@
 package gdv.xport.feld;
 
 import gdv.xport.config.Config;
+import gdv.xport.util.ViolationSink;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -46,4 +47,18 @@ public class NullValidator extends Feld.Validator {
         return value;
     }
 
+    /**
+     * Auch hier wird die Validierung abgeschaltet.
+     *
+     * @param value            wird ignoriert
+     * @param validationConfig wird ignoriert
+     * @param sink             wird nicht aufgerufen
+     * @return immer true
+     */
+    @Override
+    public boolean validate(String value, Config validationConfig, ViolationSink sink) {
+        LOG.trace("{} wird ignoriert.", validationConfig);
+        return true;
+    }
+
 }
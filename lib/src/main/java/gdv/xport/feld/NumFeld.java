@@ -20,6 +20,7 @@ package gdv.xport.feld;
 import de.jfachwert.pruefung.exception.LocalizedIllegalArgumentException;
 import de.jfachwert.pruefung.exception.ValidationException;
 import gdv.xport.config.Config;
+import gdv.xport.util.ViolationSink;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -507,19 +508,36 @@ public class NumFeld extends Feld {
 
         @Override
         protected String validateLax(String value) {
+            return super.validateLax(value).trim();
+        }
+
+        @Override
+        protected boolean checkLax(String value, ViolationSink sink) {
             String nummer = value.trim();
             LOG.debug("{} wird als Zahl validiert.", nummer);
-            if (StringUtils.isNotBlank(nummer)) {
-                try {
-                    BigInteger n = new BigInteger(nummer);
-                    if (n.compareTo(BigInteger.ZERO) < 0) {
-                        throw new javax.validation.ValidationException(String.format("'%s' darf nicht negativ sein", nummer));
-                    }
-                } catch (NumberFormatException nfe) {
-                    throw new javax.validation.ValidationException(String.format("'%s' ist keine Zahl", nummer), nfe);
+            if (StringUtils.isBlank(nummer)) {
+                return true;
+            }
+            char first = nummer.charAt(0);
+            int start = (first == '-' || first == '+') ? 1 : 0;
+            if (start == nummer.length()) {
+                sink.report("'%s' ist keine Zahl", nummer);
+                return false;
+            }
+            boolean zero = true;
+            for (int i = start; i < nummer.length(); i++) {
+                int digit = Character.digit(nummer.charAt(i), 10);
+                if (digit < 0) {
+                    sink.report("'%s' ist keine Zahl", nummer);
+                    return false;
                 }
+                zero &= digit == 0;
+            }
+            if (first == '-' && !zero) {
+                sink.report("'%s' darf nicht negativ sein", nummer);
+                return false;
             }
-            return nummer;
+            return true;
         }
 
         @Override
@@ -531,6 +549,20 @@ public class NumFeld extends Feld {
             }
         }
 
+        @Override
+        protected boolean checkStrict(String value, ViolationSink sink) {
+            if (!StringUtils.trim(value).equals(value) || StringUtils.isBlank(value)) {
+                sink.report("Zahl muss vorhanden sein und darf keine Leerzeichen enthalten");
+                return false;
+            }
+            return checkLax(value, sink);
+        }
+
+        @Override
+        protected String normalize(String value, Config validationConfig) {
+            return (validationConfig.getValidateMode() == Config.ValidateMode.OFF) ? value : value.trim();
+        }
+
         @Override
         public String verify(String value) {
             try {
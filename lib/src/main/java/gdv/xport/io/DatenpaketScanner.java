@@ -0,0 +1,212 @@
+/*
+ * Copyright (c) 2024 by Oli B.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express orimplied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * (c)reated 19.10.2024 by oboehm
+ */
+package gdv.xport.io;
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Der DatenpaketScanner sucht in einer GDV-Datei nach den Grenzen der
+ * einzelnen Datenpakete. Dazu wird nur die Satzart (Byte 1-4) jedes Records
+ * betrachtet, ohne dass irgendein Satz angelegt wird. Ein Datenpaket beginnt
+ * mit dem (ersten) Vorsatz und endet mit dem Nachsatz. Fehlt der Nachsatz,
+ * endet es vor dem naechsten Vorsatz bzw. am Dateiende.
+ * <p>
+ * Die Positionen sind Byte-Offsets. Daher funktioniert der Scanner nur mit
+ * Encodings, bei denen ein Zeichen einem Byte entspricht (wie ISO-8859-1 oder
+ * IBM850).
+ * </p>
+ *
+ * @author oboehm
+ * @since 7.2 (19.10.2024)
+ */
+public final class DatenpaketScanner {
+
+    private final InputStream istream;
+    private long position;
+
+    private DatenpaketScanner(InputStream istream) {
+        this.istream = istream;
+    }
+
+    /**
+     * Sucht die Datenpakete in der angegebenen Datei.
+     *
+     * @param file GDV-Datei
+     * @return die Bereiche der Datenpakete in der Reihenfolge der Datei
+     * @throws IOException bei Lesefehlern
+     */
+    public static List<Segment> scan(Path file) throws IOException {
+        try (InputStream istream = new BufferedInputStream(Files.newInputStream(file), 0x10000)) {
+            return scan(istream);
+        }
+    }
+
+    /**
+     * Sucht die Datenpakete im angegebenen Stream. Der Stream sollte
+     * gepuffert sein, da er byteweise gelesen wird.
+     *
+     * @param istream Eingabe
+     * @return die Bereiche der Datenpakete in der Reihenfolge der Eingabe
+     * @throws IOException bei Lesefehlern
+     */
+    public static List<Segment> scan(InputStream istream) throws IOException {
+        return new DatenpaketScanner(istream).scan();
+    }
+
+    private List<Segment> scan() throws IOException {
+        List<Segment> segments = new ArrayList<>();
+        long start = -1;
+        int lastSatzart = -1;
+        while (true) {
+            int c = skipWhitespace();
+            if (c < 0) {
+                break;
+            }
+            long recordStart = position - 1;
+            int satzart = readRecord(c);
+            if ((satzart == 1) && (lastSatzart != 1)) {
+                if (start >= 0) {
+                    segments.add(new Segment(start, recordStart));
+                }
+                start = recordStart;
+            } else if ((satzart == 9999) && (start >= 0)) {
+                segments.add(new Segment(start, position));
+                start = -1;
+            }
+            lastSatzart = satzart;
+        }
+        if (start >= 0) {
+            segments.add(new Segment(start, position));
+        }
+        return segments;
+    }
+
+    private int read() throws IOException {
+        int c = istream.read();
+        if (c >= 0) {
+            position++;
+        }
+        return c;
+    }
+
+    private int skipWhitespace() throws IOException {
+        int c = read();
+        while ((c == ' ') || (c == '\n') || (c == '\r') || (c == '\t')) {
+            c = read();
+        }
+        return c;
+    }
+
+    /**
+     * Liest die Satzart und ueberspringt den Rest des Records (bis Byte 256
+     * oder bis zum Zeilenende, falls der Record gekuerzt wurde).
+     */
+    private int readRecord(int first) throws IOException {
+        int satzart = 0;
+        int c = first;
+        for (int n = 0; n < 256; n++) {
+            if (n > 0) {
+                c = read();
+            }
+            if ((c < 0) || (c == '\n')) {
+                if (n < 4) {
+                    throw new EOFException("incomplete record at position " + position);
+                }
+                break;
+            }
+            if ((n < 4) && (c >= '0') && (c <= '9')) {
+                satzart = satzart * 10 + (c - '0');
+            }
+        }
+        return satzart;
+    }
+
+    /**
+     * Ein Segment ist der Bereich eines Datenpakets in der Datei.
+     */
+    public static final class Segment {
+
+        private final long start;
+        private final long end;
+
+        private Segment(long start, long end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        /**
+         * Liefert die Position des Vorsatzes.
+         *
+         * @return Byte-Offset
+         */
+        public long getStart() {
+            return start;
+        }
+
+        /**
+         * Liefert die Position direkt hinter dem Nachsatz.
+         *
+         * @return Byte-Offset (exklusiv)
+         */
+        public long getEnd() {
+            return end;
+        }
+
+        public long getLength() {
+            return end - start;
+        }
+
+        /**
+         * Liest den Bereich ueber einen positionellen Zugriff aus dem
+         * uebergebenen Channel. Damit koennen mehrere Threads gleichzeitig
+         * ueber den gleichen Channel lesen.
+         *
+         * @param channel Channel der GDV-Datei
+         * @return die Bytes des Datenpakets
+         * @throws IOException bei Lesefehlern
+         */
+        public byte[] read(FileChannel channel) throws IOException {
+            if (getLength() > Integer.MAX_VALUE) {
+                throw new IOException(this + " is too large (" + getLength() + " bytes)");
+            }
+            ByteBuffer buffer = ByteBuffer.allocate((int) getLength());
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, start + buffer.position()) < 0) {
+                    throw new EOFException("unexpected end of file in " + this);
+                }
+            }
+            return buffer.array();
+        }
+
+        @Override
+        public String toString() {
+            return "Segment [" + start + ", " + end + ")";
+        }
+
+    }
+
+}
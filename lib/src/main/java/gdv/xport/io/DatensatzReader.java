@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2024 by Oli B.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express orimplied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * (c)reated 19.10.2024 by oboehm
+ */
+package gdv.xport.io;
+
+import gdv.xport.config.Config;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Der DatensatzReader liest die Records einer GDV-Datei roh und liefert sie
+ * gruppiert nach Datensatz, d.h. die Teildatensaetze eines Datensatzes
+ * kommen zusammen (siehe {@link Importer#isTeildatensatzOf(char[], char[])}).
+ * Aufeinanderfolgende Vorsatz-Records werden ebenfalls als eine Gruppe
+ * geliefert, der Nachsatz als eigene Gruppe.
+ * <p>
+ * Dabei werden keine Saetze angelegt, sodass sich der Reader fuer Werkzeuge
+ * eignet, die Datensaetze nur weiterreichen, sortieren oder verteilen.
+ * </p>
+ *
+ * @author oboehm
+ * @since 7.2 (19.10.2024)
+ */
+public class DatensatzReader implements Closeable {
+
+    private final RecordSource source;
+
+    /**
+     * Legt einen DatensatzReader fuer den uebergebenen Reader an.
+     *
+     * @param reader Quelle der GDV-Daten
+     */
+    public DatensatzReader(Reader reader) {
+        this.source = new RecordSource(reader);
+    }
+
+    /**
+     * Oeffnet die angegebene Datei mit dem Default-Encoding
+     * ({@link Config#DEFAULT_ENCODING}).
+     *
+     * @param file GDV-Datei
+     * @return DatensatzReader fuer die Datei
+     * @throws IOException falls die Datei nicht geoeffnet werden kann
+     */
+    public static DatensatzReader of(Path file) throws IOException {
+        return of(file, Config.DEFAULT_ENCODING);
+    }
+
+    /**
+     * Oeffnet die angegebene Datei mit dem uebergebenen Encoding.
+     *
+     * @param file GDV-Datei
+     * @param encoding Encoding der Datei
+     * @return DatensatzReader fuer die Datei
+     * @throws IOException falls die Datei nicht geoeffnet werden kann
+     */
+    public static DatensatzReader of(Path file, Charset encoding) throws IOException {
+        return new DatensatzReader(Files.newBufferedReader(file, encoding));
+    }
+
+    /**
+     * Liefert die Records des naechsten Datensatzes (bzw. des Vorsatzes oder
+     * Nachsatzes).
+     *
+     * @return Records mit je 256 Zeichen oder null am Ende der Eingabe
+     * @throws IOException bei Lesefehlern
+     */
+    public List<String> next() throws IOException {
+        String first = source.next();
+        if (first == null) {
+            return null;
+        }
+        List<String> records = new ArrayList<>();
+        records.add(first);
+        if (isNachsatz(first)) {
+            return records;
+        }
+        char[] previous = first.toCharArray();
+        for (String record = source.peek(); record != null; record = source.peek()) {
+            char[] chars = record.toCharArray();
+            if (isVorsatz(first) ? !isVorsatz(record) : !Importer.isTeildatensatzOf(previous, chars)) {
+                break;
+            }
+            records.add(source.next());
+            previous = chars;
+        }
+        return records;
+    }
+
+    /**
+     * Prueft, ob der Record zum Vorsatz (Satzart 0001) gehoert.
+     *
+     * @param record Record
+     * @return true bei Vorsatz
+     */
+    public static boolean isVorsatz(String record) {
+        return record.startsWith("0001");
+    }
+
+    /**
+     * Prueft, ob der Record ein Nachsatz (Satzart 9999) ist.
+     *
+     * @param record Record
+     * @return true bei Nachsatz
+     */
+    public static boolean isNachsatz(String record) {
+        return record.startsWith("9999");
+    }
+
+    @Override
+    public void close() throws IOException {
+        source.close();
+    }
+
+}
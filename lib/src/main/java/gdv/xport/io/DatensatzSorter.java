@@ -0,0 +1,415 @@
+/*
+ * Copyright (c) 2024 by Oli B.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express orimplied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * (c)reated 19.10.2024 by oboehm
+ */
+package gdv.xport.io;
+
+import gdv.xport.config.Config;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Der DatensatzSorter sortiert die Datensaetze einer GDV-Datei nach einem
+ * oder mehreren Kopf-Feldern (siehe {@link Key}). Die Teildatensaetze eines
+ * Datensatzes bleiben dabei zusammen und in ihrer Reihenfolge.
+ * <p>
+ * Da Dateien sehr gross werden koennen, wird extern sortiert: es werden
+ * hoechstens {@link #getMaxRecords()} Records im Speicher gehalten, sortiert
+ * und als Lauf in eine temporaere Datei geschrieben. Anschliessend werden die
+ * Laeufe wieder zusammengemischt. Damit nicht zu viele Dateien gleichzeitig
+ * offen sind, werden dabei hoechstens {@link #getMaxFanIn()} Laeufe auf
+ * einmal gemischt; gibt es mehr, werden sie in mehreren Durchgaengen zu
+ * groesseren Laeufen zusammengefasst. Sortiert wird jeweils innerhalb eines
+ * Datenpakets, d.h. Vorsatz und Nachsatz bleiben unveraendert an ihrer
+ * Stelle und die Ausgabe ist wieder ein gueltiges Datenpaket. Datensaetze
+ * mit gleichem Schluessel behalten ihre urspruengliche Reihenfolge.
+ * </p>
+ *
+ * @author oboehm
+ * @since 7.2 (19.10.2024)
+ */
+public final class DatensatzSorter {
+
+    private static final Logger LOG = LogManager.getLogger(DatensatzSorter.class);
+
+    /** Anzahl der Records, die standardmaessig im Speicher gehalten werden. */
+    public static final int DEFAULT_MAX_RECORDS = 100_000;
+
+    /** Anzahl der Laeufe, die standardmaessig gleichzeitig gemischt werden. */
+    public static final int DEFAULT_MAX_FAN_IN = 64;
+
+    private final int maxRecords;
+    private final int maxFanIn;
+    private final Charset encoding;
+    private final Key[] keys;
+
+    /**
+     * Die Kopf-Felder, nach denen sortiert werden kann. Da alle Felder eine
+     * feste Laenge haben, wird einfach nach dem Inhalt sortiert.
+     */
+    public enum Key {
+
+        /** Satzart (Byte 1-4). */
+        SATZART(0, 4),
+
+        /** VU-Nummer (Byte 5-9). */
+        VU_NUMMER(4, 9),
+
+        /** Sparte (Byte 11-13). */
+        SPARTE(10, 13),
+
+        /** Versicherungsschein-Nummer (Byte 14-30). */
+        VERSICHERUNGSSCHEIN_NUMMER(13, 30),
+
+        /** Folgenummer (Byte 31-32). */
+        FOLGENUMMER(30, 32),
+
+        /** Vermittler (Byte 33-42). */
+        VERMITTLER(32, 42);
+
+        private final int begin;
+        private final int end;
+
+        Key(int begin, int end) {
+            this.begin = begin;
+            this.end = end;
+        }
+
+        /**
+         * Liefert den Inhalt des Kopf-Feldes.
+         *
+         * @param record Record mit 256 Zeichen
+         * @return Inhalt des Feldes (inkl. Leerzeichen)
+         */
+        public String of(String record) {
+            return record.substring(begin, end);
+        }
+
+    }
+
+    /**
+     * Legt einen Sorter mit {@link #DEFAULT_MAX_RECORDS} an, der nach den
+     * angegebenen Kopf-Feldern sortiert. Ohne Angabe wird nach der
+     * Versicherungsschein-Nummer sortiert.
+     *
+     * @param keys Kopf-Felder in der gewuenschten Reihenfolge
+     */
+    public DatensatzSorter(Key... keys) {
+        this(DEFAULT_MAX_RECORDS, keys);
+    }
+
+    /**
+     * Legt einen Sorter an, der hoechstens die angegebene Anzahl von Records
+     * im Speicher haelt.
+     *
+     * @param maxRecords max. Anzahl Records pro Lauf
+     * @param keys Kopf-Felder in der gewuenschten Reihenfolge
+     */
+    public DatensatzSorter(int maxRecords, Key... keys) {
+        this(maxRecords, Config.DEFAULT_ENCODING, keys);
+    }
+
+    /**
+     * Legt einen Sorter fuer Dateien mit dem angegebenen Encoding an.
+     *
+     * @param maxRecords max. Anzahl Records pro Lauf
+     * @param encoding Encoding der Dateien
+     * @param keys Kopf-Felder in der gewuenschten Reihenfolge
+     */
+    public DatensatzSorter(int maxRecords, Charset encoding, Key... keys) {
+        this(maxRecords, DEFAULT_MAX_FAN_IN, encoding, keys);
+    }
+
+    /**
+     * Legt einen Sorter an, der hoechstens die angegebene Anzahl von Records
+     * im Speicher haelt und hoechstens die angegebene Anzahl von Laeufen
+     * gleichzeitig mischt.
+     *
+     * @param maxRecords max. Anzahl Records pro Lauf
+     * @param maxFanIn max. Anzahl gleichzeitig gemischter Laeufe (mind. 2)
+     * @param encoding Encoding der Dateien
+     * @param keys Kopf-Felder in der gewuenschten Reihenfolge
+     */
+    public DatensatzSorter(int maxRecords, int maxFanIn, Charset encoding, Key... keys) {
+        if (maxRecords < 1) {
+            throw new IllegalArgumentException("maxRecords=" + maxRecords + " must be positive");
+        }
+        if (maxFanIn < 2) {
+            throw new IllegalArgumentException("maxFanIn=" + maxFanIn + " must be at least 2");
+        }
+        this.maxRecords = maxRecords;
+        this.maxFanIn = maxFanIn;
+        this.encoding = encoding;
+        this.keys = (keys.length == 0) ? new Key[]{Key.VERSICHERUNGSSCHEIN_NUMMER} : keys.clone();
+    }
+
+    public int getMaxRecords() {
+        return maxRecords;
+    }
+
+    public int getMaxFanIn() {
+        return maxFanIn;
+    }
+
+    /**
+     * Liefert den Sortier-Schluessel fuer den uebergebenen Record.
+     *
+     * @param record (erster) Record eines Datensatzes
+     * @return Sortier-Schluessel
+     */
+    public String getKey(String record) {
+        if (keys.length == 1) {
+            return keys[0].of(record);
+        }
+        StringBuilder buf = new StringBuilder();
+        for (Key key : keys) {
+            buf.append(key.of(record));
+        }
+        return buf.toString();
+    }
+
+    /**
+     * Prueft, ob die Datensaetze der Datei innerhalb jedes Datenpakets
+     * bereits sortiert sind. Dazu wird die Datei nur gelesen, ohne dass
+     * Saetze angelegt werden.
+     *
+     * @param file GDV-Datei
+     * @return true, wenn die Datei sortiert ist
+     * @throws IOException bei Lesefehlern
+     */
+    public boolean isSorted(Path file) throws IOException {
+        try (DatensatzReader reader = DatensatzReader.of(file, encoding)) {
+            String last = null;
+            for (List<String> records = reader.next(); records != null; records = reader.next()) {
+                String first = records.get(0);
+                if (DatensatzReader.isVorsatz(first) || DatensatzReader.isNachsatz(first)) {
+                    last = null;
+                    continue;
+                }
+                String key = getKey(first);
+                if ((last != null) && (last.compareTo(key) > 0)) {
+                    return false;
+                }
+                last = key;
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Sortiert die Eingabe-Datei und schreibt das Ergebnis in die
+     * Ausgabe-Datei.
+     *
+     * @param input GDV-Datei
+     * @param output sortierte GDV-Datei
+     * @throws IOException bei Lese- oder Schreibfehlern
+     */
+    public void sort(Path input, Path output) throws IOException {
+        List<Path> runs = new ArrayList<>();
+        try (DatensatzReader reader = DatensatzReader.of(input, encoding);
+             Writer writer = Files.newBufferedWriter(output, encoding)) {
+            List<Entry> entries = new ArrayList<>();
+            int size = 0;
+            for (List<String> records = reader.next(); records != null; records = reader.next()) {
+                String first = records.get(0);
+                if (DatensatzReader.isVorsatz(first) || DatensatzReader.isNachsatz(first)) {
+                    flush(entries, runs, writer);
+                    size = 0;
+                    write(writer, records);
+                    continue;
+                }
+                entries.add(new Entry(getKey(first), String.join("", records)));
+                size += records.size();
+                if (size >= maxRecords) {
+                    runs.add(writeRun(entries));
+                    entries.clear();
+                    size = 0;
+                }
+            }
+            flush(entries, runs, writer);
+        } finally {
+            deleteRuns(runs);
+        }
+    }
+
+    private void flush(List<Entry> entries, List<Path> runs, Writer writer) throws IOException {
+        if (runs.isEmpty()) {
+            entries.sort(Comparator.comparing(e -> e.key));
+            for (Entry entry : entries) {
+                writeDatensatz(writer, entry.line);
+            }
+        } else {
+            if (!entries.isEmpty()) {
+                runs.add(writeRun(entries));
+            }
+            LOG.debug("{} Laeufe werden zusammengemischt.", runs.size());
+            merge(runs, writer);
+            deleteRuns(runs);
+        }
+        entries.clear();
+    }
+
+    private Path writeRun(List<Entry> entries) throws IOException {
+        entries.sort(Comparator.comparing(e -> e.key));
+        Path run = Files.createTempFile("gdv", ".run");
+        try (Writer writer = Files.newBufferedWriter(run, encoding)) {
+            for (Entry entry : entries) {
+                writer.write(entry.line);
+                writer.write('\n');
+            }
+        }
+        return run;
+    }
+
+    private void merge(List<Path> runs, Writer writer) throws IOException {
+        while (runs.size() > maxFanIn) {
+            LOG.debug("{} Laeufe werden zu je {} Laeufen zusammengefasst.", runs.size(), maxFanIn);
+            List<Path> merged = new ArrayList<>();
+            try {
+                for (int i = 0; i < runs.size(); i += maxFanIn) {
+                    List<Path> batch = runs.subList(i, Math.min(i + maxFanIn, runs.size()));
+                    Path run = Files.createTempFile("gdv", ".run");
+                    merged.add(run);
+                    try (Writer runWriter = Files.newBufferedWriter(run, encoding)) {
+                        merge(batch, runWriter, false);
+                    }
+                }
+            } catch (IOException | RuntimeException ex) {
+                deleteRuns(merged);
+                throw ex;
+            }
+            deleteRuns(runs);
+            runs.addAll(merged);
+        }
+        merge(runs, writer, true);
+    }
+
+    private void merge(List<Path> runs, Writer writer, boolean split) throws IOException {
+        PriorityQueue<Run> queue = new PriorityQueue<>();
+        try {
+            for (int i = 0; i < runs.size(); i++) {
+                Run run = new Run(Files.newBufferedReader(runs.get(i), encoding), i);
+                if (run.advance()) {
+                    queue.add(run);
+                } else {
+                    run.close();
+                }
+            }
+            while (!queue.isEmpty()) {
+                Run run = queue.poll();
+                if (split) {
+                    writeDatensatz(writer, run.line);
+                } else {
+                    writer.write(run.line);
+                    writer.write('\n');
+                }
+                if (run.advance()) {
+                    queue.add(run);
+                } else {
+                    run.close();
+                }
+            }
+        } finally {
+            for (Run run : queue) {
+                run.close();
+            }
+        }
+    }
+
+    private static void deleteRuns(List<Path> runs) throws IOException {
+        for (Path run : runs) {
+            Files.deleteIfExists(run);
+        }
+        runs.clear();
+    }
+
+    private static void writeDatensatz(Writer writer, String line) throws IOException {
+        for (int i = 0; i < line.length(); i += 256) {
+            writer.write(line, i, 256);
+            writer.write('\n');
+        }
+    }
+
+    private static void write(Writer writer, List<String> records) throws IOException {
+        for (String record : records) {
+            writer.write(record);
+            writer.write('\n');
+        }
+    }
+
+    /**
+     * Ein Datensatz mit seinen Records als eine Zeile, wie sie auch in den
+     * temporaeren Laeufen abgelegt wird.
+     */
+    private static final class Entry {
+
+        private final String key;
+        private final String line;
+
+        private Entry(String key, String line) {
+            this.key = key;
+            this.line = line;
+        }
+
+    }
+
+    /**
+     * Ein Lauf ist eine sortierte temporaere Datei mit einem Datensatz pro
+     * Zeile. Bei gleichem Schluessel kommt der fruehere Lauf zuerst, damit
+     * die Sortierung stabil bleibt.
+     */
+    private final class Run implements Comparable<Run> {
+
+        private final BufferedReader reader;
+        private final int number;
+        private String line;
+        private String key;
+
+        private Run(BufferedReader reader, int number) {
+            this.reader = reader;
+            this.number = number;
+        }
+
+        private boolean advance() throws IOException {
+            line = reader.readLine();
+            key = (line == null) ? null : getKey(line);
+            return line != null;
+        }
+
+        private void close() throws IOException {
+            reader.close();
+        }
+
+        @Override
+        public int compareTo(Run other) {
+            int cmp = key.compareTo(other.key);
+            return (cmp == 0) ? Integer.compare(number, other.number) : cmp;
+        }
+
+    }
+
+}
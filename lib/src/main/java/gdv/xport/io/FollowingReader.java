@@ -0,0 +1,282 @@
+/*
+ * Copyright (c) 2024 by Oli B.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express orimplied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * (c)reated 19.10.2024 by oboehm
+ */
+package gdv.xport.io;
+
+import gdv.xport.config.Config;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+
+/**
+ * Der FollowingReader liest eine GDV-Datei, die noch geschrieben wird (z.B.
+ * waehrend eines Uploads). Kommen keine neuen Daten mehr, wartet er (ueber
+ * Polling), bis die Datei waechst. Dabei werden immer nur vollstaendige
+ * Records (256 Zeichen oder bis zum Zeilenende, falls der Record gekuerzt
+ * wurde) weitergegeben, jeweils mit einem Zeilenvorschub. Mit dem Nachsatz
+ * ist das Ende erreicht. Ist der Nachsatz gekuerzt und fehlt am Dateiende
+ * der Zeilenvorschub, wird der Rest erst dann als Nachsatz genommen, wenn
+ * sich Groesse und Aenderungszeit der Datei ueber mehrere Polls und die
+ * eingestellte Ruhezeit (siehe {@link #setSettleTime(Duration)}) nicht mehr
+ * geaendert haben oder wenn der Timeout abgelaufen ist. Ein Nachsatz, der
+ * gerade noch geschrieben wird, wird so nicht abgeschnitten.
+ * <p>
+ * Zusammen mit dem {@link gdv.xport.DatenpaketStreamer} kann so die
+ * Verarbeitung schon beginnen, bevor die Datei vollstaendig da ist:
+ * </p>
+ * <pre>
+ * DatenpaketStreamer streamer = new DatenpaketStreamer(new FollowingReader(file));
+ * streamer.register(listener);
+ * streamer.readDatenpaket();
+ * </pre>
+ * <p>
+ * Ist nach der eingestellten Zeit (siehe {@link #setTimeout(Duration)})
+ * noch kein weiterer Record da, wird mit einer {@link IOException}
+ * abgebrochen, damit ein abgebrochener Upload nicht endlos blockiert.
+ * </p>
+ *
+ * @author oboehm
+ * @since 7.2 (19.10.2024)
+ */
+public class FollowingReader extends Reader {
+
+    private static final Logger LOG = LogManager.getLogger(FollowingReader.class);
+
+    /** Standard-Intervall, in dem nach neuen Daten geschaut wird. */
+    public static final Duration DEFAULT_POLL_INTERVAL = Duration.ofMillis(500);
+
+    /** Standard-Zeit, nach der das Warten auf neue Daten abgebrochen wird. */
+    public static final Duration DEFAULT_TIMEOUT = Duration.ofMinutes(10);
+
+    /** Standard-Zeit, die die Datei fuer einen gekuerzten Nachsatz unveraendert sein muss. */
+    public static final Duration DEFAULT_SETTLE_TIME = Duration.ofSeconds(2);
+
+    /** Anzahl Polls, bei denen die Datei fuer einen gekuerzten Nachsatz unveraendert sein muss. */
+    private static final int STABLE_POLLS = 3;
+
+    private final Path file;
+    private final Charset encoding;
+    private final byte[] data = new byte[0x10000];
+    private int start;
+    private int end;
+    private FileChannel channel;
+    private String pending = "";
+    private int pendingPos;
+    private boolean finished;
+    private Duration pollInterval = DEFAULT_POLL_INTERVAL;
+    private Duration timeout = DEFAULT_TIMEOUT;
+    private Duration settleTime = DEFAULT_SETTLE_TIME;
+    private long lastSize = -1;
+    private FileTime lastModified;
+    private long stableSince;
+    private int stablePolls;
+
+    /**
+     * Legt einen FollowingReader fuer die angegebene Datei an
+     * ({@link Config#DEFAULT_ENCODING}). Die Datei muss dabei noch nicht
+     * existieren.
+     *
+     * @param file GDV-Datei, die noch geschrieben wird
+     */
+    public FollowingReader(Path file) {
+        this(file, Config.DEFAULT_ENCODING);
+    }
+
+    /**
+     * Legt einen FollowingReader fuer die angegebene Datei mit dem
+     * uebergebenen Encoding an.
+     *
+     * @param file GDV-Datei, die noch geschrieben wird
+     * @param encoding Encoding der Datei
+     */
+    public FollowingReader(Path file, Charset encoding) {
+        this.file = file;
+        this.encoding = encoding;
+    }
+
+    /**
+     * Setzt das Intervall, in dem nach neuen Daten geschaut wird.
+     *
+     * @param pollInterval Intervall
+     */
+    public void setPollInterval(Duration pollInterval) {
+        this.pollInterval = pollInterval;
+    }
+
+    /**
+     * Setzt die Zeit, die max. auf den naechsten Record gewartet wird.
+     *
+     * @param timeout max. Wartezeit
+     */
+    public void setTimeout(Duration timeout) {
+        this.timeout = timeout;
+    }
+
+    /**
+     * Setzt die Zeit, die sich die Datei nicht mehr aendern darf, damit ein
+     * gekuerzter Nachsatz ohne Zeilenvorschub am Dateiende als vollstaendig
+     * angesehen wird.
+     *
+     * @param settleTime Ruhezeit
+     */
+    public void setSettleTime(Duration settleTime) {
+        this.settleTime = settleTime;
+    }
+
+    @Override
+    public int read(char[] cbuf, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (pendingPos >= pending.length()) {
+            if (finished) {
+                return -1;
+            }
+            pending = nextRecord() + '\n';
+            pendingPos = 0;
+        }
+        int n = Math.min(len, pending.length() - pendingPos);
+        pending.getChars(pendingPos, pendingPos + n, cbuf, off);
+        pendingPos += n;
+        return n;
+    }
+
+    /**
+     * Liefert den naechsten vollstaendigen Record. Solange noch keiner da
+     * ist, wird auf weitere Daten gewartet.
+     */
+    private String nextRecord() throws IOException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (true) {
+            String record = extractRecord();
+            if (record != null) {
+                finished = record.startsWith("9999");
+                return record;
+            }
+            if (readMore()) {
+                stablePolls = 0;
+                continue;
+            }
+            boolean expired = System.nanoTime() - deadline > 0;
+            if (isNachsatzRest() && (expired || isWriterDone())) {
+                LOG.debug("Short Nachsatz without newline at the end of {} accepted.", file);
+                finished = true;
+                return takeRecord(end);
+            }
+            if (expired) {
+                throw new IOException("no complete record in " + file + " after waiting " + timeout);
+            }
+            sleep();
+        }
+    }
+
+    private String extractRecord() {
+        while ((start < end) && ((data[start] == '\n') || (data[start] == '\r'))) {
+            start++;
+        }
+        int limit = Math.min(end, start + 256);
+        for (int i = start; i < limit; i++) {
+            if ((data[i] == '\n') || (data[i] == '\r')) {
+                return takeRecord(i);
+            }
+        }
+        if (end - start >= 256) {
+            return takeRecord(start + 256);
+        }
+        return null;
+    }
+
+    /**
+     * Prueft, ob die restlichen Daten ein gekuerzter Nachsatz ohne
+     * abschliessenden Zeilenvorschub sind.
+     */
+    private boolean isNachsatzRest() {
+        return (end - start >= 4) && (data[start] == '9') && (data[start + 1] == '9') && (data[start + 2] == '9')
+                && (data[start + 3] == '9');
+    }
+
+    /**
+     * Prueft, ob sich Groesse und Aenderungszeit der Datei seit mehreren
+     * Polls und fuer die eingestellte Ruhezeit nicht mehr geaendert haben.
+     */
+    private boolean isWriterDone() throws IOException {
+        BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+        if ((attrs.size() == lastSize) && attrs.lastModifiedTime().equals(lastModified)) {
+            stablePolls++;
+        } else {
+            lastSize = attrs.size();
+            lastModified = attrs.lastModifiedTime();
+            stableSince = System.nanoTime();
+            stablePolls = 0;
+        }
+        return (stablePolls >= STABLE_POLLS) && (System.nanoTime() - stableSince >= settleTime.toNanos());
+    }
+
+    private String takeRecord(int recordEnd) {
+        String record = new String(data, start, recordEnd - start, encoding);
+        start = recordEnd;
+        return record;
+    }
+
+    private boolean readMore() throws IOException {
+        if (channel == null) {
+            if (!Files.exists(file)) {
+                return false;
+            }
+            channel = FileChannel.open(file, StandardOpenOption.READ);
+        }
+        System.arraycopy(data, start, data, 0, end - start);
+        end -= start;
+        start = 0;
+        int n = channel.read(ByteBuffer.wrap(data, end, data.length - end));
+        if (n > 0) {
+            end += n;
+            return true;
+        }
+        return false;
+    }
+
+    private void sleep() throws InterruptedIOException {
+        LOG.trace("Waiting {} for more data in {}.", pollInterval, file);
+        try {
+            Thread.sleep(pollInterval.toMillis());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("waiting for " + file + " was interrupted");
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+}
@@ -20,10 +20,14 @@ package gdv.xport.io;
 import gdv.xport.feld.Satznummer;
 import gdv.xport.satz.feld.common.WagnisartLeben;
 import gdv.xport.util.SatzTyp;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
+import java.io.CharArrayReader;
 import java.io.EOFException;
 import java.io.IOException;
 import java.io.Reader;
+import java.util.function.Predicate;
 
 /**
  * In der Klasse Importer sind einige (statische) Methoden zum Lesen von
@@ -35,6 +39,8 @@ import java.io.Reader;
  */
 public class Importer {
 
+    private static final Logger LOG = LogManager.getLogger(Importer.class);
+
     private final PushbackLineNumberReader reader;
 
     private Importer(PushbackLineNumberReader reader) {
@@ -221,4 +227,127 @@ public class Importer {
         return Integer.parseInt(first10Fields.substring(43, 44));
     }
 
+    /**
+     * Ueberspringt alle Records, die nicht zum uebergebenen Filter passen,
+     * ohne dafuer einen Satz anzulegen. Dabei werden nur die Kopf-Felder
+     * (siehe {@link RecordHeader}) des ersten Teildatensatzes geprueft - die
+     * folgenden Teildatensaetze eines abgelehnten Datensatzes werden ebenfalls
+     * uebersprungen. Vorsatz und Nachsatz werden nie uebersprungen.
+     * <p>
+     * Der erste Record, der zum Filter passt, wird wieder zurueck in den
+     * Reader gestellt.
+     * </p>
+     *
+     * @param filter Filter fuer die Kopf-Felder
+     * @return Anzahl der uebersprungenen Records (Teildatensaetze)
+     * @throws IOException falls was schief gegangen ist
+     * @since 7.2
+     */
+    public int skipRecords(Predicate<RecordHeader> filter) throws IOException {
+        int skipped = 0;
+        char[] record = new char[256];
+        char[] rejected = null;
+        while (true) {
+            reader.skipWhitespace();
+            int n = readRecord(record);
+            if (n < record.length) {
+                if (n > 0) {
+                    reader.unread(record, 0, n);
+                }
+                return skipped;
+            }
+            if ((rejected == null) || !isTeildatensatzOf(rejected, record)) {
+                RecordHeader header = new RecordHeader(record);
+                int satzart = header.getSatzart();
+                if ((satzart == 1) || (satzart == 9999) || filter.test(header)) {
+                    reader.unread(record);
+                    return skipped;
+                }
+            }
+            if (rejected == null) {
+                rejected = new char[256];
+            }
+            char[] swap = rejected;
+            rejected = record;
+            record = swap;
+            skipped++;
+        }
+    }
+
+    private int readRecord(char[] record) throws IOException {
+        int n = 0;
+        while (n < record.length) {
+            int len = reader.read(record, n, record.length - n);
+            if (len < 0) {
+                break;
+            }
+            n += len;
+        }
+        return n;
+    }
+
+    /**
+     * Prueft nach der gleichen Regel wie {@code Datensatz#matchesNextTeildatensatz},
+     * ob ein Record zum vorigen Datensatz gehoert: Satzart (Byte 1-4), Sparte
+     * (Byte 11-13) sowie Folgenummer und Vermittler (Byte 31-42) muessen
+     * uebereinstimmen, die Satznummer (ueber
+     * {@link Satznummer#readSatznummer(PushbackLineNumberReader)} ermittelt)
+     * muss groesser sein und der SatzTyp muss gleich bleiben.
+     *
+     * @param previous der vorige Record (256 Zeichen)
+     * @param record   der aktuelle Record (256 Zeichen)
+     * @return true, wenn der Record ein weiterer Teildatensatz ist
+     * @since 7.2
+     */
+    public static boolean isTeildatensatzOf(char[] previous, char[] record) {
+        if (!hasSameHeader(previous, record)) {
+            return false;
+        }
+        try {
+            char prevNr = Satznummer.readSatznummer(toReader(previous)).toChar();
+            char nr = Satznummer.readSatznummer(toReader(record)).toChar();
+            if (Character.isDigit(prevNr) && Character.isDigit(nr) && (nr <= prevNr)) {
+                return false;
+            }
+            return readSatzTyp(previous).equals(readSatzTyp(record));
+        } catch (IOException | RuntimeException ex) {
+            LOG.debug("Record kann nicht zugeordnet werden ({}).", ex.getLocalizedMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Vergleicht die Kopf-Felder zweier Records, die fuer alle
+     * Teildatensaetze eines Datensatzes gleich sein muessen: Satzart
+     * (Byte 1-4), Sparte (Byte 11-13) sowie Folgenummer und Vermittler
+     * (Byte 31-42).
+     *
+     * @param previous der vorige Record (mind. 42 Zeichen)
+     * @param record   der aktuelle Record (mind. 42 Zeichen)
+     * @return true, wenn die Kopf-Felder uebereinstimmen
+     * @since 7.2
+     */
+    public static boolean hasSameHeader(char[] previous, char[] record) {
+        return matchesRange(previous, record, 0, 4) && matchesRange(previous, record, 10, 13)
+                && matchesRange(previous, record, 30, 42);
+    }
+
+    private static boolean matchesRange(char[] previous, char[] record, int begin, int end) {
+        for (int i = begin; i < end; i++) {
+            if (previous[i] != record[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static SatzTyp readSatzTyp(char[] record) throws IOException {
+        Importer importer = of(toReader(record));
+        return importer.readSatzTyp(importer.readSatzart());
+    }
+
+    private static PushbackLineNumberReader toReader(char[] record) {
+        return new PushbackLineNumberReader(new CharArrayReader(record));
+    }
+
 }
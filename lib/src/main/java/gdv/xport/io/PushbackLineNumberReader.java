@@ -40,6 +40,7 @@ import java.nio.CharBuffer;
 public class PushbackLineNumberReader extends PushbackReader {
 
     private int lineNumber = 0;
+    private long position = 0;
 
     /**
      * Instantiates a new pushback line number reader.
@@ -69,6 +70,9 @@ public class PushbackLineNumberReader extends PushbackReader {
         if (ch == '\n') {
             this.lineNumber++;
         }
+        if (ch >= 0) {
+            this.position++;
+        }
         return ch;
     }
 
@@ -109,6 +113,9 @@ public class PushbackLineNumberReader extends PushbackReader {
                 this.lineNumber++;
             }
         }
+        if (ret > 0) {
+            this.position += ret;
+        }
         return ret;
     }
 
@@ -139,6 +146,7 @@ public class PushbackLineNumberReader extends PushbackReader {
     public void reset() throws IOException {
         super.reset();
         this.lineNumber = 0;
+        this.position = 0;
     }
 
     /* (non-Javadoc)
@@ -152,6 +160,7 @@ public class PushbackLineNumberReader extends PushbackReader {
             }
         }
         super.unread(cbuf, off, len);
+        this.position -= len;
     }
 
     /* (non-Javadoc)
@@ -171,6 +180,7 @@ public class PushbackLineNumberReader extends PushbackReader {
             this.lineNumber--;
         }
         super.unread(c);
+        this.position--;
     }
 
     /**
@@ -182,6 +192,17 @@ public class PushbackLineNumberReader extends PushbackReader {
         return this.lineNumber;
     }
 
+    /**
+     * Liefert die Anzahl der gelesenen Zeichen (abzueglich der wieder
+     * zurueckgestellten Zeichen).
+     *
+     * @return Anzahl der verbrauchten Zeichen
+     * @since 7.2
+     */
+    public long getPosition() {
+        return this.position;
+    }
+
     /**
      * Wenn das naechste Zeichen das Zeilenende ist, wird es uebersprungen.
      * Ansonsten wird es wieder in den Eingabepuffer zurueckgestellt.
@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2024 by Oli B.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express orimplied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * (c)reated 19.10.2024 by oboehm
+ */
+package gdv.xport.io;
+
+/**
+ * Der RecordHeader ist eine Sicht auf die Kopf-Felder eines rohen Records
+ * (256 Zeichen), die bei allen Datensaetzen an der gleichen Stelle stehen:
+ * <ul>
+ *     <li>Satzart (Byte 1-4)</li>
+ *     <li>VU-Nummer (Byte 5-9)</li>
+ *     <li>Sparte (Byte 11-13)</li>
+ *     <li>Versicherungsscheinnummer (Byte 14-30)</li>
+ *     <li>Vermittler (Byte 33-42, nur im ersten Teildatensatz)</li>
+ *     <li>Teildatensatz-Nummer (Byte 256)</li>
+ * </ul>
+ * Damit kann z.B. beim Import entschieden werden, ob ein Record ueberhaupt
+ * benoetigt wird, bevor daraus ein Satz mit allen Feldern angelegt wird
+ * (siehe {@link Importer#skipRecords(java.util.function.Predicate)}).
+ *
+ * @author oboehm
+ * @since 7.2 (19.10.2024)
+ */
+public final class RecordHeader {
+
+    private final char[] record;
+
+    /**
+     * Legt eine Sicht auf den uebergebenen Record an. Der Record wird dabei
+     * nicht kopiert.
+     *
+     * @param record Record mit (mind.) 42 Zeichen
+     */
+    public RecordHeader(char[] record) {
+        this.record = record;
+    }
+
+    /**
+     * Legt eine Sicht auf den uebergebenen Record an.
+     *
+     * @param record Record als String
+     * @return RecordHeader
+     */
+    public static RecordHeader of(String record) {
+        return new RecordHeader(record.toCharArray());
+    }
+
+    public int getSatzart() {
+        return toInt(0, 4);
+    }
+
+    public String getVuNummer() {
+        return substring(4, 9);
+    }
+
+    /**
+     * Liefert die Sparte.
+     *
+     * @return Sparte oder -1, falls keine (numerische) Sparte vorhanden ist
+     */
+    public int getSparte() {
+        return toInt(10, 13);
+    }
+
+    public String getVersicherungsscheinNummer() {
+        return substring(13, 30);
+    }
+
+    public String getVermittler() {
+        return substring(32, 42);
+    }
+
+    /**
+     * Liefert die Teildatensatz-Nummer aus dem letzten Byte.
+     *
+     * @return Nummer oder -1, falls dort keine Ziffer steht
+     */
+    public int getTeildatensatzNummer() {
+        if (record.length < 256 || !isDigit(record[255])) {
+            return -1;
+        }
+        return record[255] - '0';
+    }
+
+    private int toInt(int begin, int end) {
+        int n = -1;
+        for (int i = begin; i < Math.min(end, record.length); i++) {
+            char c = record[i];
+            if (isDigit(c)) {
+                n = ((n < 0) ? 0 : n * 10) + (c - '0');
+            } else if (c != ' ') {
+                return -1;
+            }
+        }
+        return n;
+    }
+
+    private String substring(int begin, int end) {
+        if (record.length <= begin) {
+            return "";
+        }
+        return new String(record, begin, Math.min(end, record.length) - begin).trim();
+    }
+
+    private static boolean isDigit(char c) {
+        return (c >= '0') && (c <= '9');
+    }
+
+    @Override
+    public String toString() {
+        return new String(record, 0, Math.min(42, record.length));
+    }
+
+}
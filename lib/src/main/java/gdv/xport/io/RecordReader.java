@@ -41,6 +41,10 @@ public class RecordReader extends Reader {
     private int pos = 257;
     private final int[] buffer = new int[257];
     private int recordNo = 0;
+    private long position;
+    private long delivered;
+    private final long[][] recordStarts = new long[4][2];
+    private int started;
 
     /**
      * Instantiates a new record reader.
@@ -60,7 +64,11 @@ public class RecordReader extends Reader {
         if (this.isBufferEmpty()) {
             this.fillBuffer();
         }
-        return this.buffer[pos++];
+        int c = this.buffer[pos++];
+        if (c >= 0) {
+            delivered++;
+        }
+        return c;
     }
 
     /* (non-Javadoc)
@@ -85,6 +93,12 @@ public class RecordReader extends Reader {
         recordNo++;
         for (int i = 0; i < 256; i++) {
             int ch = this.reader.read();
+            if (ch >= 0) {
+                position++;
+                if (i == 0 && ch != '\n' && ch != '\r') {
+                    rememberRecordStart();
+                }
+            }
             if ((ch == '\n') || (ch == '\r') || (ch == -1)) {
                 buffer[256] = ch;
                 if (i == 0) {
@@ -100,6 +114,40 @@ public class RecordReader extends Reader {
         }
     }
 
+    private void rememberRecordStart() {
+        long[] start = recordStarts[started % recordStarts.length];
+        start[0] = delivered;
+        start[1] = position - 1;
+        started++;
+    }
+
+    /**
+     * Rechnet die Anzahl der (von oben) gelesenen Zeichen in die Position
+     * im darunterliegenden Reader um. Die beiden unterscheiden sich, wenn
+     * gekuerzte Records mit Leerzeichen aufgefuellt wurden. Die Umrechnung
+     * funktioniert nur an Record-Grenzen und nur fuer die letzten (bis zu
+     * vier) Records, die hier gepuffert bzw. gelesen wurden - das reicht aber
+     * fuer einen {@link PushbackLineNumberReader} mit einem Puffer von 256
+     * Zeichen.
+     * <p>
+     * Bei Encodings, bei denen ein Zeichen einem Byte entspricht (wie
+     * ISO-8859-1 oder IBM850), entspricht die Position dem Byte-Offset.
+     * </p>
+     *
+     * @param consumed Anzahl der vom Aufrufer verbrauchten Zeichen
+     * @return Position im darunterliegenden Reader
+     * @since 7.2
+     */
+    public long getPosition(long consumed) {
+        for (int i = Math.max(0, started - recordStarts.length); i < started; i++) {
+            long[] start = recordStarts[i % recordStarts.length];
+            if (start[0] >= consumed) {
+                return start[1] - (start[0] - consumed);
+            }
+        }
+        return position - (delivered - consumed);
+    }
+
     private void fillBufferWithSpaces(int start) {
         for (int i = start; i < 256; i++) {
             buffer[i] = ' ';
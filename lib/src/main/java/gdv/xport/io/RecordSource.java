@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2024 by Oli B.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express orimplied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * (c)reated 19.10.2024 by oboehm
+ */
+package gdv.xport.io;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Liest die Records (Teildatensaetze) einer GDV-Datei roh als String mit
+ * 256 Zeichen. Zu kurze Records werden dabei (durch den
+ * {@link RecordReader}) mit Leerzeichen aufgefuellt. Ueber
+ * {@link #peek()} kann der naechste Record gelesen werden, ohne ihn zu
+ * verbrauchen.
+ *
+ * @author oboehm
+ * @since 7.2 (19.10.2024)
+ */
+final class RecordSource implements Closeable {
+
+    private final Reader reader;
+    private String pending;
+
+    RecordSource(Reader reader) {
+        this.reader = new RecordReader(reader);
+    }
+
+    /**
+     * Liefert den naechsten Record, ohne ihn zu verbrauchen.
+     *
+     * @return naechster Record oder null am Ende
+     * @throws IOException bei Lesefehlern
+     */
+    String peek() throws IOException {
+        if (pending == null) {
+            pending = readRecord();
+        }
+        return pending;
+    }
+
+    /**
+     * Liefert den naechsten Record.
+     *
+     * @return naechster Record oder null am Ende
+     * @throws IOException bei Lesefehlern
+     */
+    String next() throws IOException {
+        String record = peek();
+        pending = null;
+        return record;
+    }
+
+    private String readRecord() throws IOException {
+        int c = reader.read();
+        while ((c == '\n') || (c == '\r')) {
+            c = reader.read();
+        }
+        if (c < 0) {
+            return null;
+        }
+        char[] record = new char[256];
+        record[0] = (char) c;
+        for (int n = 1; n < record.length; ) {
+            int count = reader.read(record, n, record.length - n);
+            if (count < 0) {
+                throw new EOFException("incomplete record: \"" + new String(record, 0, n) + '"');
+            }
+            n += count;
+        }
+        return new String(record);
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2024 by Oli B.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express orimplied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * (c)reated 19.10.2024 by oboehm
+ */
+package gdv.xport.io;
+
+import gdv.xport.satz.Fingerprint;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Ein VertragBlock fasst die aufeinanderfolgenden Records (Teildatensaetze)
+ * mit gleicher Versicherungsschein-Nummer roh zusammen, d.h. ohne dass
+ * daraus Saetze angelegt werden. Zusammen mit dem Fingerprint ueber den
+ * Inhalt koennen so Vertraege schnell verglichen werden.
+ *
+ * @author oboehm
+ * @since 7.2 (19.10.2024)
+ */
+public final class VertragBlock {
+
+    private final String key;
+    private final List<String> records;
+    private final Fingerprint fingerprint;
+
+    /**
+     * Legt einen Block fuer die uebergebenen Records an. Die Records muessen
+     * jeweils 256 Zeichen lang sein und die gleiche Versicherungsschein-Nummer
+     * (Byte 14-30) haben.
+     *
+     * @param records die Records des Vertrags
+     */
+    public VertragBlock(List<String> records) {
+        if (records.isEmpty()) {
+            throw new IllegalArgumentException("no records for VertragBlock");
+        }
+        this.records = Collections.unmodifiableList(new ArrayList<>(records));
+        this.key = getKey(records.get(0));
+        this.fingerprint = fingerprint(records);
+    }
+
+    /**
+     * Liefert den Sortier-Schluessel eines Records. Das ist die
+     * Versicherungsschein-Nummer (Byte 14-30) inkl. Leerzeichen.
+     *
+     * @param record Record mit 256 Zeichen
+     * @return Versicherungsschein-Nummer mit 17 Zeichen
+     */
+    public static String getKey(String record) {
+        return record.substring(13, 30);
+    }
+
+    /**
+     * Liefert den Sortier-Schluessel, also die ungekuerzte
+     * Versicherungsschein-Nummer.
+     *
+     * @return Versicherungsschein-Nummer mit 17 Zeichen
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * Liefert die Versicherungsschein-Nummer ohne fuehrende oder folgende
+     * Leerzeichen.
+     *
+     * @return Versicherungsschein-Nummer
+     */
+    public String getVersicherungsscheinNummer() {
+        return key.trim();
+    }
+
+    /**
+     * Liefert die Records in der Reihenfolge der Datei.
+     *
+     * @return unveraenderliche Liste der Records
+     */
+    public List<String> getRecords() {
+        return records;
+    }
+
+    /**
+     * Liefert den {@link Fingerprint} ueber alle Records. Sind die
+     * Fingerprints zweier Bloecke unterschiedlich, unterscheidet sich auch
+     * der Inhalt.
+     *
+     * @return Fingerprint
+     */
+    public Fingerprint getFingerprint() {
+        return fingerprint;
+    }
+
+    private static Fingerprint fingerprint(List<String> records) {
+        Fingerprint fp = Fingerprint.of("");
+        for (String record : records) {
+            fp = fp.and(Fingerprint.of(record));
+        }
+        return fp;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + " " + getVersicherungsscheinNummer() + " (" + records.size()
+                + " records)";
+    }
+
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2024 by Oli B.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express orimplied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * (c)reated 19.10.2024 by oboehm
+ */
+package gdv.xport.io;
+
+import gdv.xport.config.Config;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Der VertragBlockReader liest eine GDV-Datei Record fuer Record und liefert
+ * ueber {@link #next()} die einzelnen Vertraege als {@link VertragBlock}.
+ * Ein Vertrag umfasst dabei alle direkt aufeinanderfolgenden Datensaetze mit
+ * gleicher Versicherungsschein-Nummer. Vorsatz und Nachsatz werden nicht als
+ * Block geliefert, sondern koennen ueber {@link #getVorsatz()} und
+ * {@link #getNachsatz()} abgefragt werden.
+ * <p>
+ * Im Gegensatz zum {@link gdv.xport.DatenpaketStreamer} werden dabei keine
+ * Saetze angelegt, sodass nur wenig Speicher benoetigt wird.
+ * </p>
+ *
+ * @author oboehm
+ * @since 7.2 (19.10.2024)
+ */
+public class VertragBlockReader implements Closeable {
+
+    private final RecordSource source;
+    private List<String> vorsatz = Collections.emptyList();
+    private List<String> nachsatz = Collections.emptyList();
+
+    /**
+     * Legt einen VertragBlockReader fuer den uebergebenen Reader an.
+     *
+     * @param reader Quelle der GDV-Daten
+     */
+    public VertragBlockReader(Reader reader) {
+        this.source = new RecordSource(reader);
+    }
+
+    /**
+     * Oeffnet die angegebene Datei mit dem Default-Encoding
+     * ({@link Config#DEFAULT_ENCODING}).
+     *
+     * @param file GDV-Datei
+     * @return VertragBlockReader fuer die Datei
+     * @throws IOException falls die Datei nicht geoeffnet werden kann
+     */
+    public static VertragBlockReader of(Path file) throws IOException {
+        return of(file, Config.DEFAULT_ENCODING);
+    }
+
+    /**
+     * Oeffnet die angegebene Datei mit dem uebergebenen Encoding.
+     *
+     * @param file GDV-Datei
+     * @param encoding Encoding der Datei
+     * @return VertragBlockReader fuer die Datei
+     * @throws IOException falls die Datei nicht geoeffnet werden kann
+     */
+    public static VertragBlockReader of(Path file, Charset encoding) throws IOException {
+        return new VertragBlockReader(Files.newBufferedReader(file, encoding));
+    }
+
+    /**
+     * Liefert den naechsten Vertrag. Ein Vorsatz oder Nachsatz, der dabei
+     * gelesen wird, ist anschliessend ueber {@link #getVorsatz()} bzw.
+     * {@link #getNachsatz()} verfuegbar.
+     *
+     * @return naechster Vertrag oder null am Ende der Eingabe
+     * @throws IOException bei Lesefehlern
+     */
+    public VertragBlock next() throws IOException {
+        List<String> records = new ArrayList<>();
+        String key = null;
+        while (true) {
+            String record = source.peek();
+            if (record == null) {
+                break;
+            }
+            if (record.startsWith("0001")) {
+                if (!records.isEmpty()) {
+                    break;
+                }
+                readVorsatz();
+            } else if (record.startsWith("9999")) {
+                if (!records.isEmpty()) {
+                    break;
+                }
+                nachsatz = Collections.singletonList(record);
+                source.next();
+            } else {
+                String recordKey = VertragBlock.getKey(record);
+                if ((key != null) && !key.equals(recordKey)) {
+                    break;
+                }
+                key = recordKey;
+                records.add(record);
+                source.next();
+            }
+        }
+        return records.isEmpty() ? null : new VertragBlock(records);
+    }
+
+    private void readVorsatz() throws IOException {
+        List<String> records = new ArrayList<>();
+        for (String record = source.peek(); (record != null) && record.startsWith("0001"); record = source.peek()) {
+            records.add(record);
+            source.next();
+        }
+        vorsatz = Collections.unmodifiableList(records);
+        nachsatz = Collections.emptyList();
+    }
+
+    /**
+     * Liefert die Records des zuletzt gelesenen Vorsatzes.
+     *
+     * @return Vorsatz-Records (oder leere Liste)
+     */
+    public List<String> getVorsatz() {
+        return vorsatz;
+    }
+
+    /**
+     * Liefert den Nachsatz des aktuellen Datenpakets, sofern er bereits
+     * gelesen wurde.
+     *
+     * @return Nachsatz-Record (oder leere Liste)
+     */
+    public List<String> getNachsatz() {
+        return nachsatz;
+    }
+
+    @Override
+    public void close() throws IOException {
+        source.close();
+    }
+
+}
@@ -523,15 +523,7 @@ public class Datensatz extends Satz {
 				
                 // wir vergleichen teilweise die ersten 7 Felder (42 Zeichen) auf
                 // Gleichheit....wenn ein Unterschied -> neuer Datensatz,
-				for (int i = 0; i < 4; i++) {
-					if (lastFeld1To7[i] != newLine[i]) return false;
-				}
-				for (int i = 10; i < 13; i++) {
-					if (lastFeld1To7[i] != newLine[i]) return false;
-				}
-				for (int i = 30; i < 42; i++) {
-					if (lastFeld1To7[i] != newLine[i]) return false;
-				}
+				if (!Importer.hasSameHeader(lastFeld1To7, newLine)) return false;
 				if (!matchesLastFeld(satznummer, reader)) return false;
 
 				return matchesNextSatztyp(reader);
@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2024 by Oli B.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express orimplied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * (c)reated 19.10.2024 by oboehm
+ */
+package gdv.xport.satz;
+
+import java.io.Serializable;
+
+/**
+ * Ein Fingerprint ist ein 128-Bit-Hashwert ueber den Inhalt eines
+ * {@link Teildatensatz}es oder {@link Satz}es. Er wird in einem Durchlauf
+ * ueber die Zeichen berechnet: die oberen 64 Bit ueber FNV-1a, die unteren
+ * 64 Bit ueber einen zweiten, unabhaengigen Multiplikations-Hash. Reichen
+ * 64 Bit aus, kann {@link #toLong()} verwendet werden.
+ * <p>
+ * Der Wert ist stabil, d.h. er haengt nur vom Inhalt ab und kann daher auch
+ * abgespeichert und spaeter wieder verglichen werden.
+ * </p>
+ *
+ * @author oboehm
+ * @since 7.2 (19.10.2024)
+ */
+public final class Fingerprint implements Serializable {
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final long GOLDEN = 0x9e3779b97f4a7c15L;
+    private static final int[] NO_RANGES = new int[0];
+
+    private final long high;
+    private final long low;
+
+    private Fingerprint(long high, long low) {
+        this.high = high;
+        this.low = low;
+    }
+
+    /**
+     * Berechnet den Fingerprint ueber den kompletten Inhalt.
+     *
+     * @param content z.B. ein Record mit 256 Zeichen
+     * @return Fingerprint
+     */
+    public static Fingerprint of(CharSequence content) {
+        return of(content, content.length(), NO_RANGES);
+    }
+
+    /**
+     * Berechnet den Fingerprint ueber die ersten 'length' Zeichen. Zeichen
+     * innerhalb der uebergebenen Bereiche werden dabei wie Leerzeichen
+     * behandelt, sodass sie keinen Einfluss auf das Ergebnis haben.
+     *
+     * @param content Inhalt
+     * @param length Anzahl der Zeichen
+     * @param ignored aufsteigend sortierte Bereiche als Paare von Start
+     *                (inklusiv) und Ende (exklusiv)
+     * @return Fingerprint
+     */
+    static Fingerprint of(CharSequence content, int length, int[] ignored) {
+        long h1 = FNV_OFFSET;
+        long h2 = GOLDEN;
+        int range = 0;
+        for (int i = 0; i < length; i++) {
+            while ((range < ignored.length) && (i >= ignored[range + 1])) {
+                range += 2;
+            }
+            char c = ((range < ignored.length) && (i >= ignored[range])) ? ' ' : content.charAt(i);
+            h1 = (h1 ^ c) * FNV_PRIME;
+            h2 = (h2 + c) * GOLDEN;
+        }
+        return new Fingerprint(h1, mix(h2 ^ length));
+    }
+
+    /**
+     * Verknuepft diesen Fingerprint mit dem naechsten Fingerprint. Die
+     * Reihenfolge ist dabei relevant, d.h. a.and(b) ist in der Regel nicht
+     * gleich b.and(a).
+     *
+     * @param next der naechste Fingerprint (z.B. vom naechsten Teildatensatz)
+     * @return neuer Fingerprint
+     */
+    public Fingerprint and(Fingerprint next) {
+        long h1 = (high ^ next.high) * FNV_PRIME;
+        long h2 = mix(low * GOLDEN + next.low);
+        return new Fingerprint(h1, h2);
+    }
+
+    /**
+     * Finalisierungs-Schritt aus MurmurHash3, damit sich jedes Bit der
+     * Eingabe auf alle Bits des Ergebnisses auswirkt.
+     */
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /**
+     * Liefert die oberen 64 Bit des Fingerprints.
+     *
+     * @return 64-Bit-Fingerprint
+     */
+    public long toLong() {
+        return high;
+    }
+
+    public long getHigh() {
+        return high;
+    }
+
+    public long getLow() {
+        return low;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof Fingerprint)) {
+            return false;
+        }
+        Fingerprint other = (Fingerprint) obj;
+        return (high == other.high) && (low == other.low);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(high);
+    }
+
+    /**
+     * Liefert den Fingerprint als Hex-String mit 32 Zeichen.
+     *
+     * @return z.B. "af63bd4c8601b7df1b6c0c3a5e4f2d10"
+     */
+    @Override
+    public String toString() {
+        return String.format("%016x%016x", high, low);
+    }
+
+}
@@ -0,0 +1,277 @@
+/*
+ * Copyright (c) 2024 by Oli B.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express orimplied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * (c)reated 19.10.2024 by oboehm
+ */
+package gdv.xport.satz;
+
+import gdv.xport.feld.Betrag;
+import gdv.xport.feld.BetragMitVorzeichen;
+import gdv.xport.feld.Bezeichner;
+import gdv.xport.feld.NumFeld;
+import gdv.xport.util.SimpleConstraintViolation;
+import net.sf.oval.ConstraintViolation;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Die Klasse NachsatzSummen sammelt die Summen, die im {@link Nachsatz}
+ * stehen, waehrend die Saetze vorbeikommen. Die Betraege werden dabei als
+ * Festkomma-Zahlen (in Cent) in einfachen long-Zaehlern gehalten, sodass
+ * weder die Saetze noch BigDecimal-Objekte aufgehoben werden muessen.
+ * <p>
+ * Beruecksichtigt werden die Anzahl der Teildatensaetze, der Gesamtbeitrag
+ * aus Satzart 0200, Gesamtbeitrag brutto und Provision aus Satzart 0400
+ * sowie Versicherungsleistungen und Schadenbearbeitungskosten aus Satzart
+ * 0500 - also die gleichen Summen, die auch das
+ * {@link gdv.xport.Datenpaket} beim Hinzufuegen eines Datensatzes
+ * fortschreibt.
+ * </p>
+ * <p>
+ * Ungueltige Betraege (z.B. mit Buchstaben oder mit mehr als 2 relevanten
+ * Nachkommastellen) gehen nicht in die Summen ein, sondern werden als
+ * Constraint-Verletzung gemerkt (siehe {@link #getViolations()}) und bei
+ * {@link #validate(Nachsatz)} mit ausgegeben.
+ * </p>
+ *
+ * @author oboehm
+ * @since 7.2 (19.10.2024)
+ */
+public final class NachsatzSummen {
+
+    private long anzahlSaetze;
+    private long gesamtBeitrag;
+    private long gesamtBeitragBrutto;
+    private long gesamtProvisionsBetrag;
+    private long versicherungsLeistungen;
+    private long schadenbearbeitungskosten;
+    private final List<ConstraintViolation> violations = new ArrayList<>();
+
+    /**
+     * Setzt alle Zaehler auf 0 zurueck (z.B. fuer das naechste Datenpaket).
+     */
+    public void reset() {
+        anzahlSaetze = 0;
+        gesamtBeitrag = 0;
+        gesamtBeitragBrutto = 0;
+        gesamtProvisionsBetrag = 0;
+        versicherungsLeistungen = 0;
+        schadenbearbeitungskosten = 0;
+        violations.clear();
+    }
+
+    /**
+     * Nimmt den uebergebenen Satz in die Summen auf. Vorsatz und Nachsatz
+     * werden dabei (wie im Nachsatz) nicht mitgezaehlt.
+     *
+     * @param satz Satz
+     */
+    public void add(Satz satz) {
+        int satzart = satz.getSatzart();
+        if ((satzart == 1) || (satzart == 9999)) {
+            return;
+        }
+        anzahlSaetze += satz.getNumberOfTeildatensaetze();
+        switch (satzart) {
+            case 200:
+                gesamtBeitrag += getCent(satz, Bezeichner.GESAMTBEITRAG_IN_WAEHRUNGSEINHEITEN, Betrag.class);
+                break;
+            case 400:
+                gesamtBeitragBrutto += getCent(satz, Bezeichner.GESAMTBEITRAG_BRUTTO_IN_WAEHRUNGSEINHEITEN,
+                        BetragMitVorzeichen.class);
+                gesamtProvisionsBetrag += getCent(satz, Bezeichner.GESAMTPROVISIONSBETRAG_IN_WAEHRUNGSEINHEITEN,
+                        BetragMitVorzeichen.class);
+                break;
+            case 500:
+                versicherungsLeistungen += getCent(satz, Bezeichner.BETRAG_IN_WAEHRUNGSEINHEITEN_GEMAESS_ZAHLUNGSART,
+                        BetragMitVorzeichen.class);
+                schadenbearbeitungskosten += getCent(satz,
+                        Bezeichner.SCHADENBEARBEITUNGSKOSTEN_IN_WAEHRUNGSEINHEITEN, BetragMitVorzeichen.class);
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Zaehlt nur die Anzahl der Saetze hoch. Das ist fuer Datensaetze
+     * gedacht, die roh (ohne Satz-Objekt) weitergereicht werden und keine
+     * Summen im Nachsatz beeinflussen.
+     *
+     * @param teildatensaetze Anzahl der Teildatensaetze
+     */
+    public void addAnzahlSaetze(int teildatensaetze) {
+        anzahlSaetze += teildatensaetze;
+    }
+
+    private long getCent(Satz satz, Bezeichner bezeichner, Class<? extends NumFeld> clazz) {
+        if (!satz.hasFeld(bezeichner)) {
+            return 0;
+        }
+        NumFeld betrag = satz.getFeld(bezeichner, clazz);
+        try {
+            return toCent(betrag);
+        } catch (NumberFormatException ex) {
+            violations.add(SimpleConstraintViolation.withRule("ungueltiger Betrag", ex.getMessage(), satz,
+                    betrag.getInhalt()));
+            return 0;
+        }
+    }
+
+    /**
+     * Wandelt den Inhalt eines Betrags in Cent um, ohne dazu den Umweg ueber
+     * {@link BigDecimal} zu gehen. Ein '-' am Ende (wie bei
+     * {@link BetragMitVorzeichen}) macht den Betrag negativ, ein '+' oder
+     * ein fehlendes Vorzeichen (Leerzeichen) nicht.
+     *
+     * @param betrag Betrag (mit oder ohne Vorzeichen)
+     * @return Betrag in Cent
+     * @throws NumberFormatException bei ungueltigen Zeichen, bei Nachkommastellen
+     *         jenseits der Cent, die nicht 0 sind, oder bei einem Ueberlauf
+     */
+    public static long toCent(NumFeld betrag) {
+        String inhalt = betrag.getInhalt();
+        int length = inhalt.length();
+        boolean negativ = false;
+        if ((length > 0) && (betrag instanceof BetragMitVorzeichen)) {
+            char vorzeichen = inhalt.charAt(length - 1);
+            if ((vorzeichen == '-') || (vorzeichen == '+') || (vorzeichen == ' ')) {
+                negativ = vorzeichen == '-';
+                length--;
+            }
+        }
+        int nachkommastellen = betrag.getNachkommastellen();
+        int digits = length - Math.max(0, nachkommastellen - 2);
+        String name = betrag.getBezeichner().getName();
+        long n = 0;
+        try {
+            for (int i = 0; i < length; i++) {
+                char c = inhalt.charAt(i);
+                if ((c < '0') || (c > '9')) {
+                    throw new NumberFormatException("ungueltiger Betrag '" + inhalt + "' in " + name);
+                }
+                if (i < digits) {
+                    n = Math.addExact(Math.multiplyExact(n, 10L), c - '0');
+                } else if (c != '0') {
+                    throw new NumberFormatException(
+                            "Betrag '" + inhalt + "' in " + name + " hat mehr als 2 Nachkommastellen");
+                }
+            }
+            for (int k = nachkommastellen; k < 2; k++) {
+                n = Math.multiplyExact(n, 10L);
+            }
+        } catch (ArithmeticException ex) {
+            throw new NumberFormatException("Betrag '" + inhalt + "' in " + name + " ist zu gross");
+        }
+        return negativ ? -n : n;
+    }
+
+    /**
+     * Vergleicht die gesammelten Summen mit denen aus dem Nachsatz.
+     *
+     * @param nachsatz der gelieferte Nachsatz
+     * @return Abweichungen (leer, wenn alles passt)
+     */
+    public List<ConstraintViolation> validate(Nachsatz nachsatz) {
+        List<ConstraintViolation> abweichungen = new ArrayList<>(violations);
+        check(abweichungen, nachsatz, "Anzahl Saetze", nachsatz.getAnzahlSaetze(), anzahlSaetze);
+        check(abweichungen, nachsatz, "Gesamtbeitrag", nachsatz.getGesamtBeitrag(), gesamtBeitrag);
+        check(abweichungen, nachsatz, "Gesamtbeitrag brutto", nachsatz.getGesamtBeitragBruttoMitVorzeichen(),
+                gesamtBeitragBrutto);
+        check(abweichungen, nachsatz, "Gesamtprovisionsbetrag", nachsatz.getGesamtProvisionsBetragMitVorzeichen(),
+                gesamtProvisionsBetrag);
+        check(abweichungen, nachsatz, "Versicherungsleistungen", nachsatz.getVersicherungsLeistungenMitVorzeichen(),
+                versicherungsLeistungen);
+        check(abweichungen, nachsatz, "Schadenbearbeitungskosten",
+                nachsatz.getSchadenbearbeitungskostenMitVorzeichen(), schadenbearbeitungskosten);
+        return abweichungen;
+    }
+
+    private static void check(List<ConstraintViolation> violations, Nachsatz nachsatz, String name, NumFeld betrag,
+                              long expected) {
+        try {
+            check(violations, nachsatz, name, toCent(betrag), expected);
+        } catch (NumberFormatException ex) {
+            violations.add(SimpleConstraintViolation.withRule("ungueltiger Betrag",
+                    name + " im Nachsatz: " + ex.getMessage(), nachsatz, betrag.getInhalt()));
+        }
+    }
+
+    private static void check(List<ConstraintViolation> violations, Nachsatz nachsatz, String name, long value,
+                              long expected) {
+        if (value != expected) {
+            violations.add(SimpleConstraintViolation.withRule(name + " im Nachsatz passt nicht zu den Saetzen",
+                    String.format("%s im Nachsatz (%d) passt nicht zu den Saetzen (erwartet: %d)", name, value,
+                            expected), nachsatz, value));
+        }
+    }
+
+    /**
+     * Liefert die ungueltigen Betraege, die beim Aufsummieren aufgefallen
+     * sind und deshalb nicht in die Summen eingegangen sind.
+     *
+     * @return Constraint-Verletzungen (leer, wenn alle Betraege gueltig waren)
+     */
+    public List<ConstraintViolation> getViolations() {
+        return Collections.unmodifiableList(violations);
+    }
+
+    /**
+     * Uebertraegt die gesammelten Summen in den Nachsatz.
+     *
+     * @param nachsatz Nachsatz, der gesetzt wird
+     */
+    public void setTo(Nachsatz nachsatz) {
+        nachsatz.setAnzahlSaetze((int) anzahlSaetze);
+        nachsatz.setGesamtBeitrag(BigDecimal.valueOf(gesamtBeitrag, 2));
+        nachsatz.setGesamtBeitragBruttoMitVorzeichen(BigDecimal.valueOf(gesamtBeitragBrutto, 2));
+        nachsatz.setGesamtProvisionsBetragMitVorzeichen(BigDecimal.valueOf(gesamtProvisionsBetrag, 2));
+        nachsatz.setVersicherungsLeistungenMitVorzeichen(BigDecimal.valueOf(versicherungsLeistungen, 2));
+        nachsatz.setSchadenbearbeitungskostenMitVorzeichen(BigDecimal.valueOf(schadenbearbeitungskosten, 2));
+    }
+
+    public long getAnzahlSaetze() {
+        return anzahlSaetze;
+    }
+
+    public long getGesamtBeitrag() {
+        return gesamtBeitrag;
+    }
+
+    public long getGesamtBeitragBrutto() {
+        return gesamtBeitragBrutto;
+    }
+
+    public long getGesamtProvisionsBetrag() {
+        return gesamtProvisionsBetrag;
+    }
+
+    public long getVersicherungsLeistungen() {
+        return versicherungsLeistungen;
+    }
+
+    public long getSchadenbearbeitungskosten() {
+        return schadenbearbeitungskosten;
+    }
+
+    @Override
+    public String toString() {
+        return anzahlSaetze + " Saetze, Gesamtbeitrag " + BigDecimal.valueOf(gesamtBeitrag, 2);
+    }
+
+}
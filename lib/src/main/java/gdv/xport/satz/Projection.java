@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2024 by Oli B.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express orimplied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * (c)reated 19.10.2024 by oboehm
+ */
+package gdv.xport.satz;
+
+import gdv.xport.feld.Bezeichner;
+import gdv.xport.feld.Feld;
+import gdv.xport.util.SatzRegistry;
+import gdv.xport.util.SatzTyp;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Ueber eine Projection kann man beim Import angeben, welche Felder (pro
+ * SatzTyp) man ueberhaupt benoetigt. Nur diese Felder werden dann beim
+ * Import angelegt und befuellt, die anderen Felder werden verworfen. Damit
+ * braucht ein importierter Satz deutlich weniger Speicher.
+ * <p>
+ * Die Kopf-Felder eines Teildatensatzes (Byte 1 - 42, also Satzart,
+ * VU-Nummer, Sparte, Versicherungsscheinnummer, Folgenummer und Vermittler)
+ * und die Satznummer bleiben immer erhalten, da sie fuer den Import selbst
+ * benoetigt werden. Das gleiche gilt fuer die Felder, die zur Bestimmung
+ * des SatzTyps dienen (z.B. Wagnisart). Fuer SatzTypen, fuer die keine
+ * Felder angegeben wurden, wird der komplette Satz importiert.
+ * </p>
+ * <p>
+ * Die projizierten Saetze werden pro SatzTyp und Version (aus dem Vorsatz)
+ * nur einmal aus der {@link SatzRegistry} geholt und danach nur noch
+ * kopiert.
+ * </p>
+ *
+ * @author oboehm
+ * @since 7.2 (19.10.2024)
+ */
+public final class Projection {
+
+    private static final Set<Bezeichner> KENNUNGEN = new HashSet<>(Arrays.asList(Bezeichner.WAGNISART,
+            Bezeichner.FOLGE_NR_ZUR_LAUFENDEN_PERSONEN_NR_UNTER_NR_LAUFENDE_NR_TARIF,
+            Bezeichner.FOLGE_NR_ZUR_LAUFENDEN_PERSONEN_NR_UNTER_NR_BZW_LAUFENDEN_NR_TARIF, Bezeichner.ART_580));
+    private final Map<SatzTyp, Set<Bezeichner>> wanted = new HashMap<>();
+    private final Map<List<Object>, Satz> templates = new HashMap<>();
+
+    /**
+     * Gibt die gewuenschten Felder fuer den angegebenen SatzTyp an. Wird
+     * nur die Satzart (z.B. "0200") angegeben, gilt die Angabe fuer alle
+     * Sparten dieser Satzart, fuer die es keine eigene Angabe gibt.
+     *
+     * @param typ        SatzTyp, z.B. SatzTyp.of("0220.030")
+     * @param bezeichner die gewuenschten Felder
+     * @return die Projection selbst zur Weiterverarbeitung
+     */
+    public Projection with(SatzTyp typ, Bezeichner... bezeichner) {
+        wanted.computeIfAbsent(typ, t -> new HashSet<>()).addAll(Arrays.asList(bezeichner));
+        synchronized (templates) {
+            templates.clear();
+        }
+        return this;
+    }
+
+    /**
+     * Liefert true, wenn fuer den angegebenen SatzTyp Felder ausgewaehlt
+     * wurden.
+     *
+     * @param typ SatzTyp
+     * @return true, wenn der Satz nur teilweise importiert wird
+     */
+    public boolean isProjected(SatzTyp typ) {
+        return getWanted(typ) != null;
+    }
+
+    private Set<Bezeichner> getWanted(SatzTyp typ) {
+        Set<Bezeichner> felder = wanted.get(typ);
+        if ((felder == null) && typ.hasSparte()) {
+            felder = wanted.get(SatzTyp.of(typ.getSatzart()));
+        }
+        return felder;
+    }
+
+    /**
+     * Liefert einen (leeren) Satz fuer den angegebenen SatzTyp, der nur noch
+     * die gewuenschten Felder enthaelt.
+     *
+     * @param typ     SatzTyp
+     * @param version Version aus dem Vorsatz (oder null fuer die aktuelle Version)
+     * @return projizierter Satz
+     */
+    public Satz getSatz(SatzTyp typ, String version) {
+        Satz template;
+        synchronized (templates) {
+            template = templates.computeIfAbsent(Arrays.asList(typ, version), k -> project(newSatz(typ, version)));
+        }
+        try {
+            return (Satz) template.clone();
+        } catch (CloneNotSupportedException ex) {
+            throw new IllegalArgumentException(typ + " laesst sich nicht clonen", ex);
+        }
+    }
+
+    private static Satz newSatz(SatzTyp typ, String version) {
+        if (version == null) {
+            return SatzRegistry.getInstance().getSatz(typ);
+        } else {
+            return SatzRegistry.getSatz(typ, version);
+        }
+    }
+
+    /**
+     * Entfernt alle Felder aus dem Satz, die nicht benoetigt werden.
+     *
+     * @param satz Satz
+     * @return der Satz selbst
+     */
+    public Satz project(Satz satz) {
+        Set<Bezeichner> felder = getWanted(satz.getSatzTyp());
+        if (felder == null) {
+            return satz;
+        }
+        for (Teildatensatz tds : satz.getTeildatensaetze()) {
+            for (Feld feld : new ArrayList<>(tds.getFelder())) {
+                if (!isKopfFeld(feld) && !felder.contains(feld.getBezeichner())) {
+                    tds.remove(feld);
+                }
+            }
+        }
+        return satz;
+    }
+
+    private static boolean isKopfFeld(Feld feld) {
+        if ((((feld.getByteAdresse() - 1) % 256) < 42) || feld.getBezeichnung().startsWith("Satznummer")) {
+            return true;
+        }
+        // diese Felder werden (neben der Sparte) zur Bestimmung des SatzTyps benoetigt
+        return KENNUNGEN.contains(feld.getBezeichner());
+    }
+
+}
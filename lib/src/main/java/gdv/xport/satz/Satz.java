@@ -1185,7 +1185,8 @@ public abstract class Satz implements Cloneable {
 		List<ConstraintViolation> violations = new ArrayList<>();
 		if (!this.getSatzartFeld().isValid() || (this.getSatzart() < 1)) {
 			ConstraintViolation cv =
-					new SimpleConstraintViolation("invalid Satzart " + this.getSatzartFeld().getInhalt(), this, this.getSatzartFeld());
+					SimpleConstraintViolation.withRule("invalid Satzart",
+							"invalid Satzart " + this.getSatzartFeld().getInhalt(), this, this.getSatzartFeld());
 			violations.add(cv);
 		}
 		if (this.teildatensatz != null) {
@@ -1210,8 +1211,8 @@ public abstract class Satz implements Cloneable {
 			String inhalt = getFeldInhalt(b);
 			for (Teildatensatz tds : teildatensatz) {
 				if (tds.hasFeld(b) && !inhalt.equals(tds.getFeldInhalt(b))) {
-					ConstraintViolation cv = new SimpleConstraintViolation("has different values: " + getFeld(b),
-							this, tds.getFeld(b));
+					ConstraintViolation cv = SimpleConstraintViolation.withRule("has different values",
+							"has different values: " + getFeld(b), this, tds.getFeld(b));
 					violations.add(cv);
 				}
 			}
@@ -1258,6 +1259,56 @@ public abstract class Satz implements Cloneable {
 		return swriter.toString();
 	}
 
+	/**
+	 * Liefert den Fingerprint ueber alle Teildatensaetze. Da die
+	 * Teildatensaetze ihren Fingerprint zwischenspeichern, werden hier
+	 * meist nur noch die einzelnen Werte verknuepft.
+	 *
+	 * @return Fingerprint
+	 * @see Teildatensatz#getFingerprint()
+	 * @since 7.2
+	 */
+	public Fingerprint getFingerprint() {
+		Fingerprint fingerprint = Fingerprint.of("");
+		for (Teildatensatz tds : teildatensatz) {
+			fingerprint = fingerprint.and(tds.getFingerprint());
+		}
+		return fingerprint;
+	}
+
+	/**
+	 * Liefert eine Signatur ueber das Layout aller Teildatensaetze. Saetze
+	 * mit gleicher Signatur haben die gleichen Felder an den gleichen
+	 * Positionen mit den gleichen Validatoren.
+	 *
+	 * @return Signatur des Layouts
+	 * @see Teildatensatz#getLayout()
+	 */
+	Fingerprint getLayout() {
+		Fingerprint layout = Fingerprint.of("");
+		for (Teildatensatz tds : teildatensatz) {
+			layout = layout.and(tds.getLayout());
+		}
+		return layout;
+	}
+
+	/**
+	 * Liefert den Fingerprint ueber alle Teildatensaetze, wobei die
+	 * angegebenen Felder (z.B. das Erstellungsdatum) ignoriert werden.
+	 *
+	 * @param ignored Felder, die nicht beruecksichtigt werden sollen
+	 * @return Fingerprint
+	 * @see Teildatensatz#getFingerprint(Bezeichner...)
+	 * @since 7.2
+	 */
+	public Fingerprint getFingerprint(Bezeichner... ignored) {
+		Fingerprint fingerprint = Fingerprint.of("");
+		for (Teildatensatz tds : teildatensatz) {
+			fingerprint = fingerprint.and(tds.getFingerprint(ignored));
+		}
+		return fingerprint;
+	}
+
 	/**
 	 * Zwei Saetze sind gleich, wenn sie die gleichen Daten besitzen. Die
 	 * Idee dabei ist, dass wir die beiden Saetze exportieren und dann das
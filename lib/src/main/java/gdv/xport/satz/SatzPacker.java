@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2024 by Oli B.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express orimplied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * (c)reated 19.10.2024 by oboehm
+ */
+package gdv.xport.satz;
+
+import gdv.xport.util.SatzRegistry;
+import gdv.xport.util.SatzTyp;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Der SatzPacker fasst getrennte Teildatensaetze wieder zusammen (siehe
+ * {@link gdv.xport.Datenpaket#pack()}). Dazu werden die Datensaetze der
+ * Reihe nach ueber {@link #add(Datensatz)} uebergeben. Innerhalb einer
+ * Versicherungsscheinnummer merkt sich der Packer pro SatzTyp die noch
+ * unvollstaendigen Datensaetze, sodass jeder Datensatz nur einmal angefasst
+ * werden muss. Die erwartete Anzahl an Teildatensaetzen wird pro SatzTyp
+ * nur einmal ueber die {@link SatzRegistry} ermittelt.
+ *
+ * @author oboehm
+ * @since 7.2 (19.10.2024)
+ */
+public final class SatzPacker {
+
+    private final Map<SatzTyp, Integer> expectedTeildatensaetze = new HashMap<>();
+    private final Map<SatzTyp, List<Datensatz>> open = new HashMap<>();
+    private String vsnr;
+
+    /**
+     * Nimmt den naechsten Datensatz auf. Falls moeglich, werden seine
+     * Teildatensaetze mit einem vorangegangenen, noch unvollstaendigen
+     * Datensatz der gleichen Versicherungsscheinnummer zusammengefasst.
+     * Der uebergebene Datensatz hat danach keine Teildatensaetze mehr.
+     *
+     * @param datensatz der naechste Datensatz
+     * @return false, wenn der Datensatz zusammengefasst wurde (und damit leer ist)
+     */
+    public boolean add(Datensatz datensatz) {
+        if (datensatz.getNumberOfTeildatensaetze() == 0) {
+            return false;
+        }
+        String nr = datensatz.getVersicherungsscheinNummer();
+        if (!nr.equals(vsnr)) {
+            open.clear();
+            vsnr = nr;
+        }
+        List<Datensatz> candidates = open.computeIfAbsent(datensatz.getSatzTyp(), t -> new ArrayList<>());
+        for (Iterator<Datensatz> it = candidates.iterator(); it.hasNext(); ) {
+            Datensatz candidate = it.next();
+            candidate.mergeWith(datensatz);
+            if (isComplete(candidate)) {
+                it.remove();
+            }
+            if (datensatz.getNumberOfTeildatensaetze() == 0) {
+                return false;
+            }
+        }
+        if (!isComplete(datensatz)) {
+            candidates.add(datensatz);
+        }
+        return true;
+    }
+
+    /**
+     * Der uebergebene Datensatz wird nicht mehr mit nachfolgenden Datensaetzen
+     * zusammengefasst (z.B. weil er bereits weitergereicht wurde).
+     *
+     * @param datensatz Datensatz
+     */
+    public void close(Datensatz datensatz) {
+        List<Datensatz> candidates = open.get(datensatz.getSatzTyp());
+        if (candidates != null) {
+            candidates.remove(datensatz);
+        }
+    }
+
+    /**
+     * Vergisst alle offenen Datensaetze (z.B. am Ende eines Datenpakets).
+     */
+    public void reset() {
+        open.clear();
+        vsnr = null;
+    }
+
+    /**
+     * Prueft (wie {@link Satz#isComplete()}), ob der Datensatz alle
+     * Teildatensaetze hat. Die erwartete Anzahl wird dabei pro SatzTyp
+     * gecached.
+     *
+     * @param datensatz Datensatz
+     * @return true, wenn vollstaendig
+     */
+    public boolean isComplete(Datensatz datensatz) {
+        int expected = expectedTeildatensaetze.computeIfAbsent(datensatz.getSatzTyp(),
+                t -> SatzRegistry.getInstance().getSatz(t).getNumberOfTeildatensaetze());
+        return datensatz.getNumberOfTeildatensaetze() == expected;
+    }
+
+}
@@ -21,7 +21,9 @@ package gdv.xport.satz;
 import gdv.xport.config.Config;
 import gdv.xport.feld.*;
 import gdv.xport.io.ImportException;
+import gdv.xport.util.ModificationCounter;
 import gdv.xport.util.NotUniqueException;
+import gdv.xport.util.PrintableChars;
 import gdv.xport.util.SatzTyp;
 import gdv.xport.util.SimpleConstraintViolation;
 import net.sf.oval.ConstraintViolation;
@@ -30,6 +32,7 @@ import org.apache.logging.log4j.Logger;
 
 import java.io.IOException;
 import java.io.Writer;
+import java.nio.CharBuffer;
 import java.util.*;
 
 import static gdv.xport.feld.Bezeichner.SATZART;
@@ -45,9 +48,23 @@ import static gdv.xport.feld.Bezeichner.SPARTE;
 public class Teildatensatz extends Datensatz {
 
     private static final Logger LOG = LogManager.getLogger(Teildatensatz.class);
+    /** Fuer Text-Felder, die bereits auf druckbare Zeichen geprueft wurden. */
+    private static final Config TEXT_CHECKED = Config.EMPTY.withProperty("gdv.feld.validate", "off");
     private final Collection<Feld> datenfelder = Config.getInstance().isDebug() ? new TreeSet<>() : new ArrayList<>();
     /** Dieses Feld brauchen wir, um die Satznummer abzuspeichern. */
     private Satznummer satznummer = new Satznummer();
+    /** Gemeinsamer Aenderungszaehler aller Felder dieses Teildatensatzes. */
+    private final ModificationCounter modCounter = new ModificationCounter();
+    /** Zwischengespeicherter Fingerprint, gueltig fuer fingerprintModCount. */
+    private Fingerprint fingerprint;
+    private int fingerprintModCount;
+    /** Felder mit nicht druckbaren Zeichen beim Import, solange kein Feld geaendert wurde. */
+    private List<Feld> unprintable;
+    private int unprintableModCount;
+    /** Signatur des Feld-Layouts, wird beim Hinzufuegen/Entfernen von Feldern zurueckgesetzt. */
+    private Fingerprint layout;
+    /** Bereiche der Felder, die beim Fingerprint ignoriert werden (abhaengig vom Layout). */
+    private int[] ignoredRanges;
 
     /**
      * Instantiiert einen neuen Teildatensatz mit der angegebenen Satzart.
@@ -98,10 +115,22 @@ public class Teildatensatz extends Datensatz {
         this.satznummer = other.satznummer;
         for (Feld f : other.datenfelder) {
             Feld copy = (Feld) f.clone();
+            copy.setModificationCounter(modCounter);
             this.datenfelder.add(copy);
         }
     }
 
+    private void resetImported() {
+        this.fingerprint = null;
+        this.unprintable = null;
+    }
+
+    private void resetLayout() {
+        this.layout = null;
+        this.ignoredRanges = null;
+        resetImported();
+    }
+
     private void setSatznummer(int nr) {
         if ((nr < 1) || (nr > 9)) {
             throw new IllegalArgumentException("Satznummer (" + nr
@@ -165,8 +194,10 @@ public class Teildatensatz extends Datensatz {
                 LOG.debug("{} wird durch {} ersetzt.", f, feld);
             }
         }
+        feld.setModificationCounter(modCounter);
         setUpFeld(feld);
         this.datenfelder.add(feld);
+        resetLayout();
     }
 
     private void setUpFeld(Feld feld) {
@@ -205,6 +236,7 @@ public class Teildatensatz extends Datensatz {
      */
     public void remove(final Feld feld) {
         datenfelder.remove(feld);
+        resetLayout();
     }
 
     /**
@@ -218,6 +250,7 @@ public class Teildatensatz extends Datensatz {
     public void remove(final Bezeichner bezeichner) {
         if (hasFeld(bezeichner)) {
             datenfelder.remove(getFeld(bezeichner));
+            resetLayout();
             LOG.debug("{} was removed from {}.", bezeichner, this);
         }
     }
@@ -257,6 +290,7 @@ public class Teildatensatz extends Datensatz {
     public void set(final ByteAdresse adresse, final String value) {
         Feld x = this.getFeld(adresse);
         x.setInhalt(value);
+        resetImported();
     }
 
     /**
@@ -276,6 +310,7 @@ public class Teildatensatz extends Datensatz {
         try {
             LOG.debug("{} in '{}' wird mit '{}' belegt.", x, this, value);
             x.setInhalt(value);
+            resetImported();
         } catch (IllegalArgumentException iae) {
             throw new IllegalArgumentException(String.format(
                     "%s: illegal value '%s' for %s", this.toShortString(), value, x), iae);
@@ -290,6 +325,7 @@ public class Teildatensatz extends Datensatz {
             numFeld = getFeld(SPARTE, NumFeld.class);
         }
         numFeld.setInhalt(x);
+        resetImported();
     }
 
     @Override
@@ -526,6 +562,17 @@ public class Teildatensatz extends Datensatz {
      */
     @Override
     public void export(final Writer writer, final String eod) throws IOException {
+        writer.write(getRecord());
+        writer.write(eod);
+    }
+
+    /**
+     * Liefert die 256 Zeichen des Teildatensatzes, so wie sie auch
+     * exportiert werden.
+     *
+     * @return Inhalt des Teildatensatzes (256 Zeichen)
+     */
+    String getRecord() {
         StringBuilder data = new StringBuilder(256);
         data.append(" ".repeat(256));
         for (Feld feld : datenfelder) {
@@ -534,12 +581,39 @@ public class Teildatensatz extends Datensatz {
             data.replace(start, end, feld.getInhalt());
         }
         assert data.length() == 256 : "Teildatensatz ist " + data.length() + " und nicht 256 Bytes lang";
-        writer.write(data.toString());
-        writer.write(eod);
+        return data.toString();
     }
 
-    /* (non-Javadoc)
-     * @see gdv.xport.satz.Satz#importFrom(java.lang.String)
+    /**
+     * Liefert eine Signatur ueber das Layout (Position, Laenge, Typ und
+     * Validator der einzelnen Felder). Teildatensaetze mit gleicher Signatur
+     * werden gleich validiert.
+     *
+     * @return Signatur des Layouts
+     */
+    @Override
+    Fingerprint getLayout() {
+        if (layout == null) {
+            StringBuilder buf = new StringBuilder();
+            for (Feld feld : datenfelder) {
+                buf.append(feld.getByteAdresse()).append(':').append(feld.getAnzahlBytes()).append(':')
+                        .append(feld.getBezeichner().getTechnischerName()).append(':')
+                        .append(feld.getClass().getName()).append(':')
+                        .append(feld.getValidator().getClass().getName()).append(';');
+            }
+            layout = Fingerprint.of(buf);
+        }
+        return layout;
+    }
+
+    /**
+     * Beim Import wird der Fingerprint gleich mitberechnet. Dazu werden die
+     * gerade gelesenen Feld-Inhalte an ihre Position geschrieben, sodass das
+     * Ergebnis dem Fingerprint ueber den exportierten Inhalt entspricht.
+     *
+     * @param content die importierte Zeile
+     * @return this
+     * @throws IOException falls die Zeile zu kurz ist
      */
     @Override
     public Teildatensatz importFrom(final String content) throws IOException {
@@ -553,9 +627,85 @@ public class Teildatensatz extends Datensatz {
             String s = content.substring(begin, end);
             feld.setInhalt(s);
         }
+        char[] record = new char[256];
+        Arrays.fill(record, ' ');
+        for (Feld feld : datenfelder) {
+            String inhalt = feld.getInhalt();
+            inhalt.getChars(0, Math.min(inhalt.length(), feld.getAnzahlBytes()), record, (feld.getByteAdresse() - 1) % 256);
+        }
+        this.fingerprint = Fingerprint.of(CharBuffer.wrap(record), 256, getIgnoredRanges());
+        this.fingerprintModCount = modCounter.get();
+        this.unprintable = findUnprintableFelder((content.length() > 256) ? content.subSequence(0, 256) : content);
+        this.unprintableModCount = modCounter.get();
         return this;
     }
 
+    private static int[] toSortedRanges(List<int[]> ranges) {
+        ranges.sort(Comparator.comparingInt(range -> range[0]));
+        int[] sorted = new int[ranges.size() * 2];
+        for (int i = 0; i < ranges.size(); i++) {
+            sorted[2 * i] = ranges.get(i)[0];
+            sorted[2 * i + 1] = ranges.get(i)[1];
+        }
+        return sorted;
+    }
+
+    /**
+     * Liefert den Fingerprint des Teildatensatzes. Er wird immer ueber den
+     * exportierten Inhalt (256 Zeichen) berechnet, d.h. Luecken zwischen den
+     * Feldern oder ueberzaehlige Zeichen beim Import haben keinen Einfluss.
+     * Felder, die ueber die Property "gdv.fingerprint.ignore" konfiguriert
+     * sind, gehen nicht ein. Nach einem Import liegt der Fingerprint bereits
+     * vor; er wird erst neu berechnet, wenn sich ein Feld geaendert hat (auch
+     * direkt ueber {@link Feld#setInhalt(String)}). Dazu teilen sich alle
+     * Felder einen Aenderungszaehler, sodass nur ein Wert geprueft wird.
+     *
+     * @return Fingerprint
+     * @since 7.2
+     */
+    @Override
+    public Fingerprint getFingerprint() {
+        if ((fingerprint == null) || (fingerprintModCount != modCounter.get())) {
+            fingerprint = Fingerprint.of(getRecord(), 256, getIgnoredRanges());
+            fingerprintModCount = modCounter.get();
+        }
+        return fingerprint;
+    }
+
+    /**
+     * Berechnet den Fingerprint aus dem aktuellen Inhalt, wobei die
+     * angegebenen Felder ignoriert werden. Im Gegensatz zu
+     * {@link #getFingerprint()} wird das Ergebnis nicht abgespeichert.
+     *
+     * @param ignored Felder, die nicht beruecksichtigt werden sollen
+     * @return Fingerprint
+     * @since 7.2
+     */
+    @Override
+    public Fingerprint getFingerprint(Bezeichner... ignored) {
+        return Fingerprint.of(getRecord(), 256, getIgnoredRanges(new HashSet<>(Arrays.asList(ignored))));
+    }
+
+    private int[] getIgnoredRanges() {
+        if (ignoredRanges == null) {
+            ignoredRanges = getIgnoredRanges(getConfig().getFingerprintIgnored());
+        }
+        return ignoredRanges;
+    }
+
+    private int[] getIgnoredRanges(Set<Bezeichner> ignored) {
+        List<int[]> ranges = new ArrayList<>();
+        if (!ignored.isEmpty()) {
+            for (Feld feld : datenfelder) {
+                if (ignored.contains(feld.getBezeichner())) {
+                    int begin = (feld.getByteAdresse() - 1) % 256;
+                    ranges.add(new int[]{begin, begin + feld.getAnzahlBytes()});
+                }
+            }
+        }
+        return toSortedRanges(ranges);
+    }
+
     /* (non-Javadoc)
      * @see gdv.xport.satz.Satz#isValid()
      */
@@ -573,15 +723,69 @@ public class Teildatensatz extends Datensatz {
         return true;
     }
 
+    /**
+     * Validiert die einzelnen Felder. Beim Import wird der Teildatensatz in
+     * einem Durchlauf auf nicht druckbare Zeichen geprueft. Wurde seitdem
+     * kein Feld geaendert, muessen im Lax-Modus reine Text-Felder ohne
+     * Auffaelligkeit nicht mehr einzeln auf druckbare Zeichen geprueft
+     * werden.
+     *
+     * @param validationConfig z.B. {@link Config#LAX}
+     * @return Liste mit Constraint-Verletzungen
+     */
     @Override
     public List<ConstraintViolation> validate(Config validationConfig) {
         List<ConstraintViolation> violations = validateSatznummern(validationConfig);
+        List<Feld> unprintableFelder = ((validationConfig.getValidateMode() == Config.ValidateMode.LAX)
+                && (unprintableModCount == modCounter.get())) ? unprintable : null;
         for (Feld feld : datenfelder) {
-            violations.addAll(feld.validate(validationConfig));
+            if ((unprintableFelder != null) && isTextFeld(feld) && !unprintableFelder.contains(feld)) {
+                violations.addAll(feld.validate(TEXT_CHECKED));
+            } else {
+                violations.addAll(feld.validate(validationConfig));
+            }
         }
         return violations;
     }
 
+    /**
+     * Bei reinen Text-Feldern besteht die Validierung im Lax-Modus nur aus
+     * der Pruefung auf druckbare Zeichen.
+     */
+    private static boolean isTextFeld(Feld feld) {
+        Class<?> validator = feld.getValidator().getClass();
+        return ((feld.getClass() == Feld.class) || (feld.getClass() == AlphaNumFeld.class))
+                && ((validator == Feld.Validator.class) || (validator == AlphaNumFeld.Validator.class));
+    }
+
+    /**
+     * Prueft den kompletten Teildatensatz in einem Durchlauf auf nicht
+     * druckbare Zeichen. Nur wenn welche gefunden werden, werden die
+     * Positionen den entsprechenden Feldern zugeordnet.
+     *
+     * @param content Rohdaten des Teildatensatzes (256 Zeichen)
+     * @return Felder mit nicht druckbaren Zeichen (leer, wenn alles ok)
+     * @since 7.2
+     */
+    public List<Feld> findUnprintableFelder(final CharSequence content) {
+        int[] offsets = PrintableChars.findUnprintable(content);
+        if (offsets.length == 0) {
+            return Collections.emptyList();
+        }
+        List<Feld> felder = new ArrayList<>();
+        for (Feld feld : datenfelder) {
+            int begin = (feld.getByteAdresse() - 1) % 256;
+            int end = begin + feld.getAnzahlBytes();
+            for (int offset : offsets) {
+                if ((offset >= begin) && (offset < end)) {
+                    felder.add(feld);
+                    break;
+                }
+            }
+        }
+        return felder;
+    }
+
     private List<ConstraintViolation> validateSatznummern(Config validationConfig) {
         List<ConstraintViolation> violations = new ArrayList<>();
         if (validationConfig.getValidateMode() != Config.ValidateMode.OFF) {
@@ -590,8 +794,8 @@ public class Teildatensatz extends Datensatz {
             for (Feld feld : datenfelder) {
                 if (feld.getBezeichner().isVariantOf(Bezeichner.SATZNUMMER)
                         && !satznr.getInhalt().equals(feld.getInhalt())) {
-                    ConstraintViolation cv = new SimpleConstraintViolation("different Satznummern: " + satznr,
-                            this, feld);
+                    ConstraintViolation cv = SimpleConstraintViolation.withRule("different Satznummern",
+                            "different Satznummern: " + satznr, this, feld);
                     violations.add(cv);
                 }
             }
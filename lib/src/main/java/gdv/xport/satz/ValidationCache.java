@@ -0,0 +1,315 @@
+/*
+ * Copyright (c) 2024 by Oli B.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express orimplied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * (c)reated 19.10.2024 by oboehm
+ */
+package gdv.xport.satz;
+
+import gdv.xport.config.Config;
+import gdv.xport.feld.Feld;
+import gdv.xport.util.SimpleConstraintViolation;
+import net.sf.oval.ConstraintViolation;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In Bestandsdaten kommen viele Saetze mehrfach mit identischem Inhalt vor
+ * (z.B. gleiche Vorsaetze oder mit Default-Werten gefuellte Zusatzsaetze).
+ * Der ValidationCache merkt sich deshalb das Ergebnis der Validierung fuer
+ * einen Satz, damit identische Saetze nicht jedes Mal neu validiert werden
+ * muessen. Der Schluessel besteht aus SatzTyp, Version und einem
+ * {@link Fingerprint} ueber die Rohdaten (je 256 Zeichen pro
+ * Teildatensatz). Damit der Cache nicht unbegrenzt waechst, werden die am
+ * laengsten nicht benutzten Eintraege verdraengt (LRU).
+ * <p>
+ * Gemerkt werden nicht die Verletzungen selbst (die den ganzen Satz
+ * referenzieren), sondern nur Meldung, Regel und die Position des
+ * betroffenen Teildatensatzes bzw. Feldes. Bei einem Treffer werden daraus
+ * neue Verletzungen erzeugt, die auf die Felder des aktuellen Satzes
+ * verweisen. Lassen sich die Verletzungen eines Satzes nicht so abbilden
+ * (z.B. bei eigenen {@link ConstraintViolation}s), wird der Satz nicht
+ * gecacht.
+ * </p>
+ *
+ * @author oboehm
+ * @since 7.2 (19.10.2024)
+ */
+public final class ValidationCache {
+
+    private final Map<Key, List<Template>> cache;
+    private long hits;
+    private long misses;
+
+    public ValidationCache() {
+        this(10_000);
+    }
+
+    /**
+     * Legt einen Cache mit der angegebenen Groesse an.
+     *
+     * @param maxEntries max. Anzahl der gemerkten Saetze
+     */
+    public ValidationCache(int maxEntries) {
+        this.cache = new LinkedHashMap<Key, List<Template>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, List<Template>> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Validiert den uebergebenen Satz, falls fuer einen Satz mit gleichem
+     * Inhalt nicht schon ein Ergebnis vorliegt.
+     *
+     * @param satz             Satz, der validiert wird
+     * @param validationConfig z.B. {@link Config#STRICT}
+     * @return Liste mit Constraint-Verletzungen (wie bei {@link Satz#validate(Config)})
+     */
+    public List<ConstraintViolation> validate(Satz satz, Config validationConfig) {
+        Key key = new Key(satz, validationConfig);
+        List<Template> templates;
+        synchronized (cache) {
+            templates = cache.get(key);
+            if (templates != null) {
+                hits++;
+            } else {
+                misses++;
+            }
+        }
+        if (templates != null) {
+            return toViolations(templates, satz);
+        }
+        List<ConstraintViolation> violations = ValidationPlan.of(satz).validate(satz, validationConfig);
+        templates = toTemplates(violations, satz);
+        if (templates != null) {
+            synchronized (cache) {
+                cache.put(key, templates);
+            }
+        }
+        return violations;
+    }
+
+    private static List<ConstraintViolation> toViolations(List<Template> templates, Satz satz) {
+        List<ConstraintViolation> violations = new ArrayList<>(templates.size());
+        for (Template t : templates) {
+            violations.add(t.toViolation(satz));
+        }
+        return violations;
+    }
+
+    private static List<Template> toTemplates(List<ConstraintViolation> violations, Satz satz) {
+        List<Template> templates = new ArrayList<>(violations.size());
+        for (ConstraintViolation cv : violations) {
+            Template t = Template.of(cv, satz);
+            if (t == null) {
+                return null;
+            }
+            templates.add(t);
+        }
+        return templates;
+    }
+
+    /**
+     * Liefert die Anzahl der Treffer.
+     *
+     * @return Anzahl der Treffer
+     */
+    public long getHits() {
+        synchronized (cache) {
+            return hits;
+        }
+    }
+
+    /**
+     * Liefert die Anzahl der Fehlversuche (d.h. der Saetze, die
+     * tatsaechlich validiert werden mussten).
+     *
+     * @return Anzahl der Fehlversuche
+     */
+    public long getMisses() {
+        synchronized (cache) {
+            return misses;
+        }
+    }
+
+    /**
+     * Liefert die Anzahl der gemerkten Saetze.
+     *
+     * @return Anzahl der Eintraege
+     */
+    public int size() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ValidationCache with " + size() + " entries (" + getHits() + " hits, " + getMisses() + " misses)";
+    }
+
+    /**
+     * Der Schluessel besteht aus SatzTyp, Version, dem Feld-Layout (siehe
+     * {@link Satz#getLayout()}) und einem 128-Bit-{@link Fingerprint} ueber
+     * die Rohdaten des Satzes. Ohne das Layout wuerde z.B. ein projizierter
+     * Satz mit gleichen Rohdaten die Verletzungen eines vollstaendigen Satzes
+     * (mit anderen Feld-Positionen) bekommen. Der Satz selbst wird nicht
+     * referenziert.
+     */
+    private static final class Key {
+
+        private final Class<?> satzClass;
+        private final String satzTyp;
+        private final String version;
+        private final Config config;
+        private final Fingerprint layout;
+        private final Fingerprint fingerprint;
+
+        Key(Satz satz, Config config) {
+            this.satzClass = satz.getClass();
+            this.satzTyp = satz.getSatzTyp().toString();
+            this.version = satz.getSatzversion().getInhalt();
+            this.config = config;
+            this.layout = satz.getLayout();
+            this.fingerprint = toFingerprint(satz);
+        }
+
+        private static Fingerprint toFingerprint(Satz satz) {
+            Fingerprint fp = null;
+            for (Teildatensatz tds : satz.getTeildatensaetze()) {
+                Fingerprint next = Fingerprint.of(tds.getRecord());
+                fp = (fp == null) ? next : fp.and(next);
+            }
+            return (fp == null) ? Fingerprint.of("") : fp;
+        }
+
+        @Override
+        public int hashCode() {
+            return fingerprint.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return fingerprint.equals(other.fingerprint) && layout.equals(other.layout)
+                    && satzClass == other.satzClass && config == other.config && satzTyp.equals(other.satzTyp)
+                    && version.equals(other.version);
+        }
+
+    }
+
+    /**
+     * Eine gemerkte Verletzung ohne Referenz auf den urspruenglichen Satz.
+     * Das validierte Objekt (und ggf. der ungueltige Wert) wird ueber seine
+     * Position im Satz beschrieben: ein leerer Pfad steht fuer den Satz,
+     * {i} fuer den i-ten Teildatensatz und {i, j} fuer das j-te Feld darin.
+     */
+    private static final class Template {
+
+        private final String rule;
+        private final String message;
+        private final int[] validated;
+        private final int[] invalidPath;
+        private final Object invalidValue;
+        private final List<Template> children;
+
+        private Template(SimpleConstraintViolation scv, int[] validated, int[] invalidPath,
+                         List<Template> children) {
+            this.rule = scv.getRule();
+            this.message = scv.getMessage();
+            this.validated = validated;
+            this.invalidPath = invalidPath;
+            this.invalidValue = (invalidPath == null) && (children == null) ? scv.getInvalidValue() : null;
+            this.children = children;
+        }
+
+        static Template of(ConstraintViolation cv, Satz satz) {
+            if (!(cv instanceof SimpleConstraintViolation)) {
+                return null;
+            }
+            SimpleConstraintViolation scv = (SimpleConstraintViolation) cv;
+            int[] validated = pathOf(scv.getValidatedObject(), satz);
+            if (validated == null) {
+                return null;
+            }
+            if (!scv.getViolations().isEmpty()) {
+                if (!(scv.getValidatedObject() instanceof Satz)) {
+                    return null;
+                }
+                List<Template> children = toTemplates(scv.getViolations(), satz);
+                return (children == null) ? null : new Template(scv, validated, null, children);
+            }
+            Object value = scv.getInvalidValue();
+            if ((value instanceof Feld) || (value instanceof Satz)) {
+                int[] invalidPath = pathOf(value, satz);
+                return (invalidPath == null) ? null : new Template(scv, validated, invalidPath, null);
+            }
+            return new Template(scv, validated, null, null);
+        }
+
+        private static int[] pathOf(Object obj, Satz satz) {
+            if (obj == satz) {
+                return new int[0];
+            }
+            List<Teildatensatz> teildatensaetze = satz.getTeildatensaetze();
+            for (int i = 0; i < teildatensaetze.size(); i++) {
+                Teildatensatz tds = teildatensaetze.get(i);
+                if (tds == obj) {
+                    return new int[] { i };
+                }
+                int j = 0;
+                for (Feld feld : tds.getFelder()) {
+                    if (feld == obj) {
+                        return new int[] { i, j };
+                    }
+                    j++;
+                }
+            }
+            return null;
+        }
+
+        private static Object resolve(int[] path, Satz satz) {
+            if (path.length == 0) {
+                return satz;
+            }
+            Teildatensatz tds = satz.getTeildatensaetze().get(path[0]);
+            if (path.length == 1) {
+                return tds;
+            }
+            return new ArrayList<>(tds.getFelder()).get(path[1]);
+        }
+
+        ConstraintViolation toViolation(Satz satz) {
+            Object target = resolve(validated, satz);
+            if (children != null) {
+                return new SimpleConstraintViolation((Satz) target, toViolations(children, satz));
+            }
+            Object value = (invalidPath == null) ? invalidValue : resolve(invalidPath, satz);
+            return SimpleConstraintViolation.withRule(rule, message, target, value);
+        }
+
+    }
+
+}
@@ -0,0 +1,420 @@
+/*
+ * Copyright (c) 2024 by Oli B.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express orimplied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * (c)reated 19.10.2024 by oboehm
+ */
+package gdv.xport.satz;
+
+import de.jfachwert.FachwertFactory;
+import gdv.xport.config.Config;
+import gdv.xport.feld.*;
+import gdv.xport.util.PrintableChars;
+import net.sf.oval.ConstraintViolation;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Ein ValidationPlan ist die vorkompilierte Form der Validierung eines
+ * {@link Satz}. Statt fuer jeden Satz ueber die einzelnen Felder zu iterieren
+ * und pro {@link Feld} den passenden {@link Feld.Validator} aufzurufen, wird
+ * das Layout eines Satzes einmalig in flache Arrays aus Offset, Laenge und
+ * Pruef-Art uebersetzt. Ein Satz kann dann in einem einzigen Durchlauf ueber
+ * seine Rohdaten (je 256 Zeichen pro Teildatensatz) geprueft werden.
+ * <p>
+ * Der Plan dient als schneller Filter fuer saubere Saetze: nur wenn er eine
+ * Auffaelligkeit findet, wird ueber {@link Satz#validate(Config)} die
+ * eigentliche Validierung mit den detaillierten Meldungen durchgefuehrt.
+ * Damit liefern {@link #validate(Satz, Config)} und
+ * {@link Satz#validate(Config)} immer das gleiche Ergebnis.
+ * </p>
+ *
+ * @author oboehm
+ * @since 7.2 (19.10.2024)
+ */
+public final class ValidationPlan {
+
+    private static final Logger LOG = LogManager.getLogger(ValidationPlan.class);
+    private static final Map<List<Object>, ValidationPlan> PLANS = new ConcurrentHashMap<>();
+    private static final Bezeichner[] UNIQUE_BEZEICHNER = { Bezeichner.VU_NR, Bezeichner.VS_NR, Bezeichner.VERMITTLER };
+    private static final byte NONE = 0;
+    private static final byte TEXT = 1;
+    private static final byte NUM = 2;
+    private static final byte BETRAG_MIT_VORZEICHEN = 3;
+    private static final byte CUSTOM = 4;
+
+    private final boolean alwaysInvalid;
+    private final TdsPlan[] tdsPlans;
+    private final int[][] uniqueRanges;
+
+    private ValidationPlan(Satz satz) {
+        List<Teildatensatz> teildatensaetze = satz.getTeildatensaetze();
+        this.tdsPlans = new TdsPlan[teildatensaetze.size()];
+        boolean invalid = !isSimpleSatzart(satz) || !isBuiltIn(satz);
+        for (int i = 0; i < tdsPlans.length; i++) {
+            tdsPlans[i] = new TdsPlan(teildatensaetze.get(i));
+            invalid |= tdsPlans[i].alwaysInvalid || !isBuiltIn(teildatensaetze.get(i));
+        }
+        this.uniqueRanges = new int[UNIQUE_BEZEICHNER.length][];
+        for (int i = 0; i < UNIQUE_BEZEICHNER.length; i++) {
+            uniqueRanges[i] = collectRanges(teildatensaetze, UNIQUE_BEZEICHNER[i]);
+        }
+        this.alwaysInvalid = invalid;
+    }
+
+    /**
+     * Liefert den (gecachten) Plan fuer das Layout des uebergebenen Satzes.
+     * Der Plan wird pro SatzTyp, Version, vorhandenen Teildatensaetzen und
+     * Feld-Layout (siehe {@link Satz#getLayout()}) nur einmal erstellt. Damit
+     * bekommt z.B. ein Satz mit weniger Feldern (Projektion) einen eigenen
+     * Plan.
+     *
+     * @param satz Satz, fuer den der Plan benoetigt wird
+     * @return der passende Plan
+     */
+    public static ValidationPlan of(Satz satz) {
+        List<Object> key = Arrays.asList(satz.getConfig(), satz.getSatzTyp(), satz.getVersion(), toSatznummern(satz),
+                satz.getLayout());
+        return PLANS.computeIfAbsent(key, k -> {
+            LOG.debug("ValidationPlan fuer {} wird erstellt.", k);
+            return new ValidationPlan(satz);
+        });
+    }
+
+    private static String toSatznummern(Satz satz) {
+        StringBuilder buf = new StringBuilder();
+        for (Teildatensatz tds : satz.getTeildatensaetze()) {
+            buf.append(tds.getSatznummer().getInhalt());
+        }
+        return buf.toString();
+    }
+
+    /**
+     * Validiert den uebergebenen Satz. Nur wenn der Plan eine Auffaelligkeit
+     * findet, wird die (langsamere) Validierung ueber das Objekt-Modell
+     * angestossen.
+     *
+     * @param satz             Satz, der validiert wird
+     * @param validationConfig z.B. {@link Config#STRICT}
+     * @return Liste mit Constraint-Verletzungen (wie bei {@link Satz#validate(Config)})
+     */
+    public List<ConstraintViolation> validate(Satz satz, Config validationConfig) {
+        if (isValid(toRecords(satz), validationConfig)) {
+            return new ArrayList<>();
+        }
+        return satz.validate(validationConfig);
+    }
+
+    private static List<String> toRecords(Satz satz) {
+        List<String> records = new ArrayList<>(satz.getNumberOfTeildatensaetze());
+        for (Teildatensatz tds : satz.getTeildatensaetze()) {
+            records.add(tds.getRecord());
+        }
+        return records;
+    }
+
+    /**
+     * Prueft die Rohdaten eines Satzes in einem Durchlauf. Jedes Element
+     * der uebergebenen Liste entspricht einem Teildatensatz mit 256 Zeichen.
+     * <p>
+     * Die Pruefung ist bewusst vorsichtig: liefert sie true, ist der Satz
+     * auch fuer {@link Satz#validate(Config)} gueltig. Im Zweifelsfall
+     * (z.B. bei Unicode-Ziffern in numerischen Feldern) wird false
+     * geliefert.
+     * </p>
+     *
+     * @param records          Rohdaten der Teildatensaetze
+     * @param validationConfig z.B. {@link Config#STRICT}
+     * @return true, wenn der Satz gueltig ist
+     */
+    public boolean isValid(List<? extends CharSequence> records, Config validationConfig) {
+        if (alwaysInvalid || records.size() != tdsPlans.length || !isValidSatzart(records.get(0))) {
+            return false;
+        }
+        Config.ValidateMode mode = validationConfig.getValidateMode();
+        for (int i = 0; i < tdsPlans.length; i++) {
+            CharSequence record = records.get(i);
+            if ((record.length() < 256) || !tdsPlans[i].isValid(record, mode, validationConfig)) {
+                return false;
+            }
+        }
+        for (int[] ranges : uniqueRanges) {
+            if (!hasSameContent(records, ranges)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Eigene Unterklassen koennen die Validierung ueberschreiben - diese
+     * lassen sich daher nicht vorkompilieren.
+     */
+    private static boolean isBuiltIn(Object obj) {
+        return obj.getClass().getName().startsWith("gdv.xport.");
+    }
+
+    private static boolean isSimpleSatzart(Satz satz) {
+        if (satz.getNumberOfTeildatensaetze() == 0) {
+            return false;
+        }
+        NumFeld satzart = satz.getSatzartFeld();
+        return (satzart.getByteAdresse() == 1) && (satzart.getAnzahlBytes() == 4)
+                && (satzart.getValidator().getClass() == NumFeld.Validator.class);
+    }
+
+    private static boolean isValidSatzart(CharSequence record) {
+        int satzart = 0;
+        for (int i = 0; i < 4; i++) {
+            char c = record.charAt(i);
+            if ((c < '0') || (c > '9')) {
+                return false;
+            }
+            satzart = satzart * 10 + (c - '0');
+        }
+        return satzart > 0;
+    }
+
+    private static int[] collectRanges(List<Teildatensatz> teildatensaetze, Bezeichner bezeichner) {
+        List<Integer> ranges = new ArrayList<>();
+        for (int i = 0; i < teildatensaetze.size(); i++) {
+            for (Feld feld : teildatensaetze.get(i).getFelder()) {
+                if (bezeichner.getVariants().contains(feld.getBezeichner())) {
+                    ranges.add(i);
+                    ranges.add(offsetOf(feld));
+                    ranges.add(feld.getAnzahlBytes());
+                }
+            }
+        }
+        return ranges.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static boolean hasSameContent(List<? extends CharSequence> records, int[] ranges) {
+        if (ranges.length <= 3) {
+            return true;
+        }
+        CharSequence first = records.get(ranges[0]);
+        int firstOffset = ranges[1];
+        int length = ranges[2];
+        for (int r = 3; r < ranges.length; r += 3) {
+            if (ranges[r + 2] != length) {
+                return false;
+            }
+            CharSequence other = records.get(ranges[r]);
+            int otherOffset = ranges[r + 1];
+            for (int i = 0; i < length; i++) {
+                if (first.charAt(firstOffset + i) != other.charAt(otherOffset + i)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static int offsetOf(Feld feld) {
+        return (feld.getByteAdresse() - 1) % 256;
+    }
+
+    private static boolean isBlank(CharSequence record, int begin, int end) {
+        for (int i = begin; i < end; i++) {
+            if (record.charAt(i) != ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Entspricht der Pruefung von {@link NumFeld.Validator} im Lax-Modus,
+     * akzeptiert aber nur ASCII-Ziffern.
+     */
+    private static boolean isNumber(CharSequence record, int begin, int end) {
+        while ((begin < end) && (record.charAt(begin) <= ' ')) {
+            begin++;
+        }
+        while ((end > begin) && (record.charAt(end - 1) <= ' ')) {
+            end--;
+        }
+        if (begin == end) {
+            return true;
+        }
+        char first = record.charAt(begin);
+        int start = ((first == '-') || (first == '+')) ? begin + 1 : begin;
+        if (start == end) {
+            return false;
+        }
+        boolean zero = true;
+        for (int i = start; i < end; i++) {
+            char c = record.charAt(i);
+            if ((c < '0') || (c > '9')) {
+                return false;
+            }
+            zero &= c == '0';
+        }
+        return (first != '-') || zero;
+    }
+
+    private static boolean isStrictNumber(CharSequence record, int begin, int end) {
+        return (record.charAt(begin) > ' ') && (record.charAt(end - 1) > ' ') && isNumber(record, begin, end);
+    }
+
+    private static boolean isBetragMitVorzeichen(CharSequence record, int begin, int end) {
+        if (isBlank(record, begin, end)) {
+            return true;
+        }
+        char vorzeichen = record.charAt(end - 1);
+        return ((vorzeichen == '+') || (vorzeichen == '-')) && isNumber(record, begin, end - 1);
+    }
+
+    private static boolean isStrictBetragMitVorzeichen(CharSequence record, int begin, int end) {
+        if (record.charAt(begin) == '+') {
+            begin++;
+        }
+        return (begin < end) && (record.charAt(begin) > ' ') && (record.charAt(end - 1) > ' ')
+                && isBetragMitVorzeichen(record, begin, end);
+    }
+
+    private static boolean hasValidFachwert(String name, CharSequence record, int begin, int end) {
+        if (isBlank(record, begin, end)) {
+            return true;
+        }
+        try {
+            FachwertFactory.getInstance().validate(name, record.subSequence(begin, end).toString().trim());
+            return true;
+        } catch (RuntimeException ex) {
+            LOG.trace("{} ist ungueltig:", name, ex);
+            return false;
+        }
+    }
+
+
+
+    /**
+     * Der Plan fuer einen einzelnen Teildatensatz.
+     */
+    private static final class TdsPlan {
+
+        private final boolean alwaysInvalid;
+        private final int[] offsets;
+        private final int[] lengths;
+        private final byte[] kinds;
+        private final Feld.Validator[] validators;
+        private final String[] fachwerte;
+        private final int satznrOffset;
+        private final char satznr;
+        private final int[] satznrOffsets;
+
+        TdsPlan(Teildatensatz tds) {
+            Collection<Feld> felder = tds.getFelder();
+            int n = felder.size();
+            this.offsets = new int[n];
+            this.lengths = new int[n];
+            this.kinds = new byte[n];
+            this.validators = new Feld.Validator[n];
+            this.fachwerte = new String[n];
+            Satznummer nr = tds.getSatznummer();
+            this.satznrOffset = offsetOf(nr);
+            this.satznr = nr.getInhalt().charAt(0);
+            List<Integer> variants = new ArrayList<>();
+            boolean invalid = (nr.getAnzahlBytes() != 1) || (satznr == ' ');
+            int i = 0;
+            for (Feld feld : felder) {
+                offsets[i] = offsetOf(feld);
+                lengths[i] = feld.getAnzahlBytes();
+                kinds[i] = toKind(feld.getValidator());
+                validators[i] = feld.getValidator();
+                if (feld instanceof AlphaNumFeld) {
+                    fachwerte[i] = feld.getBezeichner().getName();
+                }
+                if (feld.getBezeichner().isVariantOf(Bezeichner.SATZNUMMER)) {
+                    invalid |= feld.getAnzahlBytes() != 1;
+                    variants.add(offsets[i]);
+                }
+                invalid |= (feld.getEndAdresse() > 256) || (feld.getAusrichtung() == Align.UNKNOWN)
+                        || !isBuiltIn(feld);
+                i++;
+            }
+            this.satznrOffsets = variants.stream().mapToInt(Integer::intValue).toArray();
+            this.alwaysInvalid = invalid;
+        }
+
+        private static byte toKind(Feld.Validator validator) {
+            Class<?> clazz = validator.getClass();
+            if ((clazz == Feld.Validator.class) || (clazz == AlphaNumFeld.Validator.class)) {
+                return TEXT;
+            } else if ((clazz == NumFeld.Validator.class) || (clazz == Datum.Validator.class)) {
+                return NUM;
+            } else if (clazz == BetragMitVorzeichen.Validator.class) {
+                return BETRAG_MIT_VORZEICHEN;
+            } else if (clazz == NullValidator.class) {
+                return NONE;
+            } else {
+                return CUSTOM;
+            }
+        }
+
+        boolean isValid(CharSequence record, Config.ValidateMode mode, Config validationConfig) {
+            if (record.charAt(satznrOffset) != satznr) {
+                return false;
+            }
+            if (mode != Config.ValidateMode.OFF) {
+                for (int offset : satznrOffsets) {
+                    if (record.charAt(offset) != satznr) {
+                        return false;
+                    }
+                }
+            }
+            boolean printable = PrintableChars.indexOfUnprintable(record, 0, 256) < 0;
+            for (int i = 0; i < offsets.length; i++) {
+                int begin = offsets[i];
+                int end = begin + lengths[i];
+                if (!isValid(i, record, begin, end, mode, validationConfig, printable)) {
+                    return false;
+                }
+                if ((fachwerte[i] != null) && !hasValidFachwert(fachwerte[i], record, begin, end)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean isValid(int i, CharSequence record, int begin, int end, Config.ValidateMode mode,
+                                Config validationConfig, boolean printable) {
+            if (mode == Config.ValidateMode.OFF) {
+                return (kinds[i] != CUSTOM) || validators[i].validate(
+                        record.subSequence(begin, end).toString(), validationConfig, (pattern, args) -> { });
+            }
+            boolean strict = mode == Config.ValidateMode.STRICT;
+            switch (kinds[i]) {
+                case NONE:
+                    return true;
+                case TEXT:
+                    return printable || PrintableChars.indexOfUnprintable(record, begin, end) < 0;
+                case NUM:
+                    return strict ? isStrictNumber(record, begin, end) : isNumber(record, begin, end);
+                case BETRAG_MIT_VORZEICHEN:
+                    return strict ? isStrictBetragMitVorzeichen(record, begin, end)
+                            : isBetragMitVorzeichen(record, begin, end);
+                default:
+                    return validators[i].validate(record.subSequence(begin, end).toString(), validationConfig,
+                            (pattern, args) -> { });
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2024 by Oli B.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express orimplied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * (c)reated 19.10.2024 by oboehm
+ */
+package gdv.xport.satz;
+
+import gdv.xport.util.SatzTyp;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Ein Vertrag fasst die aufeinanderfolgenden Datensaetze mit gleicher
+ * VU-Nummer und Versicherungsscheinnummer zusammen. Er wird beim Streamen
+ * vom {@link gdv.xport.event.VertragGrouper} gebildet.
+ *
+ * @author oboehm
+ * @since 7.2 (19.10.2024)
+ */
+public final class Vertrag {
+
+    private final String vuNummer;
+    private final String versicherungsscheinNummer;
+    private final List<Datensatz> datensaetze;
+
+    /**
+     * Legt einen neuen Vertrag an.
+     *
+     * @param vuNummer                  VU-Nummer
+     * @param versicherungsscheinNummer Versicherungsscheinnummer
+     * @param datensaetze               die Datensaetze des Vertrags
+     */
+    public Vertrag(String vuNummer, String versicherungsscheinNummer, List<Datensatz> datensaetze) {
+        this.vuNummer = vuNummer;
+        this.versicherungsscheinNummer = versicherungsscheinNummer;
+        this.datensaetze = Collections.unmodifiableList(new ArrayList<>(datensaetze));
+    }
+
+    public String getVuNummer() {
+        return vuNummer;
+    }
+
+    public String getVersicherungsscheinNummer() {
+        return versicherungsscheinNummer;
+    }
+
+    public List<Datensatz> getDatensaetze() {
+        return datensaetze;
+    }
+
+    /**
+     * Liefert die Datensaetze des Vertrags mit dem uebergebenen SatzTyp.
+     *
+     * @param typ gewuenschter {@link SatzTyp}
+     * @return Liste von Datensaetzen
+     */
+    public List<Datensatz> getDatensaetze(SatzTyp typ) {
+        List<Datensatz> saetze = new ArrayList<>();
+        for (Datensatz ds : datensaetze) {
+            if (typ.equals(ds.getSatzTyp())) {
+                saetze.add(ds);
+            }
+        }
+        return saetze;
+    }
+
+    @Override
+    public String toString() {
+        return "Vertrag " + versicherungsscheinNummer + " (VU " + vuNummer + ") with " + datensaetze.size()
+                + " Datensaetze";
+    }
+
+}
@@ -0,0 +1,231 @@
+/*
+ * Copyright (c) 2024 by Oli B.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express orimplied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * (c)reated 19.10.2024 by oboehm
+ */
+package gdv.xport.util;
+
+import gdv.xport.feld.Feld;
+import gdv.xport.satz.Satz;
+import net.sf.oval.ConstraintViolation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bei einer kaputten Datei kann es schnell Millionen von
+ * {@link ConstraintViolation}s geben, die jeweils noch den ganzen Satz
+ * referenzieren. Die Klasse AggregatedViolations fasst die Verletzungen
+ * deshalb nach SatzTyp, Bezeichner und Regel zusammen. Pro Gruppe werden
+ * nur die Anzahl und die ersten Positionen (Nummer des Teildatensatzes in
+ * der Eingabe) als Beispiele gemerkt, aber keine Saetze oder Felder.
+ *
+ * @author oboehm
+ * @since 7.2 (19.10.2024)
+ */
+public final class AggregatedViolations {
+
+    /** Ab dieser Groesse (in Bytes) wird standardmaessig zusammengefasst. */
+    public static final long LARGE_INPUT = 1_000_000L;
+
+    private final int maxSamples;
+    private final Map<List<String>, Group> groups = new LinkedHashMap<>();
+    private long total;
+
+    public AggregatedViolations() {
+        this(5);
+    }
+
+    /**
+     * Legt eine neue Zusammenfassung an.
+     *
+     * @param maxSamples max. Anzahl an Beispiel-Positionen pro Gruppe
+     */
+    public AggregatedViolations(int maxSamples) {
+        this.maxSamples = maxSamples;
+    }
+
+    /**
+     * Nimmt die uebergebene Verletzung in die Zusammenfassung auf.
+     * Haengen an der Verletzung weitere Verletzungen (wie bei
+     * {@link SimpleConstraintViolation#getViolations()}), werden diese
+     * einzeln gezaehlt.
+     *
+     * @param cv       Verletzung
+     * @param position Position in der Eingabe (z.B. Nummer des Teildatensatzes)
+     */
+    public void add(ConstraintViolation cv, int position) {
+        add(cv, position, "");
+    }
+
+    private void add(ConstraintViolation cv, int position, String satzTyp) {
+        Object validated = cv.getValidatedObject();
+        if (validated instanceof Satz) {
+            satzTyp = ((Satz) validated).getSatzTyp().toString();
+        }
+        if (cv instanceof SimpleConstraintViolation) {
+            SimpleConstraintViolation scv = (SimpleConstraintViolation) cv;
+            if (!scv.getViolations().isEmpty()) {
+                for (ConstraintViolation child : scv.getViolations()) {
+                    add(child, position, satzTyp);
+                }
+                return;
+            }
+            count(satzTyp, getBezeichner(validated), scv.getRule(), position);
+        } else {
+            count(satzTyp, getBezeichner(validated), cv.getMessageTemplate(), position);
+        }
+    }
+
+    /**
+     * Liefert die Anzahl der einzelnen Verletzungen, so wie sie auch bei
+     * {@link #add(ConstraintViolation, int)} gezaehlt werden: haengen an
+     * einer Verletzung weitere Verletzungen, zaehlen nur diese.
+     *
+     * @param cv Verletzung
+     * @return Anzahl der einzelnen Verletzungen
+     */
+    public static long count(ConstraintViolation cv) {
+        if (cv instanceof SimpleConstraintViolation) {
+            List<ConstraintViolation> children = ((SimpleConstraintViolation) cv).getViolations();
+            if (!children.isEmpty()) {
+                long n = 0;
+                for (ConstraintViolation child : children) {
+                    n += count(child);
+                }
+                return n;
+            }
+        }
+        return 1;
+    }
+
+    private static String getBezeichner(Object validated) {
+        return (validated instanceof Feld) ? ((Feld) validated).getBezeichnung() : "";
+    }
+
+    private void count(String satzTyp, String bezeichner, String rule, int position) {
+        total++;
+        groups.computeIfAbsent(Arrays.asList(satzTyp, bezeichner, rule),
+                k -> new Group(satzTyp, bezeichner, rule, maxSamples)).add(position);
+    }
+
+    /**
+     * Liefert die Anzahl aller (einzelnen) Verletzungen.
+     *
+     * @return Anzahl der Verletzungen
+     */
+    public long getTotal() {
+        return total;
+    }
+
+    /**
+     * Liefert true, wenn keine Verletzung gefunden wurde.
+     *
+     * @return true, wenn leer
+     */
+    public boolean isEmpty() {
+        return total == 0;
+    }
+
+    /**
+     * Liefert die Gruppen in der Reihenfolge, in der sie das erste Mal
+     * aufgetreten sind.
+     *
+     * @return Liste der Gruppen
+     */
+    public List<Group> getGroups() {
+        return new ArrayList<>(groups.values());
+    }
+
+    /**
+     * Liefert die Zusammenfassung als Text mit einer Zeile pro Gruppe.
+     *
+     * @return zusammengefasste Verletzungen
+     */
+    @Override
+    public String toString() {
+        StringBuilder buf = new StringBuilder();
+        buf.append(total).append(" Verletzung(en) in ").append(groups.size()).append(" Gruppe(n)");
+        for (Group group : groups.values()) {
+            buf.append('\n').append(group);
+        }
+        return buf.toString();
+    }
+
+    /**
+     * Eine Gruppe fasst alle Verletzungen mit gleichem SatzTyp, Bezeichner
+     * und gleicher Regel zusammen.
+     */
+    public static final class Group {
+
+        private final String satzTyp;
+        private final String bezeichner;
+        private final String rule;
+        private final int[] samples;
+        private int numberOfSamples;
+        private long count;
+
+        private Group(String satzTyp, String bezeichner, String rule, int maxSamples) {
+            this.satzTyp = satzTyp;
+            this.bezeichner = bezeichner;
+            this.rule = rule;
+            this.samples = new int[maxSamples];
+        }
+
+        private void add(int position) {
+            if (numberOfSamples < samples.length) {
+                samples[numberOfSamples] = position;
+                numberOfSamples++;
+            }
+            count++;
+        }
+
+        public String getSatzTyp() {
+            return satzTyp;
+        }
+
+        public String getBezeichner() {
+            return bezeichner;
+        }
+
+        public String getRule() {
+            return rule;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * Liefert die Positionen der ersten Verletzungen dieser Gruppe.
+         *
+         * @return Positionen (z.B. Nummer des Teildatensatzes)
+         */
+        public int[] getSamples() {
+            return Arrays.copyOf(samples, numberOfSamples);
+        }
+
+        @Override
+        public String toString() {
+            return count + "x " + satzTyp + " " + bezeichner + ": " + rule + " (z.B. in Record "
+                    + Arrays.toString(getSamples()) + ")";
+        }
+
+    }
+
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2024 by Oli B.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express orimplied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * (c)reated 19.10.2024 by oboehm
+ */
+package gdv.xport.util;
+
+/**
+ * Ein ModificationCounter zaehlt Aenderungen. Er kann von mehreren Feldern
+ * gemeinsam verwendet werden, sodass z.B. ein Teildatensatz ueber einen
+ * einzigen Wert erkennen kann, ob sich eines seiner Felder geaendert hat.
+ * Der Zaehler ist (wie die Felder selbst) nicht thread-safe.
+ *
+ * @author oboehm
+ * @since 7.2 (19.10.2024)
+ */
+public final class ModificationCounter {
+
+    private int count;
+
+    /**
+     * Erhoeht den Zaehler um eins.
+     */
+    public void increment() {
+        count++;
+    }
+
+    /**
+     * Liefert die Anzahl der bisherigen Aenderungen.
+     *
+     * @return Anzahl Aenderungen
+     */
+    public int get() {
+        return count;
+    }
+
+    @Override
+    public String toString() {
+        return "ModificationCounter " + count;
+    }
+
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2024 by Oli B.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express orimplied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * (c)reated 19.10.2024 by oboehm
+ */
+package gdv.xport.util;
+
+import de.jfachwert.Text;
+
+import java.util.Arrays;
+
+/**
+ * Die Klasse PrintableChars prueft ueber eine vorberechnete Tabelle mit
+ * 256 Eintraegen, ob ein Zeichen aus dem ISO-8859-1-Zeichensatz druckbar
+ * ist. Die Tabelle wird einmalig ueber {@link Text#isPrintable(String)}
+ * aufgebaut, sodass sich das Ergebnis nicht von der bisherigen Pruefung
+ * unterscheidet. Zeichen ausserhalb von ISO-8859-1 werden weiterhin ueber
+ * {@link Text#isPrintable(String)} geprueft.
+ * <p>
+ * Damit kann ein kompletter Teildatensatz (256 Zeichen) in einem Durchlauf
+ * geprueft werden. Erst wenn ein ungueltiges Zeichen gefunden wird, muessen
+ * die Positionen den einzelnen Feldern zugeordnet werden.
+ * </p>
+ *
+ * @author oboehm
+ * @since 7.2 (19.10.2024)
+ */
+public final class PrintableChars {
+
+    private static final boolean[] PRINTABLE = new boolean[256];
+    private static final int[] NONE = new int[0];
+
+    static {
+        for (char c = 0; c < PRINTABLE.length; c++) {
+            PRINTABLE[c] = Text.isPrintable(String.valueOf(c));
+        }
+    }
+
+    private PrintableChars() {
+    }
+
+    /**
+     * Prueft, ob das uebergebene Zeichen druckbar ist.
+     *
+     * @param c Zeichen
+     * @return true, wenn druckbar
+     */
+    public static boolean isPrintable(char c) {
+        return (c < PRINTABLE.length) ? PRINTABLE[c] : Text.isPrintable(String.valueOf(c));
+    }
+
+    /**
+     * Prueft, ob alle Zeichen druckbar sind.
+     *
+     * @param s Zeichenkette
+     * @return true, wenn alle Zeichen druckbar sind
+     */
+    public static boolean isPrintable(CharSequence s) {
+        return indexOfUnprintable(s, 0, s.length()) < 0;
+    }
+
+    /**
+     * Liefert die Position des ersten nicht druckbaren Zeichens im
+     * angegebenen Bereich.
+     *
+     * @param s     Zeichenkette, z.B. ein kompletter Teildatensatz
+     * @param begin Anfang (inklusive)
+     * @param end   Ende (exklusive)
+     * @return Position oder -1, wenn alle Zeichen druckbar sind
+     */
+    public static int indexOfUnprintable(CharSequence s, int begin, int end) {
+        for (int i = begin; i < end; i++) {
+            if (!isPrintable(s.charAt(i))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Liefert alle Positionen (beginnend bei 0) mit nicht druckbaren
+     * Zeichen. Bei einem sauberen Record wird nichts allokiert.
+     *
+     * @param record z.B. ein kompletter Teildatensatz
+     * @return Positionen der nicht druckbaren Zeichen (leer, wenn alles ok)
+     */
+    public static int[] findUnprintable(CharSequence record) {
+        int first = indexOfUnprintable(record, 0, record.length());
+        if (first < 0) {
+            return NONE;
+        }
+        int[] offsets = new int[record.length() - first];
+        int n = 0;
+        for (int i = first; i < record.length(); i++) {
+            if (!isPrintable(record.charAt(i))) {
+                offsets[n++] = i;
+            }
+        }
+        return Arrays.copyOf(offsets, n);
+    }
+
+}
@@ -40,9 +40,13 @@ public final class SimpleConstraintViolation extends ConstraintViolation {
     
     private static final Logger LOG = LogManager.getLogger(SimpleConstraintViolation.class);
     private final List<ConstraintViolation> violations = new ArrayList<>();
+    private final Object[] args;
+    private final String rule;
+    private String formattedMessage;
 
     public SimpleConstraintViolation(Feld validatedObject, Throwable cause) {
-        this(cause.getLocalizedMessage(), validatedObject);
+        this(cause.getClass().getName(), cause.getLocalizedMessage(), null, validatedObject,
+                validatedObject.getInhalt());
         LOG.debug("{} is not valid:", validatedObject, cause);
     }
 
@@ -51,7 +55,14 @@ public final class SimpleConstraintViolation extends ConstraintViolation {
     }
     
     public SimpleConstraintViolation(String message, Object validatedObject, Object invalidValue) {
+        this(null, message, null, validatedObject, invalidValue);
+    }
+
+    private SimpleConstraintViolation(String rule, String message, Object[] args, Object validatedObject,
+                                      Object invalidValue) {
         super(new AssertValidCheck(), message, validatedObject, invalidValue, new ClassContext(validatedObject.getClass()));
+        this.args = args;
+        this.rule = rule;
     }
 
     public SimpleConstraintViolation(Satz satz, List<ConstraintViolation> violations) {
@@ -59,6 +70,66 @@ public final class SimpleConstraintViolation extends ConstraintViolation {
         this.violations.addAll(violations);
     }
 
+    /**
+     * Legt eine Verletzung an, deren Meldung erst beim ersten Aufruf von
+     * {@link #getMessage()} formattiert wird. Dies ist fuer die Validierung
+     * ueber eine {@link ViolationSink} gedacht.
+     *
+     * @param validatedObject das validierte Feld
+     * @param pattern         Format-String fuer die Meldung
+     * @param args            Argumente fuer den Format-String
+     * @return eine neue {@link SimpleConstraintViolation}
+     * @since 7.2
+     */
+    public static SimpleConstraintViolation of(Feld validatedObject, String pattern, Object... args) {
+        return new SimpleConstraintViolation(null, pattern, args, validatedObject, validatedObject.getInhalt());
+    }
+
+    /**
+     * Legt eine Verletzung mit einer festen Regel an. Die Meldung kann
+     * dabei (wie z.B. bei "falsche Folgenummer (erwartet: 2)") variable
+     * Werte enthalten, ueber die Regel werden gleiche Fehler aber trotzdem
+     * zusammengefasst (siehe {@link AggregatedViolations}).
+     *
+     * @param rule            Regel, gegen die verstossen wurde
+     * @param message         Meldung
+     * @param validatedObject das validierte Objekt
+     * @param invalidValue    der ungueltige Wert
+     * @return eine neue {@link SimpleConstraintViolation}
+     * @since 7.2
+     */
+    public static SimpleConstraintViolation withRule(String rule, String message, Object validatedObject,
+                                                     Object invalidValue) {
+        return new SimpleConstraintViolation(rule, message, null, validatedObject, invalidValue);
+    }
+
+    @Override
+    public String getMessage() {
+        if (args == null) {
+            return super.getMessage();
+        }
+        if (formattedMessage == null) {
+            formattedMessage = String.format(super.getMessage(), args);
+        }
+        return formattedMessage;
+    }
+
+    /**
+     * Liefert die Regel, gegen die verstossen wurde. Bei Verletzungen, die
+     * ueber {@link #of(Feld, String, Object...)} angelegt wurden, ist das
+     * die noch nicht formattierte Meldung, sodass gleiche Fehler mit
+     * unterschiedlichen Werten zusammengefasst werden koennen. Wurde die
+     * Verletzung ueber {@link #withRule(String, String, Object, Object)}
+     * angelegt, ist es die dort angegebene Regel, bei einer Exception
+     * deren Klasse.
+     *
+     * @return Regel bzw. Meldung
+     * @since 7.2
+     */
+    public String getRule() {
+        return (rule == null) ? super.getMessage() : rule;
+    }
+
     /**
      * Hierueber koennen weitere Validierungsfehler abgeholt werden, die
      * noch an dieser {@link ConstraintViolation} mit dranhaengen.
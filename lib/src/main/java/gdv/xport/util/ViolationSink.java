@@ -0,0 +1,40 @@
+/*
+ * Copyright (c) 2024 by Oli B.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express orimplied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * (c)reated 19.10.2024 by oboehm
+ */
+package gdv.xport.util;
+
+/**
+ * Ueber eine ViolationSink melden die Validatoren gefundene Fehler, ohne
+ * dazu eine Exception werfen zu muessen. Die Meldung wird dabei als
+ * Format-String mit Argumenten uebergeben, damit sie erst dann formattiert
+ * werden muss, wenn sie auch tatsaechlich gebraucht wird.
+ *
+ * @author oboehm
+ * @since 7.2 (19.10.2024)
+ */
+@FunctionalInterface
+public interface ViolationSink {
+
+    /**
+     * Meldet eine Verletzung.
+     *
+     * @param pattern Format-String (siehe {@link String#format(String, Object...)})
+     * @param args    Argumente fuer den Format-String
+     */
+    void report(String pattern, Object... args);
+
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2024 by Oli B.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express orimplied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * (c)reated 19.10.2024 by oboehm
+ */
+package gdv.xport;
+
+import gdv.xport.feld.Bezeichner;
+import gdv.xport.io.ImportException;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit-Tests fuer {@link BestandDiff}.
+ *
+ * @author oboehm
+ * @since 19.10.2024
+ */
+public class BestandDiffTest {
+
+    private static final Path MUSTERDATEI = Paths.get("src/test/resources/musterdatei_041222.txt");
+    private static final BestandDiff DIFF = new BestandDiff(25);
+
+    @TempDir
+    static Path tempDir;
+    private static Path geaendert;
+
+    /**
+     * Legt eine Kopie der Musterdatei an, in der bei Vertrag 59999999998
+     * der Name geaendert und Vertrag 59999999994 entfernt wurde.
+     */
+    @BeforeAll
+    static void setUpGeaendert() throws IOException {
+        List<String> lines = new ArrayList<>();
+        for (String line : Files.readAllLines(MUSTERDATEI, StandardCharsets.ISO_8859_1)) {
+            String vsnr = line.substring(13, 30).trim();
+            if ("59999999994".equals(vsnr)) {
+                continue;
+            }
+            if ("59999999998".equals(vsnr) && line.startsWith("0100") && line.endsWith("1")) {
+                line = line.substring(0, 45) + "X" + line.substring(46);
+            }
+            lines.add(line);
+        }
+        geaendert = tempDir.resolve("geaendert.txt");
+        Files.write(geaendert, lines, StandardCharsets.ISO_8859_1);
+    }
+
+    @Test
+    void testDiffIdentical() throws IOException {
+        assertTrue(DIFF.diff(MUSTERDATEI, MUSTERDATEI).isEmpty());
+    }
+
+    @Test
+    void testDiff() throws IOException {
+        List<BestandDiff.Change> changes = DIFF.diff(MUSTERDATEI, geaendert);
+        assertEquals(2, changes.size());
+        BestandDiff.Change removed = changes.get(0);
+        assertEquals(BestandDiff.Change.Type.REMOVED, removed.getType());
+        assertEquals("59999999994", removed.getVersicherungsscheinNummer());
+        assertTrue(removed.getFeldDeltas().isEmpty());
+        BestandDiff.Change changed = changes.get(1);
+        assertEquals(BestandDiff.Change.Type.CHANGED, changed.getType());
+        assertEquals("59999999998", changed.getVersicherungsscheinNummer());
+        assertEquals(1, changed.getFeldDeltas().size());
+        BestandDiff.FeldDelta delta = changed.getFeldDeltas().get(0);
+        assertEquals(Bezeichner.NAME1, delta.getBezeichner());
+        assertEquals(1, delta.getTeildatensatz());
+        assertTrue(delta.getAlt().startsWith("Pollsmann"));
+        assertTrue(delta.getNeu().startsWith("PXllsmann"));
+    }
+
+    @Test
+    void testDiffAdded() throws IOException {
+        List<BestandDiff.Change> changes = new ArrayList<>();
+        DIFF.diff(geaendert, MUSTERDATEI, changes::add);
+        assertEquals(BestandDiff.Change.Type.ADDED, changes.get(0).getType());
+        assertEquals("59999999994", changes.get(0).getVersicherungsscheinNummer());
+        assertEquals("Pollsmann", changes.get(1).getFeldDeltas().get(0).getNeu().trim());
+    }
+
+    @Test
+    void testDiffMehrereDatenpakete() throws IOException {
+        List<String> lines = Files.readAllLines(MUSTERDATEI, StandardCharsets.ISO_8859_1);
+        lines.addAll(Files.readAllLines(MUSTERDATEI, StandardCharsets.ISO_8859_1));
+        Path doppelt = tempDir.resolve("doppelt.txt");
+        Files.write(doppelt, lines, StandardCharsets.ISO_8859_1);
+        assertThrows(ImportException.class, () -> DIFF.diff(MUSTERDATEI, doppelt));
+    }
+
+}
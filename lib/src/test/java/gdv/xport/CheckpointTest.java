@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2024 by Oli B.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express orimplied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * (c)reated 19.10.2024 by oboehm
+ */
+package gdv.xport;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Unit-Tests fuer {@link Checkpoint}.
+ *
+ * @author oboehm
+ * @since 19.10.2024
+ */
+public class CheckpointTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testSaveLoad() throws IOException {
+        Checkpoint checkpoint =
+                new Checkpoint(4711L, 42L, null, Arrays.<Serializable>asList(new int[] { 1, 2 }, null));
+        Path file = tempDir.resolve("import.checkpoint");
+        checkpoint.save(file);
+        Checkpoint loaded = Checkpoint.load(file);
+        assertEquals(4711L, loaded.getOffset());
+        assertEquals(42L, loaded.getRecordNumber());
+        assertFalse(loaded.isInDatenpaket());
+        assertArrayEquals(new int[] { 1, 2 }, (int[]) loaded.getStates().get(0));
+        assertNull(loaded.getStates().get(1));
+        assertFalse(Files.exists(tempDir.resolve("import.checkpoint.tmp")));
+    }
+
+    @Test
+    void testLoadInvalid() throws IOException {
+        Path file = tempDir.resolve("invalid.checkpoint");
+        try (OutputStream ostream = Files.newOutputStream(file);
+             ObjectOutputStream out = new ObjectOutputStream(ostream)) {
+            out.writeObject("kein Checkpoint");
+        }
+        assertThrows(InvalidObjectException.class, () -> Checkpoint.load(file));
+    }
+
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2024 by Oli B.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express orimplied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * (c)reated 19.10.2024 by oboehm
+ */
+package gdv.xport;
+
+import gdv.xport.event.NachsatzReconciler;
+import gdv.xport.satz.Nachsatz;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit-Tests fuer {@link DatenpaketFilter}.
+ *
+ * @author oboehm
+ * @since 19.10.2024
+ */
+public class DatenpaketFilterTest {
+
+    private static final Path MUSTERDATEI = Paths.get("src/test/resources/musterdatei_041222.txt");
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testFilterSatzart() throws IOException {
+        Path output = tempDir.resolve("adressen.txt");
+        long n = new DatenpaketFilter(header -> header.getSatzart() == 100).filter(MUSTERDATEI, output);
+        List<String> expected = readLines(MUSTERDATEI).stream()
+                .filter(line -> line.startsWith("0001") || line.startsWith("0100"))
+                .collect(Collectors.toList());
+        List<String> lines = readLines(output);
+        assertEquals(expected, lines.subList(0, lines.size() - 1));
+        assertEquals(expected.size() - 2, n);
+        assertNachsatzOk(output);
+    }
+
+    @Test
+    void testFilterVersicherungsscheinNummer() throws IOException {
+        List<String> input = readLines(MUSTERDATEI);
+        String vsnr = input.get(2).substring(13, 30);
+        Path output = tempDir.resolve("vertrag.txt");
+        new DatenpaketFilter(header -> header.getVersicherungsscheinNummer().equals(vsnr.trim()))
+                .filter(MUSTERDATEI, output);
+        List<String> expected = input.stream()
+                .filter(line -> line.startsWith("0001") || line.substring(13, 30).equals(vsnr))
+                .filter(line -> !line.startsWith("9999"))
+                .collect(Collectors.toList());
+        List<String> lines = readLines(output);
+        assertEquals(expected, lines.subList(0, lines.size() - 1));
+        assertNachsatzOk(output);
+    }
+
+    @Test
+    void testFilterOhneSummen() throws IOException {
+        Path output = tempDir.resolve("vertragsteile.txt");
+        long n = new DatenpaketFilter(header -> header.getSatzart() == 200).withSummen(false)
+                .filter(MUSTERDATEI, output);
+        List<String> lines = readLines(output);
+        Nachsatz nachsatz = Nachsatz.of(lines.get(lines.size() - 1));
+        assertEquals(n, nachsatz.getAnzahlSaetze());
+        assertTrue(n > 0);
+    }
+
+    @Test
+    void testFilterDreiDatenpakete() throws IOException {
+        Path output = tempDir.resolve("leer.txt");
+        long n = new DatenpaketFilter(header -> false)
+                .filter(Paths.get("src/test/resources/drei_datenpakete.txt"), output);
+        assertEquals(0, n);
+        List<String> lines = readLines(output);
+        assertEquals(3, lines.stream().filter(line -> line.startsWith("9999")).count());
+        assertEquals(9, lines.size());
+    }
+
+    private static List<String> readLines(Path file) throws IOException {
+        return Files.readAllLines(file, StandardCharsets.ISO_8859_1);
+    }
+
+    private static void assertNachsatzOk(Path file) throws IOException {
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.ISO_8859_1)) {
+            assertTrue(new NachsatzReconciler().reconcile(reader).isEmpty(), file.toString());
+        }
+    }
+
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2024 by Oli B.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express orimplied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * (c)reated 19.10.2024 by oboehm
+ */
+package gdv.xport;
+
+import gdv.xport.feld.ByteAdresse;
+import gdv.xport.satz.Datensatz;
+import gdv.xport.util.SatzTyp;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit-Tests fuer {@link DatenpaketIndex}.
+ *
+ * @author oboehm
+ * @since 19.10.2024
+ */
+public class DatenpaketIndexTest {
+
+    private static Datenpaket paket;
+
+    @BeforeAll
+    static void importMusterdatei() throws IOException {
+        paket = new Datenpaket();
+        try (InputStream istream = DatenpaketIndexTest.class.getResourceAsStream("/musterdatei_041222.txt")) {
+            paket.importFrom(istream);
+        }
+    }
+
+    @Test
+    void testGetPositionsSatzTyp() {
+        DatenpaketIndex index = new DatenpaketIndex();
+        index.rebuild(paket.getDatensaetze());
+        SatzTyp typ = SatzTyp.of("0100");
+        List<Datensatz> expected = new ArrayList<>();
+        for (Datensatz ds : paket.getDatensaetze()) {
+            if (typ.equals(ds.getSatzTyp())) {
+                expected.add(ds);
+            }
+        }
+        assertEquals(expected, DatenpaketIndex.select(paket.getDatensaetze(), index.getPositions(typ)));
+    }
+
+    @Test
+    void testGetPositionsVsnr() {
+        DatenpaketIndex index = new DatenpaketIndex();
+        List<Datensatz> datensaetze = paket.getDatensaetze();
+        index.rebuild(datensaetze);
+        String vsnr = datensaetze.get(0).getVersicherungsscheinNummer();
+        int[] positions = index.getPositions(vsnr);
+        assertTrue(positions.length > 0);
+        for (int i = 1; i < positions.length; i++) {
+            assertTrue(positions[i - 1] < positions[i]);
+        }
+        for (int pos : positions) {
+            assertEquals(vsnr, datensaetze.get(pos).getVersicherungsscheinNummer());
+        }
+    }
+
+    @Test
+    void testGetPositionsUnknown() {
+        DatenpaketIndex index = new DatenpaketIndex();
+        index.rebuild(paket.getDatensaetze());
+        assertArrayEquals(new int[0], index.getPositions("gibt-es-nicht"));
+        assertArrayEquals(new int[0], index.getPositions(-1));
+    }
+
+    @Test
+    void testAddInvalidSparte() {
+        Datensatz datensatz = null;
+        for (Datensatz ds : paket.getDatensaetze()) {
+            if (ds.hasSparte() && (ds.getSparte() == 30)) {
+                datensatz = new Datensatz(ds);
+                break;
+            }
+        }
+        assertNotNull(datensatz);
+        datensatz.getFeld(ByteAdresse.of(11)).setInhalt('X', 0);
+        DatenpaketIndex index = new DatenpaketIndex();
+        index.add(datensatz, 0);
+        assertArrayEquals(new int[0], index.getPositions(30));
+        assertArrayEquals(new int[]{0}, index.getPositions(datensatz.getSatzTyp()));
+    }
+
+    @Test
+    void testClear() {
+        DatenpaketIndex index = new DatenpaketIndex();
+        index.rebuild(paket.getDatensaetze());
+        index.clear();
+        assertArrayEquals(new int[0], index.getPositions(SatzTyp.of("0100")));
+    }
+
+    @Test
+    void testDatenpaketWithIndex() throws IOException {
+        Datenpaket indexed = new Datenpaket().withIndex();
+        try (InputStream istream = getClass().getResourceAsStream("/musterdatei_041222.txt")) {
+            indexed.importFrom(istream);
+        }
+        assertTrue(indexed.isIndexed());
+        assertFalse(paket.isIndexed());
+        for (SatzTyp typ : new SatzTyp[]{SatzTyp.of("0100"), SatzTyp.of("0200"), SatzTyp.of("0220.030")}) {
+            assertEquals(paket.getDatensaetze(typ).size(), indexed.getDatensaetze(typ).size());
+        }
+        String vsnr = paket.getDatensaetze().get(0).getVersicherungsscheinNummer();
+        assertEquals(paket.getDatensaetzeByVersicherungsscheinNummer(vsnr).size(),
+                indexed.getDatensaetzeByVersicherungsscheinNummer(vsnr).size());
+        assertEquals(paket.getDatensaetzeBySparte(30).size(), indexed.getDatensaetzeBySparte(30).size());
+        assertFalse(indexed.getDatensaetzeBySparte(30).isEmpty());
+    }
+
+}
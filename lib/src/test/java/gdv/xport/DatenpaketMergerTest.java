@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2024 by Oli B.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express orimplied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * (c)reated 19.10.2024 by oboehm
+ */
+package gdv.xport;
+
+import gdv.xport.event.NachsatzReconciler;
+import gdv.xport.io.DatensatzSorter;
+import gdv.xport.io.ImportException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit-Tests fuer {@link DatenpaketMerger}.
+ *
+ * @author oboehm
+ * @since 19.10.2024
+ */
+public class DatenpaketMergerTest {
+
+    private static final Path MUSTERDATEI = Paths.get("src/test/resources/musterdatei_041222.txt");
+    private static final Path DREI_DATENPAKETE = Paths.get("src/test/resources/drei_datenpakete.txt");
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testMergeTo() throws IOException {
+        Path output = tempDir.resolve("merged.txt");
+        new DatenpaketMerger().add(MUSTERDATEI).add(DREI_DATENPAKETE).mergeTo(output);
+        Datenpaket merged = importFrom(output);
+        assertEquals(importFrom(MUSTERDATEI).getDatensaetze().size() + countDatensaetze(DREI_DATENPAKETE),
+                merged.getDatensaetze().size());
+        assertNachsatzOk(output);
+    }
+
+    @Test
+    void testMergeOrdered() throws IOException {
+        Path output = tempDir.resolve("ordered.txt");
+        new DatenpaketMerger(DatensatzSorter.Key.VERSICHERUNGSSCHEIN_NUMMER)
+                .add(MUSTERDATEI).add(DREI_DATENPAKETE).mergeTo(output);
+        assertTrue(new DatensatzSorter().isSorted(output));
+        assertNachsatzOk(output);
+        assertEquals(1, Files.readAllLines(output, StandardCharsets.ISO_8859_1).stream()
+                .filter(line -> line.startsWith("9999")).count());
+    }
+
+    @Test
+    void testMergeConflictingVersions() throws IOException {
+        Path changed = tempDir.resolve("changed.txt");
+        List<String> lines = Files.readAllLines(MUSTERDATEI, StandardCharsets.ISO_8859_1);
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i);
+            if (line.startsWith("0001") && (line.length() >= 256) && (line.charAt(255) == '1')) {
+                // Version der Satzart 0100 steht in Byte 102-104
+                lines.set(i, line.substring(0, 101) + "1.8" + line.substring(104));
+            }
+        }
+        Files.write(changed, lines, StandardCharsets.ISO_8859_1);
+        Path output = tempDir.resolve("conflict.txt");
+        DatenpaketMerger merger = new DatenpaketMerger().add(MUSTERDATEI).add(changed);
+        assertThrows(ImportException.class, () -> merger.mergeTo(output));
+        merger.ignoreVersionConflicts(true).mergeTo(output);
+        assertNachsatzOk(output);
+    }
+
+    private static void assertNachsatzOk(Path file) throws IOException {
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.ISO_8859_1)) {
+            assertTrue(new NachsatzReconciler().reconcile(reader).isEmpty());
+        }
+    }
+
+    private static int countDatensaetze(Path file) throws IOException {
+        int[] count = new int[1];
+        try (InputStream istream = Files.newInputStream(file)) {
+            DatenpaketStreamer streamer = new DatenpaketStreamer(istream);
+            streamer.register(satz -> {
+                if ((satz.getSatzart() != 1) && (satz.getSatzart() != 9999)) {
+                    count[0]++;
+                }
+            });
+            streamer.readDatenpaket();
+            while (streamer.canReadDatenpaket()) {
+                streamer.readDatenpaket();
+            }
+        }
+        return count[0];
+    }
+
+    private static Datenpaket importFrom(Path file) throws IOException {
+        Datenpaket paket = new Datenpaket();
+        paket.importFrom(file.toFile());
+        return paket;
+    }
+
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2024 by Oli B.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express orimplied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * (c)reated 19.10.2024 by oboehm
+ */
+package gdv.xport;
+
+import gdv.xport.event.NachsatzReconciler;
+import gdv.xport.io.DatensatzSorter;
+import gdv.xport.satz.Datensatz;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit-Tests fuer {@link DatenpaketSplitter}.
+ *
+ * @author oboehm
+ * @since 19.10.2024
+ */
+public class DatenpaketSplitterTest {
+
+    private static final Path MUSTERDATEI = Paths.get("src/test/resources/musterdatei_041222.txt");
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testSplitByVersicherungsscheinNummer() throws IOException {
+        Datenpaket original = new Datenpaket();
+        original.importFrom(MUSTERDATEI.toFile());
+        Map<String, Path> files = new DatenpaketSplitter(tempDir, DatensatzSorter.Key.VERSICHERUNGSSCHEIN_NUMMER)
+                .withMaxOpenFiles(3).split(MUSTERDATEI);
+        assertEquals(14, files.size());
+        int n = 0;
+        for (Map.Entry<String, Path> entry : files.entrySet()) {
+            Datenpaket paket = new Datenpaket();
+            paket.importFrom(entry.getValue().toFile());
+            for (Datensatz datensatz : paket.getDatensaetze()) {
+                assertEquals(entry.getKey(), datensatz.getVersicherungsscheinNummer());
+            }
+            assertEquals(original.getVorsatz().getVuNummer(), paket.getVorsatz().getVuNummer());
+            assertNachsatzOk(entry.getValue());
+            n += paket.getDatensaetze().size();
+        }
+        assertEquals(original.getDatensaetze().size(), n);
+    }
+
+    @Test
+    void testSplitBySparte() throws IOException {
+        Map<String, Path> files = new DatenpaketSplitter(tempDir, DatensatzSorter.Key.SPARTE).split(MUSTERDATEI);
+        assertTrue(files.size() > 1);
+        for (Path file : files.values()) {
+            assertNachsatzOk(file);
+        }
+    }
+
+    private static void assertNachsatzOk(Path file) throws IOException {
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.ISO_8859_1)) {
+            assertTrue(new NachsatzReconciler().reconcile(reader).isEmpty(), file.toString());
+        }
+    }
+
+}
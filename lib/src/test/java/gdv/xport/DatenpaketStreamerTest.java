@@ -13,7 +13,10 @@
 package gdv.xport;
 
 import gdv.xport.config.Config;
+import gdv.xport.event.ImportListener;
 import gdv.xport.event.ImportStatistic;
+import gdv.xport.satz.Datensatz;
+import gdv.xport.satz.Satz;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.hamcrest.MatcherAssert;
@@ -22,8 +25,14 @@ import patterntesting.runtime.annotation.IntegrationTest;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
 
 import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -116,4 +125,68 @@ public final class DatenpaketStreamerTest {
         }
     }
 
+    @Test
+    public void testSetFilter() throws IOException {
+        List<Satz> saetze = new ArrayList<>();
+        try (InputStream istream = this.getClass().getResourceAsStream("/musterdatei_041222.txt")) {
+            DatenpaketStreamer streamer = new DatenpaketStreamer(istream);
+            streamer.setFilter(h -> h.getSparte() == 30);
+            streamer.register(saetze::add);
+            streamer.readDatenpaket();
+        }
+        assertEquals(1, saetze.get(0).getSatzart());
+        assertEquals(9999, saetze.get(saetze.size() - 1).getSatzart());
+        assertTrue(saetze.size() > 2);
+        for (Satz satz : saetze.subList(1, saetze.size() - 1)) {
+            assertEquals(30, ((Datensatz) satz).getSparte());
+        }
+    }
+
+    @Test
+    public void testResume() throws IOException {
+        Path musterdatei = Paths.get("src/test/resources/musterdatei_041222.txt");
+        ImportStatistic expected = new ImportStatistic();
+        try (DatenpaketStreamer streamer = new DatenpaketStreamer(musterdatei)) {
+            streamer.register(expected);
+            streamer.readDatenpaket();
+        }
+        List<Checkpoint> checkpoints = new ArrayList<>();
+        ImportStatistic aborted = new ImportStatistic();
+        try (DatenpaketStreamer streamer = new DatenpaketStreamer(musterdatei)) {
+            streamer.register(aborted);
+            streamer.register(new ImportListener() {
+                @Override
+                public void notice(Satz satz) {
+                }
+                @Override
+                public boolean isAborted() {
+                    return aborted.getImportedSaetze() >= 25;
+                }
+            });
+            streamer.setCheckpointHandler(10, checkpoints::add);
+            streamer.readDatenpaket();
+        }
+        assertEquals(3, checkpoints.size());
+        assertEquals(21, checkpoints.get(1).getRecordNumber());
+        Checkpoint checkpoint = checkpoints.get(2);
+        assertEquals(aborted.getImportedSaetze(), checkpoint.getRecordNumber());
+        assertTrue(checkpoint.isInDatenpaket());
+        byte[] content = Files.readAllBytes(musterdatei);
+        int offset = (int) checkpoint.getOffset();
+        while (content[offset] == '\n' || content[offset] == '\r') {
+            offset++;
+        }
+        assertEquals('\n', content[offset - 1]);
+        assertTrue(new String(content, offset, 4, Config.DEFAULT_ENCODING).matches("\\d{4}"));
+        ImportStatistic resumed = new ImportStatistic();
+        try (DatenpaketStreamer streamer = new DatenpaketStreamer(musterdatei)) {
+            streamer.register(resumed);
+            streamer.register(satz -> { });
+            streamer.resume(checkpoint);
+            assertTrue(streamer.canReadDatenpaket());
+            streamer.readDatenpaket();
+        }
+        assertEquals(expected.toString(), resumed.toString());
+    }
+
 }
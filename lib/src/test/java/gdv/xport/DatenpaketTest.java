@@ -49,6 +49,7 @@ import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 import static org.hamcrest.Matchers.*;
 import static org.junit.Assert.*;
@@ -594,6 +595,16 @@ public final class DatenpaketTest {
         checkViolations(defect);
     }
 
+    @Test
+    public void testValidateFolgenummerViolation() {
+        Datenpaket defect = new Datenpaket("08/15");
+        defect.add(createDatensatzWithFolgenummer(1));
+        defect.add(createDatensatzWithFolgenummer(3));
+        List<ConstraintViolation> violations = defect.validate();
+        assertTrue(violations.toString(),
+                violations.stream().anyMatch(cv -> cv.getMessage().startsWith("falsche Folgenummer")));
+    }
+
     private static Datensatz createDatensatzWithFolgenummer(final int nr) {
         Datensatz datensatz = XmlService.getInstance().getSatzart(SatzTyp.of(100));
         datensatz.setVersicherungsscheinNummer("4711");
@@ -880,6 +891,14 @@ public final class DatenpaketTest {
         LOG.info("violations = {}", violations);
     }
 
+    @Test
+    public void testValidateParallel() throws IOException {
+        datenpaket.importFrom(new File("src/test/resources", "gdv/xport/satz/Test_import_0220_020_1-satz-kaput.txt"));
+        List<ConstraintViolation> sequentiell = datenpaket.validate(Config.STRICT);
+        List<ConstraintViolation> parallel = datenpaket.validate(Config.STRICT, ForkJoinPool.commonPool());
+        assertEquals(sequentiell.toString(), parallel.toString());
+    }
+
     /**
      * Dieser Test dient zum Messen des Speicherverbrauchs. Aktuell steigt er
      * nach 7946 kompletten Datensaetzen (ca. 1.26 Mio Saetze) mit einer OOME
@@ -981,4 +1000,43 @@ public final class DatenpaketTest {
         assertEquals("Size of datensaetze not as expected", 8, datenpaket.getDatensaetze().size());
     }
 
+    @Test
+    public void testImportFromWithFilter() throws IOException {
+        Datenpaket all = new Datenpaket();
+        all.importFrom(muster);
+        Datenpaket filtered = new Datenpaket();
+        try (Reader reader = new StringReader(muster)) {
+            filtered.importFrom(reader, h -> (h.getSatzart() == 200) || (h.getSatzart() == 210));
+        }
+        List<Datensatz> expected = new ArrayList<>();
+        for (Datensatz ds : all.getDatensaetze()) {
+            if ((ds.getSatzart() == 200) || (ds.getSatzart() == 210)) {
+                expected.add(ds);
+            }
+        }
+        assertEquals(expected.size(), filtered.getDatensaetze().size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).toLongString(), filtered.getDatensaetze().get(i).toLongString());
+        }
+        assertEquals(all.getNachsatz().getAnzahlSaetze(), filtered.getNachsatz().getAnzahlSaetze());
+    }
+
+    @Test
+    public void testProcessAll() throws IOException {
+        File file = new File("src/test/resources/drei_datenpakete.txt");
+        List<Integer> sizes = Datenpaket.processAll(file.toPath(), paket -> paket.getDatensaetze().size(),
+                ForkJoinPool.commonPool());
+        List<Integer> expected = new ArrayList<>();
+        try (InputStream istream = new FileInputStream(file)) {
+            DatenpaketStreamer streamer = new DatenpaketStreamer(istream);
+            Datenpaket paket = new Datenpaket();
+            streamer.register(paket);
+            while (streamer.canReadDatenpaket()) {
+                streamer.readDatenpaket();
+                expected.add(paket.getDatensaetze().size());
+            }
+        }
+        assertEquals(expected, sizes);
+    }
+
 }
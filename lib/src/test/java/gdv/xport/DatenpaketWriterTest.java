@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2024 by Oli B.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express orimplied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * (c)reated 19.10.2024 by oboehm
+ */
+package gdv.xport;
+
+import gdv.xport.config.Config;
+import gdv.xport.event.NachsatzReconciler;
+import gdv.xport.feld.Bezeichner;
+import gdv.xport.io.DatensatzReader;
+import gdv.xport.satz.Datensatz;
+import gdv.xport.satz.Vorsatz;
+import gdv.xport.util.SatzRegistry;
+import gdv.xport.util.SatzTyp;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit-Tests fuer {@link DatenpaketWriter}.
+ *
+ * @author oboehm
+ * @since 19.10.2024
+ */
+public class DatenpaketWriterTest {
+
+    private static final Path MUSTERDATEI = Paths.get("src/test/resources/musterdatei_041222.txt");
+
+    @Test
+    void testWriteRecords() throws IOException {
+        Datenpaket original = new Datenpaket();
+        original.importFrom(MUSTERDATEI.toFile());
+        StringWriter swriter = new StringWriter();
+        try (DatensatzReader reader = DatensatzReader.of(MUSTERDATEI);
+             DatenpaketWriter writer = new DatenpaketWriter(swriter, original.getVorsatz())) {
+            for (List<String> records = reader.next(); records != null; records = reader.next()) {
+                if (!DatensatzReader.isVorsatz(records.get(0)) && !DatensatzReader.isNachsatz(records.get(0))) {
+                    writer.write(records);
+                }
+            }
+        }
+        Datenpaket written = new Datenpaket();
+        written.importFrom(swriter.toString());
+        assertEquals(original.getDatensaetze().size(), written.getDatensaetze().size());
+        assertEquals(original.getNachsatz().getAnzahlSaetze(), written.getNachsatz().getAnzahlSaetze());
+        assertEquals(original.getNachsatz().getGesamtBeitrag().toBigDecimal(),
+                written.getNachsatz().getGesamtBeitrag().toBigDecimal());
+        assertTrue(new NachsatzReconciler().reconcile(new StringReader(swriter.toString())).isEmpty());
+    }
+
+    @Test
+    void testAdd(@TempDir Path tempDir) throws IOException {
+        Datenpaket original = new Datenpaket();
+        original.importFrom(MUSTERDATEI.toFile());
+        Path file = tempDir.resolve("add.txt");
+        try (DatenpaketWriter writer = new DatenpaketWriter(file, original.getVorsatz())) {
+            for (Datensatz datensatz : original.getDatensaetze()) {
+                writer.add(datensatz);
+            }
+        }
+        Datenpaket written = new Datenpaket();
+        written.importFrom(file.toFile());
+        assertEquals(original.getDatensaetze().size(), written.getDatensaetze().size());
+        assertEquals(original.getNachsatz().getAnzahlSaetze(), written.getNachsatz().getAnzahlSaetze());
+        assertEquals(original.getVorsatz().getVuNummer(), written.getVorsatz().getVuNummer());
+        try (Reader reader = Files.newBufferedReader(file, Config.DEFAULT_ENCODING)) {
+            assertTrue(new NachsatzReconciler().reconcile(reader).isEmpty());
+        }
+    }
+
+    @Test
+    void testAddUpdatesVorsatz(@TempDir Path tempDir) throws IOException {
+        Vorsatz vorsatz = new Vorsatz();
+        vorsatz.setVuNummer("12345");
+        vorsatz.setVersion(Bezeichner.VERSION_SATZART_0100, "");
+        Datensatz adressteil = SatzRegistry.getInstance().getDatensatz(SatzTyp.of("0100"));
+        Path file = tempDir.resolve("adressteil.txt");
+        try (DatenpaketWriter writer = new DatenpaketWriter(file, vorsatz)) {
+            writer.add(adressteil);
+        }
+        assertEquals("12345", adressteil.getVuNummer());
+        Datenpaket written = new Datenpaket();
+        written.importFrom(file.toFile());
+        assertEquals(adressteil.getSatzversion().getInhalt(),
+                written.getVorsatz().getVersion(Bezeichner.VERSION_SATZART_0100));
+        assertEquals(1, written.getDatensaetze().size());
+    }
+
+    @Test
+    void testWriteAfterClose() throws IOException {
+        DatenpaketWriter writer = new DatenpaketWriter(new StringWriter(), new Vorsatz());
+        writer.close();
+        assertThrows(IOException.class, () -> writer.write(List.of("0100")));
+    }
+
+}
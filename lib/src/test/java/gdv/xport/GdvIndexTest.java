@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2024 by Oli B.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express orimplied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * (c)reated 19.10.2024 by oboehm
+ */
+package gdv.xport;
+
+import gdv.xport.satz.Datensatz;
+import gdv.xport.satz.Satz;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit-Tests fuer {@link GdvIndex}.
+ *
+ * @author oboehm
+ * @since 19.10.2024
+ */
+public class GdvIndexTest {
+
+    @TempDir
+    static Path tempDir;
+    private static Path gdvFile;
+    private static Datenpaket paket;
+
+    @BeforeAll
+    static void setUpGdvFile() throws IOException {
+        gdvFile = tempDir.resolve("musterdatei_041222.txt");
+        Files.copy(Paths.get("src/test/resources/musterdatei_041222.txt"), gdvFile);
+        paket = new Datenpaket();
+        paket.importFrom(gdvFile.toFile());
+    }
+
+    @Test
+    void testGetSaetze() throws IOException {
+        try (GdvIndex index = GdvIndex.open(gdvFile)) {
+            assertTrue(Files.exists(GdvIndex.getIndexFile(gdvFile)));
+            assertEquals(paket.getDatensaetze().size(), index.size());
+            for (String vsnr : new String[]{paket.getDatensaetze().get(0).getVersicherungsscheinNummer(),
+                    paket.getDatensaetze().get(paket.getDatensaetze().size() - 1).getVersicherungsscheinNummer()}) {
+                List<Datensatz> expected = paket.getDatensaetzeByVersicherungsscheinNummer(vsnr);
+                List<Satz> saetze = index.getSaetze(vsnr);
+                assertEquals(expected.size(), saetze.size());
+                for (int i = 0; i < expected.size(); i++) {
+                    assertEquals(expected.get(i).toLongString(), saetze.get(i).toLongString());
+                }
+            }
+        }
+    }
+
+    @Test
+    void testGetSaetzeSatzTyp() throws IOException {
+        Datensatz first = paket.getDatensaetze().get(0);
+        try (GdvIndex index = GdvIndex.open(gdvFile)) {
+            List<Satz> saetze = index.getSaetze(first.getVersicherungsscheinNummer(), first.getSatzTyp());
+            assertFalse(saetze.isEmpty());
+            for (Satz satz : saetze) {
+                assertEquals(first.getSatzTyp(), satz.getSatzTyp());
+            }
+            assertEquals(index.getSaetze(first.getVersicherungsscheinNummer()).size(),
+                    index.getSaetze(first.getVersicherungsscheinNummer(), 0).size());
+        }
+    }
+
+    @Test
+    void testGetSaetzeUnknown() throws IOException {
+        try (GdvIndex index = GdvIndex.open(gdvFile)) {
+            assertTrue(index.getSaetze("gibt-es-nicht").isEmpty());
+        }
+    }
+
+    @Test
+    void testOpenWithoutRebuild() throws IOException {
+        Path indexFile = GdvIndex.build(gdvFile);
+        FileTime created = FileTime.fromMillis(0);
+        Files.setLastModifiedTime(indexFile, created);
+        GdvIndex.open(gdvFile).close();
+        assertEquals(created, Files.getLastModifiedTime(indexFile));
+    }
+
+    @Test
+    void testOpenIncompleteIndex() throws IOException {
+        Path indexFile = GdvIndex.build(gdvFile);
+        long size = Files.size(indexFile);
+        try (FileChannel channel = FileChannel.open(indexFile, StandardOpenOption.WRITE)) {
+            channel.truncate(size - 100);
+        }
+        try (GdvIndex index = GdvIndex.open(gdvFile)) {
+            assertEquals(paket.getDatensaetze().size(), index.size());
+        }
+        assertEquals(size, Files.size(indexFile));
+    }
+
+    @Test
+    void testRecordsWithoutVorsatz() throws IOException {
+        Path withoutVorsatz = tempDir.resolve("ohne_vorsatz.txt");
+        List<String> lines = Files.readAllLines(gdvFile, StandardCharsets.ISO_8859_1);
+        lines.removeIf(line -> line.startsWith("0001"));
+        Files.write(withoutVorsatz, lines, StandardCharsets.ISO_8859_1);
+        String vsnr = paket.getDatensaetze().get(0).getVersicherungsscheinNummer();
+        try (GdvIndex index = GdvIndex.open(withoutVorsatz)) {
+            assertFalse(index.getSaetze(vsnr).isEmpty());
+            assertTrue(index.getSaetze(vsnr, 0).isEmpty());
+        }
+    }
+
+}
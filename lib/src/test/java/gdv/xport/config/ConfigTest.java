@@ -18,6 +18,9 @@
 
 package gdv.xport.config;
 
+import gdv.xport.feld.Align;
+import gdv.xport.feld.Bezeichner;
+import gdv.xport.feld.ByteAdresse;
 import gdv.xport.feld.Feld;
 import gdv.xport.feld.NullValidator;
 import org.apache.commons.io.FileUtils;
@@ -27,9 +30,13 @@ import org.apache.logging.log4j.Logger;
 import org.junit.Test;
 import patterntesting.runtime.junit.ObjectTester;
 
+import javax.validation.ValidationException;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 import static org.junit.Assert.*;
 
@@ -158,6 +165,40 @@ public class ConfigTest {
 
 
 
+    @Test
+    public void testLegacyValidator() {
+        Config cfg = Config.LAX.withProperty("gdv.validator.gdv.xport.feld.Feld", LegacyValidator.class.getName());
+        Feld feld = new Feld(Bezeichner.NAME1, 10, ByteAdresse.of(1), Align.LEFT).mitConfig(cfg);
+        assertTrue(feld.validate(Config.LAX).isEmpty());
+        List<String> messages = new ArrayList<>();
+        assertFalse(feld.getValidator().validate("verboten", Config.LAX,
+                (pattern, args) -> messages.add(String.format(pattern, args))));
+        assertEquals(Collections.singletonList("'verboten' ist nicht erlaubt"), messages);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testLegacyValidatorVerify() {
+        Config cfg = Config.LAX.withProperty("gdv.validator.gdv.xport.feld.Feld", LegacyValidator.class.getName());
+        Feld feld = new Feld(Bezeichner.NAME1, 10, ByteAdresse.of(1), Align.LEFT).mitConfig(cfg);
+        feld.setInhalt("verboten");
+    }
+
+    /**
+     * Validator im alten Stil, der nur validateLax ueberschreibt.
+     */
+    public static class LegacyValidator extends Feld.Validator {
+        public LegacyValidator(Config c) {
+            super(c);
+        }
+        @Override
+        protected String validateLax(String value) {
+            if ("verboten".equals(value.trim())) {
+                throw new ValidationException("'verboten' ist nicht erlaubt");
+            }
+            return super.validateLax(value);
+        }
+    }
+
     public static class TestValidator extends Feld.Validator {
         public TestValidator(Config c) {
             super(c);
@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2024 by Oli B.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express orimplied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * (c)reated 19.10.2024 by oboehm
+ */
+package gdv.xport.event;
+
+import gdv.xport.satz.Datensatz;
+import gdv.xport.satz.Vorsatz;
+import gdv.xport.satz.feld.common.Kopffelder1bis7;
+import gdv.xport.satz.xml.XmlService;
+import gdv.xport.util.SatzTyp;
+import net.sf.oval.ConstraintViolation;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit-Tests fuer {@link FolgenummerValidator}.
+ *
+ * @author oboehm
+ * @since 19.10.2024
+ */
+public class FolgenummerValidatorTest {
+
+    @Test
+    void testValidate() {
+        FolgenummerValidator validator = new FolgenummerValidator();
+        List<ConstraintViolation> violations = validator.validate(Arrays.asList(
+                createDatensatz("4711", 1), createDatensatz("4711", 3), createDatensatz("4711", 2)));
+        assertEquals(1, violations.size());
+        assertEquals(3, violations.get(0).getInvalidValue());
+    }
+
+    @Test
+    void testValidateDifferentVsnr() {
+        FolgenummerValidator validator = new FolgenummerValidator();
+        assertNull(validator.validate(createDatensatz("4711", 1)));
+        assertNull(validator.validate(createDatensatz("0815", 1)));
+        assertNull(validator.validate(createDatensatz("4711", 2)));
+        assertNotNull(validator.validate(createDatensatz("0815", 3)));
+    }
+
+    @Test
+    void testVsnrBlocks() {
+        FolgenummerValidator validator = new FolgenummerValidator(true);
+        assertNull(validator.validate(createDatensatz("4711", 1)));
+        assertNull(validator.validate(createDatensatz("4711", 2)));
+        assertNull(validator.validate(createDatensatz("0815", 1)));
+        assertNotNull(validator.validate(createDatensatz("0815", 3)));
+        assertNull(validator.validate(createDatensatz("4711", 1)));
+    }
+
+    @Test
+    void testNoticeVorsatz() {
+        FolgenummerValidator validator = new FolgenummerValidator(true);
+        validator.notice(createDatensatz("4711", 1));
+        validator.notice(new Vorsatz());
+        validator.notice(createDatensatz("4711", 1));
+        assertTrue(validator.getViolations().isEmpty());
+    }
+
+    @Test
+    void testValidateInvalidFolgenummer() {
+        FolgenummerValidator validator = new FolgenummerValidator();
+        Datensatz garbage = createDatensatz("4711", 1);
+        garbage.getFeld(Kopffelder1bis7.FOLGENUMMER.getBezeichner()).setInhalt('X', 0);
+        ConstraintViolation cv = validator.validate(garbage);
+        assertNotNull(cv);
+        assertTrue(cv.getMessage().startsWith("ungueltige Folgenummer"), cv.getMessage());
+        Datensatz blank = createDatensatz("4711", 1);
+        blank.getFeld(Kopffelder1bis7.FOLGENUMMER.getBezeichner()).setInhalt(' ', 0);
+        blank.getFeld(Kopffelder1bis7.FOLGENUMMER.getBezeichner()).setInhalt(' ', 1);
+        assertNotNull(validator.validate(blank));
+        assertNull(validator.validate(createDatensatz("4711", 1)));
+    }
+
+    @Test
+    void testStreamingValidatorUnsorted() {
+        StreamingValidator validator = new StreamingValidator();
+        validator.notice(createDatensatz("4711", 1));
+        validator.notice(createDatensatz("0815", 1));
+        validator.notice(createDatensatz("4711", 2));
+        assertTrue(validator.getViolations().stream()
+                .noneMatch(cv -> cv.getMessage().startsWith("falsche Folgenummer")));
+    }
+
+    @Test
+    void testMusterdatei() throws IOException {
+        StreamingValidator validator = new StreamingValidator();
+        try (InputStream istream = getClass().getResourceAsStream("/musterdatei_041222.txt")) {
+            List<ConstraintViolation> violations = validator.validate(istream);
+            assertTrue(violations.stream().noneMatch(cv -> cv.getMessage().startsWith("falsche Folgenummer")));
+        }
+    }
+
+    private static Datensatz createDatensatz(String vsnr, int folgenummer) {
+        Datensatz datensatz = XmlService.getInstance().getSatzart(SatzTyp.of(100));
+        datensatz.setVersicherungsscheinNummer(vsnr);
+        datensatz.setFolgenummer(folgenummer);
+        return datensatz;
+    }
+
+}
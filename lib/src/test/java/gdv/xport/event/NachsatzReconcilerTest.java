@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2024 by Oli B.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express orimplied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * (c)reated 19.10.2024 by oboehm
+ */
+package gdv.xport.event;
+
+import net.sf.oval.ConstraintViolation;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit-Tests fuer {@link NachsatzReconciler}.
+ *
+ * @author oboehm
+ * @since 19.10.2024
+ */
+public class NachsatzReconcilerTest {
+
+    @Test
+    void testReconcileMusterdatei() throws IOException {
+        try (InputStream istream = getClass().getResourceAsStream("/musterdatei_041222.txt")) {
+            List<ConstraintViolation> violations = new NachsatzReconciler().reconcile(istream);
+            assertTrue(violations.isEmpty(), violations.toString());
+        }
+    }
+
+    @Test
+    void testReconcileInconsistent() throws IOException {
+        try (InputStream istream = getClass().getResourceAsStream("/zwei_datenpakete.txt")) {
+            List<ConstraintViolation> violations = new NachsatzReconciler().reconcile(istream);
+            assertFalse(violations.isEmpty());
+            assertTrue(violations.stream().anyMatch(cv -> cv.getMessage().startsWith("Anzahl Saetze")));
+        }
+    }
+
+}
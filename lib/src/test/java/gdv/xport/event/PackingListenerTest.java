@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2024 by Oli B.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express orimplied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * (c)reated 19.10.2024 by oboehm
+ */
+package gdv.xport.event;
+
+import gdv.xport.DatenpaketStreamer;
+import gdv.xport.satz.Datensatz;
+import gdv.xport.satz.Satz;
+import org.junit.jupiter.api.Test;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit-Tests fuer {@link PackingListener}.
+ *
+ * @author oboehm
+ * @since 19.10.2024
+ */
+public class PackingListenerTest {
+
+    private static final String TESTFILE = "src/test/resources/gdv/xport/satz/testcase_0220_mit_0221_versetzt.txt";
+
+    @Test
+    void testPack() throws IOException {
+        List<Satz> saetze = importWith(100);
+        assertEquals(1, saetze.get(0).getSatzart());
+        assertEquals(9999, saetze.get(saetze.size() - 1).getSatzart());
+        assertEquals(22, countDatensaetze(saetze));
+    }
+
+    @Test
+    void testPackSmallWindow() throws IOException {
+        List<Satz> saetze = importWith(1);
+        assertTrue(countDatensaetze(saetze) >= 22);
+    }
+
+    private static List<Satz> importWith(int window) throws IOException {
+        List<Satz> saetze = new ArrayList<>();
+        try (Reader reader = new InputStreamReader(new FileInputStream(TESTFILE), Charset.forName("IBM850"))) {
+            DatenpaketStreamer streamer = new DatenpaketStreamer(reader);
+            streamer.register(new PackingListener(saetze::add, window));
+            streamer.readDatenpaket();
+        }
+        return saetze;
+    }
+
+    private static long countDatensaetze(List<Satz> saetze) {
+        return saetze.stream().filter(s -> s instanceof Datensatz).count();
+    }
+
+}
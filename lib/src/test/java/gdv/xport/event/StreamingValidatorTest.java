@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2024 by Oli B.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express orimplied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * (c)reated 19.10.2024 by oboehm
+ */
+package gdv.xport.event;
+
+import net.sf.oval.ConstraintViolation;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit-Tests fuer {@link StreamingValidator}.
+ *
+ * @author oboehm
+ * @since 19.10.2024
+ */
+public class StreamingValidatorTest {
+
+    private static final Logger LOG = LogManager.getLogger(StreamingValidatorTest.class);
+
+    @Test
+    public void testValidate() throws IOException {
+        StreamingValidator validator = new StreamingValidator();
+        List<ConstraintViolation> violations = validate(validator);
+        LOG.info("violations = {}", violations);
+        assertFalse(violations.isEmpty());
+        assertFalse(validator.isAborted());
+    }
+
+    @Test
+    public void testValidateWithMaxViolations() throws IOException {
+        StreamingValidator validator = new StreamingValidator();
+        validator.setMaxViolations(1);
+        List<ConstraintViolation> violations = validate(validator);
+        assertEquals(1, violations.size());
+        assertTrue(validator.isAborted());
+    }
+
+    @Test
+    public void testValidateWithTimeBudget() throws IOException {
+        StreamingValidator validator = new StreamingValidator();
+        validator.setTimeBudget(Duration.ZERO);
+        validate(validator);
+        assertTrue(validator.isAborted());
+    }
+
+    private static List<ConstraintViolation> validate(StreamingValidator validator) throws IOException {
+        try (InputStream istream = StreamingValidatorTest.class.getResourceAsStream("/zwei_datenpakete.txt")) {
+            return validator.validate(istream);
+        }
+    }
+
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2024 by Oli B.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express orimplied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * (c)reated 19.10.2024 by oboehm
+ */
+package gdv.xport.event;
+
+import gdv.xport.Datenpaket;
+import gdv.xport.DatenpaketStreamer;
+import gdv.xport.satz.Datensatz;
+import gdv.xport.satz.Vertrag;
+import org.junit.jupiter.api.Test;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit-Tests fuer {@link VertragGrouper}.
+ *
+ * @author oboehm
+ * @since 19.10.2024
+ */
+public class VertragGrouperTest {
+
+    @Test
+    void testMusterdatei() throws IOException {
+        List<Vertrag> vertraege = new ArrayList<>();
+        try (InputStream istream = getClass().getResourceAsStream("/musterdatei_041222.txt")) {
+            DatenpaketStreamer streamer = new DatenpaketStreamer(istream);
+            streamer.register(new VertragGrouper(vertraege::add));
+            streamer.readDatenpaket();
+        }
+        assertTrue(vertraege.size() > 1);
+        int n = 0;
+        for (int i = 0; i < vertraege.size(); i++) {
+            Vertrag vertrag = vertraege.get(i);
+            for (Datensatz ds : vertrag.getDatensaetze()) {
+                assertEquals(vertrag.getVersicherungsscheinNummer(), ds.getVersicherungsscheinNummer());
+            }
+            if (i > 0) {
+                Vertrag vorher = vertraege.get(i - 1);
+                assertNotEquals(vorher.getVuNummer() + vorher.getVersicherungsscheinNummer(),
+                        vertrag.getVuNummer() + vertrag.getVersicherungsscheinNummer());
+            }
+            n += vertrag.getDatensaetze().size();
+        }
+        Datenpaket paket = new Datenpaket();
+        try (InputStream istream = getClass().getResourceAsStream("/musterdatei_041222.txt")) {
+            paket.importFrom(istream);
+        }
+        assertEquals(paket.pack().getDatensaetze().size(), n);
+    }
+
+    @Test
+    void testPackWithinVertrag() throws IOException {
+        List<Vertrag> vertraege = new ArrayList<>();
+        try (Reader reader = new InputStreamReader(
+                new FileInputStream("src/test/resources/gdv/xport/satz/testcase_0220_mit_0221_versetzt.txt"),
+                Charset.forName("IBM850"))) {
+            DatenpaketStreamer streamer = new DatenpaketStreamer(reader);
+            streamer.register(new VertragGrouper(vertraege::add));
+            streamer.readDatenpaket();
+        }
+        assertEquals(22, vertraege.stream().mapToInt(v -> v.getDatensaetze().size()).sum());
+    }
+
+}
@@ -25,7 +25,9 @@ import org.apache.logging.log4j.Logger;
 import org.junit.Test;
 
 import java.math.BigDecimal;
+import java.text.SimpleDateFormat;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 
@@ -269,4 +271,16 @@ public final class DatumTest extends AbstractFeldTest {
         assertThrows(IllegalArgumentException.class, () -> strict.setInhalt("b"));
     }
 
+    @Test
+    public void testCheckFormat() {
+        Datum.Validator validator = new Datum.Validator();
+        SimpleDateFormat format = new SimpleDateFormat("ddMMyyyy");
+        List<String> messages = new ArrayList<>();
+        assertTrue(validator.checkFormat(format, "31032021", (pattern, args) -> messages.add(pattern)));
+        assertFalse(validator.checkFormat(format, "31022021", (pattern, args) -> messages.add(String.format(pattern, args))));
+        assertFalse(validator.checkFormat(format, "abc", (pattern, args) -> messages.add(String.format(pattern, args))));
+        assertEquals(2, messages.size());
+        assertEquals("'abc' ist kein Datum", messages.get(1));
+    }
+
 }
@@ -27,6 +27,8 @@ import org.junit.Test;
 import javax.validation.ValidationException;
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import static org.junit.Assert.*;
@@ -251,6 +253,46 @@ public class NumFeldTest extends AbstractNumFeldTest {
         validator.validate("-1");
     }
 
+    @Test(expected = de.jfachwert.pruefung.exception.ValidationException.class)
+    public void testValidatorStrictFails() {
+        NumFeld.Validator validator = new NumFeld.Validator(Config.STRICT);
+        validator.validate(" 1");
+    }
+
+    @Test
+    public void testVerifyTrims() {
+        NumFeld.Validator validator = new NumFeld.Validator(Config.LAX);
+        NumFeld feld = new NumFeld(Bezeichner.ANTEILE, 5, ByteAdresse.of(1));
+        assertEquals(validator.validate(" 42"), validator.verify(" 42", feld));
+        assertEquals("42", validator.verify(" 42", feld));
+    }
+
+    @Test
+    public void testValidatorWithSink() {
+        NumFeld.Validator validator = new NumFeld.Validator();
+        List<String> messages = new ArrayList<>();
+        assertTrue(validator.validate("42", Config.LAX, (pattern, args) -> messages.add(String.format(pattern, args))));
+        assertFalse(validator.validate("-1", Config.LAX, (pattern, args) -> messages.add(String.format(pattern, args))));
+        assertFalse(validator.validate("no", Config.LAX, (pattern, args) -> messages.add(String.format(pattern, args))));
+        assertEquals(Arrays.asList("'-1' darf nicht negativ sein", "'no' ist keine Zahl"), messages);
+    }
+
+    @Test
+    public void testValidatorWithSinkStrict() {
+        NumFeld.Validator validator = new NumFeld.Validator();
+        assertTrue(validator.validate("-0", Config.STRICT, (pattern, args) -> fail(pattern)));
+        assertFalse(validator.validate(" 1", Config.STRICT, (pattern, args) -> LOG.info(pattern)));
+    }
+
+    @Test
+    public void testValidateLazyMessage() {
+        NumFeld feld = new NumFeld(Bezeichner.ANTEILE, 5, ByteAdresse.of(1));
+        feld.setInhalt("1234x");
+        List<ConstraintViolation> violations = feld.validate(Config.LAX);
+        assertEquals(1, violations.size());
+        assertEquals("'1234x' ist keine Zahl", violations.get(0).getMessage());
+    }
+
     @Test(expected = IllegalArgumentException.class)
     public void testNumberWithBlanksConfigStrict() {
         NumFeld numFeld = new NumFeld(Bezeichner.of("numTestFeld"), 5, ByteAdresse.of(1)).mitConfig(Config.STRICT);
@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2024 by Oli B.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express orimplied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * (c)reated 19.10.2024 by oboehm
+ */
+package gdv.xport.io;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit-Tests fuer {@link DatenpaketScanner}.
+ *
+ * @author oboehm
+ * @since 19.10.2024
+ */
+public class DatenpaketScannerTest {
+
+    private static final Path ZWEI_DATENPAKETE = Paths.get("src/test/resources/zwei_datenpakete.txt");
+
+    @Test
+    void testScanZweiDatenpakete() throws IOException {
+        List<DatenpaketScanner.Segment> segments = DatenpaketScanner.scan(ZWEI_DATENPAKETE);
+        assertEquals(2, segments.size());
+        assertEquals(0, segments.get(0).getStart());
+        assertTrue(segments.get(0).getEnd() <= segments.get(1).getStart());
+        assertTrue(segments.get(1).getEnd() <= Files.size(ZWEI_DATENPAKETE));
+        try (FileChannel channel = FileChannel.open(ZWEI_DATENPAKETE, StandardOpenOption.READ)) {
+            for (DatenpaketScanner.Segment segment : segments) {
+                String content = new String(segment.read(channel), StandardCharsets.ISO_8859_1);
+                assertTrue(content.startsWith("0001"));
+                assertTrue(content.trim().lastIndexOf("9999") > 0);
+            }
+        }
+    }
+
+    @Test
+    void testScanDreiDatenpakete() throws IOException {
+        List<DatenpaketScanner.Segment> segments =
+                DatenpaketScanner.scan(Paths.get("src/test/resources/drei_datenpakete.txt"));
+        assertEquals(3, segments.size());
+    }
+
+    @Test
+    void testScanOhneNachsatz() throws IOException {
+        String vorsatz = "0001" + " ".repeat(252) + "\n";
+        String datensatz = "0100" + " ".repeat(252) + "\n";
+        String content = vorsatz + datensatz + vorsatz + datensatz;
+        List<DatenpaketScanner.Segment> segments =
+                DatenpaketScanner.scan(new ByteArrayInputStream(content.getBytes(StandardCharsets.ISO_8859_1)));
+        assertEquals(2, segments.size());
+        assertEquals(514, segments.get(1).getStart());
+        assertEquals(content.length(), segments.get(1).getEnd());
+    }
+
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2024 by Oli B.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express orimplied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * (c)reated 19.10.2024 by oboehm
+ */
+package gdv.xport.io;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit-Tests fuer {@link DatensatzSorter}.
+ *
+ * @author oboehm
+ * @since 19.10.2024
+ */
+public class DatensatzSorterTest {
+
+    private static final Path MUSTERDATEI = Paths.get("src/test/resources/musterdatei_041222.txt");
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testSort() throws IOException {
+        DatensatzSorter sorter = new DatensatzSorter(20);
+        assertFalse(sorter.isSorted(MUSTERDATEI));
+        Path sorted = tempDir.resolve("sorted.txt");
+        sorter.sort(MUSTERDATEI, sorted);
+        assertTrue(sorter.isSorted(sorted));
+        List<String> original = Files.readAllLines(MUSTERDATEI, StandardCharsets.ISO_8859_1);
+        List<String> lines = Files.readAllLines(sorted, StandardCharsets.ISO_8859_1);
+        assertEquals(original.size(), lines.size());
+        assertEquals(original.subList(0, 2), lines.subList(0, 2));
+        assertEquals(original.get(original.size() - 1), lines.get(lines.size() - 1));
+        assertTrue(lines.containsAll(original));
+    }
+
+    @Test
+    void testSortBySatzart() throws IOException {
+        DatensatzSorter sorter = new DatensatzSorter(30, DatensatzSorter.Key.SATZART,
+                DatensatzSorter.Key.VERSICHERUNGSSCHEIN_NUMMER);
+        Path sorted = tempDir.resolve("satzart.txt");
+        sorter.sort(MUSTERDATEI, sorted);
+        assertTrue(sorter.isSorted(sorted));
+        List<String> lines = Files.readAllLines(sorted, StandardCharsets.ISO_8859_1);
+        String last = "";
+        for (String line : lines.subList(2, lines.size() - 1)) {
+            String satzart = DatensatzSorter.Key.SATZART.of(line);
+            assertTrue(last.compareTo(satzart) <= 0, line);
+            last = satzart;
+            if (line.startsWith("0100") && !line.endsWith("1")) {
+                String previous = lines.get(lines.indexOf(line) - 1);
+                assertEquals(DatensatzSorter.Key.VERSICHERUNGSSCHEIN_NUMMER.of(previous),
+                        DatensatzSorter.Key.VERSICHERUNGSSCHEIN_NUMMER.of(line));
+            }
+        }
+    }
+
+    @Test
+    void testSortDatenpakete() throws IOException {
+        Path input = Paths.get("src/test/resources/drei_datenpakete.txt");
+        Path sorted = tempDir.resolve("drei_datenpakete.txt");
+        DatensatzSorter sorter = new DatensatzSorter(5);
+        sorter.sort(input, sorted);
+        assertTrue(sorter.isSorted(sorted));
+        assertEquals(DatenpaketScanner.scan(input).size(), DatenpaketScanner.scan(sorted).size());
+    }
+
+    @Test
+    void testSortStable() throws IOException {
+        String a1 = record("0100", "A", '1');
+        String b = record("0100", "B", '1');
+        String a2 = record("0200", "A", '1');
+        Path input = tempDir.resolve("input.txt");
+        Files.write(input, List.of(a1, b, a2), StandardCharsets.ISO_8859_1);
+        Path sorted = tempDir.resolve("stable.txt");
+        new DatensatzSorter(1).sort(input, sorted);
+        assertEquals(List.of(a1, a2, b), Files.readAllLines(sorted, StandardCharsets.ISO_8859_1));
+    }
+
+    @Test
+    void testSortMultiPass() throws IOException {
+        Path expected = tempDir.resolve("expected.txt");
+        new DatensatzSorter().sort(MUSTERDATEI, expected);
+        Path sorted = tempDir.resolve("multipass.txt");
+        new DatensatzSorter(1, 2, StandardCharsets.ISO_8859_1).sort(MUSTERDATEI, sorted);
+        assertEquals(Files.readAllLines(expected, StandardCharsets.ISO_8859_1),
+                Files.readAllLines(sorted, StandardCharsets.ISO_8859_1));
+    }
+
+    @Test
+    void testSortStableMultiPass() throws IOException {
+        List<String> records = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            records.add(record(String.format("02%02d", i), (i % 2 == 0) ? "A" : "B", '1'));
+        }
+        Path input = tempDir.resolve("input.txt");
+        Files.write(input, records, StandardCharsets.ISO_8859_1);
+        Path sorted = tempDir.resolve("stable.txt");
+        new DatensatzSorter(1, 3, StandardCharsets.ISO_8859_1).sort(input, sorted);
+        List<String> lines = Files.readAllLines(sorted, StandardCharsets.ISO_8859_1);
+        for (int i = 0; i < 5; i++) {
+            assertEquals(records.get(2 * i), lines.get(i));
+            assertEquals(records.get(2 * i + 1), lines.get(5 + i));
+        }
+    }
+
+    @Test
+    void testInvalidMaxRecords() {
+        assertThrows(IllegalArgumentException.class, () -> new DatensatzSorter(0));
+    }
+
+    @Test
+    void testInvalidMaxFanIn() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new DatensatzSorter(1, 1, StandardCharsets.ISO_8859_1));
+    }
+
+    private static String record(String satzart, String vsnr, char nr) {
+        String header = satzart + "9999  030" + String.format("%17s", vsnr);
+        return header + " ".repeat(255 - header.length()) + nr;
+    }
+
+}
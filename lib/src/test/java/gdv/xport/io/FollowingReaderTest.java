@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2024 by Oli B.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express orimplied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * (c)reated 19.10.2024 by oboehm
+ */
+package gdv.xport.io;
+
+import gdv.xport.DatenpaketStreamer;
+import gdv.xport.event.ImportStatistic;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Unit-Tests fuer {@link FollowingReader}.
+ *
+ * @author oboehm
+ * @since 19.10.2024
+ */
+public class FollowingReaderTest {
+
+    private static final Path MUSTERDATEI = Paths.get("src/test/resources/musterdatei_041222.txt");
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testFollow() throws IOException, InterruptedException {
+        ImportStatistic expected = new ImportStatistic();
+        try (DatenpaketStreamer streamer = new DatenpaketStreamer(MUSTERDATEI)) {
+            streamer.register(expected);
+            streamer.readDatenpaket();
+        }
+        Path file = tempDir.resolve("upload.txt");
+        byte[] content = Files.readAllBytes(MUSTERDATEI);
+        Thread upload = new Thread(() -> {
+            try (OutputStream ostream = Files.newOutputStream(file)) {
+                for (int i = 0; i < content.length; i += 1000) {
+                    ostream.write(content, i, Math.min(1000, content.length - i));
+                    ostream.flush();
+                    Thread.sleep(5);
+                }
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        upload.start();
+        ImportStatistic statistic = new ImportStatistic();
+        FollowingReader reader = new FollowingReader(file);
+        reader.setPollInterval(Duration.ofMillis(10));
+        try (DatenpaketStreamer streamer = new DatenpaketStreamer(reader)) {
+            streamer.register(statistic);
+            streamer.readDatenpaket();
+        }
+        upload.join();
+        assertEquals(expected.toString(), statistic.toString());
+    }
+
+    @Test
+    void testShortNachsatzWithoutNewline() throws IOException {
+        Path file = tempDir.resolve("kurzer_nachsatz.txt");
+        String vorsatz = "0001" + " ".repeat(251) + "1";
+        String nachsatz = "9999" + " ".repeat(40) + "1";
+        Files.write(file, (vorsatz + "\n" + nachsatz).getBytes(StandardCharsets.ISO_8859_1));
+        char[] cbuf = new char[1024];
+        try (FollowingReader reader = new FollowingReader(file)) {
+            reader.setPollInterval(Duration.ofMillis(10));
+            reader.setTimeout(Duration.ofSeconds(10));
+            reader.setSettleTime(Duration.ofMillis(50));
+            assertEquals(vorsatz + "\n", new String(cbuf, 0, reader.read(cbuf)));
+            assertEquals(nachsatz + "\n", new String(cbuf, 0, reader.read(cbuf)));
+            assertEquals(-1, reader.read(cbuf));
+        }
+    }
+
+    @Test
+    void testNachsatzWrittenInTwoParts() throws IOException, InterruptedException {
+        Path file = tempDir.resolve("nachsatz_in_teilen.txt");
+        String vorsatz = "0001" + " ".repeat(251) + "1";
+        String nachsatz = "9999" + " ".repeat(251) + "1";
+        Files.write(file, (vorsatz + "\n" + nachsatz.substring(0, 45)).getBytes(StandardCharsets.ISO_8859_1));
+        Thread upload = new Thread(() -> {
+            try {
+                Thread.sleep(100);
+                Files.write(file, (nachsatz.substring(45) + "\n").getBytes(StandardCharsets.ISO_8859_1),
+                        StandardOpenOption.APPEND);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        char[] cbuf = new char[1024];
+        try (FollowingReader reader = new FollowingReader(file)) {
+            reader.setPollInterval(Duration.ofMillis(10));
+            reader.setTimeout(Duration.ofSeconds(10));
+            reader.setSettleTime(Duration.ofSeconds(5));
+            assertEquals(vorsatz + "\n", new String(cbuf, 0, reader.read(cbuf)));
+            upload.start();
+            assertEquals(nachsatz + "\n", new String(cbuf, 0, reader.read(cbuf)));
+            assertEquals(-1, reader.read(cbuf));
+        }
+        upload.join();
+    }
+
+    @Test
+    void testTimeout() throws IOException {
+        Path file = tempDir.resolve("abgebrochen.txt");
+        Files.write(file, Arrays.copyOf(Files.readAllBytes(MUSTERDATEI), 300));
+        char[] cbuf = new char[1024];
+        try (FollowingReader reader = new FollowingReader(file)) {
+            reader.setPollInterval(Duration.ofMillis(10));
+            reader.setTimeout(Duration.ofMillis(100));
+            assertEquals(257, reader.read(cbuf));
+            assertThrows(IOException.class, () -> reader.read(cbuf));
+        }
+    }
+
+}
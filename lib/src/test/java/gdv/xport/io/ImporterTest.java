@@ -17,20 +17,28 @@
  */
 package gdv.xport.io;
 
+import gdv.xport.Datenpaket;
+import gdv.xport.config.Config;
 import gdv.xport.satz.AbstractSatzTest;
+import gdv.xport.satz.Datensatz;
 import gdv.xport.satz.Satz;
 import gdv.xport.satz.Teildatensatz;
 import gdv.xport.satz.xml.SatzXml;
 import gdv.xport.satz.xml.XmlService;
 import gdv.xport.util.SatzTyp;
 import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.io.Reader;
 import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.stream.Stream;
 
@@ -61,4 +69,27 @@ class ImporterTest {
         return SATZARTEN.keySet().stream().map(satzTyp -> Arguments.of(satzTyp.toString()));
     }
 
-}
\ No newline at end of file
+    @Test
+    void testIsTeildatensatzOfMusterdatei() throws IOException {
+        Datenpaket datenpaket = new Datenpaket();
+        try (InputStream istream = getClass().getResourceAsStream("/musterdatei_041222.txt")) {
+            datenpaket.importFrom(istream);
+        }
+        List<Integer> expected = new ArrayList<>();
+        for (Datensatz satz : datenpaket.getDatensaetze()) {
+            expected.add(satz.getNumberOfTeildatensaetze());
+        }
+        List<Integer> groups = new ArrayList<>();
+        try (DatensatzReader reader = new DatensatzReader(new InputStreamReader(
+                getClass().getResourceAsStream("/musterdatei_041222.txt"), Config.DEFAULT_ENCODING))) {
+            for (List<String> records = reader.next(); records != null; records = reader.next()) {
+                String first = records.get(0);
+                if (!DatensatzReader.isVorsatz(first) && !DatensatzReader.isNachsatz(first)) {
+                    groups.add(records.size());
+                }
+            }
+        }
+        assertEquals(expected, groups);
+    }
+
+}
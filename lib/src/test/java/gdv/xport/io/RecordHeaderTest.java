@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2024 by Oli B.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express orimplied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * (c)reated 19.10.2024 by oboehm
+ */
+package gdv.xport.io;
+
+import org.apache.commons.lang3.StringUtils;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Unit-Tests fuer {@link RecordHeader}.
+ *
+ * @author oboehm
+ * @since 19.10.2024
+ */
+public class RecordHeaderTest {
+
+    private static final String RECORD =
+            StringUtils.rightPad("02009999  030     59999999999  1001 00001", 255) + "1";
+
+    @Test
+    void testHeader() {
+        RecordHeader header = RecordHeader.of(RECORD);
+        assertEquals(200, header.getSatzart());
+        assertEquals("9999", header.getVuNummer());
+        assertEquals(30, header.getSparte());
+        assertEquals("59999999999", header.getVersicherungsscheinNummer());
+        assertEquals("001 00001", header.getVermittler());
+        assertEquals(1, header.getTeildatensatzNummer());
+    }
+
+    @Test
+    void testSparteNotNumeric() {
+        RecordHeader header = RecordHeader.of("00019999  XXX");
+        assertEquals(1, header.getSatzart());
+        assertEquals(-1, header.getSparte());
+        assertEquals(-1, header.getTeildatensatzNummer());
+        assertEquals("", header.getVermittler());
+    }
+
+    @Test
+    void testSkipRecords() throws IOException {
+        String tds2 = RECORD.substring(0, 255) + "2";
+        String other = RECORD.replace("02009999  030", "02109999  030");
+        String nachsatz = StringUtils.rightPad("9999", 256);
+        String content = RECORD + "\n" + tds2 + "\n" + other + "\n" + nachsatz + "\n";
+        try (PushbackLineNumberReader reader = new PushbackLineNumberReader(new StringReader(content), 256)) {
+            Importer importer = Importer.of(reader);
+            assertEquals(2, importer.skipRecords(h -> h.getSatzart() != 200));
+            assertEquals(210, importer.readSatzart());
+            reader.skip(257);
+            assertEquals(0, importer.skipRecords(h -> false));
+            assertEquals(9999, importer.readSatzart());
+        }
+    }
+
+}
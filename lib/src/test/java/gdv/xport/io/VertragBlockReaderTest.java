@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2024 by Oli B.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express orimplied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * (c)reated 19.10.2024 by oboehm
+ */
+package gdv.xport.io;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit-Tests fuer {@link VertragBlockReader}.
+ *
+ * @author oboehm
+ * @since 19.10.2024
+ */
+public class VertragBlockReaderTest {
+
+    private static final Path MUSTERDATEI = Paths.get("src/test/resources/musterdatei_041222.txt");
+
+    @Test
+    void testNext() throws IOException {
+        List<String> lines = Files.readAllLines(MUSTERDATEI, StandardCharsets.ISO_8859_1);
+        int records = 0;
+        int blocks = 0;
+        try (VertragBlockReader reader = VertragBlockReader.of(MUSTERDATEI)) {
+            String lastKey = null;
+            for (VertragBlock block = reader.next(); block != null; block = reader.next()) {
+                assertNotEquals(lastKey, block.getKey());
+                for (String record : block.getRecords()) {
+                    assertEquals(256, record.length());
+                    assertEquals(block.getKey(), VertragBlock.getKey(record));
+                }
+                lastKey = block.getKey();
+                records += block.getRecords().size();
+                blocks++;
+            }
+            assertEquals(2, reader.getVorsatz().size());
+            assertTrue(reader.getNachsatz().get(0).startsWith("9999"));
+        }
+        assertEquals(lines.size() - 3, records);
+        assertEquals(14, blocks);
+    }
+
+    @Test
+    void testFingerprint() throws IOException {
+        String datensatz = "0100" + "9999  030      59999999998" + " ".repeat(226);
+        VertragBlock block = readFirstBlock(datensatz);
+        assertEquals("59999999998", block.getVersicherungsscheinNummer());
+        assertEquals(block.getFingerprint(), readFirstBlock(datensatz).getFingerprint());
+        String changed = datensatz.substring(0, 100) + "X" + datensatz.substring(101);
+        assertNotEquals(block.getFingerprint(), readFirstBlock(changed).getFingerprint());
+    }
+
+    @Test
+    void testShortRecord() throws IOException {
+        try (VertragBlockReader reader = new VertragBlockReader(
+                new StringReader("0100" + "9999  030      59999999998\n"))) {
+            VertragBlock block = reader.next();
+            assertEquals(256, block.getRecords().get(0).length());
+            assertNull(reader.next());
+        }
+    }
+
+    private static VertragBlock readFirstBlock(String content) throws IOException {
+        try (VertragBlockReader reader = new VertragBlockReader(new StringReader(content + "\n"))) {
+            return reader.next();
+        }
+    }
+
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2024 by Oli B.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express orimplied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * (c)reated 19.10.2024 by oboehm
+ */
+package gdv.xport.satz;
+
+import gdv.xport.Datenpaket;
+import gdv.xport.feld.Bezeichner;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+/**
+ * Unit-Tests fuer {@link Fingerprint}.
+ *
+ * @author oboehm
+ * @since 19.10.2024
+ */
+public class FingerprintTest {
+
+    private static final Path MUSTERDATEI = Paths.get("src/test/resources/musterdatei_041222.txt");
+    private static List<String> lines;
+    private static Datensatz adresse;
+
+    @BeforeAll
+    static void importMusterdatei() throws IOException {
+        lines = Files.readAllLines(MUSTERDATEI, StandardCharsets.ISO_8859_1);
+        Datenpaket paket = new Datenpaket();
+        paket.importFrom(MUSTERDATEI.toFile());
+        adresse = paket.getDatensaetze().get(0);
+    }
+
+    @Test
+    void testOf() {
+        String record = lines.get(2);
+        assertEquals(Fingerprint.of(record), Fingerprint.of(new StringBuilder(record)));
+        assertEquals(32, Fingerprint.of(record).toString().length());
+        assertNotEquals(Fingerprint.of(record), Fingerprint.of(lines.get(3)));
+        assertNotEquals(Fingerprint.of(record).toLong(), Fingerprint.of(lines.get(3)).toLong());
+    }
+
+    @Test
+    void testAnd() {
+        Fingerprint a = Fingerprint.of(lines.get(2));
+        Fingerprint b = Fingerprint.of(lines.get(3));
+        assertEquals(a.and(b), Fingerprint.of(lines.get(2)).and(Fingerprint.of(lines.get(3))));
+        assertNotEquals(a.and(b), b.and(a));
+    }
+
+    @Test
+    void testImportFingerprint() {
+        assertEquals("0100", lines.get(2).substring(0, 4));
+        Teildatensatz tds = adresse.getTeildatensatz(1);
+        assertEquals(Fingerprint.of(tds.toLongString(), 256, new int[0]), tds.getFingerprint());
+        assertEquals(new Teildatensatz(tds).getFingerprint(), tds.getFingerprint());
+    }
+
+    @Test
+    void testImportFingerprintBlankNumFeld() throws IOException {
+        String line = lines.get(2);
+        String blank = line.substring(0, 30) + "  " + line.substring(32);
+        Teildatensatz tds = new Teildatensatz(adresse.getTeildatensatz(1));
+        tds.importFrom(blank);
+        assertEquals(new Teildatensatz(tds).getFingerprint(), tds.getFingerprint());
+    }
+
+    @Test
+    void testFingerprintAfterFeldChange() throws CloneNotSupportedException {
+        Satz copy = (Satz) adresse.clone();
+        Teildatensatz tds = copy.getTeildatensatz(1);
+        Fingerprint original = tds.getFingerprint();
+        String name = tds.getFeld(Bezeichner.NAME1).getInhalt();
+        tds.getFeld(Bezeichner.NAME1).setInhalt("Neuer Name");
+        assertNotEquals(original, tds.getFingerprint());
+        tds.getFeld(Bezeichner.NAME1).setInhalt(name);
+        assertEquals(original, tds.getFingerprint());
+    }
+
+    @Test
+    void testSatzFingerprint() throws CloneNotSupportedException {
+        Satz copy = (Satz) adresse.clone();
+        assertEquals(adresse.getFingerprint(), copy.getFingerprint());
+        copy.setFeld(Bezeichner.NAME1, "Neuer Name");
+        assertNotEquals(adresse.getFingerprint(), copy.getFingerprint());
+        assertEquals(adresse.getFingerprint(Bezeichner.NAME1), copy.getFingerprint(Bezeichner.NAME1));
+    }
+
+}
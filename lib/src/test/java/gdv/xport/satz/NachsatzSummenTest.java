@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2024 by Oli B.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express orimplied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * (c)reated 19.10.2024 by oboehm
+ */
+package gdv.xport.satz;
+
+import gdv.xport.Datenpaket;
+import gdv.xport.feld.BetragMitVorzeichen;
+import gdv.xport.feld.Bezeichner;
+import gdv.xport.feld.ByteAdresse;
+import gdv.xport.feld.NumFeld;
+import gdv.xport.util.SatzFactory;
+import gdv.xport.util.SatzTyp;
+import net.sf.oval.ConstraintViolation;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit-Tests fuer {@link NachsatzSummen}.
+ *
+ * @author oboehm
+ * @since 19.10.2024
+ */
+public class NachsatzSummenTest {
+
+    @Test
+    void testToCent() {
+        BetragMitVorzeichen betrag = new BetragMitVorzeichen(Bezeichner.of("Test"), 6, 1);
+        betrag.setInhalt(new BigDecimal("-12.34"));
+        assertEquals(-1234L, NachsatzSummen.toCent(betrag));
+        betrag.setInhalt(new BigDecimal("5.60"));
+        assertEquals(560L, NachsatzSummen.toCent(betrag));
+    }
+
+    @Test
+    void testToCentInvalid() {
+        BetragMitVorzeichen betrag = new BetragMitVorzeichen(Bezeichner.of("Test"), 6, 1);
+        betrag.setInhalt(new BigDecimal("12.34"));
+        betrag.setInhalt('X', 2);
+        assertThrows(NumberFormatException.class, () -> NachsatzSummen.toCent(betrag));
+    }
+
+    @Test
+    void testToCentNachkommastellen() {
+        NumFeld betrag = new NumFeld(Bezeichner.of("Test"), 8, 1).mitNachkommastellen(3);
+        betrag.setInhalt("00012340");
+        assertEquals(1234L, NachsatzSummen.toCent(betrag));
+        betrag.setInhalt("00012345");
+        assertThrows(NumberFormatException.class, () -> NachsatzSummen.toCent(betrag));
+    }
+
+    @Test
+    void testAddInvalidBetrag() {
+        NachsatzSummen summen = new NachsatzSummen();
+        Datensatz datensatz = createDatensatz400("4711", false);
+        datensatz.getFeld(Bezeichner.GESAMTBEITRAG_BRUTTO_IN_WAEHRUNGSEINHEITEN).setInhalt('?', 0);
+        summen.add(datensatz);
+        assertEquals(0L, summen.getGesamtBeitragBrutto());
+        assertEquals(1, summen.getViolations().size());
+        Nachsatz nachsatz = new Nachsatz();
+        summen.setTo(nachsatz);
+        List<ConstraintViolation> violations = summen.validate(nachsatz);
+        assertEquals(1, violations.size(), violations.toString());
+        summen.reset();
+        assertTrue(summen.getViolations().isEmpty());
+    }
+
+    @Test
+    void testAddLikeDatenpaket() {
+        Datenpaket datenpaket = new Datenpaket();
+        NachsatzSummen summen = new NachsatzSummen();
+        Datensatz brutto = createDatensatz400("10000", true);
+        Datensatz netto = createDatensatz400("1111", false);
+        datenpaket.add(brutto);
+        datenpaket.add(netto);
+        summen.add(brutto);
+        summen.add(netto);
+        assertEquals(-8889L, summen.getGesamtBeitragBrutto());
+        assertEquals(2L, summen.getAnzahlSaetze());
+        List<ConstraintViolation> violations = summen.validate(datenpaket.getNachsatz());
+        assertTrue(violations.isEmpty(), violations.toString());
+    }
+
+    @Test
+    void testValidate() {
+        NachsatzSummen summen = new NachsatzSummen();
+        summen.add(createDatensatz400("4711", false));
+        Nachsatz nachsatz = new Nachsatz();
+        List<ConstraintViolation> violations = summen.validate(nachsatz);
+        assertEquals(2, violations.size());
+        summen.setTo(nachsatz);
+        assertTrue(summen.validate(nachsatz).isEmpty());
+        assertEquals(new BigDecimal("47.11"), nachsatz.getGesamtBeitragBruttoMitVorzeichen().toBigDecimal());
+    }
+
+    private static Datensatz createDatensatz400(String cent, boolean negativ) {
+        Datensatz datensatz = (Datensatz) SatzFactory.getSatz(SatzTyp.of(400));
+        datensatz.setFeld(Bezeichner.GESAMTBEITRAG_BRUTTO_IN_WAEHRUNGSEINHEITEN, cent);
+        if (negativ) {
+            datensatz.getTeildatensatz(1).setFeld(ByteAdresse.of(150), "-");
+        }
+        return datensatz;
+    }
+
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2024 by Oli B.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express orimplied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * (c)reated 19.10.2024 by oboehm
+ */
+package gdv.xport.satz;
+
+import gdv.xport.Datenpaket;
+import gdv.xport.feld.Bezeichner;
+import gdv.xport.util.SatzRegistry;
+import gdv.xport.util.SatzTyp;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit-Tests fuer {@link Projection}.
+ *
+ * @author oboehm
+ * @since 19.10.2024
+ */
+public class ProjectionTest {
+
+    private static final SatzTyp ADRESSTEIL = SatzTyp.of("0100");
+
+    @Test
+    void testGetSatz() {
+        Projection projection = new Projection().with(ADRESSTEIL, Bezeichner.NAME1, Bezeichner.ORT);
+        assertTrue(projection.isProjected(ADRESSTEIL));
+        assertFalse(projection.isProjected(SatzTyp.of("0200")));
+        Satz satz = projection.getSatz(ADRESSTEIL, null);
+        Satz full = SatzRegistry.getInstance().getSatz(ADRESSTEIL);
+        assertEquals(full.getNumberOfTeildatensaetze(), satz.getNumberOfTeildatensaetze());
+        assertTrue(satz.hasFeld(Bezeichner.NAME1));
+        assertTrue(satz.hasFeld(Bezeichner.ORT));
+        assertFalse(satz.hasFeld(Bezeichner.POSTLEITZAHL));
+        assertTrue(countFelder(satz) < countFelder(full));
+    }
+
+    @Test
+    void testProjectSatzart() {
+        Projection projection = new Projection().with(SatzTyp.of("0220"), Bezeichner.NAME1);
+        assertTrue(projection.isProjected(SatzTyp.of("0220.030")));
+        assertFalse(projection.isProjected(SatzTyp.of("0221.030")));
+    }
+
+    @Test
+    void testImportWithProjection() throws IOException {
+        Datenpaket full = importMusterdatei(new Datenpaket());
+        Projection projection = new Projection().with(ADRESSTEIL, Bezeichner.NAME1);
+        Datenpaket projected = importMusterdatei(new Datenpaket().withProjection(projection));
+        assertEquals(full.getDatensaetze().size(), projected.getDatensaetze().size());
+        List<Datensatz> expected = full.getDatensaetze(ADRESSTEIL);
+        List<Datensatz> adressen = projected.getDatensaetze(ADRESSTEIL);
+        assertEquals(expected.size(), adressen.size());
+        for (int i = 0; i < expected.size(); i++) {
+            Datensatz adresse = adressen.get(i);
+            assertEquals(expected.get(i).getFeld(Bezeichner.NAME1).getInhalt(),
+                    adresse.getFeld(Bezeichner.NAME1).getInhalt());
+            assertEquals(expected.get(i).getVersicherungsscheinNummer(), adresse.getVersicherungsscheinNummer());
+            assertFalse(adresse.hasFeld(Bezeichner.ORT));
+        }
+    }
+
+    private static Datenpaket importMusterdatei(Datenpaket paket) throws IOException {
+        try (InputStream istream = ProjectionTest.class.getResourceAsStream("/musterdatei_041222.txt")) {
+            return paket.importFrom(istream);
+        }
+    }
+
+    private static int countFelder(Satz satz) {
+        int n = 0;
+        for (Teildatensatz tds : satz.getTeildatensaetze()) {
+            n += tds.getFelder().size();
+        }
+        return n;
+    }
+
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2024 by Oli B.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express orimplied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * (c)reated 19.10.2024 by oboehm
+ */
+package gdv.xport.satz;
+
+import gdv.xport.Datenpaket;
+import gdv.xport.util.SatzRegistry;
+import gdv.xport.util.SatzTyp;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit-Tests fuer {@link SatzPacker}.
+ *
+ * @author oboehm
+ * @since 19.10.2024
+ */
+public class SatzPackerTest {
+
+    @Test
+    void testIsComplete() {
+        Datensatz datensatz = SatzRegistry.getInstance().getDatensatz(SatzTyp.of("0100"));
+        SatzPacker packer = new SatzPacker();
+        assertEquals(datensatz.isComplete(), packer.isComplete(datensatz));
+    }
+
+    @Test
+    void testAdd() throws IOException {
+        Datenpaket datenpaket = new Datenpaket();
+        datenpaket.importFrom(new File("src/test/resources/gdv/xport/satz/testcase_0220_mit_0221_versetzt.txt"),
+                Charset.forName("IBM850"));
+        SatzPacker packer = new SatzPacker();
+        List<Datensatz> packed = new ArrayList<>();
+        for (Datensatz ds : datenpaket.getDatensaetze()) {
+            if (packer.add(ds)) {
+                packed.add(ds);
+            } else {
+                assertEquals(0, ds.getNumberOfTeildatensaetze());
+            }
+        }
+        assertEquals(22, packed.size());
+    }
+
+    @Test
+    void testAddEmpty() {
+        Datensatz datensatz = SatzRegistry.getInstance().getDatensatz(SatzTyp.of("0100"));
+        datensatz.removeAllTeildatensaetze();
+        assertFalse(new SatzPacker().add(datensatz));
+    }
+
+    @Test
+    void testAddComplete() {
+        Datensatz one = SatzRegistry.getInstance().getDatensatz(SatzTyp.of("0100"));
+        Datensatz two = SatzRegistry.getInstance().getDatensatz(SatzTyp.of("0100"));
+        SatzPacker packer = new SatzPacker();
+        assertTrue(packer.add(one));
+        assertTrue(packer.add(two));
+    }
+
+}
@@ -405,4 +405,32 @@ public class TeildatensatzTest extends AbstractSatzTest {
         assertEquals(satznummer, tds.getFeld(feldNr+1));
     }
 
+    @Test
+    public void testFindUnprintableFelder() throws IOException {
+        Teildatensatz tds = SATZ_REGISTRY.getSatz(SatzTyp.of("0100")).getTeildatensatz(1);
+        StringWriter writer = new StringWriter();
+        tds.export(writer, "");
+        StringBuilder content = new StringBuilder(writer.toString());
+        assertTrue(tds.findUnprintableFelder(content).isEmpty());
+        Feld name = tds.getFeld(Bezeichner.NAME1);
+        content.setCharAt(name.getByteAdresse(), '\u0007');
+        List<Feld> felder = tds.findUnprintableFelder(content);
+        assertEquals(1, felder.size());
+        assertEquals(name, felder.get(0));
+    }
+
+    @Test
+    public void testValidateUnprintable() throws IOException {
+        Teildatensatz tds = SATZ_REGISTRY.getSatz(SatzTyp.of("0100")).getTeildatensatz(1);
+        StringWriter writer = new StringWriter();
+        tds.export(writer, "");
+        tds.importFrom(writer.toString());
+        int n = tds.validate(Config.LAX).size();
+        Feld name = tds.getFeld(Bezeichner.NAME1);
+        name.setInhalt('\u0007', 0);
+        List<ConstraintViolation> violations = tds.validate(Config.LAX);
+        assertEquals(n + 1, violations.size());
+        assertEquals(1, name.validate(Config.LAX).size());
+    }
+
 }
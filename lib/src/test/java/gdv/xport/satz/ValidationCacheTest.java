@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2024 by Oli B.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express orimplied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * (c)reated 19.10.2024 by oboehm
+ */
+package gdv.xport.satz;
+
+import gdv.xport.config.Config;
+import gdv.xport.event.StreamingValidator;
+import gdv.xport.feld.Bezeichner;
+import gdv.xport.feld.Feld;
+import gdv.xport.util.SatzRegistry;
+import gdv.xport.util.SatzTyp;
+import gdv.xport.util.SimpleConstraintViolation;
+import net.sf.oval.ConstraintViolation;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit-Tests fuer {@link ValidationCache}.
+ *
+ * @author oboehm
+ * @since 19.10.2024
+ */
+public class ValidationCacheTest {
+
+    private static final Logger LOG = LogManager.getLogger(ValidationCacheTest.class);
+
+    @Test
+    void testValidate() {
+        ValidationCache cache = new ValidationCache();
+        Datensatz one = SatzRegistry.getInstance().getDatensatz(SatzTyp.of("0100"));
+        Datensatz two = SatzRegistry.getInstance().getDatensatz(SatzTyp.of("0100"));
+        List<ConstraintViolation> violations = cache.validate(one, Config.STRICT);
+        assertEquals(violations.size(), cache.validate(two, Config.STRICT).size());
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void testValidateProjectedAndFull() {
+        ValidationCache cache = new ValidationCache();
+        Datensatz full = SatzRegistry.getInstance().getDatensatz(SatzTyp.of("0100"));
+        Satz projected = new Projection().with(SatzTyp.of("0100"), Bezeichner.NAME1)
+                .project(SatzRegistry.getInstance().getDatensatz(SatzTyp.of("0100")));
+        assertEquals(full.validate(Config.STRICT).toString(), cache.validate(full, Config.STRICT).toString());
+        assertEquals(projected.validate(Config.STRICT).toString(),
+                cache.validate(projected, Config.STRICT).toString());
+        assertEquals(full.validate(Config.STRICT).toString(), cache.validate(full, Config.STRICT).toString());
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getHits());
+    }
+
+    @Test
+    void testValidateRelocatesViolations() {
+        ValidationCache cache = new ValidationCache();
+        Datensatz one = SatzRegistry.getInstance().getDatensatz(SatzTyp.of("0100"));
+        Datensatz two = SatzRegistry.getInstance().getDatensatz(SatzTyp.of("0100"));
+        List<ConstraintViolation> expected = two.validate(Config.STRICT);
+        cache.validate(one, Config.STRICT);
+        List<ConstraintViolation> violations = cache.validate(two, Config.STRICT);
+        assertEquals(1, cache.getHits());
+        assertEquals(expected.toString(), violations.toString());
+        for (ConstraintViolation cv : flatten(violations)) {
+            assertNotSame(one, cv.getValidatedObject());
+            assertTrue(isPartOf(cv.getValidatedObject(), two), cv.toString());
+        }
+    }
+
+    private static List<ConstraintViolation> flatten(List<ConstraintViolation> violations) {
+        List<ConstraintViolation> flat = new ArrayList<>();
+        for (ConstraintViolation cv : violations) {
+            flat.add(cv);
+            if (cv instanceof SimpleConstraintViolation) {
+                flat.addAll(flatten(((SimpleConstraintViolation) cv).getViolations()));
+            }
+        }
+        return flat;
+    }
+
+    private static boolean isPartOf(Object obj, Satz satz) {
+        if (obj == satz) {
+            return true;
+        }
+        for (Teildatensatz tds : satz.getTeildatensaetze()) {
+            if (obj == tds) {
+                return true;
+            }
+            for (Feld feld : tds.getFelder()) {
+                if (obj == feld) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    @Test
+    void testValidateDifferentContent() {
+        ValidationCache cache = new ValidationCache();
+        Datensatz one = SatzRegistry.getInstance().getDatensatz(SatzTyp.of("0100"));
+        Datensatz two = SatzRegistry.getInstance().getDatensatz(SatzTyp.of("0100"));
+        two.setVersicherungsscheinNummer("4711");
+        cache.validate(one, Config.STRICT);
+        cache.validate(two, Config.STRICT);
+        assertEquals(0, cache.getHits());
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    void testEviction() {
+        ValidationCache cache = new ValidationCache(1);
+        Datensatz one = SatzRegistry.getInstance().getDatensatz(SatzTyp.of("0100"));
+        Datensatz two = SatzRegistry.getInstance().getDatensatz(SatzTyp.of("0200"));
+        cache.validate(one, Config.LAX);
+        cache.validate(two, Config.LAX);
+        cache.validate(one, Config.LAX);
+        assertEquals(1, cache.size());
+        assertEquals(3, cache.getMisses());
+    }
+
+    @Test
+    void testStreamingValidator() throws IOException {
+        List<ConstraintViolation> expected;
+        try (InputStream istream = getClass().getResourceAsStream("/musterdatei_041222.txt")) {
+            expected = new StreamingValidator(Config.STRICT).validate(istream);
+        }
+        ValidationCache cache = new ValidationCache();
+        StreamingValidator validator = new StreamingValidator(Config.STRICT);
+        validator.setValidationCache(cache);
+        try (InputStream istream = getClass().getResourceAsStream("/musterdatei_041222.txt")) {
+            assertEquals(expected.size(), validator.validate(istream).size());
+        }
+        LOG.info("{}", cache);
+        assertTrue(cache.getMisses() > 0);
+    }
+
+}
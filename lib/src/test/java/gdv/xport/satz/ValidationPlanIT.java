@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2024 by Oli B.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express orimplied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * (c)reated 19.10.2024 by oboehm
+ */
+package gdv.xport.satz;
+
+import gdv.xport.Datenpaket;
+import gdv.xport.config.Config;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Kleiner Benchmark, der die Validierung ueber das Objekt-Modell
+ * ({@link Satz#validate(Config)}) mit der Validierung ueber den
+ * {@link ValidationPlan} vergleicht. Da er etwas laenger laeuft, ist er
+ * als Integrations-Test mit Suffix IT gekennzeichnet.
+ *
+ * @author oboehm
+ * @since 19.10.2024
+ */
+public class ValidationPlanIT {
+
+    private static final Logger LOG = LogManager.getLogger(ValidationPlanIT.class);
+    private static final int ROUNDS = 200;
+    private static final List<Satz> SAETZE = new ArrayList<>();
+    private static final List<List<String>> RECORDS = new ArrayList<>();
+
+    @BeforeAll
+    public static void setUpSaetze() throws IOException {
+        try (InputStream istream = ValidationPlanIT.class.getResourceAsStream("/musterdatei_041222.txt")) {
+            Datenpaket datenpaket = new Datenpaket().importFrom(istream);
+            SAETZE.addAll(datenpaket.getAllSaetze());
+        }
+        for (Satz satz : SAETZE) {
+            List<String> records = new ArrayList<>();
+            for (Teildatensatz tds : satz.getTeildatensaetze()) {
+                StringWriter writer = new StringWriter();
+                tds.export(writer, "");
+                records.add(writer.toString());
+            }
+            RECORDS.add(records);
+        }
+    }
+
+    @Test
+    public void benchmarkLax() {
+        benchmark(Config.LAX);
+    }
+
+    @Test
+    public void benchmarkStrict() {
+        benchmark(Config.STRICT);
+    }
+
+    private static void benchmark(Config cfg) {
+        int expected = measure("Objekt-Modell", cfg, satz -> satz.validate(cfg).size());
+        int planned = measure("ValidationPlan", cfg, satz -> ValidationPlan.of(satz).validate(satz, cfg).size());
+        assertEquals(expected, planned);
+        long t0 = System.nanoTime();
+        int valid = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            valid = 0;
+            for (int i = 0; i < SAETZE.size(); i++) {
+                if (ValidationPlan.of(SAETZE.get(i)).isValid(RECORDS.get(i), cfg)) {
+                    valid++;
+                }
+            }
+        }
+        LOG.info("{}: Rohdaten {} ms ({} von {} Saetzen ohne Befund).", cfg.getValidateMode(),
+                (System.nanoTime() - t0) / 1_000_000, valid, SAETZE.size());
+    }
+
+    private static int measure(String label, Config cfg, ToIntFunction<Satz> validation) {
+        int violations = 0;
+        long t0 = System.nanoTime();
+        for (int round = 0; round < ROUNDS; round++) {
+            violations = 0;
+            for (Satz satz : SAETZE) {
+                violations += validation.applyAsInt(satz);
+            }
+        }
+        LOG.info("{}: {} {} ms ({} Verletzungen).", cfg.getValidateMode(), label,
+                (System.nanoTime() - t0) / 1_000_000, violations);
+        return violations;
+    }
+
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2024 by Oli B.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express orimplied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * (c)reated 19.10.2024 by oboehm
+ */
+package gdv.xport.satz;
+
+import gdv.xport.Datenpaket;
+import gdv.xport.config.Config;
+import gdv.xport.feld.Bezeichner;
+import net.sf.oval.ConstraintViolation;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit-Tests fuer {@link ValidationPlan}.
+ *
+ * @author oboehm
+ * @since 19.10.2024
+ */
+public class ValidationPlanTest {
+
+    @Test
+    public void testOf() throws IOException {
+        Datenpaket datenpaket = importDatenpaket("/musterdatei_041222.txt");
+        Satz satz = datenpaket.getDatensaetze().get(0);
+        assertSame(ValidationPlan.of(satz), ValidationPlan.of(satz));
+    }
+
+    @Test
+    public void testValidateMusterdatei() throws IOException {
+        checkValidate(importDatenpaket("/musterdatei_041222.txt"));
+    }
+
+    @Test
+    public void testValidateKaputt() throws IOException {
+        checkValidate(importDatenpaket("/gdv/xport/satz/Test_import_0220_020_1-satz-kaput.txt"));
+    }
+
+    private static void checkValidate(Datenpaket datenpaket) {
+        for (Config cfg : new Config[] { Config.LAX, Config.STRICT, Config.EMPTY.withProperty("gdv.feld.validate", "off") }) {
+            for (Satz satz : datenpaket.getAllSaetze()) {
+                List<ConstraintViolation> expected = satz.validate(cfg);
+                List<ConstraintViolation> violations = ValidationPlan.of(satz).validate(satz, cfg);
+                assertEquals(expected.toString(), violations.toString(), satz.toShortString());
+            }
+        }
+    }
+
+    @Test
+    public void testIsValid() throws IOException {
+        Datenpaket datenpaket = importDatenpaket("/musterdatei_041222.txt");
+        int fastPath = 0;
+        for (Satz satz : datenpaket.getAllSaetze()) {
+            if (ValidationPlan.of(satz).isValid(toRecords(satz), Config.LAX)) {
+                assertTrue(satz.validate(Config.LAX).isEmpty(), satz.toShortString());
+                fastPath++;
+            }
+        }
+        assertTrue(fastPath > 0);
+    }
+
+    @Test
+    public void testIsValidDifferentVsnr() throws IOException {
+        Datenpaket datenpaket = importDatenpaket("/musterdatei_041222.txt");
+        Satz satz = datenpaket.getDatensaetze().stream().filter(s -> s.getNumberOfTeildatensaetze() > 1)
+                .filter(s -> s.getTeildatensatz(2).hasFeld(Bezeichner.VS_NR))
+                .filter(s -> ValidationPlan.of(s).isValid(toRecords(s), Config.LAX)).findFirst()
+                .orElseThrow(IllegalStateException::new);
+        satz.getTeildatensatz(2).setFeld(Bezeichner.VS_NR, "4711");
+        assertFalse(ValidationPlan.of(satz).isValid(toRecords(satz), Config.LAX));
+        assertEquals(satz.validate(Config.LAX).toString(), ValidationPlan.of(satz).validate(satz, Config.LAX).toString());
+    }
+
+    @Test
+    public void testValidateAfterFeldChange() throws IOException {
+        Datenpaket datenpaket = importDatenpaket("/musterdatei_041222.txt");
+        Satz satz = datenpaket.getDatensaetze().stream().filter(s -> s.getNumberOfTeildatensaetze() > 1)
+                .filter(s -> s.getTeildatensatz(2).hasFeld(Bezeichner.VS_NR))
+                .filter(s -> ValidationPlan.of(s).validate(s, Config.LAX).isEmpty()).findFirst()
+                .orElseThrow(IllegalStateException::new);
+        Teildatensatz tds = satz.getTeildatensatz(2);
+        tds.getFeld(Bezeichner.VS_NR).setInhalt("4711");
+        assertEquals(toRecords(satz).get(1), tds.getRecord());
+        List<String> records = new ArrayList<>();
+        for (Teildatensatz t : satz.getTeildatensaetze()) {
+            records.add(t.getRecord());
+        }
+        assertFalse(ValidationPlan.of(satz).isValid(records, Config.LAX));
+        assertEquals(satz.validate(Config.LAX).toString(), ValidationPlan.of(satz).validate(satz, Config.LAX).toString());
+    }
+
+    @Test
+    public void testOfProjection() throws IOException, CloneNotSupportedException {
+        Datenpaket datenpaket = importDatenpaket("/musterdatei_041222.txt");
+        Satz full = datenpaket.getDatensaetze().get(0);
+        assertTrue(full.getTeildatensatz(1).hasFeld(Bezeichner.NAME2));
+        Satz projected = new Projection().with(full.getSatzTyp(), Bezeichner.NAME1).project((Satz) full.clone());
+        assertNotSame(ValidationPlan.of(full), ValidationPlan.of(projected));
+        assertTrue(ValidationPlan.of(projected).validate(projected, Config.LAX).isEmpty());
+        full.getTeildatensatz(1).getFeld(Bezeichner.NAME2).setInhalt('\u0007', 0);
+        assertFalse(ValidationPlan.of(full).validate(full, Config.LAX).isEmpty());
+    }
+
+    private static List<String> toRecords(Satz satz) throws IOException {
+        List<String> records = new ArrayList<>();
+        for (Teildatensatz tds : satz.getTeildatensaetze()) {
+            StringWriter writer = new StringWriter();
+            tds.export(writer, "");
+            records.add(writer.toString());
+        }
+        return records;
+    }
+
+    private static Datenpaket importDatenpaket(String resource) throws IOException {
+        try (InputStream istream = ValidationPlanTest.class.getResourceAsStream(resource)) {
+            return new Datenpaket().importFrom(istream);
+        }
+    }
+
+}
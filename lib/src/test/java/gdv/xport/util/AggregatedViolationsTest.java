@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2024 by Oli B.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express orimplied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * (c)reated 19.10.2024 by oboehm
+ */
+package gdv.xport.util;
+
+import gdv.xport.config.Config;
+import gdv.xport.event.StreamingValidator;
+import gdv.xport.feld.Bezeichner;
+import gdv.xport.feld.NumFeld;
+import net.sf.oval.ConstraintViolation;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit-Tests fuer {@link AggregatedViolations}.
+ *
+ * @author oboehm
+ * @since 19.10.2024
+ */
+public class AggregatedViolationsTest {
+
+    private static final Logger LOG = LogManager.getLogger(AggregatedViolationsTest.class);
+
+    @Test
+    void testAddSameRule() {
+        NumFeld feld = new NumFeld(Bezeichner.ANZAHL_SAETZE, 4, 1);
+        AggregatedViolations aggregated = new AggregatedViolations(2);
+        aggregated.add(SimpleConstraintViolation.of(feld, "'%s' ist keine Zahl", "12a"), 1);
+        aggregated.add(SimpleConstraintViolation.of(feld, "'%s' ist keine Zahl", "x"), 2);
+        aggregated.add(SimpleConstraintViolation.of(feld, "'%s' ist keine Zahl", "y"), 3);
+        assertEquals(3, aggregated.getTotal());
+        List<AggregatedViolations.Group> groups = aggregated.getGroups();
+        assertEquals(1, groups.size());
+        assertEquals(3, groups.get(0).getCount());
+        assertEquals(feld.getBezeichnung(), groups.get(0).getBezeichner());
+        assertArrayEquals(new int[] { 1, 2 }, groups.get(0).getSamples());
+    }
+
+    @Test
+    void testAddDifferentRules() {
+        NumFeld feld = new NumFeld(Bezeichner.ANZAHL_SAETZE, 4, 1);
+        AggregatedViolations aggregated = new AggregatedViolations();
+        aggregated.add(SimpleConstraintViolation.of(feld, "'%s' ist keine Zahl", "12a"), 1);
+        aggregated.add(SimpleConstraintViolation.of(feld, "'%s' darf nicht negativ sein", "-1"), 1);
+        assertEquals(2, aggregated.getGroups().size());
+    }
+
+    @Test
+    void testAddWithRule() {
+        NumFeld feld = new NumFeld(Bezeichner.ANZAHL_SAETZE, 4, 1);
+        AggregatedViolations aggregated = new AggregatedViolations();
+        aggregated.add(SimpleConstraintViolation.withRule("falsche Folgenummer",
+                "falsche Folgenummer (erwartet: 2)", feld, 3), 1);
+        aggregated.add(SimpleConstraintViolation.withRule("falsche Folgenummer",
+                "falsche Folgenummer (erwartet: 5)", feld, 7), 2);
+        aggregated.add(new SimpleConstraintViolation(feld, new IllegalArgumentException("'12a' ist ungueltig")), 3);
+        aggregated.add(new SimpleConstraintViolation(feld, new IllegalArgumentException("'x' ist ungueltig")), 4);
+        List<AggregatedViolations.Group> groups = aggregated.getGroups();
+        assertEquals(2, groups.size());
+        assertEquals("falsche Folgenummer", groups.get(0).getRule());
+        assertEquals(2, groups.get(0).getCount());
+        assertEquals(2, groups.get(1).getCount());
+    }
+
+    @Test
+    void testStreamingValidator() throws IOException {
+        Config strict = Config.getInstance().withProperty("gdv.feld.validate", "strict");
+        List<ConstraintViolation> violations;
+        try (InputStream istream = getClass().getResourceAsStream("/musterdatei_041222.txt")) {
+            violations = new StreamingValidator(strict).validate(istream);
+        }
+        StreamingValidator validator = new StreamingValidator(strict);
+        AggregatedViolations aggregated = new AggregatedViolations();
+        validator.setAggregatedViolations(aggregated);
+        try (InputStream istream = getClass().getResourceAsStream("/musterdatei_041222.txt")) {
+            assertTrue(validator.validate(istream).isEmpty());
+        }
+        LOG.info("{}", aggregated);
+        assertEquals(countFlat(violations), aggregated.getTotal());
+        assertEquals(aggregated.getTotal(), validator.getNumberOfViolations());
+        assertTrue(aggregated.getGroups().size() <= aggregated.getTotal());
+    }
+
+    private static long countFlat(List<ConstraintViolation> violations) {
+        long n = 0;
+        for (ConstraintViolation cv : violations) {
+            if ((cv instanceof SimpleConstraintViolation)
+                    && !((SimpleConstraintViolation) cv).getViolations().isEmpty()) {
+                n += countFlat(((SimpleConstraintViolation) cv).getViolations());
+            } else {
+                n++;
+            }
+        }
+        return n;
+    }
+
+}
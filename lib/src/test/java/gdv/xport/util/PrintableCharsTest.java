@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2024 by Oli B.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express orimplied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * (c)reated 19.10.2024 by oboehm
+ */
+package gdv.xport.util;
+
+import de.jfachwert.Text;
+import org.apache.commons.lang3.StringUtils;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit-Tests fuer {@link PrintableChars}.
+ *
+ * @author oboehm
+ * @since 19.10.2024
+ */
+public class PrintableCharsTest {
+
+    @Test
+    void testIsPrintableLikeText() {
+        for (char c = 0; c < 512; c++) {
+            String s = String.valueOf(c);
+            assertEquals(Text.isPrintable(s), PrintableChars.isPrintable(c), "char " + (int) c);
+        }
+    }
+
+    @Test
+    void testIsPrintable() {
+        assertTrue(PrintableChars.isPrintable("Hello Wörld"));
+        assertFalse(PrintableChars.isPrintable("Hello\u0007"));
+    }
+
+    @Test
+    void testIndexOfUnprintable() {
+        String record = StringUtils.repeat('x', 10) + '\u0000' + StringUtils.repeat('y', 245);
+        assertEquals(10, PrintableChars.indexOfUnprintable(record, 0, 256));
+        assertEquals(-1, PrintableChars.indexOfUnprintable(record, 0, 10));
+        assertEquals(-1, PrintableChars.indexOfUnprintable(record, 11, 256));
+    }
+
+    @Test
+    void testFindUnprintable() {
+        String record = "ab\u0001cd\u0002" + StringUtils.repeat(' ', 250);
+        assertArrayEquals(new int[] { 2, 5 }, PrintableChars.findUnprintable(record));
+    }
+
+    @Test
+    void testFindUnprintableClean() {
+        String record = StringUtils.repeat(' ', 256);
+        assertSame(PrintableChars.findUnprintable(record), PrintableChars.findUnprintable("abc"));
+        assertEquals(0, PrintableChars.findUnprintable(record).length);
+    }
+
+}
@@ -19,6 +19,8 @@
 package gdv.xport.srv.service;
 
 import gdv.xport.Datenpaket;
+import gdv.xport.config.Config;
+import gdv.xport.event.StreamingValidator;
 import gdv.xport.srv.web.ErrorModel;
 import gdv.xport.util.*;
 import net.sf.oval.ConstraintViolation;
@@ -32,9 +34,12 @@ import org.springframework.ui.Model;
 import org.springframework.util.MimeType;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
 import java.io.StringWriter;
 import java.io.Writer;
 import java.net.URI;
+import java.net.URLConnection;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -58,10 +63,11 @@ public final class DefaultDatenpaketService implements DatenpaketService {
      */
     @Override
     public List<Model> validate(URI uri) {
-        Datenpaket datenpaket = new Datenpaket();
         try {
-            datenpaket.importFrom(uri);
-            return validate(datenpaket);
+            URLConnection connection = uri.toURL().openConnection();
+            try (InputStream istream = connection.getInputStream()) {
+                return validate(istream, connection.getContentLengthLong());
+            }
         } catch (IOException | IllegalArgumentException ex) {
             LOG.warn("Cannot validate '{}':", uri, ex);
             return ErrorModel.asModelList(ex);
@@ -76,13 +82,15 @@ public final class DefaultDatenpaketService implements DatenpaketService {
      */
     @Override
     public List<Model> validate(String text) {
-        Datenpaket datenpaket = new Datenpaket();
-        try {
-            datenpaket.importFrom(text);
-            return validate(datenpaket);
-        } catch (IOException ioe) {
-            LOG.warn("Cannot validate '{}':", StringUtils.abbreviate(text, 18), ioe);
-            return ErrorModel.asModelList(ioe);
+        try (StringReader reader = new StringReader(text)) {
+            StreamingValidator validator = new StreamingValidator(Config.getInstance());
+            if (text.length() > AggregatedViolations.LARGE_INPUT) {
+                return validateAggregated(validator, () -> validator.validate(reader));
+            }
+            return toModelList(validator.validate(reader));
+        } catch (IOException | IllegalArgumentException ex) {
+            LOG.warn("Cannot validate '{}':", StringUtils.abbreviate(text, 18), ex);
+            return ErrorModel.asModelList(ex);
         }
     }
 
@@ -161,9 +169,44 @@ public final class DefaultDatenpaketService implements DatenpaketService {
         }
     }
 
-    private static List<Model> validate(Datenpaket datenpaket) {
-        List<ConstraintViolation> violations = datenpaket.validate();
-        return toModelList(violations);
+    private static List<Model> validate(InputStream istream, long length) throws IOException {
+        StreamingValidator validator = new StreamingValidator(Config.getInstance());
+        if (length > AggregatedViolations.LARGE_INPUT) {
+            return validateAggregated(validator, () -> validator.validate(istream));
+        }
+        return toModelList(validator.validate(istream));
+    }
+
+    /**
+     * Bei grossen Eingaben werden die Verletzungen zusammengefasst, damit
+     * nicht Millionen von Verletzungen (mit ihren Saetzen) im Speicher
+     * gehalten und ausgegeben werden.
+     */
+    private static List<Model> validateAggregated(StreamingValidator validator, Validation validation)
+            throws IOException {
+        AggregatedViolations aggregated = new AggregatedViolations();
+        validator.setAggregatedViolations(aggregated);
+        validation.run();
+        return toModelList(aggregated);
+    }
+
+    private static List<Model> toModelList(AggregatedViolations aggregated) {
+        List<Model> models = new ArrayList<>();
+        for (AggregatedViolations.Group group : aggregated.getGroups()) {
+            Model m = new ExtendedModelMap();
+            m.addAttribute("satzTyp", group.getSatzTyp());
+            m.addAttribute("bezeichner", group.getBezeichner());
+            m.addAttribute("message", group.getRule());
+            m.addAttribute("count", group.getCount());
+            m.addAttribute("samples", group.getSamples());
+            models.add(m);
+        }
+        return models;
+    }
+
+    @FunctionalInterface
+    private interface Validation {
+        void run() throws IOException;
     }
 
     private static List<Model> toModelList(List<ConstraintViolation> violations) {